@@ -0,0 +1,58 @@
+package com.themoneygame.auth.application;
+
+import com.themoneygame.auth.infrastructure.UserRepository;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Текущий пользователь в рамках одного HTTP-запроса.
+ *
+ * id берётся из UserDetailsImpl в сессии — без запроса в БД; поиск по username
+ * остаётся только для чужих реализаций UserDetails и выполняется не больше
+ * одного раза за запрос. Вне потока запроса (SSE-воркеры и т.п.) бин недоступен —
+ * id нужно прочитать заранее.
+ */
+@Component
+@RequestScope
+public class AuthenticatedUser {
+
+    private final UserRepository userRepository;
+
+    private Long id;
+
+    public AuthenticatedUser(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * @throws ResponseStatusException 401, если запрос не аутентифицирован
+     */
+    public Long getId() {
+        if (id == null) {
+            id = resolve();
+        }
+        return id;
+    }
+
+    private Long resolve() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        Object principal = auth != null ? auth.getPrincipal() : null;
+
+        if (principal instanceof UserDetailsImpl userDetails) {
+            return userDetails.getId();
+        }
+        if (principal instanceof UserDetails userDetails) {
+            String username = userDetails.getUsername();
+            return userRepository.findByUsername(username)
+                    .orElseThrow(() -> new ResponseStatusException(
+                            HttpStatus.UNAUTHORIZED, "User not found: " + username))
+                    .getId();
+        }
+        throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "User is not authenticated");
+    }
+}
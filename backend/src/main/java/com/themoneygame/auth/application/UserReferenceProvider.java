@@ -0,0 +1,27 @@
+package com.themoneygame.auth.application;
+
+import com.themoneygame.auth.domain.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ссылка на пользователя для внешних ключей без чтения строки users
+ * (и EAGER-ролей) — как в MonthlyIncomeService.
+ *
+ * userId должен прийти из аутентификации: существование строки здесь
+ * не проверяется, несуществующий id упадёт на FK при вставке.
+ */
+@Component
+public class UserReferenceProvider {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public User reference(Long userId) {
+        if (userId == null) {
+            throw new IllegalStateException("userId is required");
+        }
+        return entityManager.getReference(User.class, userId);
+    }
+}
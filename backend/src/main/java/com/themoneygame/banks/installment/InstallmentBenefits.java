@@ -0,0 +1,15 @@
+package com.themoneygame.banks.installment;
+
+import java.math.BigDecimal;
+
+/**
+ * Результат расчёта одного варианта рассрочки: три "полосы" выгоды
+ * и параметры графика, из которых они получены.
+ */
+record InstallmentBenefits(
+        InstallmentScheduleEngine.Params schedule,
+        BigDecimal equal,
+        BigDecimal min,
+        BigDecimal cashback
+) {
+}
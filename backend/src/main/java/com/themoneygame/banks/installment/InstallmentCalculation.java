@@ -7,7 +7,10 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "installment_calculations")
+@Table(
+        name = "installment_calculations",
+        indexes = @Index(name = "idx_installment_calculations_user_created", columnList = "user_id, created_at")
+)
 public class InstallmentCalculation {
 
     @Id
@@ -47,6 +50,13 @@ public class InstallmentCalculation {
     @Column(nullable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
+    /**
+     * Помесячный график, упакованный InstallmentScheduleEngine.pack (если просили сохранить).
+     * null — график считается по входным параметрам при запросе.
+     */
+    @Column(name = "schedule_data", columnDefinition = "bytea")
+    private byte[] scheduleData;
+
     // ------- getters / setters -------
 
     public Long getId() {
@@ -136,4 +146,12 @@ public class InstallmentCalculation {
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
+
+    public byte[] getScheduleData() {
+        return scheduleData;
+    }
+
+    public void setScheduleData(byte[] scheduleData) {
+        this.scheduleData = scheduleData;
+    }
 }
@@ -1,49 +1,95 @@
 package com.themoneygame.banks.installment;
 
-import com.themoneygame.auth.domain.User;
-import com.themoneygame.auth.infrastructure.UserRepository;
+import com.themoneygame.auth.application.AuthenticatedUser;
+import com.themoneygame.banks.installment.dto.InstallmentCompareRequest;
+import com.themoneygame.banks.installment.dto.InstallmentCompareResult;
 import com.themoneygame.banks.installment.dto.InstallmentRequest;
 import com.themoneygame.banks.installment.dto.InstallmentResponse;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
+import com.themoneygame.banks.installment.dto.InstallmentScheduleRow;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api/banks/installment")
 public class InstallmentController {
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final InstallmentService service;
-    private final UserRepository userRepo;
+    private final AuthenticatedUser currentUser;
+    private final ObjectMapper objectMapper;
 
     public InstallmentController(InstallmentService service,
-                                 UserRepository userRepo) {
+                                 AuthenticatedUser currentUser,
+                                 ObjectMapper objectMapper) {
         this.service = service;
-        this.userRepo = userRepo;
+        this.currentUser = currentUser;
+        this.objectMapper = objectMapper;
     }
 
-    private Long getUserId(UserDetails ud) {
-        User u = userRepo.findByUsername(ud.getUsername())
-                .orElseThrow();
-        return u.getId();
+    @PostMapping("/calculate")
+    public InstallmentResponse calculate(@RequestBody InstallmentRequest req) {
+        try {
+            return service.calculateAndSave(currentUser.getId(), req);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
     }
 
-    @PostMapping("/calculate")
-    public InstallmentResponse calculate(
-            @AuthenticationPrincipal UserDetails ud,
-            @RequestBody InstallmentRequest req
-    ) {
-        return service.calculateAndSave(getUserId(ud), req);
+    /**
+     * Сравнить варианты рассрочки (сроки, ставки вкладов, кешбэк) для одной покупки.
+     * Ответ ранжирован по выгоде; выбранный вариант сохраняется обычным /calculate.
+     */
+    @PostMapping("/compare")
+    public List<InstallmentCompareResult> compare(@RequestBody InstallmentCompareRequest req) {
+        try {
+            return service.compare(req);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
     }
 
     @GetMapping("/history")
-    public List<InstallmentResponse> history(@AuthenticationPrincipal UserDetails ud) {
-        return service.getHistory(getUserId(ud));
+    public List<InstallmentResponse> history() {
+        return service.getHistory(currentUser.getId());
+    }
+
+    /**
+     * Помесячный график расчёта в NDJSON: одна строка InstallmentScheduleRow на месяц,
+     * строки пишутся по мере расчёта — длинный срок не собирается в память целиком.
+     */
+    @GetMapping("/{id}/schedule")
+    public ResponseEntity<StreamingResponseBody> schedule(@PathVariable Long id) {
+        Stream<InstallmentScheduleRow> rows;
+        try {
+            rows = service.getSchedule(currentUser.getId(), id);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        }
+
+        StreamingResponseBody body = out -> {
+            Iterator<InstallmentScheduleRow> it = rows.iterator();
+            while (it.hasNext()) {
+                out.write(objectMapper.writeValueAsBytes(it.next()));
+                out.write('\n');
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .body(body);
     }
 
     @DeleteMapping("/{id}")
-    public void delete(@AuthenticationPrincipal UserDetails ud, @PathVariable Long id) {
-        service.delete(getUserId(ud), id);
+    public void delete(@PathVariable Long id) {
+        service.delete(currentUser.getId(), id);
     }
 }
@@ -0,0 +1,221 @@
+package com.themoneygame.banks.installment;
+
+import com.themoneygame.banks.installment.dto.InstallmentScheduleRow;
+import com.themoneygame.core.util.PackedSeries;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.IntToLongFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * График "вклад + рассрочка" по месяцам в замкнутой форме.
+ *
+ * Модель та же, что в исходном расчёте: вся сумма покупки A лежит на вкладе,
+ * каждый месяц вклад растёт на r, затем с него списывается платёж P:
+ *
+ *   D(k) = A * (1+r)^k - P * ((1+r)^k - 1) / r
+ *
+ * Платёж постоянный для обеих стратегий, поэтому остаток за любой месяц считается
+ * независимо от остальных — цикла по месяцам с растущим BigDecimal нет.
+ * D(k) округляется до копейки так же, как округлял бы точный BigDecimal-цикл:
+ * считаем с запасом точности, а если значение лежит у самой границы полкопейки,
+ * пересчитываем точно.
+ *
+ * Строка графика строится из остатков в копейках: доход за месяц = D(k) - D(k-1) + P,
+ * накопленный доход — их сумма. Когда остаток вклада кончился, платежи идут
+ * не из него: остаток в графике не уходит ниже нуля, проценты не начисляются.
+ */
+public final class InstallmentScheduleEngine {
+
+    /** Больше строк в schedule_data не кладём — длинный график досчитывается при чтении. */
+    public static final int MAX_PERSISTED_MONTHS = 600;
+
+    private static final BigDecimal MIN_PAYMENT_SHARE = new BigDecimal("0.10");
+
+    /** Суммы графика хранятся в копейках в long — берём с запасом ниже Long.MAX_VALUE / 100. */
+    private static final double MAX_SCHEDULE_AMOUNT = 9.0e16;
+
+    /** Рабочая точность быстрого расчёта D(k): запаса хватает, чтобы ошибка была далеко за копейкой. */
+    private static final MathContext FAST = new MathContext(50, RoundingMode.HALF_EVEN);
+    private static final int FAST_ERROR_DIGITS = FAST.getPrecision() - 5;
+
+    private static final BigDecimal HALF = new BigDecimal("0.5");
+
+    private InstallmentScheduleEngine() {
+    }
+
+    /**
+     * Входные данные графика: сумма, платежи обеих стратегий и месячная ставка.
+     */
+    public record Params(BigDecimal amount,
+                         BigDecimal equalPayment,
+                         BigDecimal minPayment,
+                         BigDecimal monthlyRate,
+                         int months) {
+    }
+
+    /**
+     * Платежи и ставка — с теми же округлениями, что и в исходном BigDecimal-расчёте.
+     *
+     * @throws IllegalArgumentException срок меньше месяца или суммы графика не помещаются в копейки
+     */
+    public static Params params(BigDecimal amount, int months, BigDecimal depositRatePercent) {
+        if (months < 1) {
+            throw new IllegalArgumentException("months must be positive");
+        }
+        BigDecimal yearlyRate = depositRatePercent.divide(BigDecimal.valueOf(100), 8, RoundingMode.HALF_UP);
+        BigDecimal monthlyRate = yearlyRate.divide(BigDecimal.valueOf(12), 8, RoundingMode.HALF_UP);
+
+        // равные платежи
+        BigDecimal equalPayment = amount.divide(BigDecimal.valueOf(months), 2, RoundingMode.HALF_UP);
+
+        // минимальные платежи (условно 10% от суммы в месяц, но не меньше 1 ₽)
+        BigDecimal minPayment = amount.multiply(MIN_PAYMENT_SHARE).setScale(2, RoundingMode.HALF_UP);
+        if (minPayment.compareTo(BigDecimal.ONE) < 0) {
+            minPayment = BigDecimal.ONE;
+        }
+
+        // |D(k)| <= (|A| + P * n) * max(1, |1+r|)^n — грубая, но дешёвая оценка сверху
+        double growth = Math.pow(Math.max(1.0, Math.abs(1.0 + monthlyRate.doubleValue())), months);
+        double bound = (amount.abs().doubleValue() + equalPayment.max(minPayment).doubleValue() * months) * growth;
+        if (!(bound < MAX_SCHEDULE_AMOUNT)) {
+            throw new IllegalArgumentException("Installment schedule amounts are out of range");
+        }
+        return new Params(amount, equalPayment, minPayment, monthlyRate, months);
+    }
+
+    /**
+     * Остаток на вкладе после k месяцев в копейках (может быть отрицательным).
+     */
+    public static long depositCents(BigDecimal amount, BigDecimal payment, BigDecimal monthlyRate, int k) {
+        if (monthlyRate.signum() == 0) {
+            return PackedSeries.toCents(amount.subtract(payment.multiply(BigDecimal.valueOf(k))));
+        }
+        BigDecimal growth = BigDecimal.ONE.add(monthlyRate).pow(k, FAST);
+        BigDecimal paid = growth.subtract(BigDecimal.ONE).divide(monthlyRate, FAST);
+        BigDecimal approx = amount.multiply(growth).subtract(payment.multiply(paid));
+
+        // ошибка — единицы последнего знака FAST у (1+r)^k, после деления на r — у обоих слагаемых
+        BigDecimal error = amount.abs().multiply(growth.abs())
+                .add(payment.abs().multiply(growth.abs().max(BigDecimal.ONE)).divide(monthlyRate.abs(), FAST))
+                .movePointLeft(FAST_ERROR_DIGITS)
+                .movePointRight(2);
+        BigDecimal cents = approx.movePointRight(2);
+        BigDecimal fraction = cents.subtract(cents.setScale(0, RoundingMode.FLOOR));
+        if (fraction.subtract(HALF).abs().compareTo(error) > 0) {
+            return PackedSeries.toCents(approx);
+        }
+
+        // у границы полкопейки — точно: (1+r)^k - 1 делится на r без остатка
+        BigDecimal exactGrowth = BigDecimal.ONE.add(monthlyRate).pow(k);
+        BigDecimal exactPaid = exactGrowth.subtract(BigDecimal.ONE).divide(monthlyRate);
+        return PackedSeries.toCents(amount.multiply(exactGrowth).subtract(payment.multiply(exactPaid)));
+    }
+
+    /**
+     * Итоговая выгода стратегии: остаток вклада на конец срока, не меньше нуля.
+     */
+    public static BigDecimal benefit(Params p, BigDecimal payment) {
+        long deposit = depositCents(p.amount(), payment, p.monthlyRate(), p.months());
+        return PackedSeries.fromCents(Math.max(deposit, 0));
+    }
+
+    /**
+     * Строки графика 1..months. Поток ленивый: строки считаются по мере чтения.
+     */
+    public static Stream<InstallmentScheduleRow> rows(Params p) {
+        return schedule(p, p.months(),
+                k -> depositCents(p.amount(), p.equalPayment(), p.monthlyRate(), k),
+                k -> depositCents(p.amount(), p.minPayment(), p.monthlyRate(), k));
+    }
+
+    // --------- компактное хранение ---------
+
+    /**
+     * Остатки вклада обеих стратегий в копейках (без отсечения нулём) — остальное
+     * восстанавливается теми же формулами, что и в rows.
+     */
+    public static byte[] pack(Params p) {
+        long[][] cols = new long[2][p.months()];
+        for (int k = 1; k <= p.months(); k++) {
+            cols[0][k - 1] = depositCents(p.amount(), p.equalPayment(), p.monthlyRate(), k);
+            cols[1][k - 1] = depositCents(p.amount(), p.minPayment(), p.monthlyRate(), k);
+        }
+        return PackedSeries.encode(cols);
+    }
+
+    public static Stream<InstallmentScheduleRow> unpack(byte[] data, Params p) {
+        long[][] cols = PackedSeries.decode(data);
+        return schedule(p, cols[0].length, k -> cols[0][k - 1], k -> cols[1][k - 1]);
+    }
+
+    private static Stream<InstallmentScheduleRow> schedule(Params p, int months,
+                                                           IntToLongFunction equalDeposit,
+                                                           IntToLongFunction minDeposit) {
+        long amount = PackedSeries.toCents(p.amount());
+        Balance equal = new Balance(amount, p.equalPayment(), equalDeposit);
+        Balance min = new Balance(amount, p.minPayment(), minDeposit);
+
+        Iterator<InstallmentScheduleRow> it = new Iterator<>() {
+            private int k;
+
+            @Override
+            public boolean hasNext() {
+                return k < months;
+            }
+
+            @Override
+            public InstallmentScheduleRow next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                k++;
+                equal.advance(k);
+                min.advance(k);
+                return new InstallmentScheduleRow(k,
+                        equal.payment, PackedSeries.fromCents(equal.interest),
+                        PackedSeries.fromCents(equal.balance), PackedSeries.fromCents(equal.cumulative),
+                        min.payment, PackedSeries.fromCents(min.interest),
+                        PackedSeries.fromCents(min.balance), PackedSeries.fromCents(min.cumulative));
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliterator(it, months,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /** Одна стратегия графика: остаток D(k-1) и накопленный доход, суммы в копейках. */
+    private static final class Balance {
+
+        private final BigDecimal payment;
+        private final long paymentCents;
+        private final IntToLongFunction deposit;
+
+        private long previous;
+        private long interest;
+        private long balance;
+        private long cumulative;
+
+        Balance(long amount, BigDecimal payment, IntToLongFunction deposit) {
+            this.payment = payment;
+            this.paymentCents = PackedSeries.toCents(payment);
+            this.deposit = deposit;
+            this.previous = amount;
+        }
+
+        void advance(int k) {
+            long current = deposit.applyAsLong(k);
+            // пока остаток положителен, D(k) - D(k-1) + P ≈ D(k-1) * r >= 0; потом вклада нет
+            interest = previous > 0 ? current - previous + paymentCents : 0;
+            cumulative += interest;
+            balance = Math.max(current, 0);
+            previous = current;
+        }
+    }
+}
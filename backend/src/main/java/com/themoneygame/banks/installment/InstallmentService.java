@@ -1,15 +1,34 @@
 package com.themoneygame.banks.installment;
 
+import com.themoneygame.banks.installment.dto.InstallmentCompareRequest;
+import com.themoneygame.banks.installment.dto.InstallmentCompareResult;
 import com.themoneygame.banks.installment.dto.InstallmentRequest;
 import com.themoneygame.banks.installment.dto.InstallmentResponse;
+import com.themoneygame.banks.installment.dto.InstallmentScheduleRow;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface InstallmentService {
 
+    /**
+     * @throws IllegalArgumentException срок меньше месяца или суммы графика слишком велики
+     */
     InstallmentResponse calculateAndSave(Long userId, InstallmentRequest request);
 
+    /**
+     * Сравнение вариантов рассрочки для одной покупки, лучшие — первыми. Ничего не сохраняет.
+     */
+    List<InstallmentCompareResult> compare(InstallmentCompareRequest request);
+
     List<InstallmentResponse> getHistory(Long userId);
 
+    /**
+     * Помесячный график сохранённого расчёта (ленивый поток строк).
+     *
+     * @throws IllegalArgumentException расчёт не найден или принадлежит другому пользователю
+     */
+    Stream<InstallmentScheduleRow> getSchedule(Long userId, Long calculationId);
+
     void delete(Long userId, Long calculationId);
 }
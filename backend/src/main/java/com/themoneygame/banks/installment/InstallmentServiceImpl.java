@@ -1,36 +1,76 @@
 package com.themoneygame.banks.installment;
 
+import com.themoneygame.auth.application.UserReferenceProvider;
 import com.themoneygame.auth.domain.User;
-import com.themoneygame.auth.infrastructure.UserRepository;
 import com.themoneygame.banks.installment.dto.BenefitBars;
+import com.themoneygame.banks.installment.dto.InstallmentCompareRequest;
+import com.themoneygame.banks.installment.dto.InstallmentCompareResult;
 import com.themoneygame.banks.installment.dto.InstallmentRequest;
 import com.themoneygame.banks.installment.dto.InstallmentResponse;
+import com.themoneygame.banks.installment.dto.InstallmentScheduleRow;
+import com.themoneygame.banks.monitoring.domain.BankOffer;
+import com.themoneygame.banks.monitoring.domain.ProductType;
+import com.themoneygame.banks.monitoring.repository.BankOfferRepository;
+import com.themoneygame.core.cache.BoundedLruCache;
+import com.themoneygame.core.cache.CacheRegistry;
+import com.themoneygame.core.cache.CanonicalKey;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 public class InstallmentServiceImpl implements InstallmentService {
 
+    static final int MAX_COMPARE_VARIANTS = 500;
+    static final int MAX_COMPARE_CASES = 10_000;
+
     private final InstallmentCalculationRepository repo;
-    private final UserRepository userRepo;
+    private final UserReferenceProvider userReferences;
+    private final BankOfferRepository offerRepo;
+    private final BoundedLruCache<String, InstallmentBenefits> benefitsCache;
+    /** Сравнение вариантов считается здесь, а не в общем ForkJoinPool.commonPool(). */
+    private final ForkJoinPool comparePool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
 
     public InstallmentServiceImpl(InstallmentCalculationRepository repo,
-                                  UserRepository userRepo) {
+                                  UserReferenceProvider userReferences,
+                                  BankOfferRepository offerRepo,
+                                  CacheRegistry cacheRegistry,
+                                  @Value("${banks.installment.cache.max-entries:50000}") int maxEntries,
+                                  @Value("${banks.installment.cache.ttl:PT1H}") Duration ttl) {
         this.repo = repo;
-        this.userRepo = userRepo;
+        this.userReferences = userReferences;
+        this.offerRepo = offerRepo;
+        // значения фиксированного размера (~0.5 КБ), так что предел по числу записей — это и предел по памяти
+        this.benefitsCache = cacheRegistry.create("installment-results", maxEntries, ttl);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        comparePool.shutdownNow();
     }
 
     @Override
     public InstallmentResponse calculateAndSave(Long userId, InstallmentRequest r) {
 
-        User user = userRepo.findById(userId)
-                .orElseThrow(() -> new IllegalStateException("User not found: " + userId));
+        User user = userReferences.reference(userId);
 
         // безопасные значения по умолчанию
         BigDecimal amount       = nvl(r.getPurchaseAmount(), BigDecimal.ZERO);
@@ -41,41 +81,15 @@ public class InstallmentServiceImpl implements InstallmentService {
         boolean cashbackPercent = r.isCashbackPercent();
         BigDecimal cashbackVal  = nvl(r.getCashbackValue(), BigDecimal.ZERO);
 
-        // годовая ставка во вклад → месячная
-        BigDecimal yearlyRate   = depositRate.divide(BigDecimal.valueOf(100), 8, RoundingMode.HALF_UP);
-        BigDecimal monthlyRate  = yearlyRate.divide(BigDecimal.valueOf(12), 8, RoundingMode.HALF_UP);
-
-        // ----- Равные платежи -----
-        BigDecimal monthsBD = BigDecimal.valueOf(months);
-        BigDecimal monthlyEqualPayment = amount.divide(monthsBD, 2, RoundingMode.HALF_UP);
-
-        BigDecimal profitEqual = calcDepositProfit(amount, monthlyEqualPayment, months, monthlyRate);
-
-        // ----- Минимальные платежи (условно 10% от суммы в месяц) -----
-        BigDecimal minPayment = amount.multiply(new BigDecimal("0.10"))
-                .setScale(2, RoundingMode.HALF_UP);
-        if (minPayment.compareTo(BigDecimal.ONE) < 0) {
-            minPayment = BigDecimal.ONE;
-        }
-
-        BigDecimal profitMin = calcDepositProfit(amount, minPayment, months, monthlyRate);
-
-        // ----- Кешбэк -----
-        BigDecimal cashback;
-        if (cashbackPercent) {
-            cashback = amount.multiply(cashbackVal)
-                    .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
-        } else {
-            cashback = cashbackVal.setScale(2, RoundingMode.HALF_UP);
-        }
-
-        BigDecimal cashbackBenefit = cashback;
-
-        // если пользователь захотел учитывать кешбэк в выгоде
-        if (includeCashback) {
-            profitEqual = profitEqual.add(cashbackBenefit);
-            profitMin   = profitMin.add(cashbackBenefit);
-        }
+        // популярные сочетания (сумма, срок, ставка) повторяются — берём готовый результат;
+        // масштаб BigDecimal в ключе не важен (8 и 8.00 — один ключ)
+        String key = CanonicalKey.of(amount, months, depositRate, includeCashback, cashbackPercent, cashbackVal);
+        InstallmentBenefits benefits = benefitsCache.getOrCompute(key, k ->
+                computeBenefits(amount, months, depositRate, includeCashback, cashbackPercent, cashbackVal));
+        InstallmentScheduleEngine.Params schedule = benefits.schedule();
+        BigDecimal profitEqual = benefits.equal();
+        BigDecimal profitMin = benefits.min();
+        BigDecimal cashbackBenefit = benefits.cashback();
 
         // сохраняем сущность
         InstallmentCalculation c = new InstallmentCalculation();
@@ -89,6 +103,9 @@ public class InstallmentServiceImpl implements InstallmentService {
         c.setBenefitEqual(profitEqual);
         c.setBenefitMin(profitMin);
         c.setBenefitCashback(cashbackBenefit);
+        if (r.isSaveSchedule() && months <= InstallmentScheduleEngine.MAX_PERSISTED_MONTHS) {
+            c.setScheduleData(InstallmentScheduleEngine.pack(schedule));
+        }
 
         repo.save(c);
 
@@ -96,29 +113,146 @@ public class InstallmentServiceImpl implements InstallmentService {
     }
 
     /**
-     * Моделируем "вклад + рассрочку":
-     *  - на вкладе лежит вся сумма покупки
-     *  - каждый месяц вклад растёт на monthlyRate
-     *  - затем уменьшается на величину платежа
-     *  - итоговое значение и есть "выгода" (экономия от вклада)
+     * Сравнение вариантов: вклады читаются одним запросом, варианты считаются
+     * параллельно (каждый — замкнутая форма, без БД) и сортируются по выгоде
+     * равных платежей — только они гасят покупку ровно за срок, "минимальные"
+     * при коротком сроке оставляют долг и выглядели бы лучше, чем есть.
      */
-    private BigDecimal calcDepositProfit(BigDecimal initialAmount,
-                                         BigDecimal monthlyPayment,
-                                         int months,
-                                         BigDecimal monthlyRate) {
+    @Override
+    @Transactional(readOnly = true)
+    public List<InstallmentCompareResult> compare(InstallmentCompareRequest req) {
+        BigDecimal amount = nvl(req.getPurchaseAmount(), BigDecimal.ZERO);
+        List<InstallmentCompareRequest.Variant> variants = req.getVariants() != null ? req.getVariants() : List.of();
+        if (variants.isEmpty()) {
+            throw new IllegalArgumentException("variants must not be empty");
+        }
+        if (variants.size() > MAX_COMPARE_VARIANTS) {
+            throw new IllegalArgumentException("Too many variants, max " + MAX_COMPARE_VARIANTS);
+        }
 
-        BigDecimal deposit = initialAmount;
+        Map<Long, BankOffer> deposits = offerRepo.findByTypeOrderByUpdatedAtDesc(ProductType.DEPOSIT).stream()
+                .filter(o -> o.getInterestRate() != null)
+                .collect(Collectors.toMap(BankOffer::getId, Function.identity(), (a, b) -> a, LinkedHashMap::new));
+        List<BankOffer> suitable = deposits.values().stream()
+                .filter(o -> o.getMinDeposit() == null || o.getMinDeposit().compareTo(amount) <= 0)
+                .toList();
+
+        // разворачиваем варианты в пары (вариант, ставка)
+        List<CompareCase> cases = new ArrayList<>();
+        for (int i = 0; i < variants.size(); i++) {
+            InstallmentCompareRequest.Variant v = variants.get(i);
+            if (v == null) {
+                throw new IllegalArgumentException("variants[" + i + "] must not be null");
+            }
+            int months = v.getMonths() != null ? v.getMonths() : 1;
+            if (months < 1 || months > InstallmentScheduleEngine.MAX_PERSISTED_MONTHS) {
+                throw new IllegalArgumentException("variants[" + i + "].months must be between 1 and "
+                        + InstallmentScheduleEngine.MAX_PERSISTED_MONTHS);
+            }
+
+            if (v.getDepositRate() != null) {
+                cases.add(new CompareCase(i, v, months, v.getDepositRate(), null));
+            } else if (v.getDepositOfferId() != null) {
+                BankOffer offer = deposits.get(v.getDepositOfferId());
+                if (offer == null) {
+                    throw new IllegalArgumentException("Deposit offer not found: " + v.getDepositOfferId());
+                }
+                cases.add(new CompareCase(i, v, months, offer.getInterestRate(), offer));
+            } else {
+                for (BankOffer offer : suitable) {
+                    cases.add(new CompareCase(i, v, months, offer.getInterestRate(), offer));
+                }
+            }
+        }
+        if (cases.size() > MAX_COMPARE_CASES) {
+            throw new IllegalArgumentException("Too many combinations (" + cases.size()
+                    + "), max " + MAX_COMPARE_CASES + ": set depositRate or depositOfferId explicitly");
+        }
 
-        for (int i = 0; i < months; i++) {
-            deposit = deposit.multiply(BigDecimal.ONE.add(monthlyRate)); // проценты
-            deposit = deposit.subtract(monthlyPayment);                   // платёж
+        InstallmentBenefits[] results = new InstallmentBenefits[cases.size()];
+        inComparePool(() -> IntStream.range(0, cases.size()).parallel().forEach(k -> {
+            CompareCase c = cases.get(k);
+            results[k] = computeBenefits(amount, c.months(), c.depositRate(),
+                    c.variant().isIncludeCashback(), c.variant().isCashbackPercent(),
+                    nvl(c.variant().getCashbackValue(), BigDecimal.ZERO));
+        }));
+
+        Integer[] order = IntStream.range(0, cases.size()).boxed().toArray(Integer[]::new);
+        Arrays.sort(order, Comparator
+                .comparing((Integer k) -> results[k].equal(), Comparator.reverseOrder())
+                .thenComparingInt(k -> cases.get(k).months())
+                .thenComparingInt(k -> cases.get(k).index()));
+
+        List<InstallmentCompareResult> out = new ArrayList<>(order.length);
+        for (int rank = 0; rank < order.length; rank++) {
+            int k = order[rank];
+            CompareCase c = cases.get(k);
+            InstallmentBenefits b = results[k];
+            out.add(new InstallmentCompareResult(
+                    rank + 1, c.index(), c.variant().getLabel(), c.months(), c.depositRate(),
+                    c.offer() != null ? c.offer().getId() : null,
+                    c.offer() != null ? c.offer().getBankName() : null,
+                    c.offer() != null ? c.offer().getTitle() : null,
+                    b.equal(), b.min(), b.cashback()));
         }
+        return out;
+    }
 
-        // выгода не может быть отрицательной
-        if (deposit.compareTo(BigDecimal.ZERO) < 0) {
-            deposit = BigDecimal.ZERO;
+    private void inComparePool(Runnable task) {
+        try {
+            comparePool.submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Comparison interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IllegalStateException("Comparison failed", e.getCause());
         }
-        return deposit.setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private record CompareCase(int index,
+                               InstallmentCompareRequest.Variant variant,
+                               int months,
+                               BigDecimal depositRate,
+                               BankOffer offer) {
+    }
+
+    /**
+     * Выгода трёх "полос" для одного набора условий — без обращения к БД,
+     * общая для calculateAndSave и сравнения вариантов.
+     */
+    static InstallmentBenefits computeBenefits(BigDecimal amount,
+                                               int months,
+                                               BigDecimal depositRate,
+                                               boolean includeCashback,
+                                               boolean cashbackPercent,
+                                               BigDecimal cashbackVal) {
+        // платежи обеих стратегий и месячная ставка вклада
+        InstallmentScheduleEngine.Params schedule = InstallmentScheduleEngine.params(amount, months, depositRate);
+
+        // ----- Равные платежи -----
+        BigDecimal profitEqual = InstallmentScheduleEngine.benefit(schedule, schedule.equalPayment());
+
+        // ----- Минимальные платежи (условно 10% от суммы в месяц) -----
+        BigDecimal profitMin = InstallmentScheduleEngine.benefit(schedule, schedule.minPayment());
+
+        // ----- Кешбэк -----
+        BigDecimal cashback;
+        if (cashbackPercent) {
+            cashback = amount.multiply(cashbackVal)
+                    .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
+        } else {
+            cashback = cashbackVal.setScale(2, RoundingMode.HALF_UP);
+        }
+
+        // если пользователь захотел учитывать кешбэк в выгоде
+        if (includeCashback) {
+            profitEqual = profitEqual.add(cashback);
+            profitMin   = profitMin.add(cashback);
+        }
+        return new InstallmentBenefits(schedule, profitEqual, profitMin, cashback);
     }
 
     private InstallmentResponse toResponse(InstallmentCalculation c) {
@@ -147,16 +281,30 @@ public class InstallmentServiceImpl implements InstallmentService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * График берётся из schedule_data, если его сохранили, иначе считается
+     * по входным параметрам — строки в обоих случаях генерируются лениво.
+     */
     @Override
-    public void delete(Long userId, Long calculationId) {
+    @Transactional(readOnly = true)
+    public Stream<InstallmentScheduleRow> getSchedule(Long userId, Long calculationId) {
         InstallmentCalculation c = repo.findById(calculationId)
+                .filter(found -> found.getUser().getId().equals(userId))
                 .orElseThrow(() -> new IllegalArgumentException("Calculation not found: " + calculationId));
 
-        if (!c.getUser().getId().equals(userId)) {
-            throw new SecurityException("Cannot delete another user's calculation");
-        }
+        InstallmentScheduleEngine.Params schedule =
+                InstallmentScheduleEngine.params(c.getPurchaseAmount(), c.getMonths(), c.getDepositRate());
+
+        return c.getScheduleData() != null
+                ? InstallmentScheduleEngine.unpack(c.getScheduleData(), schedule)
+                : InstallmentScheduleEngine.rows(schedule);
+    }
 
-        repo.delete(c);
+    @Override
+    public void delete(Long userId, Long calculationId) {
+        if (repo.deleteByIdAndUserId(calculationId, userId) == 0) {
+            throw new IllegalArgumentException("Calculation not found: " + calculationId);
+        }
     }
 
     // helper: null → дефолт
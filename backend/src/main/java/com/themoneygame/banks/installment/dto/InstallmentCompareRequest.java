@@ -0,0 +1,107 @@
+package com.themoneygame.banks.installment.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Сравнение вариантов рассрочки для одной покупки.
+ *
+ * Ставка вклада для варианта берётся так:
+ *  - depositRate задан — он;
+ *  - задан depositOfferId — ставка этого вклада из мониторинга банков;
+ *  - иначе вариант сравнивается со всеми вкладами (ProductType.DEPOSIT),
+ *    у которых minDeposit не больше суммы покупки.
+ */
+public class InstallmentCompareRequest {
+
+    // сумма покупки (общая для всех вариантов)
+    private BigDecimal purchaseAmount;
+
+    private List<Variant> variants;
+
+    public static class Variant {
+
+        private String label;              // подпись для фронта ("Карта А, 12 мес.")
+        private Integer months;            // срок рассрочки в месяцах
+        private BigDecimal depositRate;    // ставка вклада (% годовых)
+        private Long depositOfferId;       // или вклад из мониторинга банков
+
+        private boolean includeCashback;
+        private boolean cashbackPercent;
+        private BigDecimal cashbackValue;
+
+        public String getLabel() {
+            return label;
+        }
+
+        public void setLabel(String label) {
+            this.label = label;
+        }
+
+        public Integer getMonths() {
+            return months;
+        }
+
+        public void setMonths(Integer months) {
+            this.months = months;
+        }
+
+        public BigDecimal getDepositRate() {
+            return depositRate;
+        }
+
+        public void setDepositRate(BigDecimal depositRate) {
+            this.depositRate = depositRate;
+        }
+
+        public Long getDepositOfferId() {
+            return depositOfferId;
+        }
+
+        public void setDepositOfferId(Long depositOfferId) {
+            this.depositOfferId = depositOfferId;
+        }
+
+        public boolean isIncludeCashback() {
+            return includeCashback;
+        }
+
+        public void setIncludeCashback(boolean includeCashback) {
+            this.includeCashback = includeCashback;
+        }
+
+        public boolean isCashbackPercent() {
+            return cashbackPercent;
+        }
+
+        public void setCashbackPercent(boolean cashbackPercent) {
+            this.cashbackPercent = cashbackPercent;
+        }
+
+        public BigDecimal getCashbackValue() {
+            return cashbackValue;
+        }
+
+        public void setCashbackValue(BigDecimal cashbackValue) {
+            this.cashbackValue = cashbackValue;
+        }
+    }
+
+    // -------- getters / setters --------
+
+    public BigDecimal getPurchaseAmount() {
+        return purchaseAmount;
+    }
+
+    public void setPurchaseAmount(BigDecimal purchaseAmount) {
+        this.purchaseAmount = purchaseAmount;
+    }
+
+    public List<Variant> getVariants() {
+        return variants;
+    }
+
+    public void setVariants(List<Variant> variants) {
+        this.variants = variants;
+    }
+}
@@ -0,0 +1,22 @@
+package com.themoneygame.banks.installment.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Один вариант в ранжированном сравнении (по equalBenefit). Ничего не сохраняется:
+ * выбранный вариант фронт отправляет обычным POST /calculate.
+ */
+public record InstallmentCompareResult(
+        int rank,
+        int variantIndex,          // индекс варианта в запросе
+        String label,
+        int months,
+        BigDecimal depositRate,
+        Long depositOfferId,       // null — ставка задана вручную
+        String bankName,
+        String offerTitle,
+        BigDecimal equalBenefit,
+        BigDecimal minBenefit,
+        BigDecimal cashbackBenefit
+) {
+}
@@ -22,6 +22,9 @@ public class InstallmentRequest {
     // либо % кешбэка, либо рубли — в зависимости от cashbackPercent
     private BigDecimal cashbackValue;
 
+    // сохранить помесячный график вместе с расчётом (для повторного открытия без пересчёта)
+    private boolean saveSchedule;
+
     // -------- getters / setters --------
 
     public BigDecimal getPurchaseAmount() {
@@ -71,4 +74,12 @@ public class InstallmentRequest {
     public void setCashbackValue(BigDecimal cashbackValue) {
         this.cashbackValue = cashbackValue;
     }
+
+    public boolean isSaveSchedule() {
+        return saveSchedule;
+    }
+
+    public void setSaveSchedule(boolean saveSchedule) {
+        this.saveSchedule = saveSchedule;
+    }
 }
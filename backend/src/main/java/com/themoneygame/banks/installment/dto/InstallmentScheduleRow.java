@@ -0,0 +1,90 @@
+package com.themoneygame.banks.installment.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Одна строка помесячного графика "вклад + рассрочка" сразу для двух стратегий.
+ *
+ *  - payment           — платёж по рассрочке в этом месяце;
+ *  - interest          — проценты вклада за месяц;
+ *  - depositBalance    — остаток на вкладе после процентов и платежа;
+ *  - cumulativeBenefit — накопленный доход вклада с начала срока.
+ *
+ * Остаток не уходит ниже нуля: когда вклад кончился, платежи идут не из него,
+ * проценты больше не начисляются и накопленный доход не меняется.
+ */
+public class InstallmentScheduleRow {
+
+    private int month;
+
+    private BigDecimal equalPayment;
+    private BigDecimal equalInterest;
+    private BigDecimal equalDepositBalance;
+    private BigDecimal equalCumulativeBenefit;
+
+    private BigDecimal minPayment;
+    private BigDecimal minInterest;
+    private BigDecimal minDepositBalance;
+    private BigDecimal minCumulativeBenefit;
+
+    public InstallmentScheduleRow() {
+    }
+
+    public InstallmentScheduleRow(int month,
+                                  BigDecimal equalPayment,
+                                  BigDecimal equalInterest,
+                                  BigDecimal equalDepositBalance,
+                                  BigDecimal equalCumulativeBenefit,
+                                  BigDecimal minPayment,
+                                  BigDecimal minInterest,
+                                  BigDecimal minDepositBalance,
+                                  BigDecimal minCumulativeBenefit) {
+        this.month = month;
+        this.equalPayment = equalPayment;
+        this.equalInterest = equalInterest;
+        this.equalDepositBalance = equalDepositBalance;
+        this.equalCumulativeBenefit = equalCumulativeBenefit;
+        this.minPayment = minPayment;
+        this.minInterest = minInterest;
+        this.minDepositBalance = minDepositBalance;
+        this.minCumulativeBenefit = minCumulativeBenefit;
+    }
+
+    // -------- getters --------
+
+    public int getMonth() {
+        return month;
+    }
+
+    public BigDecimal getEqualPayment() {
+        return equalPayment;
+    }
+
+    public BigDecimal getEqualInterest() {
+        return equalInterest;
+    }
+
+    public BigDecimal getEqualDepositBalance() {
+        return equalDepositBalance;
+    }
+
+    public BigDecimal getEqualCumulativeBenefit() {
+        return equalCumulativeBenefit;
+    }
+
+    public BigDecimal getMinPayment() {
+        return minPayment;
+    }
+
+    public BigDecimal getMinInterest() {
+        return minInterest;
+    }
+
+    public BigDecimal getMinDepositBalance() {
+        return minDepositBalance;
+    }
+
+    public BigDecimal getMinCumulativeBenefit() {
+        return minCumulativeBenefit;
+    }
+}
@@ -0,0 +1,385 @@
+package com.themoneygame.budget.application;
+
+import com.themoneygame.budget.domain.Account;
+import com.themoneygame.budget.domain.AccountBalanceCheckpoint;
+import com.themoneygame.budget.domain.Transaction;
+import com.themoneygame.budget.domain.enums.AccountType;
+import com.themoneygame.budget.domain.enums.CheckpointKind;
+import com.themoneygame.budget.domain.enums.TransactionType;
+import com.themoneygame.budget.domain.event.BudgetDataChangedEvent;
+import com.themoneygame.budget.infrastructure.AccountBalanceCheckpointRepository;
+import com.themoneygame.budget.infrastructure.AccountRepository;
+import com.themoneygame.budget.infrastructure.TransactionRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Баланс счёта во времени: транзакции — журнал изменений,
+ * AccountBalanceCheckpoint — отметки баланса на даты.
+ *
+ * Баланс на дату = ближайшая отметка + сумма транзакций между отметкой и датой.
+ * Отметки ROLLUP стоят на конце каждого месяца истории счёта: вперёд от последней
+ * их ставит ежемесячный rollup, назад до первой транзакции — extendHistory.
+ * Поэтому сканируется не больше месяца транзакций одного счёта.
+ *
+ * Новая транзакция не сбрасывает отметки, а сдвигает все отметки начиная
+ * со своей даты на свою сумму — они сразу остаются согласованными с журналом.
+ * Ручная отметка — баланс, известный на момент её ввода: транзакции, введённые
+ * позже, ложатся поверх неё, даже если датированы раньше. Тем же путём они
+ * двигают Account.balance (баланс на сегодня, его показывает дэшборд); будущие
+ * по дате попадают в него в свой день (syncBalances). Любое изменение
+ * Account.balance публикует BudgetDataChangedEvent — кэш дэшборда сбрасывается.
+ *
+ * История счёта начинается с самой ранней отметки: раньше неё баланс равен нулю,
+ * а в истории капитала на эту дату лежит начальный баланс счёта. Так история
+ * капитала в любой день совпадает с суммой balanceAsOf по счетам.
+ *
+ * Все изменения журнала проходят через этот сервис и заодно попадают
+ * в историю капитала (NetWorthService).
+ */
+@Service
+public class AccountLedgerService {
+
+    private final AccountBalanceCheckpointRepository checkpointRepository;
+    private final TransactionRepository transactionRepository;
+    private final AccountRepository accountRepository;
+    private final NetWorthService netWorthService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public AccountLedgerService(AccountBalanceCheckpointRepository checkpointRepository,
+                                TransactionRepository transactionRepository,
+                                AccountRepository accountRepository,
+                                NetWorthService netWorthService,
+                                ApplicationEventPublisher eventPublisher) {
+        this.checkpointRepository = checkpointRepository;
+        this.transactionRepository = transactionRepository;
+        this.accountRepository = accountRepository;
+        this.netWorthService = netWorthService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Баланс счёта на конец дня date; до начала истории счёта — ноль.
+     * Если отметок нет совсем — берём текущий баланс счёта как есть.
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal balanceAsOf(Account account, LocalDate date) {
+        Long accountId = account.getId();
+
+        Optional<AccountBalanceCheckpoint> before =
+                checkpointRepository.findFirstByAccountIdAndAsOfLessThanEqualOrderByAsOfDesc(accountId, date);
+        if (before.isPresent()) {
+            AccountBalanceCheckpoint cp = before.get();
+            return cp.getBalance().add(
+                    transactionRepository.sumSignedAmount(accountId, cp.getAsOf(), date));
+        }
+
+        return checkpointRepository.existsByAccountId(accountId) ? BigDecimal.ZERO : account.getBalance();
+    }
+
+    /**
+     * Пользователь выставил баланс счёта вручную — фиксируем его на дату.
+     * Отметка за ту же дату перезаписывается.
+     */
+    @Transactional
+    public void anchor(Account account, LocalDate date) {
+        // у нового счёта отметок нет — весь его баланс появился сегодня
+        BigDecimal previous = checkpointRepository.existsByAccountId(account.getId())
+                ? balanceAsOf(account, date)
+                : BigDecimal.ZERO;
+
+        AccountBalanceCheckpoint cp = checkpointRepository.findByAccountIdAndAsOf(account.getId(), date)
+                .orElseGet(() -> new AccountBalanceCheckpoint(account, date, account.getBalance(), CheckpointKind.MANUAL));
+
+        cp.setBalance(account.getBalance());
+        cp.setKind(CheckpointKind.MANUAL);
+        checkpointRepository.save(cp);
+
+        // отметки после ручной получают ту же поправку
+        BigDecimal delta = account.getBalance().subtract(previous);
+        checkpointRepository.shiftFrom(account.getId(), date.plusDays(1), delta);
+
+        recordChange(account, account.getType(), date, delta);
+    }
+
+    /**
+     * Тип счёта поменялся — его баланс переезжает в другую группу истории капитала.
+     */
+    @Transactional
+    public void reclassify(Account account, AccountType oldType, LocalDate date) {
+        BigDecimal balance = balanceAsOf(account, date);
+        recordChange(account, oldType, date, balance.negate());
+        recordChange(account, account.getType(), date, balance);
+    }
+
+    @Transactional
+    public void onTransactionAdded(Transaction tx) {
+        onTransactionChanged(tx.getAccount(), tx.getDate(), signedAmount(tx));
+    }
+
+    @Transactional
+    public void onTransactionRemoved(Transaction tx) {
+        onTransactionChanged(tx.getAccount(), tx.getDate(), signedAmount(tx).negate());
+    }
+
+    /**
+     * Массовая вставка транзакций мимо JPA (импорт выписки).
+     *
+     * @param deltasByAccount суммы новых транзакций по счетам и датам
+     * @param changes         изменения балансов для истории капитала
+     */
+    @Transactional
+    public void onTransactionsImported(Long userId,
+                                       Map<Long, SortedMap<LocalDate, BigDecimal>> deltasByAccount,
+                                       Collection<BalanceChange> changes) {
+        List<BalanceChange> all = new ArrayList<>(changes);
+        deltasByAccount.forEach((accountId, deltas) ->
+                all.addAll(applyChanges(userId, accountRepository.getReferenceById(accountId), deltas)));
+        netWorthService.record(userId, all);
+    }
+
+    /**
+     * Подтягивает Account.balance к балансу на дату today у счетов с транзакциями
+     * за [from, today]: транзакции с будущей датой в момент ввода баланс не двигали.
+     * Повторный вызов ничего не меняет.
+     *
+     * @return сколько счетов обновлено
+     */
+    @Transactional
+    public int syncBalances(LocalDate from, LocalDate today) {
+        int updated = 0;
+        Set<Long> users = new HashSet<>();
+        for (Account account : accountRepository.findAllById(transactionRepository.findAccountIdsByDateBetween(from, today))) {
+            BigDecimal balance = balanceAsOf(account, today);
+            if (balance.compareTo(account.getBalance()) != 0) {
+                account.setBalance(balance);
+                users.add(account.getUser().getId());
+                updated++;
+            }
+        }
+        users.forEach(this::balanceChanged);
+        return updated;
+    }
+
+    /**
+     * Счёт удаляется: его баланс уходит из истории капитала с сегодняшнего дня.
+     */
+    @Transactional
+    public void deleteForAccount(Account account) {
+        LocalDate today = LocalDate.now();
+        recordChange(account, account.getType(), today, balanceAsOf(account, today).negate());
+        checkpointRepository.deleteByAccountId(account.getId());
+    }
+
+    /**
+     * Первичное заполнение истории капитала пользователя из журнала:
+     * дневные суммы транзакций + начальный баланс каждого счёта
+     * в день его самой ранней отметки (или сегодня, если отметок нет).
+     */
+    @Transactional
+    public void seedNetWorth(Long userId) {
+        List<BalanceChange> changes = new ArrayList<>();
+
+        transactionRepository.sumSignedAmountByDayAndAccountType(userId).forEach(row ->
+                changes.add(new BalanceChange(row.accountType(), row.date(), row.amount())));
+
+        LocalDate today = LocalDate.now();
+        for (Account account : accountRepository.findByUserId(userId)) {
+            LocalDate start = checkpointRepository.findFirstByAccountIdOrderByAsOfAsc(account.getId())
+                    .map(AccountBalanceCheckpoint::getAsOf)
+                    .orElse(today);
+
+            // баланс на конец start минус транзакции самого дня start — то, с чем счёт начался
+            BigDecimal opening = balanceAsOf(account, start)
+                    .subtract(transactionRepository.sumSignedAmount(account.getId(), start.minusDays(1), start));
+            changes.add(new BalanceChange(account.getType(), start, opening));
+        }
+
+        netWorthService.record(userId, changes);
+    }
+
+    /**
+     * Ставит отметки ROLLUP на конец каждого месяца от последней отметки
+     * счёта до upTo включительно. Счёт без отметок пропускается.
+     *
+     * @return сколько отметок создано
+     */
+    @Transactional
+    public int rollup(Long accountId, YearMonth upTo) {
+        Optional<AccountBalanceCheckpoint> latest =
+                checkpointRepository.findFirstByAccountIdAndAsOfLessThanEqualOrderByAsOfDesc(accountId, upTo.atEndOfMonth());
+        if (latest.isEmpty()) {
+            return 0;
+        }
+
+        Account account = accountRepository.getReferenceById(accountId);
+        LocalDate prevDate = latest.get().getAsOf();
+        BigDecimal balance = latest.get().getBalance();
+
+        int created = 0;
+        for (YearMonth ym = YearMonth.from(prevDate); !ym.isAfter(upTo); ym = ym.plusMonths(1)) {
+            LocalDate monthEnd = ym.atEndOfMonth();
+            if (!monthEnd.isAfter(prevDate)) {
+                continue; // отметка уже стоит ровно на конец месяца
+            }
+
+            balance = balance.add(transactionRepository.sumSignedAmount(accountId, prevDate, monthEnd));
+            checkpointRepository.save(new AccountBalanceCheckpoint(account, monthEnd, balance, CheckpointKind.ROLLUP));
+
+            prevDate = monthEnd;
+            created++;
+        }
+        return created;
+    }
+
+    /**
+     * Достраивает отметки назад от самой ранней до первой транзакции счёта:
+     * ROLLUP на конец каждого месяца и на дату первой транзакции.
+     * Нужно счетам, у которых история началась с отметки на сегодня
+     * (LedgerAnchorBackfill), а транзакции лежат в прошлом.
+     *
+     * @return сколько отметок создано
+     */
+    @Transactional
+    public int extendHistory(Long accountId) {
+        LocalDate firstTx = transactionRepository.findFirstDate(accountId);
+        Optional<AccountBalanceCheckpoint> earliest = checkpointRepository.findFirstByAccountIdOrderByAsOfAsc(accountId);
+        if (firstTx == null || earliest.isEmpty() || !firstTx.isBefore(earliest.get().getAsOf())) {
+            return 0;
+        }
+        return extendHistory(accountRepository.getReferenceById(accountId), firstTx,
+                earliest.get().getAsOf(), earliest.get().getBalance());
+    }
+
+    /**
+     * Начальные отметки счетам, у которых их ещё нет (см. LedgerAnchorBackfill).
+     */
+    @Transactional
+    public int anchorMissing() {
+        return checkpointRepository.insertMissingAnchors();
+    }
+
+    // ---- helpers ----
+
+    private void onTransactionChanged(Account account, LocalDate date, BigDecimal delta) {
+        Long userId = account.getUser().getId();
+        List<BalanceChange> changes = new ArrayList<>(applyChanges(userId, account, new TreeMap<>(Map.of(date, delta))));
+        changes.add(new BalanceChange(account.getType(), date, delta));
+        netWorthService.record(userId, changes);
+    }
+
+    /**
+     * Новые (или удалённые) транзакции счёта: суммы по датам.
+     * Все отметки сдвигаются, начиная с даты каждой суммы, суммы по сегодня
+     * включительно ложатся в Account.balance, а если транзакции раньше начала
+     * истории — она достраивается назад от уже сдвинутой самой ранней отметки.
+     *
+     * @return перенос начального баланса в истории капитала, если история счёта
+     * стала начинаться раньше (сами суммы вызывающий записывает сам)
+     */
+    private List<BalanceChange> applyChanges(Long userId, Account account, SortedMap<LocalDate, BigDecimal> deltas) {
+        Long accountId = account.getId();
+        LocalDate from = deltas.firstKey();
+        Optional<AccountBalanceCheckpoint> earliest = checkpointRepository.findFirstByAccountIdOrderByAsOfAsc(accountId);
+
+        List<BalanceChange> moved = List.of();
+        LocalDate start = null;
+        BigDecimal startBalance = null;
+        if (earliest.isPresent() && from.isBefore(earliest.get().getAsOf())) {
+            // начальный баланс = отметка минус транзакции её дня (новые в отметке ещё не учтены);
+            // переезжает на from
+            start = earliest.get().getAsOf();
+            BigDecimal opening = earliest.get().getBalance()
+                    .subtract(transactionRepository.sumSignedAmount(accountId, start.minusDays(1), start))
+                    .add(deltas.getOrDefault(start, BigDecimal.ZERO));
+            moved = List.of(
+                    new BalanceChange(account.getType(), start, opening.negate()),
+                    new BalanceChange(account.getType(), from, opening));
+
+            // отметка start после сдвига ниже; bulk update загруженную сущность не обновит
+            startBalance = earliest.get().getBalance().add(
+                    deltas.headMap(start.plusDays(1)).values().stream().reduce(BigDecimal.ZERO, BigDecimal::add));
+        }
+
+        LocalDate today = LocalDate.now();
+        BigDecimal current = BigDecimal.ZERO;
+        for (Map.Entry<LocalDate, BigDecimal> e : deltas.entrySet()) {
+            if (e.getValue().signum() == 0) {
+                continue;
+            }
+            checkpointRepository.shiftFrom(accountId, e.getKey(), e.getValue());
+            if (!e.getKey().isAfter(today)) {
+                current = current.add(e.getValue());
+            }
+        }
+        if (current.signum() != 0) {
+            accountRepository.addToBalance(accountId, current);
+            balanceChanged(userId);
+        } else {
+            // баланс не сдвинулся (будущие даты) — устарели только месяцы самих транзакций
+            deltas.keySet().stream().map(YearMonth::from).distinct().forEach(month ->
+                    eventPublisher.publishEvent(BudgetDataChangedEvent.forMonth(userId, month)));
+        }
+
+        if (start != null) {
+            extendHistory(account, from, start, startBalance);
+        }
+        return moved;
+    }
+
+    /**
+     * Отметки ROLLUP на конец каждого месяца в [from, start) и на саму дату from,
+     * назад от отметки start с балансом startBalance.
+     */
+    private int extendHistory(Account account, LocalDate from, LocalDate start, BigDecimal startBalance) {
+        Long accountId = account.getId();
+        LocalDate nextDate = start;
+        BigDecimal balance = startBalance;
+
+        int created = 0;
+        for (LocalDate monthEnd = YearMonth.from(nextDate).minusMonths(1).atEndOfMonth();
+             !monthEnd.isBefore(from);
+             monthEnd = YearMonth.from(monthEnd).minusMonths(1).atEndOfMonth()) {
+            balance = balance.subtract(transactionRepository.sumSignedAmount(accountId, monthEnd, nextDate));
+            checkpointRepository.save(new AccountBalanceCheckpoint(account, monthEnd, balance, CheckpointKind.ROLLUP));
+            nextDate = monthEnd;
+            created++;
+        }
+
+        // первая транзакция не в последний день месяца — отметка и на её дату
+        if (from.isBefore(nextDate)) {
+            balance = balance.subtract(transactionRepository.sumSignedAmount(accountId, from, nextDate));
+            checkpointRepository.save(new AccountBalanceCheckpoint(account, from, balance, CheckpointKind.ROLLUP));
+            created++;
+        }
+        return created;
+    }
+
+    // Account.balance показывает дэшборд — его снимки пользователя устарели
+    private void balanceChanged(Long userId) {
+        eventPublisher.publishEvent(BudgetDataChangedEvent.allMonths(userId));
+    }
+
+    private void recordChange(Account account, AccountType type, LocalDate date, BigDecimal delta) {
+        netWorthService.record(account.getUser().getId(), List.of(new BalanceChange(type, date, delta)));
+    }
+
+    // INCOME — приход на счёт, всё остальное — списание
+    public static BigDecimal signedAmount(Transaction tx) {
+        return tx.getType() == TransactionType.INCOME ? tx.getAmount() : tx.getAmount().negate();
+    }
+}
@@ -4,10 +4,14 @@ package com.themoneygame.budget.application;
 import com.themoneygame.auth.domain.User;
 import com.themoneygame.budget.domain.Account;
 import com.themoneygame.budget.domain.enums.AccountType;
+import com.themoneygame.budget.domain.event.BudgetDataChangedEvent;
 import com.themoneygame.budget.infrastructure.AccountRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 
 @Service
@@ -15,11 +19,29 @@ public class AccountService {
 
     private final AccountRepository accountRepository;
     private final BankService bankService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AccountLedgerService ledgerService;
 
     public AccountService(AccountRepository accountRepository,
-                          BankService bankService) {
+                          BankService bankService,
+                          ApplicationEventPublisher eventPublisher,
+                          AccountLedgerService ledgerService) {
         this.accountRepository = accountRepository;
         this.bankService = bankService;
+        this.eventPublisher = eventPublisher;
+        this.ledgerService = ledgerService;
+    }
+
+    // баланс счёта пользователя на конец дня date
+    public BigDecimal getBalanceAsOf(User user, Long accountId, LocalDate date) {
+        Account existing = accountRepository.findById(accountId)
+                .orElseThrow(() -> new RuntimeException("Account not found"));
+
+        if (!existing.getUser().getId().equals(user.getId())) {
+            throw new RuntimeException("Forbidden: account does not belong to current user");
+        }
+
+        return ledgerService.balanceAsOf(existing, date);
     }
 
     public List<Account> getAccountsForUser(User user) {
@@ -35,7 +57,10 @@ public class AccountService {
 
         applyAccountBusinessRules(user, newAccount, null);
 
-        return accountRepository.save(newAccount);
+        Account saved = accountRepository.save(newAccount);
+        ledgerService.anchor(saved, LocalDate.now());
+        eventPublisher.publishEvent(BudgetDataChangedEvent.allMonths(user.getId()));
+        return saved;
     }
 
     @Transactional
@@ -47,6 +72,10 @@ public class AccountService {
             throw new RuntimeException("Forbidden: account does not belong to current user");
         }
 
+        AccountType oldType = existing.getType();
+        boolean balanceChanged = existing.getBalance().compareTo(
+                updatedData.getBalance() != null ? updatedData.getBalance() : BigDecimal.ZERO) != 0;
+
         existing.setBankName(updatedData.getBankName());
         existing.setName(updatedData.getName());
         existing.setType(updatedData.getType());
@@ -60,7 +89,15 @@ public class AccountService {
 
         applyAccountBusinessRules(user, existing, existing.getId());
 
-        return accountRepository.save(existing);
+        Account saved = accountRepository.save(existing);
+        if (oldType != saved.getType()) {
+            ledgerService.reclassify(saved, oldType, LocalDate.now());
+        }
+        if (balanceChanged) {
+            ledgerService.anchor(saved, LocalDate.now());
+        }
+        eventPublisher.publishEvent(BudgetDataChangedEvent.allMonths(user.getId()));
+        return saved;
     }
 
     @Transactional
@@ -72,7 +109,9 @@ public class AccountService {
             throw new RuntimeException("Forbidden: account does not belong to current user");
         }
 
+        ledgerService.deleteForAccount(existing);
         accountRepository.delete(existing);
+        eventPublisher.publishEvent(BudgetDataChangedEvent.allMonths(user.getId()));
     }
 
     @Transactional
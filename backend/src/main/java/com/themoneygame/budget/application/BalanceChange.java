@@ -0,0 +1,12 @@
+package com.themoneygame.budget.application;
+
+import com.themoneygame.budget.domain.enums.AccountType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Изменение баланса счёта данного типа на дату (для истории капитала).
+ */
+public record BalanceChange(AccountType accountType, LocalDate date, BigDecimal delta) {
+}
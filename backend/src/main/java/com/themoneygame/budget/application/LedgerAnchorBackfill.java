@@ -0,0 +1,51 @@
+package com.themoneygame.budget.application;
+
+import com.themoneygame.budget.infrastructure.AccountRepository;
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Счетам, созданным до появления журнала баланса, ставит начальную
+ * отметку MANUAL = текущий баланс на сегодня, а затем достраивает
+ * отметки назад до первой транзакции (AccountLedgerService.extendHistory).
+ * Идемпотентно: счёт с уже достроенной историей обходится двумя запросами.
+ * Каждый счёт — в своей транзакции, чтобы сбой одного не откатывал остальные.
+ */
+@Component
+@Order(10)
+public class LedgerAnchorBackfill implements CommandLineRunner {
+
+    private static final Logger log = LogManager.getLogger(LedgerAnchorBackfill.class);
+
+    private final AccountRepository accountRepository;
+    private final AccountLedgerService ledgerService;
+
+    public LedgerAnchorBackfill(AccountRepository accountRepository,
+                                AccountLedgerService ledgerService) {
+        this.accountRepository = accountRepository;
+        this.ledgerService = ledgerService;
+    }
+
+    @Override
+    public void run(String... args) {
+        int anchored = ledgerService.anchorMissing();
+        if (anchored > 0) {
+            log.info("Ledger anchors created for " + anchored + " accounts");
+        }
+
+        int created = 0;
+        for (Long accountId : accountRepository.findAllIds()) {
+            try {
+                created += ledgerService.extendHistory(accountId);
+            } catch (RuntimeException e) {
+                log.error("Ledger history backfill failed for account " + accountId, e);
+            }
+        }
+        if (created > 0) {
+            log.info("Ledger history backfill: " + created + " checkpoints created");
+        }
+    }
+}
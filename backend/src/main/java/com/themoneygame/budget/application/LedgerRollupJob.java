@@ -0,0 +1,60 @@
+package com.themoneygame.budget.application;
+
+import com.themoneygame.budget.infrastructure.AccountRepository;
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+/**
+ * Раз в месяц досчитывает отметки баланса на конец прошедших месяцев
+ * по всем счетам (см. AccountLedgerService.rollup).
+ * Каждый счёт — в своей транзакции, чтобы сбой одного не откатывал остальные.
+ *
+ * Раз в день переносит в Account.balance транзакции, чья дата наступила
+ * (см. AccountLedgerService.syncBalances).
+ */
+@Component
+public class LedgerRollupJob {
+
+    private static final Logger log = LogManager.getLogger(LedgerRollupJob.class);
+
+    // запас на дни, когда приложение не работало: повторная синхронизация ничего не меняет
+    private static final int DUE_LOOKBACK_DAYS = 7;
+
+    private final AccountRepository accountRepository;
+    private final AccountLedgerService ledgerService;
+
+    public LedgerRollupJob(AccountRepository accountRepository,
+                           AccountLedgerService ledgerService) {
+        this.accountRepository = accountRepository;
+        this.ledgerService = ledgerService;
+    }
+
+    @Scheduled(cron = "${budget.ledger.rollup-cron:0 30 3 1 * *}")
+    public void rollupPreviousMonth() {
+        YearMonth upTo = YearMonth.now().minusMonths(1);
+
+        int created = 0;
+        for (Long accountId : accountRepository.findAllIds()) {
+            try {
+                created += ledgerService.rollup(accountId, upTo);
+            } catch (RuntimeException e) {
+                log.error("Ledger rollup failed for account " + accountId, e);
+            }
+        }
+        log.info("Ledger rollup up to " + upTo + ": " + created + " checkpoints created");
+    }
+
+    @Scheduled(cron = "${budget.ledger.due-cron:0 5 0 * * *}")
+    public void applyDueTransactions() {
+        LocalDate today = LocalDate.now();
+        int updated = ledgerService.syncBalances(today.minusDays(DUE_LOOKBACK_DAYS), today);
+        if (updated > 0) {
+            log.info("Ledger: balances of " + updated + " accounts caught up with due transactions");
+        }
+    }
+}
@@ -3,24 +3,30 @@ package com.themoneygame.budget.application;
 
 import com.themoneygame.auth.domain.User;
 import com.themoneygame.budget.domain.MonthlyIncome;
+import com.themoneygame.budget.domain.event.BudgetDataChangedEvent;
 import com.themoneygame.budget.infrastructure.MonthlyIncomeRepository;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.YearMonth;
 import java.util.List;
 
 @Service
 public class MonthlyIncomeService {
 
     private final MonthlyIncomeRepository incomeRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @PersistenceContext
     private EntityManager entityManager;
 
-    public MonthlyIncomeService(MonthlyIncomeRepository incomeRepository) {
+    public MonthlyIncomeService(MonthlyIncomeRepository incomeRepository,
+                                ApplicationEventPublisher eventPublisher) {
         this.incomeRepository = incomeRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -53,6 +59,11 @@ public class MonthlyIncomeService {
         // обязательно пересчитать перед сохранением
         income.recalculateTotals();
 
+        // доход месяца M виден на дэшборде за M (текущий) и за M+1 (предыдущий)
+        YearMonth ym = YearMonth.of(income.getYear(), income.getMonth());
+        eventPublisher.publishEvent(BudgetDataChangedEvent.forMonth(userId, ym));
+        eventPublisher.publishEvent(BudgetDataChangedEvent.forMonth(userId, ym.plusMonths(1)));
+
         return incomeRepository
                 .findByUserIdAndYearAndMonth(userId, income.getYear(), income.getMonth())
                 .map(existing -> {
@@ -6,14 +6,20 @@ import com.themoneygame.budget.domain.MonthlyPayment;
 import com.themoneygame.budget.domain.Transaction;
 import com.themoneygame.budget.domain.enums.CategoryType;
 import com.themoneygame.budget.domain.enums.TransactionType;
+import com.themoneygame.budget.domain.event.BudgetDataChangedEvent;
 import com.themoneygame.budget.infrastructure.AccountRepository;
 import com.themoneygame.budget.infrastructure.MonthlyPaymentRepository;
 import com.themoneygame.budget.infrastructure.TransactionRepository;
+import com.themoneygame.core.web.DateIdCursor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 public class MonthlyPaymentService {
@@ -21,19 +27,27 @@ public class MonthlyPaymentService {
     private final MonthlyPaymentRepository paymentRepository;
     private final AccountRepository accountRepository;
     private final TransactionRepository transactionRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AccountLedgerService ledgerService;
 
     public MonthlyPaymentService(MonthlyPaymentRepository paymentRepository,
                                  AccountRepository accountRepository,
-                                 TransactionRepository transactionRepository) {
+                                 TransactionRepository transactionRepository,
+                                 ApplicationEventPublisher eventPublisher,
+                                 AccountLedgerService ledgerService) {
         this.paymentRepository = paymentRepository;
         this.accountRepository = accountRepository;
         this.transactionRepository = transactionRepository;
+        this.eventPublisher = eventPublisher;
+        this.ledgerService = ledgerService;
     }
 
     @Transactional
     public void markAsPaid(MonthlyPayment payment, Account primaryDebit) {
-        payment.setPaid(true);
-        paymentRepository.save(payment);
+        // повторная отметка не должна порождать второе погашение
+        if (payment.isPaid() && payment.getSettlementTransaction() != null) {
+            return;
+        }
 
         Transaction tx = new Transaction(
                 payment.getUser(),
@@ -45,28 +59,37 @@ public class MonthlyPaymentService {
                 buildDescriptionForPaymentTransfer(payment, primaryDebit)
         );
         transactionRepository.save(tx);
+        ledgerService.onTransactionAdded(tx);
+
+        payment.setPaid(true);
+        payment.setSettlementTransaction(tx);
+        paymentRepository.save(payment);
+
+        publishChanged(payment);
     }
 
     @Transactional
-    public void unmarkAsPaid(MonthlyPayment payment, Account primaryDebit) {
+    public void unmarkAsPaid(MonthlyPayment payment) {
+        Transaction settlement = payment.getSettlementTransaction();
+
         payment.setPaid(false);
+        payment.setSettlementTransaction(null);
         paymentRepository.save(payment);
 
-        String prefix = "Погашение обязательств: " + payment.getTitle();
-        List<Transaction> allUserTx = transactionRepository.findAllByUser(payment.getUser());
+        // Hibernate выполнит update платежа раньше delete, так что FK не мешает
+        if (settlement != null) {
+            ledgerService.onTransactionRemoved(settlement);
+            transactionRepository.delete(settlement);
+        }
 
-        List<Transaction> toDelete = allUserTx.stream()
-                .filter(tx -> tx.getType() == TransactionType.TRANSFER)
-                .filter(tx -> tx.getAccount() != null
-                        && tx.getAccount().getId().equals(primaryDebit.getId()))
-                .filter(tx -> tx.getAmount().compareTo(payment.getAmount()) == 0)
-                .filter(tx -> payment.getPaymentDate().equals(tx.getDate()))
-                .filter(tx -> tx.getDescription() != null && tx.getDescription().startsWith(prefix))
-                .toList();
+        publishChanged(payment);
+    }
 
-        if (!toDelete.isEmpty()) {
-            transactionRepository.deleteAll(toDelete);
-        }
+    // сам платёж влияет на дэшборд только своего месяца; баланс счёта погашения
+    // двигает AccountLedgerService и сбрасывает дэшборд сам
+    private void publishChanged(MonthlyPayment payment) {
+        eventPublisher.publishEvent(BudgetDataChangedEvent.forMonth(
+                payment.getUser().getId(), YearMonth.from(payment.getPaymentDate())));
     }
 
     private String buildDescriptionForPaymentTransfer(MonthlyPayment payment, Account fromAccount) {
@@ -89,10 +112,29 @@ public class MonthlyPaymentService {
         return paymentRepository.findAllByUser(user);
     }
 
+    // платёж пользователя по id (чужой → пусто)
+    public Optional<MonthlyPayment> findForUser(User user, Long id) {
+        return paymentRepository.findByIdAndUserId(id, user.getId());
+    }
+
+    /**
+     * Страница платежей по (paymentDate, id), начиная после курсора.
+     * Возвращает до limit + 1 строк — лишняя означает, что есть продолжение.
+     */
+    public List<MonthlyPayment> getPage(User user, DateIdCursor after, int limit) {
+        Limit fetch = Limit.of(limit + 1);
+        if (after == null) {
+            return paymentRepository.findPageFirst(user.getId(), fetch);
+        }
+        return paymentRepository.findPageAfter(user.getId(), after.date(), after.id(), fetch);
+    }
+
     // Новый метод для сохранения платежа
     @Transactional
     public MonthlyPayment save(MonthlyPayment payment) {
-        return paymentRepository.save(payment);
+        MonthlyPayment saved = paymentRepository.save(payment);
+        publishChanged(saved);
+        return saved;
     }
 
     // Добавляем метод для поиска платежей по месяцу и году
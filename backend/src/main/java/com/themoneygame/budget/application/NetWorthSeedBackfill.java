@@ -0,0 +1,41 @@
+package com.themoneygame.budget.application;
+
+import com.themoneygame.budget.infrastructure.NetWorthFlowRepository;
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Заполняет историю капитала для пользователей, у которых её ещё нет
+ * (счета заведены до появления net_worth_flows). Идемпотентно.
+ *
+ * Идёт после LedgerAnchorBackfill — начальные балансы берутся из журнала.
+ */
+@Component
+@Order(20)
+public class NetWorthSeedBackfill implements CommandLineRunner {
+
+    private static final Logger log = LogManager.getLogger(NetWorthSeedBackfill.class);
+
+    private final NetWorthFlowRepository flowRepository;
+    private final AccountLedgerService ledgerService;
+
+    public NetWorthSeedBackfill(NetWorthFlowRepository flowRepository,
+                                AccountLedgerService ledgerService) {
+        this.flowRepository = flowRepository;
+        this.ledgerService = ledgerService;
+    }
+
+    @Override
+    public void run(String... args) {
+        for (Long userId : flowRepository.findUserIdsWithoutFlows()) {
+            try {
+                ledgerService.seedNetWorth(userId);
+            } catch (RuntimeException e) {
+                log.error("Net worth seed failed for user " + userId, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.themoneygame.budget.application;
+
+import com.themoneygame.budget.domain.enums.AccountType;
+import com.themoneygame.budget.domain.enums.FlowGranularity;
+import com.themoneygame.budget.infrastructure.NetWorthFlowRepository;
+import com.themoneygame.budget.infrastructure.projection.NetWorthPointView;
+import com.themoneygame.budget.web.dto.NetWorthPointDto;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * История капитала пользователя: дельты балансов копятся в корзинах
+ * net_worth_flows (день и месяц), а график — накопленная сумма корзин,
+ * которую БД считает одним запросом с оконной функцией.
+ *
+ * Дельты приходят из AccountLedgerService при каждом изменении журнала:
+ * транзакции, ручная правка баланса, смена типа и удаление счёта.
+ */
+@Service
+public class NetWorthService {
+
+    public static final int MAX_POINTS = 3660;
+
+    // счётчики складываются с уже накопленными в корзине
+    private static final String UPSERT_SQL = """
+            insert into net_worth_flows (user_id, granularity, bucket_start, debit_delta, asset_delta, credit_delta)
+            values (?, ?, ?, ?, ?, ?)
+            on conflict (user_id, granularity, bucket_start) do update
+            set debit_delta = net_worth_flows.debit_delta + excluded.debit_delta,
+                asset_delta = net_worth_flows.asset_delta + excluded.asset_delta,
+                credit_delta = net_worth_flows.credit_delta + excluded.credit_delta
+            """;
+
+    private final NetWorthFlowRepository flowRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    public NetWorthService(NetWorthFlowRepository flowRepository,
+                           JdbcTemplate jdbcTemplate) {
+        this.flowRepository = flowRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Добавляет изменения балансов в дневные и месячные корзины пользователя.
+     */
+    @Transactional
+    public void record(Long userId, Collection<BalanceChange> changes) {
+        Map<BucketKey, BigDecimal[]> buckets = new LinkedHashMap<>();
+        for (BalanceChange change : changes) {
+            if (change.delta().signum() == 0) {
+                continue;
+            }
+            int group = group(change.accountType());
+            for (FlowGranularity granularity : FlowGranularity.values()) {
+                BucketKey key = new BucketKey(granularity, bucketStart(granularity, change.date()));
+                BigDecimal[] sums = buckets.computeIfAbsent(key,
+                        k -> new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO});
+                sums[group] = sums[group].add(change.delta());
+            }
+        }
+        if (buckets.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> params = new ArrayList<>(buckets.size());
+        buckets.forEach((key, sums) -> params.add(new Object[]{
+                userId, key.granularity().name(), Date.valueOf(key.bucketStart()), sums[0], sums[1], sums[2]
+        }));
+        jdbcTemplate.batchUpdate(UPSERT_SQL, params);
+    }
+
+    /**
+     * Уровни балансов на конец каждой корзины периода [from, to].
+     * Корзины без движений получают уровень предыдущей.
+     */
+    @Transactional(readOnly = true)
+    public List<NetWorthPointDto> getHistory(Long userId, FlowGranularity granularity,
+                                             LocalDate from, LocalDate to) {
+        LocalDate first = bucketStart(granularity, from);
+        LocalDate last = bucketStart(granularity, to);
+
+        List<NetWorthPointView> levels = flowRepository.findCumulative(userId, granularity.name(), first, last);
+        Iterator<NetWorthPointView> it = levels.iterator();
+        NetWorthPointView next = it.hasNext() ? it.next() : null;
+
+        BigDecimal debit = BigDecimal.ZERO;
+        BigDecimal asset = BigDecimal.ZERO;
+        BigDecimal credit = BigDecimal.ZERO;
+
+        List<NetWorthPointDto> points = new ArrayList<>();
+        for (LocalDate bucket = first; !bucket.isAfter(last); bucket = nextBucket(granularity, bucket)) {
+            // уровни отсортированы по дате — догоняем текущую корзину
+            while (next != null && !next.getBucketStart().isAfter(bucket)) {
+                debit = nvl(next.getDebit());
+                asset = nvl(next.getAsset());
+                credit = nvl(next.getCredit());
+                next = it.hasNext() ? it.next() : null;
+            }
+            points.add(new NetWorthPointDto(bucket, debit, asset, credit));
+        }
+        return points;
+    }
+
+    public static long bucketCount(FlowGranularity granularity, LocalDate from, LocalDate to) {
+        return switch (granularity) {
+            case DAY -> ChronoUnit.DAYS.between(from, to) + 1;
+            case MONTH -> ChronoUnit.MONTHS.between(
+                    bucketStart(granularity, from), bucketStart(granularity, to)) + 1;
+        };
+    }
+
+    // ---- helpers ----
+
+    private record BucketKey(FlowGranularity granularity, LocalDate bucketStart) {
+    }
+
+    // индекс в {debit, asset, credit}
+    private static int group(AccountType type) {
+        return switch (type) {
+            case DEBIT -> 0;
+            case ASSET -> 1;
+            case CREDIT_PURCHASE, CREDIT_CASH -> 2;
+        };
+    }
+
+    private static LocalDate bucketStart(FlowGranularity granularity, LocalDate date) {
+        return granularity == FlowGranularity.MONTH ? date.withDayOfMonth(1) : date;
+    }
+
+    private static LocalDate nextBucket(FlowGranularity granularity, LocalDate bucket) {
+        return granularity == FlowGranularity.MONTH ? bucket.plusMonths(1) : bucket.plusDays(1);
+    }
+
+    private static BigDecimal nvl(BigDecimal v) {
+        return v != null ? v : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,39 @@
+package com.themoneygame.budget.application;
+
+import com.themoneygame.budget.infrastructure.MonthlyPaymentRepository;
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Привязывает уже оплаченные платежи к транзакциям погашения,
+ * созданным до появления monthly_payments.settlement_transaction_id.
+ *
+ * Идемпотентно: трогает только оплаченные платежи без ссылки,
+ * поэтому после первого прогона почти ничего не делает.
+ */
+@Component
+public class SettlementLinkBackfill implements CommandLineRunner {
+
+    private static final Logger log = LogManager.getLogger(SettlementLinkBackfill.class);
+
+    private final MonthlyPaymentRepository paymentRepository;
+
+    public SettlementLinkBackfill(MonthlyPaymentRepository paymentRepository) {
+        this.paymentRepository = paymentRepository;
+    }
+
+    @Override
+    @Transactional
+    public void run(String... args) {
+        int linked = 0;
+        for (int pass; (pass = paymentRepository.backfillSettlementLinks()) > 0; ) {
+            linked += pass;
+        }
+        if (linked > 0) {
+            log.info("Settlement link backfill linked " + linked + " paid monthly payments");
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.themoneygame.budget.application;
+
+import java.util.List;
+
+/**
+ * Итог импорта: сколько строк записано и ошибки по строкам.
+ * Импорт атомарный — при любой ошибке imported = 0.
+ *
+ * row — номер строки данных, начиная с 1 (заголовок CSV не считается).
+ */
+public record TransactionImportResult(int received, int imported, List<RowError> errors) {
+
+    public record RowError(int row, String message) {
+    }
+
+    public boolean hasErrors() {
+        return !errors.isEmpty();
+    }
+}
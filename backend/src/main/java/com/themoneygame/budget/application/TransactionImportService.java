@@ -0,0 +1,312 @@
+package com.themoneygame.budget.application;
+
+import com.themoneygame.auth.domain.User;
+import com.themoneygame.budget.domain.Account;
+import com.themoneygame.budget.domain.enums.CategoryType;
+import com.themoneygame.budget.domain.enums.TransactionType;
+import com.themoneygame.budget.infrastructure.AccountRepository;
+import com.themoneygame.budget.web.dto.TransactionImportRow;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Массовый импорт транзакций из выписки (JSON-массив или CSV).
+ *
+ * Счета пользователя грузятся один раз, строки проверяются целиком до записи,
+ * а вставка идёт пачками через JdbcTemplate.batchUpdate: у transactions id —
+ * IDENTITY, и Hibernate такие вставки в batch не собирает.
+ */
+@Service
+public class TransactionImportService {
+
+    public static final int MAX_ROWS = 50_000;
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String INSERT_SQL = """
+            insert into transactions (user_id, account_id, amount, type, category, date, description)
+            values (?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final int DESCRIPTION_MAX_LENGTH = 500;
+
+    private final AccountRepository accountRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final AccountLedgerService ledgerService;
+
+    public TransactionImportService(AccountRepository accountRepository,
+                                    JdbcTemplate jdbcTemplate,
+                                    AccountLedgerService ledgerService) {
+        this.accountRepository = accountRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.ledgerService = ledgerService;
+    }
+
+    @Transactional
+    public TransactionImportResult importRows(User user, List<TransactionImportRow> rows) {
+        return importRows(user, rows, new ArrayList<>());
+    }
+
+    // errors — уже найденные ошибки разбора (строка на их месте = null)
+    private TransactionImportResult importRows(User user,
+                                               List<TransactionImportRow> rows,
+                                               List<TransactionImportResult.RowError> errors) {
+        if (rows.size() > MAX_ROWS) {
+            throw new IllegalArgumentException("Too many rows: " + rows.size() + " (max " + MAX_ROWS + ")");
+        }
+
+        // все счета пользователя одним запросом; чужой accountId сюда не попадёт
+        Map<Long, Account> accounts = accountRepository.findAllByUser(user).stream()
+                .collect(Collectors.toMap(Account::getId, Function.identity()));
+
+        Set<Integer> unparsed = errors.stream()
+                .map(TransactionImportResult.RowError::row)
+                .collect(Collectors.toSet());
+
+        List<Object[]> params = new ArrayList<>(rows.size());
+
+        for (int i = 0; i < rows.size(); i++) {
+            TransactionImportRow row = rows.get(i);
+            if (unparsed.contains(i + 1)) {
+                continue;
+            }
+            String error = validate(row, accounts.keySet());
+            if (error != null) {
+                errors.add(new TransactionImportResult.RowError(i + 1, error));
+                continue;
+            }
+
+            params.add(new Object[]{
+                    user.getId(),
+                    row.getAccountId(),
+                    row.getAmount(),
+                    TransactionType.valueOf(normalize(row.getType())).name(),
+                    resolveCategory(row.getCategory()).name(),
+                    Date.valueOf(row.getDate()),
+                    row.getDescription()
+            });
+        }
+
+        if (!errors.isEmpty()) {
+            errors.sort(Comparator.comparingInt(TransactionImportResult.RowError::row));
+            return new TransactionImportResult(rows.size(), 0, errors);
+        }
+
+        for (int from = 0; from < params.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, params.subList(from, Math.min(from + BATCH_SIZE, params.size())));
+        }
+
+        // выписка обычно задним числом — отметки баланса сдвигаются по суммам за каждый день
+        Map<Long, SortedMap<LocalDate, BigDecimal>> deltasByAccount = new HashMap<>();
+        List<BalanceChange> changes = new ArrayList<>(rows.size());
+        for (TransactionImportRow row : rows) {
+            BigDecimal signed = TransactionType.valueOf(normalize(row.getType())) == TransactionType.INCOME
+                    ? row.getAmount()
+                    : row.getAmount().negate();
+            deltasByAccount.computeIfAbsent(row.getAccountId(), id -> new TreeMap<>())
+                    .merge(row.getDate(), signed, BigDecimal::add);
+            changes.add(new BalanceChange(accounts.get(row.getAccountId()).getType(), row.getDate(), signed));
+        }
+        ledgerService.onTransactionsImported(user.getId(), deltasByAccount, changes);
+
+        return new TransactionImportResult(rows.size(), params.size(), List.of());
+    }
+
+    /**
+     * Импорт CSV: первая строка — заголовок с колонками
+     * date, accountId, type, category, amount, description (порядок любой,
+     * category и description необязательны). Разделитель — ',' или ';'.
+     */
+    @Transactional
+    public TransactionImportResult importCsv(User user, String csv) {
+        List<String> lines = csv.lines()
+                .filter(l -> !l.isBlank())
+                .toList();
+        if (lines.isEmpty()) {
+            throw new IllegalArgumentException("CSV is empty");
+        }
+        if (lines.size() - 1 > MAX_ROWS) {
+            throw new IllegalArgumentException("Too many rows: " + (lines.size() - 1) + " (max " + MAX_ROWS + ")");
+        }
+
+        String headerLine = lines.get(0);
+        char delimiter = headerLine.indexOf(';') >= 0 ? ';' : ',';
+
+        List<String> header = splitCsvLine(headerLine, delimiter);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT).replace("_", ""), i);
+        }
+        for (String required : List.of("date", "accountid", "type", "amount")) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("CSV header must contain column '" + required + "'");
+            }
+        }
+
+        List<TransactionImportRow> rows = new ArrayList<>(lines.size() - 1);
+        List<TransactionImportResult.RowError> parseErrors = new ArrayList<>();
+
+        for (int i = 1; i < lines.size(); i++) {
+            List<String> cells = splitCsvLine(lines.get(i), delimiter);
+            Function<String, String> cell = name -> {
+                Integer idx = columns.get(name);
+                if (idx == null || idx >= cells.size()) {
+                    return null;
+                }
+                String v = cells.get(idx).trim();
+                return v.isEmpty() ? null : v;
+            };
+
+            try {
+                rows.add(new TransactionImportRow(
+                        parseLong(cell.apply("accountid")),
+                        cell.apply("type"),
+                        cell.apply("category"),
+                        parseAmount(cell.apply("amount")),
+                        parseDate(cell.apply("date")),
+                        cell.apply("description")
+                ));
+            } catch (IllegalArgumentException e) {
+                parseErrors.add(new TransactionImportResult.RowError(i, e.getMessage()));
+                rows.add(null); // сохраняем нумерацию строк
+            }
+        }
+
+        return importRows(user, rows, parseErrors);
+    }
+
+    // ---- проверка строки ----
+
+    private String validate(TransactionImportRow row, Set<Long> accountIds) {
+        if (row == null) {
+            return "Row is empty";
+        }
+        if (row.getAccountId() == null) {
+            return "accountId is required";
+        }
+        if (!accountIds.contains(row.getAccountId())) {
+            return "Account not found: " + row.getAccountId();
+        }
+        if (row.getType() == null) {
+            return "type is required";
+        }
+        try {
+            TransactionType.valueOf(normalize(row.getType()));
+        } catch (IllegalArgumentException e) {
+            return "Unknown type: " + row.getType();
+        }
+        try {
+            resolveCategory(row.getCategory());
+        } catch (IllegalArgumentException e) {
+            return "Unknown category: " + row.getCategory();
+        }
+        if (row.getAmount() == null || row.getAmount().signum() <= 0) {
+            return "amount must be positive";
+        }
+        if (row.getAmount().scale() > 2) {
+            return "amount must have at most 2 decimal places";
+        }
+        if (row.getDate() == null) {
+            return "date is required";
+        }
+        if (row.getDescription() != null && row.getDescription().length() > DESCRIPTION_MAX_LENGTH) {
+            return "description is longer than " + DESCRIPTION_MAX_LENGTH + " characters";
+        }
+        return null;
+    }
+
+    // категория необязательна — как и у "Погашения обязательств", по умолчанию OTHER
+    private static CategoryType resolveCategory(String category) {
+        return category == null ? CategoryType.OTHER : CategoryType.valueOf(normalize(category));
+    }
+
+    private static String normalize(String enumName) {
+        return enumName.trim().toUpperCase(Locale.ROOT);
+    }
+
+    // ---- разбор CSV ----
+
+    private static Long parseLong(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid accountId: " + value);
+        }
+    }
+
+    // выписки банков часто пишут "1 234,56"
+    private static BigDecimal parseAmount(String value) {
+        if (value == null) {
+            return null;
+        }
+        String cleaned = value.replace("\u00A0", "").replace(" ", "").replace(',', '.');
+        try {
+            return new BigDecimal(cleaned);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid amount: " + value);
+        }
+    }
+
+    private static LocalDate parseDate(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value); // формат "yyyy-MM-dd"
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date: " + value);
+        }
+    }
+
+    // поддерживаем кавычки и "" внутри кавычек
+    private static List<String> splitCsvLine(String line, char delimiter) {
+        List<String> cells = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == delimiter) {
+                cells.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        cells.add(current.toString());
+        return cells;
+    }
+}
@@ -1,20 +1,36 @@
 package com.themoneygame.budget.application;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.themoneygame.auth.domain.User;
 import com.themoneygame.budget.domain.Transaction;
 import com.themoneygame.budget.infrastructure.TransactionRepository;
+import com.themoneygame.budget.infrastructure.projection.TransactionView;
+import com.themoneygame.core.web.DateIdCursor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Service
 public class TransactionService {
 
     private final TransactionRepository transactionRepository;
+    private final ObjectMapper objectMapper;
+    private final AccountLedgerService ledgerService;
 
-    public TransactionService(TransactionRepository transactionRepository) {
+    public TransactionService(TransactionRepository transactionRepository,
+                              ObjectMapper objectMapper,
+                              AccountLedgerService ledgerService) {
         this.transactionRepository = transactionRepository;
+        this.objectMapper = objectMapper;
+        this.ledgerService = ledgerService;
     }
 
     public List<Transaction> getAll(User user) {
@@ -25,7 +41,41 @@ public class TransactionService {
         return transactionRepository.findAllByUserAndDateBetween(user, start, end);
     }
 
+    /**
+     * Страница ленты за период (новые сверху), начиная после курсора.
+     * Возвращает до limit + 1 строк — лишняя означает, что есть продолжение.
+     */
+    public List<TransactionView> getFeed(User user, LocalDate start, LocalDate end,
+                                         DateIdCursor after, int limit) {
+        Limit fetch = Limit.of(limit + 1);
+        if (after == null) {
+            return transactionRepository.findFeedFirst(user.getId(), start, end, fetch);
+        }
+        return transactionRepository.findFeedAfter(
+                user.getId(), start, end, after.date(), after.id(), fetch);
+    }
+
+    /**
+     * Пишет транзакции за период в out как NDJSON (одна строка — один объект).
+     * Строки идут из БД курсором, в памяти держится только текущая.
+     */
+    @Transactional(readOnly = true)
+    public void exportNdjson(User user, LocalDate start, LocalDate end, OutputStream out) {
+        try (Stream<TransactionView> rows = transactionRepository.streamForExport(user.getId(), start, end)) {
+            Iterator<TransactionView> it = rows.iterator();
+            while (it.hasNext()) {
+                out.write(objectMapper.writeValueAsBytes(it.next()));
+                out.write('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Transactional
     public Transaction save(Transaction tx) {
-        return transactionRepository.save(tx);
+        Transaction saved = transactionRepository.save(tx);
+        ledgerService.onTransactionAdded(saved);
+        return saved;
     }
 }
@@ -2,18 +2,25 @@
 package com.themoneygame.budget.dashboard;
 
 import com.themoneygame.auth.application.UserDetailsImpl;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
 
 @RestController
 @RequestMapping("/api/budget/dashboard")
 public class BudgetDashboardController {
 
+    // 10 лет — больше тренд на фронте не рисует
+    private static final long MAX_RANGE_MONTHS = 120;
+
     private final BudgetDashboardService dashboardService;
 
     public BudgetDashboardController(BudgetDashboardService dashboardService) {
@@ -37,4 +44,35 @@ public class BudgetDashboardController {
 
         return dashboardService.getDashboard(userId, ym);
     }
+
+    @GetMapping("/range")
+    public BudgetDashboardRangeDto getDashboardRange(
+            Authentication authentication,
+            @RequestParam("from") String fromStr,
+            @RequestParam("to") String toStr
+    ) {
+        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+        Long userId = userDetails.getId();
+
+        YearMonth from = parseMonth(fromStr);
+        YearMonth to = parseMonth(toStr);
+
+        if (from.isAfter(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'from' must not be after 'to'");
+        }
+        if (ChronoUnit.MONTHS.between(from, to) >= MAX_RANGE_MONTHS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Range must not exceed " + MAX_RANGE_MONTHS + " months");
+        }
+
+        return dashboardService.getDashboardRange(userId, from, to);
+    }
+
+    private static YearMonth parseMonth(String value) {
+        try {
+            return YearMonth.parse(value); // формат "yyyy-MM"
+        } catch (DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid month: " + value);
+        }
+    }
 }
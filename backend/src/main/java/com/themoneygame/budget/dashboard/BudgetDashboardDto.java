@@ -1,6 +1,8 @@
 // src/main/java/com/themoneygame/budget/dashboard/BudgetDashboardDto.java
 package com.themoneygame.budget.dashboard;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.math.BigDecimal;
 import java.util.List;
 
@@ -10,6 +12,9 @@ public class BudgetDashboardDto {
     private IncomeWidget income;
     private PaymentsWidget payments;
 
+    // виджеты, которые не успели/не смогли загрузиться (пришли как null)
+    private List<String> degradedWidgets = List.of();
+
     public FinanceWidget getFinance() {
         return finance;
     }
@@ -34,6 +39,19 @@ public class BudgetDashboardDto {
         this.payments = payments;
     }
 
+    public List<String> getDegradedWidgets() {
+        return degradedWidgets;
+    }
+
+    public void setDegradedWidgets(List<String> degradedWidgets) {
+        this.degradedWidgets = degradedWidgets;
+    }
+
+    @JsonIgnore
+    public boolean isDegraded() {
+        return degradedWidgets != null && !degradedWidgets.isEmpty();
+    }
+
     // ----- ВИДЖЕТ УЧЁТА ФИНАНСОВ -----
     public static class FinanceWidget {
         private BigDecimal totalDebitAndAssets;
@@ -0,0 +1,78 @@
+package com.themoneygame.budget.dashboard;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Помесячные итоги за диапазон — для трендовых графиков на фронте.
+ * Месяцы без данных присутствуют с нулями, порядок — по возрастанию.
+ */
+public class BudgetDashboardRangeDto {
+
+    private String from; // "yyyy-MM"
+    private String to;   // "yyyy-MM"
+    private List<MonthTotals> months;
+
+    public String getFrom() {
+        return from;
+    }
+
+    public void setFrom(String from) {
+        this.from = from;
+    }
+
+    public String getTo() {
+        return to;
+    }
+
+    public void setTo(String to) {
+        this.to = to;
+    }
+
+    public List<MonthTotals> getMonths() {
+        return months;
+    }
+
+    public void setMonths(List<MonthTotals> months) {
+        this.months = months;
+    }
+
+    public static class MonthTotals {
+        private String month; // "yyyy-MM"
+        private BigDecimal income;
+        private BigDecimal totalPlanned;
+        private BigDecimal totalPaid;
+
+        public String getMonth() {
+            return month;
+        }
+
+        public void setMonth(String month) {
+            this.month = month;
+        }
+
+        public BigDecimal getIncome() {
+            return income;
+        }
+
+        public void setIncome(BigDecimal income) {
+            this.income = income;
+        }
+
+        public BigDecimal getTotalPlanned() {
+            return totalPlanned;
+        }
+
+        public void setTotalPlanned(BigDecimal totalPlanned) {
+            this.totalPlanned = totalPlanned;
+        }
+
+        public BigDecimal getTotalPaid() {
+            return totalPaid;
+        }
+
+        public void setTotalPaid(BigDecimal totalPaid) {
+            this.totalPaid = totalPaid;
+        }
+    }
+}
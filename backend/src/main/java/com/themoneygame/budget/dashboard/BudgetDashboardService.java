@@ -6,4 +6,7 @@ import java.time.YearMonth;
 public interface BudgetDashboardService {
 
     BudgetDashboardDto getDashboard(Long userId, YearMonth month);
+
+    // помесячные итоги за [from, to] включительно
+    BudgetDashboardRangeDto getDashboardRange(Long userId, YearMonth from, YearMonth to);
 }
@@ -1,74 +1,156 @@
 package com.themoneygame.budget.dashboard;
 
-import com.themoneygame.budget.domain.Account;
-import com.themoneygame.budget.domain.MonthlyIncome;
-import com.themoneygame.budget.domain.MonthlyPayment;
 import com.themoneygame.budget.infrastructure.AccountRepository;
 import com.themoneygame.budget.infrastructure.MonthlyIncomeRepository;
 import com.themoneygame.budget.infrastructure.MonthlyPaymentRepository;
+import com.themoneygame.budget.infrastructure.projection.FinanceTotalsView;
+import com.themoneygame.budget.infrastructure.projection.IncomePairView;
+import com.themoneygame.budget.infrastructure.projection.MonthTotalsView;
+import com.themoneygame.budget.infrastructure.projection.PaymentRowView;
+import jakarta.annotation.PreDestroy;
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.YearMonth;
-import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Виджеты дэшборда независимы, поэтому собираются параллельно — каждый
+ * в своём виртуальном потоке и в своей read-only транзакции репозитория.
+ * Общей транзакции на весь метод нет намеренно: она привязана к потоку.
+ *
+ * Если виджет не уложился в таймаут или упал, он приходит как null,
+ * а его имя попадает в degradedWidgets — остальной дэшборд отдаётся как есть.
+ */
 @Service
-@Transactional(readOnly = true)
 public class BudgetDashboardServiceImpl implements BudgetDashboardService {
 
+    private static final Logger log = LogManager.getLogger(BudgetDashboardServiceImpl.class);
+
     private final AccountRepository accountRepository;
     private final MonthlyIncomeRepository incomeRepository;
     private final MonthlyPaymentRepository paymentRepository;
 
+    private final ExecutorService widgetExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Duration widgetTimeout;
+
     public BudgetDashboardServiceImpl(AccountRepository accountRepository,
                                       MonthlyIncomeRepository incomeRepository,
-                                      MonthlyPaymentRepository paymentRepository) {
+                                      MonthlyPaymentRepository paymentRepository,
+                                      @Value("${budget.dashboard.widget-timeout:PT2S}") Duration widgetTimeout) {
         this.accountRepository = accountRepository;
         this.incomeRepository = incomeRepository;
         this.paymentRepository = paymentRepository;
+        this.widgetTimeout = widgetTimeout;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        widgetExecutor.shutdownNow();
     }
 
     @Override
     public BudgetDashboardDto getDashboard(Long userId, YearMonth month) {
+        Future<BudgetDashboardDto.FinanceWidget> finance =
+                widgetExecutor.submit(() -> buildFinanceWidget(userId));
+        Future<BudgetDashboardDto.IncomeWidget> income =
+                widgetExecutor.submit(() -> buildIncomeWidget(userId, month));
+        Future<BudgetDashboardDto.PaymentsWidget> payments =
+                widgetExecutor.submit(() -> buildPaymentsWidget(userId, month));
+
+        // все виджеты стартовали одновременно → общий дедлайн = таймаут на каждый
+        long deadline = System.nanoTime() + widgetTimeout.toNanos();
+        List<String> degraded = new ArrayList<>();
+
         BudgetDashboardDto dto = new BudgetDashboardDto();
+        dto.setFinance(await("finance", finance, deadline, degraded));
+        dto.setIncome(await("income", income, deadline, degraded));
+        dto.setPayments(await("payments", payments, deadline, degraded));
+        dto.setDegradedWidgets(degraded);
 
-        dto.setFinance(buildFinanceWidget(userId));
-        dto.setIncome(buildIncomeWidget(userId, month));
-        dto.setPayments(buildPaymentsWidget(userId, month));
+        return dto;
+    }
 
+    @Override
+    public BudgetDashboardRangeDto getDashboardRange(Long userId, YearMonth from, YearMonth to) {
+        List<MonthTotalsView> rows = paymentRepository.aggregateMonthTotals(
+                userId,
+                monthIndex(from),
+                monthIndex(to),
+                from.atDay(1),
+                to.atEndOfMonth()
+        );
+
+        Map<YearMonth, MonthTotalsView> byMonth = new HashMap<>();
+        for (MonthTotalsView row : rows) {
+            byMonth.put(YearMonth.of(row.getYear(), row.getMonth()), row);
+        }
+
+        // заполняем и пустые месяцы, чтобы фронту не приходилось строить ось самому
+        List<BudgetDashboardRangeDto.MonthTotals> months = new ArrayList<>();
+        for (YearMonth ym = from; !ym.isAfter(to); ym = ym.plusMonths(1)) {
+            MonthTotalsView row = byMonth.get(ym);
+
+            BudgetDashboardRangeDto.MonthTotals totals = new BudgetDashboardRangeDto.MonthTotals();
+            totals.setMonth(ym.toString());
+            totals.setIncome(row != null ? nvl(row.getIncome()) : BigDecimal.ZERO);
+            totals.setTotalPlanned(row != null ? nvl(row.getPlanned()) : BigDecimal.ZERO);
+            totals.setTotalPaid(row != null ? nvl(row.getPaid()) : BigDecimal.ZERO);
+            months.add(totals);
+        }
+
+        BudgetDashboardRangeDto dto = new BudgetDashboardRangeDto();
+        dto.setFrom(from.toString());
+        dto.setTo(to.toString());
+        dto.setMonths(months);
         return dto;
     }
 
+    private static int monthIndex(YearMonth ym) {
+        return ym.getYear() * 12 + ym.getMonthValue();
+    }
+
+    private <T> T await(String widget, Future<T> future, long deadline, List<String> degraded) {
+        try {
+            long left = Math.max(0, deadline - System.nanoTime());
+            return future.get(left, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            log.warn("Dashboard widget '" + widget + "' timed out after " + widgetTimeout);
+        } catch (ExecutionException e) {
+            log.warn("Dashboard widget '" + widget + "' failed", e.getCause());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+        }
+        degraded.add(widget);
+        return null;
+    }
+
     // -----------------------------------------------------
     // FINANCE WIDGET
     // -----------------------------------------------------
 
     private BudgetDashboardDto.FinanceWidget buildFinanceWidget(Long userId) {
-        List<Account> accounts = accountRepository.findByUserId(userId);
-
-        BigDecimal totalDebitAndAssets = accounts.stream()
-                .filter(a -> !a.isDebt())
-                .map(Account::getBalance)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal totalCreditForCash = accounts.stream()
-                .filter(Account::isCreditForCashWithdrawal)
-                .map(a -> {
-                    // Применяем проверку на null для creditLimit и usedLimit
-                    BigDecimal creditLimit = a.getCreditLimit() != null ? a.getCreditLimit() : BigDecimal.ZERO;
-                    BigDecimal usedLimit = a.getUsedLimit() != null ? a.getUsedLimit() : BigDecimal.ZERO;
-
-                    // Если использованный лимит равен кредитному лимиту, задолженности нет
-                    if (creditLimit.compareTo(usedLimit) == 0) {
-                        return BigDecimal.ZERO;
-                    }
+        // суммы считает БД (SUM ... FILTER), сущности Account не создаются
+        FinanceTotalsView totals = accountRepository.aggregateFinanceTotals(userId);
 
-                    return creditLimit.subtract(usedLimit);
-                })
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal totalDebitAndAssets = nvl(totals.getTotalDebitAndAssets());
+        BigDecimal totalCreditForCash = nvl(totals.getTotalCreditForCash());
 
         BigDecimal netWorth = totalDebitAndAssets;
 
@@ -84,21 +166,18 @@ public class BudgetDashboardServiceImpl implements BudgetDashboardService {
     // -----------------------------------------------------
 
     private BudgetDashboardDto.IncomeWidget buildIncomeWidget(Long userId, YearMonth month) {
-        int year = month.getYear();
-        int m = month.getMonthValue();
-
-        MonthlyIncome current = incomeRepository
-                .findByUserIdAndYearAndMonth(userId, year, m)
-                .orElse(null);
-
         YearMonth prevMonth = month.minusMonths(1);
-        MonthlyIncome previous = incomeRepository
-                .findByUserIdAndYearAndMonth(userId, prevMonth.getYear(), prevMonth.getMonthValue())
-                .orElse(null);
+
+        // текущий и предыдущий месяц — одним запросом
+        IncomePairView pair = incomeRepository.findIncomePair(
+                userId,
+                month.getYear(), month.getMonthValue(),
+                prevMonth.getYear(), prevMonth.getMonthValue()
+        );
 
         BudgetDashboardDto.IncomeWidget widget = new BudgetDashboardDto.IncomeWidget();
-        widget.setCurrentMonthIncome(current != null ? current.getTotalMonthlyIncome() : BigDecimal.ZERO);
-        widget.setPreviousMonthIncome(previous != null ? previous.getTotalMonthlyIncome() : BigDecimal.ZERO);
+        widget.setCurrentMonthIncome(nvl(pair.getCurrentMonthIncome()));
+        widget.setPreviousMonthIncome(nvl(pair.getPreviousMonthIncome()));
 
         return widget;
     }
@@ -112,32 +191,29 @@ public class BudgetDashboardServiceImpl implements BudgetDashboardService {
         LocalDate start = month.atDay(1);
         LocalDate end = month.atEndOfMonth();
 
-        List<MonthlyPayment> payments = paymentRepository
-                .findAllByUserIdAndPaymentDateBetween(userId, start, end)
-                .stream()
-                .sorted(Comparator.comparing(MonthlyPayment::getTitle))
-                .toList();
-
-        // rows for UI
-        List<BudgetDashboardDto.PaymentRow> rows = payments.stream()
-                .map(p -> {
-                    BudgetDashboardDto.PaymentRow row = new BudgetDashboardDto.PaymentRow();
-                    row.setId(p.getId());
-                    row.setTitle(p.getTitle());
-                    row.setAmount(p.getAmount());
-                    row.setPaid(p.isPaid());
-                    return row;
-                })
-                .toList();
-
-        BigDecimal totalPlanned = payments.stream()
-                .map(MonthlyPayment::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal totalPaid = payments.stream()
-                .filter(MonthlyPayment::isPaid)
-                .map(MonthlyPayment::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // строки уже отсортированы по title и приходят как DTO-проекция
+        List<PaymentRowView> payments = paymentRepository.findDashboardRows(userId, start, end);
+
+        // rows for UI + итоги за один проход
+        List<BudgetDashboardDto.PaymentRow> rows = new ArrayList<>(payments.size());
+        BigDecimal totalPlanned = BigDecimal.ZERO;
+        BigDecimal totalPaid = BigDecimal.ZERO;
+
+        for (PaymentRowView p : payments) {
+            BigDecimal amount = nvl(p.amount());
+
+            BudgetDashboardDto.PaymentRow row = new BudgetDashboardDto.PaymentRow();
+            row.setId(p.id());
+            row.setTitle(p.title());
+            row.setAmount(amount);
+            row.setPaid(p.paid());
+            rows.add(row);
+
+            totalPlanned = totalPlanned.add(amount);
+            if (p.paid()) {
+                totalPaid = totalPaid.add(amount);
+            }
+        }
 
         BudgetDashboardDto.PaymentsWidget widget = new BudgetDashboardDto.PaymentsWidget();
         widget.setRows(rows);
@@ -146,4 +222,9 @@ public class BudgetDashboardServiceImpl implements BudgetDashboardService {
 
         return widget;
     }
+
+    // helper: null → 0
+    private BigDecimal nvl(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
 }
@@ -0,0 +1,110 @@
+package com.themoneygame.budget.dashboard;
+
+import com.themoneygame.budget.domain.event.BudgetDataChangedEvent;
+import com.themoneygame.core.cache.BoundedLruCache;
+import com.themoneygame.core.cache.CacheRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Снимки дэшборда по ключу (userId, месяц) перед BudgetDashboardServiceImpl.
+ *
+ * Фронт опрашивает дэшборд постоянно, а данные меняются редко —
+ * поэтому отдаём готовый снимок, пока не придёт BudgetDataChangedEvent
+ * от AccountService / MonthlyIncomeService / MonthlyPaymentService.
+ * TTL страхует от изменений, которые идут в обход сервисов.
+ *
+ * Снимок считается вне блокировки, поэтому инвалидация может прийти, пока он
+ * считается. Для ключей в расчёте держим поколение: инвалидация его увеличивает,
+ * и снимок, начатый в старом поколении, в кэш не кладётся.
+ */
+@Service
+@Primary
+public class CachedBudgetDashboardService implements BudgetDashboardService {
+
+    private final BudgetDashboardServiceImpl delegate;
+    private final BoundedLruCache<SnapshotKey, BudgetDashboardDto> snapshots;
+    // только ключи, которые сейчас считаются; под монитором самой карты
+    private final Map<SnapshotKey, Generation> computing = new HashMap<>();
+
+    public CachedBudgetDashboardService(
+            BudgetDashboardServiceImpl delegate,
+            CacheRegistry cacheRegistry,
+            @Value("${budget.dashboard.cache.max-entries:10000}") int maxEntries,
+            @Value("${budget.dashboard.cache.ttl:PT5M}") Duration ttl
+    ) {
+        this.delegate = delegate;
+        this.snapshots = cacheRegistry.create("budget-dashboard", maxEntries, ttl);
+    }
+
+    @Override
+    public BudgetDashboardDto getDashboard(Long userId, YearMonth month) {
+        SnapshotKey key = new SnapshotKey(userId, month);
+        BudgetDashboardDto cached = snapshots.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        Generation generation;
+        long started;
+        synchronized (computing) {
+            generation = computing.computeIfAbsent(key, k -> new Generation());
+            generation.computations++;
+            started = generation.value;
+        }
+
+        BudgetDashboardDto fresh = null;
+        try {
+            fresh = delegate.getDashboard(userId, month);
+            return fresh;
+        } finally {
+            synchronized (computing) {
+                // неполный (деградировавший) дэшборд не кэшируем
+                if (fresh != null && !fresh.isDegraded() && generation.value == started) {
+                    snapshots.put(key, fresh);
+                }
+                if (--generation.computations == 0) {
+                    computing.remove(key);
+                }
+            }
+        }
+    }
+
+    // диапазоны не кэшируем: это один агрегирующий запрос, а ключей слишком много
+    @Override
+    public BudgetDashboardRangeDto getDashboardRange(Long userId, YearMonth from, YearMonth to) {
+        return delegate.getDashboardRange(userId, from, to);
+    }
+
+    // инвалидация — только после коммита, чтобы не закэшировать старые данные
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBudgetDataChanged(BudgetDataChangedEvent event) {
+        synchronized (computing) {
+            computing.forEach((key, generation) -> {
+                if (affects(event, key)) {
+                    generation.value++;
+                }
+            });
+            snapshots.invalidateIf(key -> affects(event, key));
+        }
+    }
+
+    private static boolean affects(BudgetDataChangedEvent event, SnapshotKey key) {
+        return key.userId().equals(event.userId()) && event.affects(key.month());
+    }
+
+    private record SnapshotKey(Long userId, YearMonth month) {
+    }
+
+    private static final class Generation {
+        long value;
+        int computations;
+    }
+}
@@ -8,7 +8,10 @@ import jakarta.persistence.*;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "accounts")
+@Table(
+        name = "accounts",
+        indexes = @Index(name = "idx_accounts_user_main_for_payments", columnList = "user_id, main_for_payments")
+)
 public class Account {
 
     @Id
@@ -0,0 +1,88 @@
+package com.themoneygame.budget.domain;
+
+import com.themoneygame.budget.domain.enums.CheckpointKind;
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Отметка баланса счёта на дату.
+ *
+ * balance — баланс на конец дня asOf, т.е. с учётом всех транзакций
+ * с датой <= asOf. Баланс на любую дату = ближайшая отметка + сумма
+ * транзакций между ними (см. AccountLedgerService).
+ */
+@Entity
+@Table(
+        name = "account_balance_checkpoints",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"account_id", "as_of"})
+)
+public class AccountBalanceCheckpoint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "account_id")
+    private Account account;
+
+    @Column(name = "as_of", nullable = false)
+    private LocalDate asOf;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal balance = BigDecimal.ZERO;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private CheckpointKind kind;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    public AccountBalanceCheckpoint() {
+    }
+
+    public AccountBalanceCheckpoint(Account account, LocalDate asOf, BigDecimal balance, CheckpointKind kind) {
+        this.account = account;
+        this.asOf = asOf;
+        this.balance = balance;
+        this.kind = kind;
+    }
+
+    // ===== Getters / Setters =====
+
+    public Long getId() {
+        return id;
+    }
+
+    public Account getAccount() {
+        return account;
+    }
+
+    public LocalDate getAsOf() {
+        return asOf;
+    }
+
+    public BigDecimal getBalance() {
+        return balance != null ? balance : BigDecimal.ZERO;
+    }
+
+    public void setBalance(BigDecimal balance) {
+        this.balance = balance;
+    }
+
+    public CheckpointKind getKind() {
+        return kind;
+    }
+
+    public void setKind(CheckpointKind kind) {
+        this.kind = kind;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
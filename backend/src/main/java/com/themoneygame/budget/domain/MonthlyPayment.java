@@ -6,7 +6,13 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "monthly_payments")
+@Table(
+        name = "monthly_payments",
+        indexes = {
+                @Index(name = "idx_monthly_payments_user_date_id", columnList = "user_id, payment_date, id"),
+                @Index(name = "idx_monthly_payments_settlement_tx", columnList = "settlement_transaction_id")
+        }
+)
 public class MonthlyPayment {
 
     @Id
@@ -35,6 +41,14 @@ public class MonthlyPayment {
     @JoinColumn(name = "category_id")
     private Category category; // Добавляем поле для категории
 
+    /**
+     * Транзакция погашения, созданная при отметке "оплачено".
+     * По ней снимаем оплату без поиска по истории транзакций.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "settlement_transaction_id")
+    private Transaction settlementTransaction;
+
     public MonthlyPayment() {
     }
 
@@ -118,4 +132,12 @@ public class MonthlyPayment {
     public void setCategory(Category category) { // Сеттер для категории
         this.category = category;
     }
+
+    public Transaction getSettlementTransaction() {
+        return settlementTransaction;
+    }
+
+    public void setSettlementTransaction(Transaction settlementTransaction) {
+        this.settlementTransaction = settlementTransaction;
+    }
 }
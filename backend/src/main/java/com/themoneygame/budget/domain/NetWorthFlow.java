@@ -0,0 +1,88 @@
+package com.themoneygame.budget.domain;
+
+import com.themoneygame.auth.domain.User;
+import com.themoneygame.budget.domain.enums.FlowGranularity;
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Изменение балансов пользователя за день или месяц, в разрезе групп счетов.
+ *
+ * Уровень на дату — накопленная сумма дельт всех корзин до неё включительно
+ * (см. NetWorthService.getHistory). Строки пишутся только upsert-ом
+ * из NetWorthService.record, сущность нужна для схемы и чтения.
+ */
+@Entity
+@Table(
+        name = "net_worth_flows",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "granularity", "bucket_start"})
+)
+public class NetWorthFlow {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    private User user;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private FlowGranularity granularity;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDate bucketStart;
+
+    /**
+     * Дебетовые счета (DEBIT).
+     */
+    @Column(name = "debit_delta", nullable = false, precision = 19, scale = 2)
+    private BigDecimal debitDelta = BigDecimal.ZERO;
+
+    /**
+     * Активы (ASSET).
+     */
+    @Column(name = "asset_delta", nullable = false, precision = 19, scale = 2)
+    private BigDecimal assetDelta = BigDecimal.ZERO;
+
+    /**
+     * Кредитные счета (CREDIT_PURCHASE, CREDIT_CASH).
+     */
+    @Column(name = "credit_delta", nullable = false, precision = 19, scale = 2)
+    private BigDecimal creditDelta = BigDecimal.ZERO;
+
+    public NetWorthFlow() {
+    }
+
+    // ===== Getters =====
+
+    public Long getId() {
+        return id;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public FlowGranularity getGranularity() {
+        return granularity;
+    }
+
+    public LocalDate getBucketStart() {
+        return bucketStart;
+    }
+
+    public BigDecimal getDebitDelta() {
+        return debitDelta;
+    }
+
+    public BigDecimal getAssetDelta() {
+        return assetDelta;
+    }
+
+    public BigDecimal getCreditDelta() {
+        return creditDelta;
+    }
+}
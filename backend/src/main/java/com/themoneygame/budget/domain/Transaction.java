@@ -10,7 +10,13 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "transactions")
+@Table(
+        name = "transactions",
+        indexes = {
+                @Index(name = "idx_transactions_user_date_id", columnList = "user_id, date, id"),
+                @Index(name = "idx_transactions_account_date", columnList = "account_id, date")
+        }
+)
 public class Transaction {
 
     @Id
@@ -0,0 +1,19 @@
+package com.themoneygame.budget.domain.enums;
+
+public enum CheckpointKind {
+
+    /**
+     * Баланс, который пользователь сам выставил счёту (создание / редактирование).
+     * Повторная ручная правка за ту же дату перезаписывает отметку. Транзакция задним
+     * числом сдвигает её на свою сумму на месте (shiftFrom), как и ROLLUP;
+     * ручная правка на более раннюю дату — на разницу балансов.
+     */
+    MANUAL,
+
+    /**
+     * Баланс на конец месяца, посчитанный из предыдущей отметки и транзакций.
+     * Не удаляется и не пересчитывается: транзакция задним числом сдвигает на свою
+     * сумму все отметки начиная со своей даты (shiftFrom).
+     */
+    ROLLUP
+}
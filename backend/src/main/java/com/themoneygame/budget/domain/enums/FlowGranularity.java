@@ -0,0 +1,14 @@
+package com.themoneygame.budget.domain.enums;
+
+public enum FlowGranularity {
+
+    /**
+     * Корзина за день: bucket_start = дата.
+     */
+    DAY,
+
+    /**
+     * Корзина за месяц: bucket_start = первое число месяца.
+     */
+    MONTH
+}
@@ -0,0 +1,24 @@
+package com.themoneygame.budget.domain.event;
+
+import java.time.YearMonth;
+
+/**
+ * Доменное событие: у пользователя изменились данные, из которых строится дэшборд.
+ *
+ * month == null — изменение затрагивает все месяцы (например, баланс счёта),
+ * иначе — только указанный месяц.
+ */
+public record BudgetDataChangedEvent(Long userId, YearMonth month) {
+
+    public static BudgetDataChangedEvent allMonths(Long userId) {
+        return new BudgetDataChangedEvent(userId, null);
+    }
+
+    public static BudgetDataChangedEvent forMonth(Long userId, YearMonth month) {
+        return new BudgetDataChangedEvent(userId, month);
+    }
+
+    public boolean affects(YearMonth other) {
+        return month == null || month.equals(other);
+    }
+}
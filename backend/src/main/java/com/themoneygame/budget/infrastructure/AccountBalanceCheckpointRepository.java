@@ -0,0 +1,54 @@
+package com.themoneygame.budget.infrastructure;
+
+import com.themoneygame.budget.domain.AccountBalanceCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Optional;
+
+public interface AccountBalanceCheckpointRepository extends JpaRepository<AccountBalanceCheckpoint, Long> {
+
+    // ближайшая отметка не позже даты (индекс account_id, as_of)
+    Optional<AccountBalanceCheckpoint> findFirstByAccountIdAndAsOfLessThanEqualOrderByAsOfDesc(
+            Long accountId, LocalDate date);
+
+    boolean existsByAccountId(Long accountId);
+
+    Optional<AccountBalanceCheckpoint> findByAccountIdAndAsOf(Long accountId, LocalDate asOf);
+
+    // самая ранняя отметка — начало истории счёта
+    Optional<AccountBalanceCheckpoint> findFirstByAccountIdOrderByAsOfAsc(Long accountId);
+
+    // транзакция с датой from меняет баланс на конец каждого дня начиная с from
+    @Modifying(flushAutomatically = true)
+    @Query("""
+            update AccountBalanceCheckpoint c
+            set c.balance = c.balance + :delta
+            where c.account.id = :accountId
+              and c.asOf >= :from
+            """)
+    int shiftFrom(@Param("accountId") Long accountId,
+                  @Param("from") LocalDate from,
+                  @Param("delta") BigDecimal delta);
+
+    // контекст очищаем: загруженные отметки ссылаются на удаляемый следом счёт
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from AccountBalanceCheckpoint c where c.account.id = :accountId")
+    int deleteByAccountId(@Param("accountId") Long accountId);
+
+    // начальная отметка для счетов, у которых ещё нет ни одной
+    @Modifying
+    @Query(value = """
+            insert into account_balance_checkpoints (account_id, as_of, balance, kind, created_at)
+            select a.id, current_date, a.balance, 'MANUAL', current_timestamp
+            from accounts a
+            where not exists (select 1
+                              from account_balance_checkpoints c
+                              where c.account_id = a.id)
+            """, nativeQuery = true)
+    int insertMissingAnchors();
+}
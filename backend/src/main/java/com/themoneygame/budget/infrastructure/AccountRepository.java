@@ -3,15 +3,49 @@ package com.themoneygame.budget.infrastructure;
 
 import com.themoneygame.auth.domain.User;
 import com.themoneygame.budget.domain.Account;
+import com.themoneygame.budget.infrastructure.projection.FinanceTotalsView;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
 
 public interface AccountRepository extends JpaRepository<Account, Long> {
 
     // уже было — для контроллеров/сервисов
     List<Account> findAllByUser(User user);
 
+    // основной счёт для погашения обязательств (индекс user_id, main_for_payments)
+    Optional<Account> findFirstByUserAndMainForPaymentsTrue(User user);
+
+    // только id — для фоновых задач по всем счетам
+    @Query("select a.id from Account a order by a.id")
+    List<Long> findAllIds();
+
     // нужно для Dashboard, который работает по userId
     List<Account> findByUserId(Long userId);
+
+    // счёт с проверкой владельца: чужой id неотличим от несуществующего
+    Optional<Account> findByIdAndUserId(Long id, Long userId);
+
+    // транзакции двигают баланс одним update, без чтения сущности — параллельные не теряются
+    @Modifying(flushAutomatically = true)
+    @Query("update Account a set a.balance = a.balance + :delta where a.id = :id")
+    int addToBalance(@Param("id") Long id, @Param("delta") BigDecimal delta);
+
+    // агрегаты для виджета финансов — одной строкой, без загрузки сущностей
+    @Query(value = """
+            select coalesce(sum(a.balance)
+                            filter (where a.type not in ('CREDIT_PURCHASE', 'CREDIT_CASH')), 0)
+                       as "totalDebitAndAssets",
+                   coalesce(sum(coalesce(a.credit_limit, 0) - coalesce(a.used_limit, 0))
+                            filter (where a.credit_for_cash_withdrawal), 0)
+                       as "totalCreditForCash"
+            from accounts a
+            where a.user_id = :userId
+            """, nativeQuery = true)
+    FinanceTotalsView aggregateFinanceTotals(@Param("userId") Long userId);
 }
@@ -1,7 +1,10 @@
 package com.themoneygame.budget.infrastructure;
 
 import com.themoneygame.budget.domain.MonthlyIncome;
+import com.themoneygame.budget.infrastructure.projection.IncomePairView;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -13,4 +16,23 @@ public interface MonthlyIncomeRepository extends JpaRepository<MonthlyIncome, Lo
 
     // запись за конкретный месяц
     Optional<MonthlyIncome> findByUserIdAndYearAndMonth(Long userId, int year, int month);
+
+    // доходность за текущий и предыдущий месяц одним запросом (для дэшборда)
+    @Query(value = """
+            select coalesce(sum(mi.total_monthly_income)
+                            filter (where mi.year = :year and mi.month = :month), 0)
+                       as "currentMonthIncome",
+                   coalesce(sum(mi.total_monthly_income)
+                            filter (where mi.year = :prevYear and mi.month = :prevMonth), 0)
+                       as "previousMonthIncome"
+            from monthly_income mi
+            where mi.user_id = :userId
+              and ((mi.year = :year and mi.month = :month)
+                   or (mi.year = :prevYear and mi.month = :prevMonth))
+            """, nativeQuery = true)
+    IncomePairView findIncomePair(@Param("userId") Long userId,
+                                  @Param("year") int year,
+                                  @Param("month") int month,
+                                  @Param("prevYear") int prevYear,
+                                  @Param("prevMonth") int prevMonth);
 }
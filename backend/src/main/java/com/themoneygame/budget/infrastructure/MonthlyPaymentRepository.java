@@ -3,16 +3,51 @@ package com.themoneygame.budget.infrastructure;
 
 import com.themoneygame.auth.domain.User;
 import com.themoneygame.budget.domain.MonthlyPayment;
+import com.themoneygame.budget.infrastructure.projection.MonthTotalsView;
+import com.themoneygame.budget.infrastructure.projection.PaymentRowView;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 public interface MonthlyPaymentRepository extends JpaRepository<MonthlyPayment, Long> {
 
     // Для сервисов, которые работают с объектом User
     List<MonthlyPayment> findAllByUser(User user);
 
+    // платёж с проверкой владельца — одна строка по PK
+    Optional<MonthlyPayment> findByIdAndUserId(Long id, Long userId);
+
+    // keyset-пагинация по (paymentDate, id): первая страница
+    @Query("""
+            select p
+            from MonthlyPayment p
+            left join fetch p.category
+            where p.user.id = :userId
+            order by p.paymentDate, p.id
+            """)
+    List<MonthlyPayment> findPageFirst(@Param("userId") Long userId, Limit limit);
+
+    // keyset-пагинация по (paymentDate, id): страница после курсора
+    @Query("""
+            select p
+            from MonthlyPayment p
+            left join fetch p.category
+            where p.user.id = :userId
+              and (p.paymentDate > :afterDate
+                   or (p.paymentDate = :afterDate and p.id > :afterId))
+            order by p.paymentDate, p.id
+            """)
+    List<MonthlyPayment> findPageAfter(@Param("userId") Long userId,
+                                       @Param("afterDate") LocalDate afterDate,
+                                       @Param("afterId") Long afterId,
+                                       Limit limit);
+
     List<MonthlyPayment> findAllByUserAndPaymentDateBetween(
             User user,
             LocalDate start,
@@ -25,4 +60,96 @@ public interface MonthlyPaymentRepository extends JpaRepository<MonthlyPayment,
             LocalDate start,
             LocalDate end
     );
+
+    // Строки платежей для дэшборда — сразу в DTO, без managed-сущностей
+    @Query("""
+            select new com.themoneygame.budget.infrastructure.projection.PaymentRowView(
+                       p.id, p.title, p.amount, p.paid)
+            from MonthlyPayment p
+            where p.user.id = :userId
+              and p.paymentDate between :start and :end
+            order by p.title
+            """)
+    List<PaymentRowView> findDashboardRows(@Param("userId") Long userId,
+                                           @Param("start") LocalDate start,
+                                           @Param("end") LocalDate end);
+
+    // Помесячные итоги (доход / план / оплачено) за диапазон — один проход
+    // по monthly_income и monthly_payments; месяцы без данных в выборку не попадают
+    @Query(value = """
+            select t.y as "year",
+                   t.m as "month",
+                   sum(t.income) as "income",
+                   sum(t.planned) as "planned",
+                   sum(t.paid) as "paid"
+            from (
+                select mi.year as y,
+                       mi.month as m,
+                       mi.total_monthly_income as income,
+                       0 as planned,
+                       0 as paid
+                from monthly_income mi
+                where mi.user_id = :userId
+                  and mi.year * 12 + mi.month between :fromIndex and :toIndex
+                union all
+                select cast(extract(year from p.payment_date) as integer),
+                       cast(extract(month from p.payment_date) as integer),
+                       0,
+                       p.amount,
+                       case when p.paid then p.amount else 0 end
+                from monthly_payments p
+                where p.user_id = :userId
+                  and p.payment_date between :start and :end
+            ) t
+            group by t.y, t.m
+            order by t.y, t.m
+            """, nativeQuery = true)
+    List<MonthTotalsView> aggregateMonthTotals(@Param("userId") Long userId,
+                                               @Param("fromIndex") int fromIndex,
+                                               @Param("toIndex") int toIndex,
+                                               @Param("start") LocalDate start,
+                                               @Param("end") LocalDate end);
+
+    // Разовая привязка старых оплаченных платежей к их транзакциям погашения —
+    // по тому же признаку, по которому раньше искали транзакцию при отмене оплаты.
+    // Пары подбираются один к одному: за вызов связываются только взаимно первые
+    // кандидаты — наименьшая по id транзакция платежа, для которой он сам первый
+    // платёж. Из платежей первым идёт самое длинное название: "Rent A" точнее "Rent"
+    // и не должен отдать ему свою единственную транзакцию. Связанные выбывают,
+    // поэтому вызывать, пока возвращает > 0; пока пары есть, каждый вызов связывает
+    // хотя бы одну. Платежи без пары не трогаем.
+    @Modifying
+    @Query(value = """
+            with candidates as (
+                select p2.id as payment_id,
+                       t.id as transaction_id,
+                       row_number() over (partition by p2.id order by t.id) as transaction_rank,
+                       row_number() over (partition by t.id order by length(p2.title) desc, p2.id) as payment_rank
+                from monthly_payments p2
+                join transactions t
+                  on t.user_id = p2.user_id
+                 and t.type = 'TRANSFER'
+                 and t.amount = p2.amount
+                 and t.date = p2.payment_date
+                 and t.description like concat('Погашение обязательств: ',
+                         replace(replace(replace(p2.title, '!', '!!'), '%', '!%'), '_', '!_'),
+                         '%') escape '!'
+                where p2.paid = true
+                  and p2.settlement_transaction_id is null
+                  and not exists (select 1
+                                  from monthly_payments p3
+                                  where p3.settlement_transaction_id = t.id)
+            ),
+            matched as (
+                select payment_id, transaction_id
+                from candidates
+                where transaction_rank = 1
+                  and payment_rank = 1
+            )
+            update monthly_payments p
+            set settlement_transaction_id = m.transaction_id
+            from matched m
+            where m.payment_id = p.id
+            """, nativeQuery = true)
+    int backfillSettlementLinks();
 }
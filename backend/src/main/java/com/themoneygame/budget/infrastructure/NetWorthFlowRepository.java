@@ -0,0 +1,52 @@
+package com.themoneygame.budget.infrastructure;
+
+import com.themoneygame.budget.domain.NetWorthFlow;
+import com.themoneygame.budget.infrastructure.projection.NetWorthPointView;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface NetWorthFlowRepository extends JpaRepository<NetWorthFlow, Long> {
+
+    boolean existsByUserId(Long userId);
+
+    // пользователи со счетами, но без истории — для первичного заполнения
+    @Query(value = """
+            select distinct a.user_id
+            from accounts a
+            where not exists (select 1 from net_worth_flows f where f.user_id = a.user_id)
+            """, nativeQuery = true)
+    List<Long> findUserIdsWithoutFlows();
+
+    // накопленные уровни по корзинам за период одним проходом;
+    // плюс последняя корзина до from — от неё считается уровень на начало периода
+    @Query(value = """
+            select t.bucket as "bucketStart",
+                   t.debit as "debit",
+                   t.asset as "asset",
+                   t.credit as "credit"
+            from (
+                select f.bucket_start as bucket,
+                       sum(f.debit_delta) over w as debit,
+                       sum(f.asset_delta) over w as asset,
+                       sum(f.credit_delta) over w as credit,
+                       lead(f.bucket_start) over w as next_bucket
+                from net_worth_flows f
+                where f.user_id = :userId
+                  and f.granularity = :granularity
+                  and f.bucket_start <= :to
+                window w as (order by f.bucket_start)
+            ) t
+            where t.bucket >= :from
+               or t.next_bucket is null
+               or t.next_bucket > :from
+            order by t.bucket
+            """, nativeQuery = true)
+    List<NetWorthPointView> findCumulative(@Param("userId") Long userId,
+                                           @Param("granularity") String granularity,
+                                           @Param("from") LocalDate from,
+                                           @Param("to") LocalDate to);
+}
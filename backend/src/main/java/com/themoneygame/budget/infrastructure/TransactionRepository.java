@@ -2,14 +2,112 @@ package com.themoneygame.budget.infrastructure;
 
 import com.themoneygame.auth.domain.User;
 import com.themoneygame.budget.domain.Transaction;
+import com.themoneygame.budget.infrastructure.projection.DailyTypeSumView;
+import com.themoneygame.budget.infrastructure.projection.TransactionView;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
 
     List<Transaction> findAllByUser(User user);
 
     List<Transaction> findAllByUserAndDateBetween(User user, LocalDate start, LocalDate end);
+
+    // лента: новые сверху, keyset по (date, id) — первая страница
+    @Query("""
+            select new com.themoneygame.budget.infrastructure.projection.TransactionView(
+                       t.id, a.id, a.name, t.type, t.category, t.amount, t.date, t.description)
+            from Transaction t
+            join t.account a
+            where t.user.id = :userId
+              and t.date between :start and :end
+            order by t.date desc, t.id desc
+            """)
+    List<TransactionView> findFeedFirst(@Param("userId") Long userId,
+                                        @Param("start") LocalDate start,
+                                        @Param("end") LocalDate end,
+                                        Limit limit);
+
+    // лента: страница после курсора (строго "старше" него)
+    @Query("""
+            select new com.themoneygame.budget.infrastructure.projection.TransactionView(
+                       t.id, a.id, a.name, t.type, t.category, t.amount, t.date, t.description)
+            from Transaction t
+            join t.account a
+            where t.user.id = :userId
+              and t.date between :start and :end
+              and (t.date < :beforeDate or (t.date = :beforeDate and t.id < :beforeId))
+            order by t.date desc, t.id desc
+            """)
+    List<TransactionView> findFeedAfter(@Param("userId") Long userId,
+                                        @Param("start") LocalDate start,
+                                        @Param("end") LocalDate end,
+                                        @Param("beforeDate") LocalDate beforeDate,
+                                        @Param("beforeId") Long beforeId,
+                                        Limit limit);
+
+    // выгрузка за период курсором БД — только внутри транзакции, поток обязательно закрыть
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+            select new com.themoneygame.budget.infrastructure.projection.TransactionView(
+                       t.id, a.id, a.name, t.type, t.category, t.amount, t.date, t.description)
+            from Transaction t
+            join t.account a
+            where t.user.id = :userId
+              and t.date between :start and :end
+            order by t.date, t.id
+            """)
+    Stream<TransactionView> streamForExport(@Param("userId") Long userId,
+                                            @Param("start") LocalDate start,
+                                            @Param("end") LocalDate end);
+
+    // изменение баланса счёта за (after, upTo]: INCOME — в плюс, остальное — списание
+    @Query("""
+            select coalesce(sum(case
+                                    when t.type = com.themoneygame.budget.domain.enums.TransactionType.INCOME
+                                        then t.amount
+                                    else -t.amount
+                                end), 0)
+            from Transaction t
+            where t.account.id = :accountId
+              and t.date > :after
+              and t.date <= :upTo
+            """)
+    BigDecimal sumSignedAmount(@Param("accountId") Long accountId,
+                               @Param("after") LocalDate after,
+                               @Param("upTo") LocalDate upTo);
+
+    // дневные изменения балансов пользователя по типам счетов — для истории капитала
+    @Query("""
+            select new com.themoneygame.budget.infrastructure.projection.DailyTypeSumView(
+                       t.date,
+                       a.type,
+                       sum(case
+                               when t.type = com.themoneygame.budget.domain.enums.TransactionType.INCOME
+                                   then t.amount
+                               else -t.amount
+                           end))
+            from Transaction t
+            join t.account a
+            where t.user.id = :userId
+            group by t.date, a.type
+            """)
+    List<DailyTypeSumView> sumSignedAmountByDayAndAccountType(@Param("userId") Long userId);
+
+    @Query("select min(t.date) from Transaction t where t.account.id = :accountId")
+    LocalDate findFirstDate(@Param("accountId") Long accountId);
+
+    // счета с транзакциями за период — им нужно подтянуть текущий баланс
+    @Query("select distinct t.account.id from Transaction t where t.date between :from and :to")
+    List<Long> findAccountIdsByDateBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
 }
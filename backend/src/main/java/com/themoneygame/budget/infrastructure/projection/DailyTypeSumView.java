@@ -0,0 +1,12 @@
+package com.themoneygame.budget.infrastructure.projection;
+
+import com.themoneygame.budget.domain.enums.AccountType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Сумма изменений балансов за день по типу счёта.
+ */
+public record DailyTypeSumView(LocalDate date, AccountType accountType, BigDecimal amount) {
+}
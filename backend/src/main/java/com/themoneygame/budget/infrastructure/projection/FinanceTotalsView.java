@@ -0,0 +1,16 @@
+package com.themoneygame.budget.infrastructure.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Агрегаты по счетам пользователя для виджета "Учёт финансов".
+ * Считаются одним запросом в БД (см. AccountRepository.aggregateFinanceTotals).
+ */
+public interface FinanceTotalsView {
+
+    // сумма балансов DEBIT + ASSET (всё, что не долг)
+    BigDecimal getTotalDebitAndAssets();
+
+    // сумма (creditLimit - usedLimit) по кредиткам для снятия наличных
+    BigDecimal getTotalCreditForCash();
+}
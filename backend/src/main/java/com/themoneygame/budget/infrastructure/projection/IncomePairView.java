@@ -0,0 +1,13 @@
+package com.themoneygame.budget.infrastructure.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Доходность за выбранный и предыдущий месяц — одной строкой.
+ */
+public interface IncomePairView {
+
+    BigDecimal getCurrentMonthIncome();
+
+    BigDecimal getPreviousMonthIncome();
+}
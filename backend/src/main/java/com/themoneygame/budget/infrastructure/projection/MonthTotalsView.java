@@ -0,0 +1,19 @@
+package com.themoneygame.budget.infrastructure.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Итоги одного месяца для трендов дэшборда: доход, план и оплачено по платежам.
+ */
+public interface MonthTotalsView {
+
+    Integer getYear();
+
+    Integer getMonth();
+
+    BigDecimal getIncome();
+
+    BigDecimal getPlanned();
+
+    BigDecimal getPaid();
+}
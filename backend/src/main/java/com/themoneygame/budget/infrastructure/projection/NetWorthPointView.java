@@ -0,0 +1,18 @@
+package com.themoneygame.budget.infrastructure.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Накопленные уровни балансов на начало корзины net_worth_flows.
+ */
+public interface NetWorthPointView {
+
+    LocalDate getBucketStart();
+
+    BigDecimal getDebit();
+
+    BigDecimal getAsset();
+
+    BigDecimal getCredit();
+}
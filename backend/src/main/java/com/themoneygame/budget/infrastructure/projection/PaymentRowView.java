@@ -0,0 +1,9 @@
+package com.themoneygame.budget.infrastructure.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Строка платежа для дэшборда — без загрузки сущности MonthlyPayment.
+ */
+public record PaymentRowView(Long id, String title, BigDecimal amount, boolean paid) {
+}
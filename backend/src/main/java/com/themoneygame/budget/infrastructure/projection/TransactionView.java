@@ -0,0 +1,23 @@
+package com.themoneygame.budget.infrastructure.projection;
+
+import com.themoneygame.budget.domain.enums.CategoryType;
+import com.themoneygame.budget.domain.enums.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Транзакция для ленты и выгрузки — плоская строка вместо сущности,
+ * чтобы сериализация не дёргала lazy user/account.
+ */
+public record TransactionView(
+        Long id,
+        Long accountId,
+        String accountName,
+        TransactionType type,
+        CategoryType category,
+        BigDecimal amount,
+        LocalDate date,
+        String description
+) {
+}
@@ -6,14 +6,17 @@ import com.themoneygame.auth.domain.User;
 import com.themoneygame.budget.application.AccountService;
 import com.themoneygame.budget.application.TransactionService;
 import com.themoneygame.budget.domain.Account;
+import com.themoneygame.budget.web.dto.AccountBalanceDto;
 import com.themoneygame.budget.web.dto.AccountDto;
 import org.apache.log4j.Logger;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.apache.log4j.LogManager;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -145,6 +148,23 @@ public class BudgetController {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Баланс счёта на конец указанного дня (по умолчанию — сегодня).
+     *
+     * Считается по журналу: ближайшая отметка баланса + транзакции после неё.
+     */
+    @GetMapping("/accounts/{id}/balance")
+    public AccountBalanceDto getBalanceAsOf(
+            @AuthenticationPrincipal UserDetailsImpl userDetails,
+            @PathVariable Long id,
+            @RequestParam(value = "date", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date
+    ) {
+        User userRef = toUser(userDetails);
+        LocalDate asOf = date != null ? date : LocalDate.now();
+        return new AccountBalanceDto(id, asOf, accountService.getBalanceAsOf(userRef, id, asOf));
+    }
+
     // -------------------------------------------------------
     // MAIN FOR PAYMENTS
     // -------------------------------------------------------
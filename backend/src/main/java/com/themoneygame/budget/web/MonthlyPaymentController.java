@@ -10,8 +10,12 @@ import com.themoneygame.budget.domain.MonthlyPayment;
 import com.themoneygame.budget.infrastructure.AccountRepository;
 import com.themoneygame.budget.web.dto.MonthlyPaymentDto;
 import com.themoneygame.budget.web.dto.CategoryDto; // DTO для категорий
+import com.themoneygame.core.web.CursorPage;
+import com.themoneygame.core.web.DateIdCursor;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -20,6 +24,9 @@ import java.util.stream.Collectors;
 @RequestMapping("/api/budget/payments")
 public class MonthlyPaymentController {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+
     private final MonthlyPaymentService monthlyPaymentService;
     private final AccountRepository accountRepository;
     private final CategoryService categoryService; // Сервис для категорий
@@ -45,16 +52,12 @@ public class MonthlyPaymentController {
     }
 
     private Account findPrimaryDebit(User userRef) {
-        return accountRepository.findAllByUser(userRef).stream()
-                .filter(Account::isMainForPayments)
-                .findFirst()
+        return accountRepository.findFirstByUserAndMainForPaymentsTrue(userRef)
                 .orElseThrow(() -> new RuntimeException("Primary debit account not found"));
     }
 
     private MonthlyPayment findUserPaymentOrThrow(User userRef, Long id) {
-        return monthlyPaymentService.getAll(userRef).stream()
-                .filter(p -> p.getId().equals(id))
-                .findFirst()
+        return monthlyPaymentService.findForUser(userRef, id)
                 .orElseThrow(() -> new RuntimeException("Payment not found"));
     }
 
@@ -75,6 +78,39 @@ public class MonthlyPaymentController {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Платежи постранично (keyset по дате платежа и id).
+     * cursor — значение nextCursor из предыдущей страницы.
+     */
+    @GetMapping("/page")
+    public CursorPage<MonthlyPaymentDto> getPaymentsPage(
+            @AuthenticationPrincipal UserDetailsImpl userDetails,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "" + DEFAULT_PAGE_SIZE) int limit
+    ) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        DateIdCursor after;
+        try {
+            after = (cursor == null || cursor.isBlank()) ? null : DateIdCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+
+        User userRef = toUser(userDetails);
+        List<MonthlyPayment> fetched = monthlyPaymentService.getPage(userRef, after, limit);
+
+        return CursorPage.of(
+                fetched,
+                limit,
+                p -> new DateIdCursor(p.getPaymentDate(), p.getId()).encode(),
+                this::toDto
+        );
+    }
+
     /**
      * Получить платежи конкретного месяца/года.
      */
@@ -144,9 +180,8 @@ public class MonthlyPaymentController {
         User userRef = toUser(userDetails);
 
         MonthlyPayment payment = findUserPaymentOrThrow(userRef, id);
-        Account primaryDebit = findPrimaryDebit(userRef);
 
-        monthlyPaymentService.unmarkAsPaid(payment, primaryDebit);
+        monthlyPaymentService.unmarkAsPaid(payment);
 
         return toDto(payment);
     }
@@ -0,0 +1,53 @@
+package com.themoneygame.budget.web;
+
+import com.themoneygame.auth.application.UserDetailsImpl;
+import com.themoneygame.budget.application.NetWorthService;
+import com.themoneygame.budget.domain.enums.FlowGranularity;
+import com.themoneygame.budget.web.dto.NetWorthPointDto;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/budget/net-worth")
+public class NetWorthController {
+
+    private final NetWorthService netWorthService;
+
+    public NetWorthController(NetWorthService netWorthService) {
+        this.netWorthService = netWorthService;
+    }
+
+    /**
+     * График капитала: по точке на каждый день/месяц периода.
+     *
+     * Пример: /api/budget/net-worth/history?from=2021-01-01&to=2025-12-31&granularity=MONTH
+     */
+    @GetMapping("/history")
+    public List<NetWorthPointDto> getHistory(
+            @AuthenticationPrincipal UserDetailsImpl userDetails,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "MONTH") FlowGranularity granularity
+    ) {
+        LocalDate end = to != null ? to : LocalDate.now();
+
+        if (from.isAfter(end)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'from' must not be after 'to'");
+        }
+        if (NetWorthService.bucketCount(granularity, from, end) > NetWorthService.MAX_POINTS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Too many points, max " + NetWorthService.MAX_POINTS);
+        }
+
+        return netWorthService.getHistory(userDetails.getId(), granularity, from, end);
+    }
+}
@@ -3,28 +3,53 @@ package com.themoneygame.budget.web;
 
 import com.themoneygame.auth.application.UserDetailsImpl;
 import com.themoneygame.auth.domain.User;
+import com.themoneygame.budget.application.TransactionImportResult;
+import com.themoneygame.budget.application.TransactionImportService;
+import com.themoneygame.budget.application.TransactionService;
 import com.themoneygame.budget.domain.Account;
 import com.themoneygame.budget.domain.Transaction;
 import com.themoneygame.budget.infrastructure.AccountRepository;
 import com.themoneygame.budget.infrastructure.TransactionRepository;
+import com.themoneygame.budget.infrastructure.projection.TransactionView;
+import com.themoneygame.budget.web.dto.TransactionImportRow;
+import com.themoneygame.core.web.CursorPage;
+import com.themoneygame.core.web.DateIdCursor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.util.List;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/budget")
 public class TransactionController {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final TransactionRepository transactionRepository;
     private final AccountRepository accountRepository;
+    private final TransactionService transactionService;
+    private final TransactionImportService importService;
 
     public TransactionController(TransactionRepository transactionRepository,
-                                 AccountRepository accountRepository) {
+                                 AccountRepository accountRepository,
+                                 TransactionService transactionService,
+                                 TransactionImportService importService) {
         this.transactionRepository = transactionRepository;
         this.accountRepository = accountRepository;
+        this.transactionService = transactionService;
+        this.importService = importService;
     }
 
     // ---------- Список транзакций за выбранный месяц ----------
@@ -48,6 +73,63 @@ public class TransactionController {
         return transactionRepository.findAllByUserAndDateBetween(userRef, start, end);
     }
 
+    // ---------- Лента транзакций за период (keyset, новые сверху) ----------
+
+    @GetMapping("/transactions/feed")
+    public CursorPage<TransactionView> getFeed(
+            @AuthenticationPrincipal UserDetailsImpl userDetails,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "" + DEFAULT_PAGE_SIZE) int limit
+    ) {
+        checkPeriod(from, to);
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        DateIdCursor after;
+        try {
+            after = (cursor == null || cursor.isBlank()) ? null : DateIdCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+
+        List<TransactionView> fetched =
+                transactionService.getFeed(userDetails.toUser(), from, to, after, limit);
+
+        return CursorPage.of(
+                fetched,
+                limit,
+                t -> new DateIdCursor(t.date(), t.id()).encode(),
+                t -> t
+        );
+    }
+
+    // ---------- Выгрузка за период потоком NDJSON (для больших диапазонов) ----------
+
+    @GetMapping("/transactions/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @AuthenticationPrincipal UserDetailsImpl userDetails,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        checkPeriod(from, to);
+        User userRef = userDetails.toUser();
+
+        StreamingResponseBody body = out -> transactionService.exportNdjson(userRef, from, to, out);
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .body(body);
+    }
+
+    private static void checkPeriod(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'from' must not be after 'to'");
+        }
+    }
+
     // ---------- Создать новую транзакцию (кнопка "Добавить операцию") ----------
 
     @PostMapping("/transactions")
@@ -60,10 +142,10 @@ public class TransactionController {
         userRef.setId(userDetails.getId());
         tx.setUser(userRef);
 
-        // подтягиваем реальный аккаунт по ID из тела запроса
+        // подтягиваем реальный аккаунт по ID из тела запроса — только среди счетов пользователя
         if (tx.getAccount() != null && tx.getAccount().getId() != null) {
-            Account acc = accountRepository.findById(tx.getAccount().getId())
-                    .orElseThrow(() -> new RuntimeException("Account not found"));
+            Account acc = accountRepository.findByIdAndUserId(tx.getAccount().getId(), userDetails.getId())
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Account not found"));
             tx.setAccount(acc);
         }
 
@@ -72,6 +154,38 @@ public class TransactionController {
             tx.setDate(LocalDate.now());
         }
 
-        return transactionRepository.save(tx);
+        return transactionService.save(tx);
+    }
+
+    // ---------- Массовый импорт выписки ----------
+
+    @PostMapping(value = "/transactions/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<TransactionImportResult> importJson(
+            @AuthenticationPrincipal UserDetailsImpl userDetails,
+            @RequestBody List<TransactionImportRow> rows
+    ) {
+        return toImportResponse(() -> importService.importRows(userDetails.toUser(), rows));
+    }
+
+    @PostMapping(value = "/transactions/import", consumes = "text/csv")
+    public ResponseEntity<TransactionImportResult> importCsv(
+            @AuthenticationPrincipal UserDetailsImpl userDetails,
+            @RequestBody String csv
+    ) {
+        return toImportResponse(() -> importService.importCsv(userDetails.toUser(), csv));
+    }
+
+    // ошибки в строках → 400 с их списком, ничего не записано
+    private ResponseEntity<TransactionImportResult> toImportResponse(
+            Supplier<TransactionImportResult> action) {
+        TransactionImportResult result;
+        try {
+            result = action.get();
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        return result.hasErrors()
+                ? ResponseEntity.badRequest().body(result)
+                : ResponseEntity.ok(result);
     }
 }
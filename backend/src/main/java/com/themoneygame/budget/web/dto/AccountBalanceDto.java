@@ -0,0 +1,47 @@
+package com.themoneygame.budget.web.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Баланс счёта на дату (GET /api/budget/accounts/{id}/balance).
+ */
+public class AccountBalanceDto {
+
+    private Long accountId;
+    private LocalDate date;
+    private BigDecimal balance;
+
+    public AccountBalanceDto() {
+    }
+
+    public AccountBalanceDto(Long accountId, LocalDate date, BigDecimal balance) {
+        this.accountId = accountId;
+        this.date = date;
+        this.balance = balance;
+    }
+
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    public void setBalance(BigDecimal balance) {
+        this.balance = balance;
+    }
+}
@@ -0,0 +1,68 @@
+package com.themoneygame.budget.web.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Точка графика капитала: балансы по группам счетов на конец корзины.
+ * netWorth — как в виджете финансов дэшборда: дебет + активы.
+ */
+public class NetWorthPointDto {
+
+    private LocalDate date;
+    private BigDecimal debit;
+    private BigDecimal asset;
+    private BigDecimal credit;
+    private BigDecimal netWorth;
+
+    public NetWorthPointDto() {
+    }
+
+    public NetWorthPointDto(LocalDate date, BigDecimal debit, BigDecimal asset, BigDecimal credit) {
+        this.date = date;
+        this.debit = debit;
+        this.asset = asset;
+        this.credit = credit;
+        this.netWorth = debit.add(asset);
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public BigDecimal getDebit() {
+        return debit;
+    }
+
+    public void setDebit(BigDecimal debit) {
+        this.debit = debit;
+    }
+
+    public BigDecimal getAsset() {
+        return asset;
+    }
+
+    public void setAsset(BigDecimal asset) {
+        this.asset = asset;
+    }
+
+    public BigDecimal getCredit() {
+        return credit;
+    }
+
+    public void setCredit(BigDecimal credit) {
+        this.credit = credit;
+    }
+
+    public BigDecimal getNetWorth() {
+        return netWorth;
+    }
+
+    public void setNetWorth(BigDecimal netWorth) {
+        this.netWorth = netWorth;
+    }
+}
@@ -0,0 +1,79 @@
+package com.themoneygame.budget.web.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Строка выписки для массового импорта транзакций.
+ * type / category — имена констант TransactionType / CategoryType.
+ */
+public class TransactionImportRow {
+
+    private Long accountId;
+    private String type;
+    private String category;
+    private BigDecimal amount;
+    private LocalDate date;
+    private String description;
+
+    public TransactionImportRow() {
+    }
+
+    public TransactionImportRow(Long accountId, String type, String category,
+                                BigDecimal amount, LocalDate date, String description) {
+        this.accountId = accountId;
+        this.type = type;
+        this.category = category;
+        this.amount = amount;
+        this.date = date;
+        this.description = description;
+    }
+
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+}
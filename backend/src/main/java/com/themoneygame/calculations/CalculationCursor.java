@@ -0,0 +1,41 @@
+package com.themoneygame.calculations;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Позиция в общей истории, упорядоченной по (createdAt desc, kind, id desc).
+ * id уникален только внутри своей таблицы, поэтому kind входит в ключ.
+ * Для клиента — непрозрачная строка base64url("createdAt|KIND|id").
+ */
+public record CalculationCursor(LocalDateTime createdAt, CalculationKind kind, long id) {
+
+    public static CalculationCursor of(CalculationHistoryItem item) {
+        return new CalculationCursor(item.createdAt(), item.kind(), item.id());
+    }
+
+    public String encode() {
+        String raw = createdAt + "|" + kind + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException если курсор повреждён
+     */
+    public static CalculationCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            return new CalculationCursor(
+                    LocalDateTime.parse(parts[0]),
+                    CalculationKind.valueOf(parts[1]),
+                    Long.parseLong(parts[2])
+            );
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+}
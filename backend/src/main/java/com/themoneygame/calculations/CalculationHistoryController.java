@@ -0,0 +1,70 @@
+package com.themoneygame.calculations;
+
+import com.themoneygame.auth.application.AuthenticatedUser;
+import com.themoneygame.core.web.CursorPage;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/calculations")
+public class CalculationHistoryController {
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 200;
+
+    private final CalculationHistoryService service;
+    private final AuthenticatedUser currentUser;
+
+    public CalculationHistoryController(CalculationHistoryService service, AuthenticatedUser currentUser) {
+        this.service = service;
+        this.currentUser = currentUser;
+    }
+
+    /**
+     * GET /api/calculations/history?kind=INSTALLMENT&cursor=...&limit=20
+     * Сохранённые расчёты всех калькуляторов одной лентой, новые сверху.
+     * nextCursor == null — дальше ничего нет.
+     */
+    @GetMapping("/history")
+    public CursorPage<CalculationHistoryItem> history(
+            @RequestParam(required = false) CalculationKind kind,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "" + DEFAULT_PAGE_SIZE) int limit
+    ) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        CalculationCursor after;
+        try {
+            after = (cursor == null || cursor.isBlank()) ? null : CalculationCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+
+        List<CalculationHistoryItem> fetched = service.getPage(currentUser.getId(), kind, after, limit);
+
+        return CursorPage.of(
+                fetched,
+                limit,
+                item -> CalculationCursor.of(item).encode(),
+                item -> item
+        );
+    }
+
+    /**
+     * DELETE /api/calculations/{kind}/{id}
+     */
+    @DeleteMapping("/{kind}/{id}")
+    public void delete(@PathVariable CalculationKind kind, @PathVariable Long id) {
+        try {
+            service.delete(currentUser.getId(), kind, id);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
+        }
+    }
+}
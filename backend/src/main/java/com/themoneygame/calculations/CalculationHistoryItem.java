@@ -0,0 +1,23 @@
+package com.themoneygame.calculations;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Строка общей истории расчётов — проекция, собирается прямо в JPQL (select new ...).
+ *
+ * amount / result по видам:
+ *  - AVERAGE_PRICE: сумма покупки / итоговая средняя;
+ *  - INSTALLMENT: сумма покупки / выгода при равных платежах;
+ *  - CAPITAL_INFLATION: стартовый капитал / null, итог — в resultText.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record CalculationHistoryItem(CalculationKind kind,
+                                     Long id,
+                                     LocalDateTime createdAt,
+                                     BigDecimal amount,
+                                     BigDecimal result,
+                                     String resultText) {
+}
@@ -0,0 +1,22 @@
+package com.themoneygame.calculations;
+
+import java.util.List;
+
+public interface CalculationHistoryService {
+
+    /**
+     * Страница общей истории: новые сверху.
+     * Возвращает до limit + 1 строк — лишняя только сигнализирует о продолжении (см. CursorPage.of).
+     *
+     * @param kind  null — все калькуляторы
+     * @param after null — первая страница
+     */
+    List<CalculationHistoryItem> getPage(Long userId, CalculationKind kind, CalculationCursor after, int limit);
+
+    /**
+     * Удалить сохранённый расчёт одним DELETE ... WHERE id = ? AND user_id = ?.
+     *
+     * @throws IllegalArgumentException нет такого расчёта у пользователя
+     */
+    void delete(Long userId, CalculationKind kind, Long id);
+}
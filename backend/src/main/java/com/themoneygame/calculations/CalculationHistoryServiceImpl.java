@@ -0,0 +1,101 @@
+package com.themoneygame.calculations;
+
+import com.themoneygame.banks.installment.InstallmentCalculationRepository;
+import com.themoneygame.investments.averageprice.AveragePriceCalculationRepository;
+import com.themoneygame.investments.inflation.CapitalInflationRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Общая лента сохранённых расчётов.
+ *
+ * Каждая таблица отдаёт свою keyset-страницу по индексу (user_id, created_at) —
+ * не больше limit + 1 строк-проекций, — и три отсортированных списка сливаются
+ * в памяти. Сколько бы расчётов ни накопил пользователь, страница стоит
+ * три коротких range-скана.
+ */
+@Service
+@Transactional(readOnly = true)
+public class CalculationHistoryServiceImpl implements CalculationHistoryService {
+
+    /** Порядок ленты; совпадает с условиями findHistoryAfter (см. bound). */
+    static final Comparator<CalculationHistoryItem> ORDER =
+            Comparator.comparing(CalculationHistoryItem::createdAt).reversed()
+                    .thenComparing(CalculationHistoryItem::kind)
+                    .thenComparing(CalculationHistoryItem::id, Comparator.reverseOrder());
+
+    private final AveragePriceCalculationRepository averagePriceRepository;
+    private final InstallmentCalculationRepository installmentRepository;
+    private final CapitalInflationRepository capitalInflationRepository;
+
+    public CalculationHistoryServiceImpl(AveragePriceCalculationRepository averagePriceRepository,
+                                         InstallmentCalculationRepository installmentRepository,
+                                         CapitalInflationRepository capitalInflationRepository) {
+        this.averagePriceRepository = averagePriceRepository;
+        this.installmentRepository = installmentRepository;
+        this.capitalInflationRepository = capitalInflationRepository;
+    }
+
+    @Override
+    public List<CalculationHistoryItem> getPage(Long userId, CalculationKind kind, CalculationCursor after, int limit) {
+        Limit fetch = Limit.of(limit + 1);
+
+        List<CalculationHistoryItem> merged = new ArrayList<>();
+        for (CalculationKind k : CalculationKind.values()) {
+            if (kind == null || kind == k) {
+                merged.addAll(fetch(userId, k, after, fetch));
+            }
+        }
+        merged.sort(ORDER);
+        return merged.size() > limit + 1 ? merged.subList(0, limit + 1) : merged;
+    }
+
+    @Override
+    @Transactional
+    public void delete(Long userId, CalculationKind kind, Long id) {
+        int deleted = switch (kind) {
+            case AVERAGE_PRICE -> averagePriceRepository.deleteByIdAndUserId(id, userId);
+            case INSTALLMENT -> installmentRepository.deleteByIdAndUserId(id, userId);
+            case CAPITAL_INFLATION -> capitalInflationRepository.deleteByIdAndUserId(id, userId);
+        };
+        if (deleted == 0) {
+            throw new IllegalArgumentException("Calculation not found: " + kind + "/" + id);
+        }
+    }
+
+    private List<CalculationHistoryItem> fetch(Long userId, CalculationKind kind, CalculationCursor after, Limit limit) {
+        if (after == null) {
+            return switch (kind) {
+                case AVERAGE_PRICE -> averagePriceRepository.findHistoryFirst(userId, limit);
+                case INSTALLMENT -> installmentRepository.findHistoryFirst(userId, limit);
+                case CAPITAL_INFLATION -> capitalInflationRepository.findHistoryFirst(userId, limit);
+            };
+        }
+        LocalDateTime beforeTime = after.createdAt();
+        long beforeId = bound(kind, after);
+        return switch (kind) {
+            case AVERAGE_PRICE -> averagePriceRepository.findHistoryAfter(userId, beforeTime, beforeId, limit);
+            case INSTALLMENT -> installmentRepository.findHistoryAfter(userId, beforeTime, beforeId, limit);
+            case CAPITAL_INFLATION -> capitalInflationRepository.findHistoryAfter(userId, beforeTime, beforeId, limit);
+        };
+    }
+
+    /**
+     * Граница по id для таблицы kind при общем курсоре (createdAt, cursorKind, id):
+     * при том же createdAt строки видов "раньше" cursorKind уже отданы целиком,
+     * "позже" — ещё ни одна, своего вида — до id курсора.
+     */
+    private static long bound(CalculationKind kind, CalculationCursor after) {
+        int cmp = kind.compareTo(after.kind());
+        if (cmp < 0) {
+            return Long.MIN_VALUE;   // только createdAt < курсора
+        }
+        return cmp == 0 ? after.id() : Long.MAX_VALUE;
+    }
+}
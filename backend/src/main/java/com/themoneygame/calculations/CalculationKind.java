@@ -0,0 +1,11 @@
+package com.themoneygame.calculations;
+
+/**
+ * Калькуляторы, чьи сохранённые расчёты попадают в общую историю.
+ * Порядок констант — порядок записей с одинаковым createdAt в ленте.
+ */
+public enum CalculationKind {
+    AVERAGE_PRICE,
+    INSTALLMENT,
+    CAPITAL_INFLATION
+}
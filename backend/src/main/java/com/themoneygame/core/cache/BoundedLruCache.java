@@ -0,0 +1,153 @@
+package com.themoneygame.core.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * Простой in-memory кэш с ограничением по количеству записей (LRU)
+ * и временем жизни записи (TTL). Считает попадания/промахи/вытеснения.
+ *
+ * Опционально — ограничение по "весу" (приблизительному размеру в байтах):
+ * weigher оценивает значение при записи, вытесняются самые старые записи,
+ * пока суммарный вес не уложится в maxWeight.
+ *
+ * Потокобезопасен: все операции под монитором самого кэша —
+ * значения мы не вычисляем внутри блокировки (см. getOrCompute).
+ */
+public class BoundedLruCache<K, V> {
+
+    private final String name;
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final long maxWeight;
+    private final ToLongFunction<? super V> weigher;   // null — вес не считается
+
+    private final LinkedHashMap<K, Entry<V>> map;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long weight;
+
+    public BoundedLruCache(String name, int maxEntries, Duration ttl) {
+        this(name, maxEntries, ttl, Long.MAX_VALUE, null);
+    }
+
+    public BoundedLruCache(String name,
+                           int maxEntries,
+                           Duration ttl,
+                           long maxWeight,
+                           ToLongFunction<? super V> weigher) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive: " + maxEntries);
+        }
+        if (maxWeight <= 0) {
+            throw new IllegalArgumentException("maxWeight must be positive: " + maxWeight);
+        }
+        this.name = name;
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        // accessOrder = true → порядок обхода от самой "старой" записи к самой свежей
+        this.map = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Значение из кэша или null (если нет / протухло).
+     */
+    public synchronized V get(K key) {
+        Entry<V> e = map.get(key);
+        if (e == null) {
+            misses++;
+            return null;
+        }
+        if (isExpired(e, System.nanoTime())) {
+            map.remove(key);
+            weight -= e.weight;
+            evictions++;
+            misses++;
+            return null;
+        }
+        hits++;
+        return e.value;
+    }
+
+    public synchronized void put(K key, V value) {
+        long w = weigher != null ? weigher.applyAsLong(value) : 0;
+        if (w > maxWeight) {
+            // больше всего кэша — не кладём, иначе вытеснили бы всё остальное
+            invalidate(key);
+            return;
+        }
+        Entry<V> previous = map.put(key, new Entry<>(value, System.nanoTime(), w));
+        weight += w - (previous != null ? previous.weight : 0);
+        while (map.size() > maxEntries || weight > maxWeight) {
+            Iterator<Map.Entry<K, Entry<V>>> it = map.entrySet().iterator();
+            weight -= it.next().getValue().weight;
+            it.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * Достать значение или посчитать его через loader и положить в кэш.
+     * loader выполняется вне блокировки: при гонке значение просто посчитается дважды.
+     * Если loader вернул null — ничего не кэшируем.
+     */
+    public V getOrCompute(K key, Function<? super K, ? extends V> loader) {
+        V cached = get(key);
+        if (cached != null) {
+            return cached;
+        }
+        V value = loader.apply(key);
+        if (value != null) {
+            put(key, value);
+        }
+        return value;
+    }
+
+    public synchronized void invalidate(K key) {
+        Entry<V> e = map.remove(key);
+        if (e != null) {
+            weight -= e.weight;
+        }
+    }
+
+    public synchronized void invalidateIf(Predicate<? super K> predicate) {
+        map.entrySet().removeIf(e -> {
+            if (predicate.test(e.getKey())) {
+                weight -= e.getValue().weight;
+                return true;
+            }
+            return false;
+        });
+    }
+
+    public synchronized void clear() {
+        map.clear();
+        weight = 0;
+    }
+
+    public synchronized CacheStats stats() {
+        return new CacheStats(name, map.size(), maxEntries, hits, misses, evictions,
+                weigher != null ? weight : null,
+                weigher != null ? maxWeight : null);
+    }
+
+    private boolean isExpired(Entry<V> e, long now) {
+        return now - e.createdAtNanos > ttlNanos;
+    }
+
+    private record Entry<V>(V value, long createdAtNanos, long weight) {
+    }
+}
@@ -0,0 +1,43 @@
+package com.themoneygame.core.cache;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.ToLongFunction;
+
+/**
+ * Реестр всех in-memory кэшей приложения —
+ * чтобы метрики можно было посмотреть в одном месте (/api/admin/caches).
+ */
+@Component
+public class CacheRegistry {
+
+    private final List<BoundedLruCache<?, ?>> caches = new CopyOnWriteArrayList<>();
+
+    public <K, V> BoundedLruCache<K, V> create(String name, int maxEntries, Duration ttl) {
+        BoundedLruCache<K, V> cache = new BoundedLruCache<>(name, maxEntries, ttl);
+        caches.add(cache);
+        return cache;
+    }
+
+    /**
+     * Кэш, ограниченный ещё и суммарным весом значений (см. BoundedLruCache).
+     */
+    public <K, V> BoundedLruCache<K, V> create(String name,
+                                               int maxEntries,
+                                               Duration ttl,
+                                               long maxWeight,
+                                               ToLongFunction<? super V> weigher) {
+        BoundedLruCache<K, V> cache = new BoundedLruCache<>(name, maxEntries, ttl, maxWeight, weigher);
+        caches.add(cache);
+        return cache;
+    }
+
+    public List<CacheStats> stats() {
+        return caches.stream()
+                .map(BoundedLruCache::stats)
+                .toList();
+    }
+}
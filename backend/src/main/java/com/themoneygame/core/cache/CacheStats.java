@@ -0,0 +1,23 @@
+package com.themoneygame.core.cache;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Снимок метрик кэша для мониторинга.
+ * weight / maxWeight — только у кэшей с ограничением по весу (байты, оценка).
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record CacheStats(String name,
+                         int size,
+                         int maxSize,
+                         long hits,
+                         long misses,
+                         long evictions,
+                         Long weight,
+                         Long maxWeight) {
+
+    public double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+}
@@ -0,0 +1,40 @@
+package com.themoneygame.core.cache;
+
+import java.math.BigDecimal;
+
+/**
+ * Ключ кэша из параметров запроса в каноническом виде.
+ *
+ * BigDecimal приводятся без учёта масштаба (8, 8.0 и 8.00 дают один ключ),
+ * null кодируется отдельно от любого значения. Сам ключ — строка:
+ * коллизий хэша не боимся, equals сравнивает содержимое целиком.
+ */
+public final class CanonicalKey {
+
+    private static final char SEPARATOR = '|';
+    private static final String NULL = "~";
+
+    private CanonicalKey() {
+    }
+
+    public static String of(Object... parts) {
+        StringBuilder sb = new StringBuilder(parts.length * 8);
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                sb.append(SEPARATOR);
+            }
+            sb.append(canonical(parts[i]));
+        }
+        return sb.toString();
+    }
+
+    private static String canonical(Object part) {
+        if (part == null) {
+            return NULL;
+        }
+        if (part instanceof BigDecimal d) {
+            return d.signum() == 0 ? "0" : d.stripTrailingZeros().toPlainString();
+        }
+        return part.toString();
+    }
+}
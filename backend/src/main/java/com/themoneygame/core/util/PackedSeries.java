@@ -0,0 +1,163 @@
+package com.themoneygame.core.util;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.Arrays;
+
+/**
+ * Компактная упаковка числовых рядов (графиков) в byte[] для хранения в bytea.
+ *
+ * Данные — столбцы long одинаковой длины (обычно суммы в копейках),
+ * пустое значение — {@link #NULL}. Соседние точки графика близки, поэтому
+ * каждый столбец пишется разностями в zigzag-varint: точка ≈ 2–4 байта вместо
+ * десятков байт в JSON.
+ *
+ * Формат: [версия][строк varint][столбцов varint], затем на столбец:
+ *  - 0 — все значения пустые (дальше ничего);
+ *  - 1 — без пустых: zigzag(delta) на каждую строку;
+ *  - 2 — с пустыми: 0 — пусто, иначе zigzag(delta) + 1 (delta от последнего непустого).
+ */
+public final class PackedSeries {
+
+    public static final long NULL = Long.MIN_VALUE;
+
+    private static final int VERSION = 1;
+
+    private static final int ALL_NULL = 0;
+    private static final int DENSE = 1;
+    private static final int NULLABLE = 2;
+
+    private PackedSeries() {
+    }
+
+    /**
+     * @param columns columns[столбец][строка], все столбцы одной длины
+     */
+    public static byte[] encode(long[][] columns) {
+        int rows = columns.length > 0 ? columns[0].length : 0;
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8 + columns.length * rows * 3);
+        out.write(VERSION);
+        writeVarint(out, rows);
+        writeVarint(out, columns.length);
+
+        for (long[] column : columns) {
+            if (column.length != rows) {
+                throw new IllegalArgumentException("All columns must have " + rows + " rows");
+            }
+            int nulls = 0;
+            for (long v : column) {
+                if (v == NULL) nulls++;
+            }
+
+            if (nulls == rows) {
+                out.write(ALL_NULL);
+                continue;
+            }
+            out.write(nulls == 0 ? DENSE : NULLABLE);
+
+            long prev = 0;
+            for (long v : column) {
+                if (v == NULL) {
+                    writeVarint(out, 0);
+                    continue;
+                }
+                long zz = zigzag(v - prev);
+                writeVarint(out, nulls == 0 ? zz : zz + 1);
+                prev = v;
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * @return columns[столбец][строка]
+     */
+    public static long[][] decode(byte[] data) {
+        int[] pos = {0};
+        int version = data[pos[0]++];
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported packed series version: " + version);
+        }
+        int rows = (int) readVarint(data, pos);
+        int cols = (int) readVarint(data, pos);
+
+        long[][] columns = new long[cols][rows];
+        for (int c = 0; c < cols; c++) {
+            long[] column = columns[c];
+            int mode = data[pos[0]++];
+            if (mode == ALL_NULL) {
+                Arrays.fill(column, NULL);
+                continue;
+            }
+
+            long prev = 0;
+            for (int r = 0; r < rows; r++) {
+                long raw = readVarint(data, pos);
+                if (mode == NULLABLE) {
+                    if (raw == 0) {
+                        column[r] = NULL;
+                        continue;
+                    }
+                    raw--;
+                }
+                prev += unzigzag(raw);
+                column[r] = prev;
+            }
+        }
+        return columns;
+    }
+
+    // --------- сумма ↔ копейки ---------
+
+    /**
+     * @throws IllegalArgumentException сумма в копейках не помещается в long
+     *                                  (Long.MIN_VALUE тоже: это {@link #NULL})
+     */
+    public static long toCents(BigDecimal value) {
+        if (value == null) {
+            return NULL;
+        }
+        BigInteger cents = value.setScale(2, RoundingMode.HALF_UP).unscaledValue();
+        if (cents.bitLength() > 63 || cents.longValue() == NULL) {
+            throw new IllegalArgumentException("Amount is out of range: " + value.toPlainString());
+        }
+        return cents.longValue();
+    }
+
+    public static BigDecimal fromCents(long cents) {
+        return cents != NULL ? BigDecimal.valueOf(cents, 2) : null;
+    }
+
+    // --------- private helpers ---------
+
+    private static long zigzag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    private static long unzigzag(long v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long v) {
+        while ((v & ~0x7FL) != 0) {
+            out.write((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.write((int) v);
+    }
+
+    private static long readVarint(byte[] data, int[] pos) {
+        long result = 0;
+        int shift = 0;
+        while (true) {
+            byte b = data[pos[0]++];
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+            shift += 7;
+        }
+    }
+}
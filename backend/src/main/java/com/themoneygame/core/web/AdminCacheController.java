@@ -0,0 +1,29 @@
+package com.themoneygame.core.web;
+
+import com.themoneygame.core.cache.CacheRegistry;
+import com.themoneygame.core.cache.CacheStats;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * GET /api/admin/caches — размер и hit/miss по всем in-memory кэшам.
+ * Доступ только для ROLE_ADMIN (см. SecurityConfig).
+ */
+@RestController
+@RequestMapping("/api/admin/caches")
+public class AdminCacheController {
+
+    private final CacheRegistry cacheRegistry;
+
+    public AdminCacheController(CacheRegistry cacheRegistry) {
+        this.cacheRegistry = cacheRegistry;
+    }
+
+    @GetMapping
+    public List<CacheStats> getStats() {
+        return cacheRegistry.stats();
+    }
+}
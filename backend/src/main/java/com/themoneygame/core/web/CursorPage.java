@@ -0,0 +1,26 @@
+package com.themoneygame.core.web;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Страница keyset-пагинации: элементы + курсор следующей страницы
+ * (null — дальше ничего нет).
+ */
+public record CursorPage<T>(List<T> items, String nextCursor) {
+
+    /**
+     * Репозиторий выбирает limit + 1 строку: лишняя строка только сигнализирует,
+     * что есть продолжение, и в ответ не попадает.
+     */
+    public static <E, T> CursorPage<T> of(List<E> fetched,
+                                          int limit,
+                                          Function<E, String> cursorOf,
+                                          Function<E, T> mapper) {
+        boolean hasMore = fetched.size() > limit;
+        List<E> page = hasMore ? fetched.subList(0, limit) : fetched;
+
+        String next = hasMore ? cursorOf.apply(page.get(page.size() - 1)) : null;
+        return new CursorPage<>(page.stream().map(mapper).toList(), next);
+    }
+}
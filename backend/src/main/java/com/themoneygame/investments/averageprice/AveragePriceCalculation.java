@@ -7,7 +7,10 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "avg_price_calculations")
+@Table(
+        name = "avg_price_calculations",
+        indexes = @Index(name = "idx_avg_price_calculations_user_created", columnList = "user_id, created_at")
+)
 public class AveragePriceCalculation {
 
     @Id
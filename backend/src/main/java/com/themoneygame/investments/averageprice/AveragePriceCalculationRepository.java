@@ -1,10 +1,45 @@
 package com.themoneygame.investments.averageprice;
 
+import com.themoneygame.calculations.CalculationHistoryItem;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface AveragePriceCalculationRepository extends JpaRepository<AveragePriceCalculation, Long> {
 
     List<AveragePriceCalculation> findByUserIdOrderByCreatedAtDesc(Long userId);
+
+    // общая история (см. CalculationHistoryService): первая страница, keyset по (createdAt, id)
+    @Query("""
+            select new com.themoneygame.calculations.CalculationHistoryItem(
+                com.themoneygame.calculations.CalculationKind.AVERAGE_PRICE, c.id, c.createdAt, c.investAmount, c.resultAveragePrice, cast(null as String))
+            from AveragePriceCalculation c
+            where c.user.id = :userId
+            order by c.createdAt desc, c.id desc
+            """)
+    List<CalculationHistoryItem> findHistoryFirst(@Param("userId") Long userId, Limit limit);
+
+    // общая история: строки строго "старше" (beforeTime, beforeId)
+    @Query("""
+            select new com.themoneygame.calculations.CalculationHistoryItem(
+                com.themoneygame.calculations.CalculationKind.AVERAGE_PRICE, c.id, c.createdAt, c.investAmount, c.resultAveragePrice, cast(null as String))
+            from AveragePriceCalculation c
+            where c.user.id = :userId
+              and (c.createdAt < :beforeTime or (c.createdAt = :beforeTime and c.id < :beforeId))
+            order by c.createdAt desc, c.id desc
+            """)
+    List<CalculationHistoryItem> findHistoryAfter(@Param("userId") Long userId,
+                                                  @Param("beforeTime") LocalDateTime beforeTime,
+                                                  @Param("beforeId") Long beforeId,
+                                                  Limit limit);
+
+    // удаление без предварительного чтения строки; 0 — чужой или несуществующий расчёт
+    @Modifying
+    @Query("delete from AveragePriceCalculation c where c.id = :id and c.user.id = :userId")
+    int deleteByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
 }
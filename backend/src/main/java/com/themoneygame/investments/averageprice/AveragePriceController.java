@@ -1,12 +1,16 @@
 package com.themoneygame.investments.averageprice;
 
-import com.themoneygame.auth.domain.User;
-import com.themoneygame.auth.infrastructure.UserRepository;
+import com.themoneygame.auth.application.AuthenticatedUser;
 import com.themoneygame.investments.averageprice.dto.AveragePriceRequest;
 import com.themoneygame.investments.averageprice.dto.AveragePriceResponse;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
+import com.themoneygame.investments.averageprice.dto.LadderRequest;
+import com.themoneygame.investments.averageprice.dto.LadderResponse;
+import com.themoneygame.investments.averageprice.dto.PositionLotRequest;
+import com.themoneygame.investments.averageprice.dto.PositionLotResponse;
+import com.themoneygame.investments.averageprice.dto.PositionResponse;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 
@@ -15,18 +19,15 @@ import java.util.List;
 public class AveragePriceController {
 
     private final AveragePriceService service;
-    private final UserRepository userRepository;
+    private final PositionService positionService;
+    private final AuthenticatedUser currentUser;
 
-    public AveragePriceController(AveragePriceService service, UserRepository userRepository) {
+    public AveragePriceController(AveragePriceService service,
+                                  PositionService positionService,
+                                  AuthenticatedUser currentUser) {
         this.service = service;
-        this.userRepository = userRepository;
-    }
-
-    private Long getCurrentUserId(UserDetails userDetails) {
-        String username = userDetails.getUsername();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new IllegalStateException("User not found: " + username));
-        return user.getId();
+        this.positionService = positionService;
+        this.currentUser = currentUser;
     }
 
     /**
@@ -34,11 +35,8 @@ public class AveragePriceController {
      * Выполнить расчёт, сохранить и вернуть результат.
      */
     @PostMapping("/calculate")
-    public AveragePriceResponse calculate(
-            @AuthenticationPrincipal UserDetails userDetails,
-            @RequestBody AveragePriceRequest request
-    ) {
-        Long userId = getCurrentUserId(userDetails);
+    public AveragePriceResponse calculate(@RequestBody AveragePriceRequest request) {
+        Long userId = currentUser.getId();
         return service.calculateAndSave(userId, request);
     }
 
@@ -47,10 +45,8 @@ public class AveragePriceController {
      * История сохранённых расчётов текущего пользователя.
      */
     @GetMapping("/history")
-    public List<AveragePriceResponse> history(
-            @AuthenticationPrincipal UserDetails userDetails
-    ) {
-        Long userId = getCurrentUserId(userDetails);
+    public List<AveragePriceResponse> history() {
+        Long userId = currentUser.getId();
         return service.getHistory(userId);
     }
 
@@ -59,11 +55,73 @@ public class AveragePriceController {
      * Удалить сохранённый расчёт.
      */
     @DeleteMapping("/{id}")
-    public void delete(
-            @AuthenticationPrincipal UserDetails userDetails,
-            @PathVariable Long id
-    ) {
-        Long userId = getCurrentUserId(userDetails);
+    public void delete(@PathVariable Long id) {
+        Long userId = currentUser.getId();
         service.deleteCalculation(userId, id);
     }
+
+    // -------------------------------------------------------
+    // Лоты и позиции
+    // -------------------------------------------------------
+
+    /**
+     * GET /api/investments/average-price/lots?symbol=SBER
+     * Лоты текущего пользователя (по тикеру или все).
+     */
+    @GetMapping("/lots")
+    public List<PositionLotResponse> lots(@RequestParam(required = false) String symbol) {
+        Long userId = currentUser.getId();
+        return positionService.getLots(userId, symbol);
+    }
+
+    /**
+     * POST /api/investments/average-price/lots
+     * Добавить лоты пачкой: [{ "symbol": "SBER", "quantity": 10, "price": 250.5, "tradeDate": "2025-01-15" }]
+     */
+    @PostMapping("/lots")
+    public List<PositionLotResponse> addLots(@RequestBody List<PositionLotRequest> request) {
+        Long userId = currentUser.getId();
+        try {
+            return positionService.addLots(userId, request);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * DELETE /api/investments/average-price/lots/{id}
+     */
+    @DeleteMapping("/lots/{id}")
+    public void deleteLot(@PathVariable Long id) {
+        Long userId = currentUser.getId();
+        try {
+            positionService.deleteLot(userId, id);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * GET /api/investments/average-price/positions
+     * Количество, средняя и стоимость по каждому тикеру.
+     */
+    @GetMapping("/positions")
+    public List<PositionResponse> positions() {
+        Long userId = currentUser.getId();
+        return positionService.getPositions(userId);
+    }
+
+    /**
+     * POST /api/investments/average-price/ladder
+     * Объёмы покупок по ступеням цен, чтобы выйти на целевую среднюю. Ничего не сохраняет.
+     */
+    @PostMapping("/ladder")
+    public LadderResponse ladder(@RequestBody LadderRequest request) {
+        Long userId = currentUser.getId();
+        try {
+            return positionService.solveLadder(userId, request);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
 }
@@ -0,0 +1,86 @@
+package com.themoneygame.investments.averageprice;
+
+/**
+ * Лестница покупок (DCA): по ценам p1..pk найти объёмы ступеней,
+ * при которых средняя позиции станет ровно T.
+ *
+ * Форма лестницы задаётся весами: количество на ступени q_i = s · w_i, где
+ *  - EQUAL_QUANTITY: w_i = 1;
+ *  - EQUAL_AMOUNT:   w_i = 1 / p_i (сумма на ступени = s);
+ *  - CUSTOM:         w_i = weight_i / p_i (суммы пропорциональны весам).
+ *
+ * Тогда средняя после всех ступеней
+ *   T = (C0 + s·Σ w_i·p_i) / (Q0 + s·Σ w_i)
+ * и масштаб находится одной формулой:
+ *   s = (T·Q0 − C0) / (Σ w_i·p_i − T·Σ w_i).
+ *
+ * Решение существует (s > 0), только если T лежит строго между текущей средней
+ * и средней ценой самой лестницы. Весь расчёт — один проход по double[].
+ */
+public final class AveragePriceLadderSolver {
+
+    private AveragePriceLadderSolver() {
+    }
+
+    /**
+     * Объёмы ступеней и средняя после каждой из них.
+     */
+    public record Solution(double scale,
+                           double[] quantities,
+                           double[] amounts,
+                           double[] averageAfter) {
+    }
+
+    /**
+     * @param weights только для CUSTOM, той же длины, что prices
+     * @throws IllegalArgumentException цель недостижима такой лестницей
+     */
+    public static Solution solve(double currentAverage,
+                                 double currentQuantity,
+                                 double target,
+                                 double[] prices,
+                                 LadderMode mode,
+                                 double[] weights) {
+        int k = prices.length;
+        double[] w = new double[k];
+        double sumW = 0;
+        double sumWp = 0;
+        for (int i = 0; i < k; i++) {
+            w[i] = switch (mode) {
+                case EQUAL_QUANTITY -> 1.0;
+                case EQUAL_AMOUNT -> 1.0 / prices[i];
+                case CUSTOM -> weights[i] / prices[i];
+            };
+            sumW += w[i];
+            sumWp += w[i] * prices[i];
+        }
+
+        double c0 = currentAverage * currentQuantity;
+        double numerator = target * currentQuantity - c0;
+        double denominator = sumWp - target * sumW;
+        if (denominator == 0.0) {
+            throw new IllegalArgumentException("Средняя цена лестницы равна целевой — цель недостижима");
+        }
+
+        double s = numerator / denominator;
+        if (!(s > 0) || !Double.isFinite(s)) {
+            throw new IllegalArgumentException(
+                    "Целевая средняя должна лежать между текущей средней и средней ценой лестницы ("
+                            + Math.round(sumWp / sumW * 10_000) / 10_000.0 + ")");
+        }
+
+        double[] quantities = new double[k];
+        double[] amounts = new double[k];
+        double[] averageAfter = new double[k];
+        double cost = c0;
+        double quantity = currentQuantity;
+        for (int i = 0; i < k; i++) {
+            quantities[i] = s * w[i];
+            amounts[i] = quantities[i] * prices[i];
+            cost += amounts[i];
+            quantity += quantities[i];
+            averageAfter[i] = cost / quantity;
+        }
+        return new Solution(s, quantities, amounts, averageAfter);
+    }
+}
@@ -1,7 +1,7 @@
 package com.themoneygame.investments.averageprice;
 
+import com.themoneygame.auth.application.UserReferenceProvider;
 import com.themoneygame.auth.domain.User;
-import com.themoneygame.auth.infrastructure.UserRepository;
 import com.themoneygame.investments.averageprice.dto.AveragePriceRequest;
 import com.themoneygame.investments.averageprice.dto.AveragePriceResponse;
 import org.springframework.stereotype.Service;
@@ -17,18 +17,17 @@ import java.util.stream.Collectors;
 public class AveragePriceServiceImpl implements AveragePriceService {
 
     private final AveragePriceCalculationRepository repository;
-    private final UserRepository userRepository;
+    private final UserReferenceProvider userReferences;
 
     public AveragePriceServiceImpl(AveragePriceCalculationRepository repository,
-                                   UserRepository userRepository) {
+                                   UserReferenceProvider userReferences) {
         this.repository = repository;
-        this.userRepository = userRepository;
+        this.userReferences = userReferences;
     }
 
     @Override
     public AveragePriceResponse calculateAndSave(Long userId, AveragePriceRequest req) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new IllegalStateException("User not found: " + userId));
+        User user = userReferences.reference(userId);
 
         AveragePriceCalculation entity = new AveragePriceCalculation();
         entity.setUser(user);
@@ -62,14 +61,9 @@ public class AveragePriceServiceImpl implements AveragePriceService {
 
     @Override
     public void deleteCalculation(Long userId, Long calculationId) {
-        AveragePriceCalculation entity = repository.findById(calculationId)
-                .orElseThrow(() -> new IllegalArgumentException("Calculation not found: " + calculationId));
-
-        if (!entity.getUser().getId().equals(userId)) {
-            throw new SecurityException("Cannot delete calculation of another user");
+        if (repository.deleteByIdAndUserId(calculationId, userId) == 0) {
+            throw new IllegalArgumentException("Calculation not found: " + calculationId);
         }
-
-        repository.delete(entity);
     }
 
     // ---------- математика ----------
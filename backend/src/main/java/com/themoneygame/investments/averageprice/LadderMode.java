@@ -0,0 +1,7 @@
+package com.themoneygame.investments.averageprice;
+
+public enum LadderMode {
+    EQUAL_AMOUNT,     // на каждой ступени одна и та же сумма
+    EQUAL_QUANTITY,   // на каждой ступени одно и то же количество бумаг
+    CUSTOM            // суммы ступеней пропорциональны заданным весам
+}
@@ -0,0 +1,92 @@
+package com.themoneygame.investments.averageprice;
+
+import com.themoneygame.auth.domain.User;
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Реальная покупка (лот) по тикеру. Позиция = сумма лотов:
+ * количество Σq, средняя цена Σ(q·p) / Σq.
+ */
+@Entity
+@Table(
+        name = "position_lots",
+        indexes = @Index(name = "idx_position_lots_user_symbol_date", columnList = "user_id, symbol, trade_date")
+)
+public class PositionLot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    private User user;
+
+    @Column(nullable = false, length = 32)
+    private String symbol;                 // тикер, в верхнем регистре
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal quantity;           // количество бумаг в лоте
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal price;              // цена покупки
+
+    @Column(name = "trade_date", nullable = false)
+    private LocalDate tradeDate;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    // ---- геттеры/сеттеры ----
+
+    public Long getId() {
+        return id;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public void setSymbol(String symbol) {
+        this.symbol = symbol;
+    }
+
+    public BigDecimal getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(BigDecimal quantity) {
+        this.quantity = quantity;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+    public LocalDate getTradeDate() {
+        return tradeDate;
+    }
+
+    public void setTradeDate(LocalDate tradeDate) {
+        this.tradeDate = tradeDate;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,39 @@
+package com.themoneygame.investments.averageprice;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface PositionLotRepository extends JpaRepository<PositionLot, Long> {
+
+    List<PositionLot> findByUserIdAndSymbolOrderByTradeDateAscIdAsc(Long userId, String symbol);
+
+    List<PositionLot> findByUserIdOrderBySymbolAscTradeDateAscIdAsc(Long userId);
+
+    Optional<PositionLot> findByIdAndUserId(Long id, Long userId);
+
+    /**
+     * Позиции пользователя одним агрегатом в БД — лоты в память не тянем.
+     */
+    @Query("""
+            select new com.themoneygame.investments.averageprice.PositionSummary(
+                l.symbol, sum(l.quantity), sum(l.quantity * l.price), count(l))
+            from PositionLot l
+            where l.user.id = :userId
+            group by l.symbol
+            order by l.symbol
+            """)
+    List<PositionSummary> summarize(@Param("userId") Long userId);
+
+    @Query("""
+            select new com.themoneygame.investments.averageprice.PositionSummary(
+                l.symbol, sum(l.quantity), sum(l.quantity * l.price), count(l))
+            from PositionLot l
+            where l.user.id = :userId and l.symbol = :symbol
+            group by l.symbol
+            """)
+    Optional<PositionSummary> summarize(@Param("userId") Long userId, @Param("symbol") String symbol);
+}
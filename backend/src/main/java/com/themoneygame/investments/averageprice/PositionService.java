@@ -0,0 +1,34 @@
+package com.themoneygame.investments.averageprice;
+
+import com.themoneygame.investments.averageprice.dto.LadderRequest;
+import com.themoneygame.investments.averageprice.dto.LadderResponse;
+import com.themoneygame.investments.averageprice.dto.PositionLotRequest;
+import com.themoneygame.investments.averageprice.dto.PositionLotResponse;
+import com.themoneygame.investments.averageprice.dto.PositionResponse;
+
+import java.util.List;
+
+public interface PositionService {
+
+    /**
+     * Добавить лоты (одной пачкой).
+     */
+    List<PositionLotResponse> addLots(Long userId, List<PositionLotRequest> lots);
+
+    /**
+     * Лоты пользователя; symbol == null — по всем тикерам.
+     */
+    List<PositionLotResponse> getLots(Long userId, String symbol);
+
+    void deleteLot(Long userId, Long lotId);
+
+    /**
+     * Позиции по тикерам (агрегат лотов).
+     */
+    List<PositionResponse> getPositions(Long userId);
+
+    /**
+     * Решить лестницу покупок до целевой средней. Ничего не сохраняет.
+     */
+    LadderResponse solveLadder(Long userId, LadderRequest request);
+}
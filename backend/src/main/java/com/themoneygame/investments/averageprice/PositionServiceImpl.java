@@ -0,0 +1,199 @@
+package com.themoneygame.investments.averageprice;
+
+import com.themoneygame.auth.application.UserReferenceProvider;
+import com.themoneygame.auth.domain.User;
+import com.themoneygame.investments.averageprice.dto.LadderRequest;
+import com.themoneygame.investments.averageprice.dto.LadderResponse;
+import com.themoneygame.investments.averageprice.dto.PositionLotRequest;
+import com.themoneygame.investments.averageprice.dto.PositionLotResponse;
+import com.themoneygame.investments.averageprice.dto.PositionResponse;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+@Service
+@Transactional
+public class PositionServiceImpl implements PositionService {
+
+    static final int MAX_LOTS_PER_REQUEST = 1000;
+    static final int MAX_LADDER_STEPS = 500;
+
+    private static final int SYMBOL_MAX_LENGTH = 32;    // position_lots.symbol
+
+    private final PositionLotRepository lotRepository;
+    private final UserReferenceProvider userReferences;
+
+    public PositionServiceImpl(PositionLotRepository lotRepository, UserReferenceProvider userReferences) {
+        this.lotRepository = lotRepository;
+        this.userReferences = userReferences;
+    }
+
+    @Override
+    public List<PositionLotResponse> addLots(Long userId, List<PositionLotRequest> lots) {
+        if (lots == null || lots.isEmpty()) {
+            throw new IllegalArgumentException("lots must not be empty");
+        }
+        if (lots.size() > MAX_LOTS_PER_REQUEST) {
+            throw new IllegalArgumentException("Too many lots, max " + MAX_LOTS_PER_REQUEST);
+        }
+        User user = userReferences.reference(userId);
+
+        List<PositionLot> entities = new ArrayList<>(lots.size());
+        for (int i = 0; i < lots.size(); i++) {
+            PositionLotRequest r = lots.get(i);
+            if (r.getSymbol() == null || r.getSymbol().isBlank()) {
+                throw new IllegalArgumentException("lots[" + i + "].symbol is required");
+            }
+            String symbol = normalize(r.getSymbol());
+            if (symbol.length() > SYMBOL_MAX_LENGTH) {
+                throw new IllegalArgumentException("lots[" + i + "].symbol is longer than "
+                        + SYMBOL_MAX_LENGTH + " characters");
+            }
+            if (!positive(r.getQuantity()) || !positive(r.getPrice())) {
+                throw new IllegalArgumentException("lots[" + i + "]: quantity and price must be positive");
+            }
+            PositionLot lot = new PositionLot();
+            lot.setUser(user);
+            lot.setSymbol(symbol);
+            lot.setQuantity(r.getQuantity());
+            lot.setPrice(r.getPrice());
+            lot.setTradeDate(r.getTradeDate() != null ? r.getTradeDate() : LocalDate.now());
+            entities.add(lot);
+        }
+
+        // saveAll → пакетная вставка (hibernate.jdbc.batch_size)
+        return lotRepository.saveAll(entities).stream()
+                .map(this::toResponse)
+                .toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<PositionLotResponse> getLots(Long userId, String symbol) {
+        List<PositionLot> lots = symbol != null
+                ? lotRepository.findByUserIdAndSymbolOrderByTradeDateAscIdAsc(userId, normalize(symbol))
+                : lotRepository.findByUserIdOrderBySymbolAscTradeDateAscIdAsc(userId);
+        return lots.stream().map(this::toResponse).toList();
+    }
+
+    @Override
+    public void deleteLot(Long userId, Long lotId) {
+        PositionLot lot = lotRepository.findByIdAndUserId(lotId, userId)
+                .orElseThrow(() -> new IllegalArgumentException("Lot not found: " + lotId));
+        lotRepository.delete(lot);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<PositionResponse> getPositions(Long userId) {
+        return lotRepository.summarize(userId).stream()
+                .map(this::toPosition)
+                .toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public LadderResponse solveLadder(Long userId, LadderRequest req) {
+        // текущая позиция: из лотов или явно
+        BigDecimal currentAverage;
+        BigDecimal currentQuantity;
+        if (req.getSymbol() != null) {
+            String symbol = normalize(req.getSymbol());
+            PositionResponse position = lotRepository.summarize(userId, symbol)
+                    .map(this::toPosition)
+                    .orElseThrow(() -> new IllegalArgumentException("No lots for " + symbol));
+            currentAverage = position.averagePrice();
+            currentQuantity = position.quantity();
+        } else {
+            currentAverage = req.getCurrentAveragePrice();
+            currentQuantity = req.getCurrentQuantity();
+            if (currentAverage == null || currentQuantity == null) {
+                throw new IllegalArgumentException("symbol or currentAveragePrice + currentQuantity is required");
+            }
+            if (!positive(currentAverage) || !positive(currentQuantity)) {
+                throw new IllegalArgumentException("currentAveragePrice and currentQuantity must be positive");
+            }
+        }
+
+        if (!positive(req.getTargetAveragePrice())) {
+            throw new IllegalArgumentException("targetAveragePrice must be positive");
+        }
+        List<BigDecimal> priceList = req.getPrices() != null ? req.getPrices() : List.of();
+        if (priceList.isEmpty() || priceList.size() > MAX_LADDER_STEPS) {
+            throw new IllegalArgumentException("prices must have 1.." + MAX_LADDER_STEPS + " steps");
+        }
+        LadderMode mode = req.getMode() != null ? req.getMode() : LadderMode.EQUAL_AMOUNT;
+
+        double[] prices = new double[priceList.size()];
+        for (int i = 0; i < prices.length; i++) {
+            if (!positive(priceList.get(i))) {
+                throw new IllegalArgumentException("prices[" + i + "] must be positive");
+            }
+            prices[i] = priceList.get(i).doubleValue();
+        }
+        double[] weights = null;
+        if (mode == LadderMode.CUSTOM) {
+            if (req.getWeights() == null || req.getWeights().size() != prices.length) {
+                throw new IllegalArgumentException("weights must have the same size as prices");
+            }
+            weights = new double[prices.length];
+            for (int i = 0; i < weights.length; i++) {
+                if (!positive(req.getWeights().get(i))) {
+                    throw new IllegalArgumentException("weights[" + i + "] must be positive");
+                }
+                weights[i] = req.getWeights().get(i).doubleValue();
+            }
+        }
+
+        AveragePriceLadderSolver.Solution s = AveragePriceLadderSolver.solve(
+                currentAverage.doubleValue(), currentQuantity.doubleValue(),
+                req.getTargetAveragePrice().doubleValue(), prices, mode, weights);
+
+        List<LadderResponse.Step> steps = new ArrayList<>(prices.length);
+        double totalAmount = 0;
+        double totalQuantity = 0;
+        for (int i = 0; i < prices.length; i++) {
+            totalAmount += s.amounts()[i];
+            totalQuantity += s.quantities()[i];
+            steps.add(new LadderResponse.Step(i + 1, priceList.get(i),
+                    scale(s.quantities()[i], 4), scale(s.amounts()[i], 2), scale(s.averageAfter()[i], 4)));
+        }
+
+        return new LadderResponse(mode, currentAverage, currentQuantity, req.getTargetAveragePrice(), steps,
+                scale(totalAmount, 2), scale(totalQuantity, 4),
+                scale(currentQuantity.doubleValue() + totalQuantity, 4),
+                scale(s.averageAfter()[prices.length - 1], 4));
+    }
+
+    // ---------- helpers ----------
+
+    private PositionLotResponse toResponse(PositionLot l) {
+        return new PositionLotResponse(l.getId(), l.getSymbol(), l.getQuantity(), l.getPrice(), l.getTradeDate());
+    }
+
+    private PositionResponse toPosition(PositionSummary p) {
+        BigDecimal average = p.quantity().signum() > 0
+                ? p.cost().divide(p.quantity(), 4, RoundingMode.HALF_UP)
+                : BigDecimal.ZERO;
+        return new PositionResponse(p.symbol(), p.quantity(), average,
+                p.cost().setScale(2, RoundingMode.HALF_UP), p.lots());
+    }
+
+    private static String normalize(String symbol) {
+        return symbol.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static boolean positive(BigDecimal value) {
+        return value != null && value.signum() > 0;
+    }
+
+    private static BigDecimal scale(double value, int digits) {
+        return BigDecimal.valueOf(value).setScale(digits, RoundingMode.HALF_UP);
+    }
+}
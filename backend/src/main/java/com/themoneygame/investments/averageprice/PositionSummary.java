@@ -0,0 +1,14 @@
+package com.themoneygame.investments.averageprice;
+
+import java.math.BigDecimal;
+
+/**
+ * Агрегат лотов по тикеру: Σq и Σ(q·p) — средняя считается из них.
+ */
+public record PositionSummary(
+        String symbol,
+        BigDecimal quantity,
+        BigDecimal cost,
+        Long lots
+) {
+}
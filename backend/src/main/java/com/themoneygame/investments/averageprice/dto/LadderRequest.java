@@ -0,0 +1,84 @@
+package com.themoneygame.investments.averageprice.dto;
+
+import com.themoneygame.investments.averageprice.LadderMode;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Лестница покупок до целевой средней.
+ *
+ * Текущая позиция берётся из лотов по symbol, либо задаётся явно
+ * (currentAveragePrice + currentQuantity) — как в обычном калькуляторе.
+ */
+public class LadderRequest {
+
+    private String symbol;
+
+    private BigDecimal currentAveragePrice;
+    private BigDecimal currentQuantity;
+
+    private BigDecimal targetAveragePrice;
+
+    private List<BigDecimal> prices;     // цены ступеней p1..pk
+    private LadderMode mode;             // по умолчанию EQUAL_AMOUNT
+    private List<BigDecimal> weights;    // только для CUSTOM
+
+    // ---- геттеры/сеттеры ----
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public void setSymbol(String symbol) {
+        this.symbol = symbol;
+    }
+
+    public BigDecimal getCurrentAveragePrice() {
+        return currentAveragePrice;
+    }
+
+    public void setCurrentAveragePrice(BigDecimal currentAveragePrice) {
+        this.currentAveragePrice = currentAveragePrice;
+    }
+
+    public BigDecimal getCurrentQuantity() {
+        return currentQuantity;
+    }
+
+    public void setCurrentQuantity(BigDecimal currentQuantity) {
+        this.currentQuantity = currentQuantity;
+    }
+
+    public BigDecimal getTargetAveragePrice() {
+        return targetAveragePrice;
+    }
+
+    public void setTargetAveragePrice(BigDecimal targetAveragePrice) {
+        this.targetAveragePrice = targetAveragePrice;
+    }
+
+    public List<BigDecimal> getPrices() {
+        return prices;
+    }
+
+    public void setPrices(List<BigDecimal> prices) {
+        this.prices = prices;
+    }
+
+    public LadderMode getMode() {
+        return mode;
+    }
+
+    public void setMode(LadderMode mode) {
+        this.mode = mode;
+    }
+
+    public List<BigDecimal> getWeights() {
+        return weights;
+    }
+
+    public void setWeights(List<BigDecimal> weights) {
+        this.weights = weights;
+    }
+}
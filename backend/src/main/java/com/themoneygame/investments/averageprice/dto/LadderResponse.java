@@ -0,0 +1,31 @@
+package com.themoneygame.investments.averageprice.dto;
+
+import com.themoneygame.investments.averageprice.LadderMode;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Решение лестницы: ступени и итог позиции.
+ */
+public record LadderResponse(
+        LadderMode mode,
+        BigDecimal currentAveragePrice,
+        BigDecimal currentQuantity,
+        BigDecimal targetAveragePrice,
+        List<Step> steps,
+        BigDecimal totalAmount,          // сколько всего докупить, в деньгах
+        BigDecimal totalQuantity,        // сколько всего докупить, в бумагах
+        BigDecimal resultQuantity,       // позиция после лестницы
+        BigDecimal resultAveragePrice    // средняя после лестницы (= цель с точностью округления)
+) {
+
+    public record Step(
+            int step,
+            BigDecimal price,
+            BigDecimal quantity,
+            BigDecimal amount,
+            BigDecimal averageAfter
+    ) {
+    }
+}
@@ -0,0 +1,46 @@
+package com.themoneygame.investments.averageprice.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public class PositionLotRequest {
+
+    private String symbol;
+    private BigDecimal quantity;
+    private BigDecimal price;
+    private LocalDate tradeDate;    // null — сегодня
+
+    // ---- геттеры/сеттеры ----
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public void setSymbol(String symbol) {
+        this.symbol = symbol;
+    }
+
+    public BigDecimal getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(BigDecimal quantity) {
+        this.quantity = quantity;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+    public LocalDate getTradeDate() {
+        return tradeDate;
+    }
+
+    public void setTradeDate(LocalDate tradeDate) {
+        this.tradeDate = tradeDate;
+    }
+}
@@ -0,0 +1,13 @@
+package com.themoneygame.investments.averageprice.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record PositionLotResponse(
+        Long id,
+        String symbol,
+        BigDecimal quantity,
+        BigDecimal price,
+        LocalDate tradeDate
+) {
+}
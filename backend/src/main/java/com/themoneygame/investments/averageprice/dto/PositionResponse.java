@@ -0,0 +1,15 @@
+package com.themoneygame.investments.averageprice.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Позиция по тикеру, собранная из лотов.
+ */
+public record PositionResponse(
+        String symbol,
+        BigDecimal quantity,
+        BigDecimal averagePrice,
+        BigDecimal totalCost,
+        long lots
+) {
+}
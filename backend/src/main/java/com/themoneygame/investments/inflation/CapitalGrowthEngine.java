@@ -0,0 +1,80 @@
+package com.themoneygame.investments.inflation;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Расчёт капитала с ежемесячным взносом в замкнутой форме.
+ *
+ * Модель та же, что в помесячном цикле калькулятора: в начале месяца
+ * добавляется взнос, затем начисляется доходность r:
+ *
+ *   V(n) = V0 * (1+r)^n + C * (1+r) * ((1+r)^n - 1) / r
+ *
+ * Степени считаются через log1p/expm1 — без потери точности при малых r.
+ * Всё в double, BigDecimal — только на входе (ставка) и на выходе (округление).
+ */
+public final class CapitalGrowthEngine {
+
+    private CapitalGrowthEngine() {
+    }
+
+    /**
+     * Месячная ставка из % годовых — с тем же округлением до 8 знаков,
+     * что и в исходном BigDecimal-расчёте, чтобы результаты совпадали.
+     */
+    public static double monthlyRate(BigDecimal annualPercent) {
+        return annualPercent.divide(BigDecimal.valueOf(12 * 100L), 8, RoundingMode.HALF_UP).doubleValue();
+    }
+
+    /**
+     * Капитал через months месяцев: начальная сумма + взнос в начале каждого месяца.
+     */
+    public static double valueAfterMonths(double initial, double contribution, double monthlyRate, int months) {
+        if (monthlyRate == 0.0) {
+            return initial + contribution * months;
+        }
+        double logGrowth = months * Math.log1p(monthlyRate);
+        double growth = Math.exp(logGrowth);                    // (1+r)^n
+        double annuity = Math.expm1(logGrowth) / monthlyRate;   // ((1+r)^n - 1) / r
+        return initial * growth + contribution * (1 + monthlyRate) * annuity;
+    }
+
+    /**
+     * Капитал на конец каждого года: [0] — через год, [years-1] — через years лет.
+     */
+    public static double[] yearlyValues(double initial, double contribution, double monthlyRate, int years) {
+        double[] out = new double[Math.max(years, 0)];
+        for (int year = 1; year <= years; year++) {
+            out[year - 1] = valueAfterMonths(initial, contribution, monthlyRate, year * 12);
+        }
+        return out;
+    }
+
+    /**
+     * Покупательная способность суммы через months месяцев при месячной инфляции.
+     */
+    public static double discountedAfterMonths(double initial, double monthlyInflation, int months) {
+        return initial * Math.exp(months * Math.log1p(-monthlyInflation));
+    }
+
+    public static double[] yearlyDiscounted(double initial, double monthlyInflation, int years) {
+        double[] out = new double[Math.max(years, 0)];
+        for (int year = 1; year <= years; year++) {
+            out[year - 1] = discountedAfterMonths(initial, monthlyInflation, year * 12);
+        }
+        return out;
+    }
+
+    /**
+     * Округление до копеек для ответа.
+     *
+     * @throws IllegalArgumentException результат вышел за пределы double (переполнение при расчёте)
+     */
+    public static BigDecimal toMoney(double value) {
+        if (!Double.isFinite(value)) {
+            throw new IllegalArgumentException("Result is out of range, reduce the amounts, return or term");
+        }
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    }
+}
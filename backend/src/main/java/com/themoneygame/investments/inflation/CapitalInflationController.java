@@ -1,54 +1,168 @@
 package com.themoneygame.investments.inflation;
 
-import com.themoneygame.auth.domain.User;
-import com.themoneygame.auth.infrastructure.UserRepository;
+import com.themoneygame.auth.application.AuthenticatedUser;
+import com.themoneygame.investments.inflation.dto.CapitalInflationGridRequest;
+import com.themoneygame.investments.inflation.dto.CapitalInflationGridResponse;
 import com.themoneygame.investments.inflation.dto.CapitalInflationRequest;
 import com.themoneygame.investments.inflation.dto.CapitalInflationResponse;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
+import com.themoneygame.investments.inflation.dto.CapitalInflationYearPoint;
+import jakarta.annotation.PreDestroy;
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/investments/inflation")
 public class CapitalInflationController {
 
+    private static final Logger log = LogManager.getLogger(CapitalInflationController.class);
+
+    private static final long STREAM_TIMEOUT_MS = 120_000;
+
     private final CapitalInflationService service;
-    private final UserRepository userRepo;
+    private final AuthenticatedUser currentUser;
 
-    public CapitalInflationController(CapitalInflationService service, UserRepository userRepo) {
+    private final ExecutorService streamExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public CapitalInflationController(CapitalInflationService service, AuthenticatedUser currentUser) {
         this.service = service;
-        this.userRepo = userRepo;
+        this.currentUser = currentUser;
     }
 
-    private Long getUserId(UserDetails userDetails) {
-        String username = userDetails.getUsername();
-        User user = userRepo.findByUsername(username)
-                .orElseThrow(() -> new IllegalStateException("User not found"));
-        return user.getId();
+    @PreDestroy
+    void shutdown() {
+        streamExecutor.shutdownNow();
     }
 
     @PostMapping("/calculate")
-    public CapitalInflationResponse calculate(
-            @AuthenticationPrincipal UserDetails userDetails,
-            @RequestBody CapitalInflationRequest req
-    ) {
-        return service.calculateAndSave(getUserId(userDetails), req);
+    public CapitalInflationResponse calculate(@RequestBody CapitalInflationRequest req) {
+        try {
+            return service.calculateAndSave(currentUser.getId(), req);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, e.getMessage());
+        }
+    }
+
+    /**
+     * Тот же расчёт, но как SSE-поток — для стохастического режима,
+     * чтобы фронт рисовал полосы перцентилей по мере счёта.
+     *
+     * События:
+     *  - progress: CapitalInflationProgress — перцентили по уже посчитанным путям;
+     *  - result:   CapitalInflationResponse — итог (сценарий сохранён);
+     *  - error:    {"status": 400|429, "message": "..."}.
+     *
+     * Если клиент отключился, отправка падает и расчёт прерывается.
+     */
+    @PostMapping(value = "/calculate/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter calculateStream(@RequestBody CapitalInflationRequest req) {
+        Long userId = currentUser.getId();
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MS);
+
+        streamExecutor.execute(() -> {
+            try {
+                CapitalInflationResponse result = service.calculateAndSave(userId, req,
+                        progress -> send(emitter, "progress", progress));
+                send(emitter, "result", result);
+                emitter.complete();
+            } catch (IllegalArgumentException e) {
+                sendError(emitter, HttpStatus.BAD_REQUEST, e.getMessage());
+            } catch (RejectedExecutionException e) {
+                sendError(emitter, HttpStatus.TOO_MANY_REQUESTS, e.getMessage());
+            } catch (UncheckedIOException e) {
+                log.debug("Inflation stream closed by client: " + e.getMessage());
+                emitter.completeWithError(e);
+            } catch (RuntimeException e) {
+                log.error("Inflation stream failed", e);
+                emitter.completeWithError(e);
+            }
+        });
+        return emitter;
+    }
+
+    private void send(SseEmitter emitter, String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void sendError(SseEmitter emitter, HttpStatus status, String message) {
+        try {
+            send(emitter, "error", Map.of("status", status.value(), "message", message));
+            emitter.complete();
+        } catch (UncheckedIOException e) {
+            emitter.completeWithError(e);
+        }
+    }
+
+    /**
+     * Сетка сценариев (heatmap чувствительности): все комбинации
+     * доходность × инфляция × взнос × срок за один запрос, без сохранения.
+     *
+     * Тело запроса:
+     * {
+     *   "initialCapital": 100000,
+     *   "averageReturn":       { "from": 4,    "to": 15,    "steps": 20 },
+     *   "inflationRate":       { "from": 3,    "to": 12,    "steps": 20 },
+     *   "monthlyContribution": { "from": 5000, "to": 50000, "steps": 10 },
+     *   "years":               { "from": 10,   "to": 10,    "steps": 1 }
+     * }
+     */
+    @PostMapping("/grid")
+    public CapitalInflationGridResponse grid(@RequestBody CapitalInflationGridRequest req) {
+        try {
+            return service.calculateGrid(req);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
     }
 
     @GetMapping("/history")
-    public List<CapitalInflationResponse> history(
-            @AuthenticationPrincipal UserDetails userDetails
-    ) {
-        return service.getHistory(getUserId(userDetails));
+    public List<CapitalInflationResponse> history() {
+        return service.getHistory(currentUser.getId());
+    }
+
+    /**
+     * Точки графика сохранённого сценария (в /history их нет, чтобы список был лёгким).
+     *
+     * Сценарий после сохранения не меняется, поэтому ответ отдаётся с ETag:
+     * повторный запрос с If-None-Match получает 304 без тела.
+     */
+    @GetMapping("/scenarios/{id}/graph")
+    public ResponseEntity<List<CapitalInflationYearPoint>> graph(@PathVariable Long id) {
+        CapitalInflationGraph graph;
+        try {
+            graph = service.getGraph(currentUser.getId(), id);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        }
+        // If-None-Match сверяет HttpEntityMethodProcessor и сам отвечает 304
+        return ResponseEntity.ok()
+                .eTag(graph.etag())
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(graph.points());
     }
 
     @DeleteMapping("/{id}")
-    public void delete(
-            @AuthenticationPrincipal UserDetails userDetails,
-            @PathVariable Long id
-    ) {
-        service.deleteScenario(getUserId(userDetails), id);
+    public void delete(@PathVariable Long id) {
+        service.deleteScenario(currentUser.getId(), id);
     }
 }
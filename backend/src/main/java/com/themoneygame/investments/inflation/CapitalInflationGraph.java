@@ -0,0 +1,14 @@
+package com.themoneygame.investments.inflation;
+
+import com.themoneygame.investments.inflation.dto.CapitalInflationYearPoint;
+
+import java.util.List;
+
+/**
+ * График сохранённого сценария и его ETag.
+ */
+public record CapitalInflationGraph(
+        String etag,
+        List<CapitalInflationYearPoint> points
+) {
+}
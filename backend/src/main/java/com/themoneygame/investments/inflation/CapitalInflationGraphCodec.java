@@ -0,0 +1,72 @@
+package com.themoneygame.investments.inflation;
+
+import com.themoneygame.core.util.PackedSeries;
+import com.themoneygame.investments.inflation.dto.CapitalInflationYearPoint;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * График сценария ↔ PackedSeries. Год не хранится — это номер строки + 1.
+ * Порядок столбцов менять нельзя: он зашит в уже сохранённые данные.
+ */
+final class CapitalInflationGraphCodec {
+
+    private static final int COLUMNS = 9;
+
+    private CapitalInflationGraphCodec() {
+    }
+
+    /**
+     * @throws IllegalArgumentException сумма не помещается в копейки long (см. PackedSeries.toCents)
+     */
+    static byte[] encode(List<CapitalInflationYearPoint> points) {
+        long[][] cols = new long[COLUMNS][points.size()];
+        for (int i = 0; i < points.size(); i++) {
+            CapitalInflationYearPoint p = points.get(i);
+            cols[0][i] = PackedSeries.toCents(p.getInvestmentValue());
+            cols[1][i] = PackedSeries.toCents(p.getDepositValue());
+            cols[2][i] = PackedSeries.toCents(p.getInflationAdjusted());
+            cols[3][i] = PackedSeries.toCents(p.getInvestmentP5());
+            cols[4][i] = PackedSeries.toCents(p.getInvestmentP50());
+            cols[5][i] = PackedSeries.toCents(p.getInvestmentP95());
+            cols[6][i] = PackedSeries.toCents(p.getRealP5());
+            cols[7][i] = PackedSeries.toCents(p.getRealP50());
+            cols[8][i] = PackedSeries.toCents(p.getRealP95());
+        }
+        return PackedSeries.encode(cols);
+    }
+
+    static List<CapitalInflationYearPoint> decode(byte[] data) {
+        long[][] cols = PackedSeries.decode(data);
+        int rows = cols.length > 0 ? cols[0].length : 0;
+
+        List<CapitalInflationYearPoint> points = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            CapitalInflationYearPoint p = new CapitalInflationYearPoint();
+            p.setYear(i + 1);
+            p.setInvestmentValue(PackedSeries.fromCents(cols[0][i]));
+            p.setDepositValue(PackedSeries.fromCents(cols[1][i]));
+            p.setInflationAdjusted(PackedSeries.fromCents(cols[2][i]));
+            p.setInvestmentP5(PackedSeries.fromCents(cols[3][i]));
+            p.setInvestmentP50(PackedSeries.fromCents(cols[4][i]));
+            p.setInvestmentP95(PackedSeries.fromCents(cols[5][i]));
+            p.setRealP5(PackedSeries.fromCents(cols[6][i]));
+            p.setRealP50(PackedSeries.fromCents(cols[7][i]));
+            p.setRealP95(PackedSeries.fromCents(cols[8][i]));
+            points.add(p);
+        }
+        return points;
+    }
+
+    /**
+     * ETag по содержимому: сценарий после сохранения не меняется,
+     * так что тег стабилен, пока сценарий существует.
+     */
+    static String etag(byte[] data) {
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        return "\"" + Long.toHexString(crc.getValue()) + "-" + data.length + "\"";
+    }
+}
@@ -0,0 +1,158 @@
+package com.themoneygame.investments.inflation;
+
+import com.themoneygame.investments.inflation.dto.CapitalInflationGridRequest;
+import com.themoneygame.investments.inflation.dto.CapitalInflationGridResponse;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Сетка сценариев доходность × инфляция × взнос × срок за один проход.
+ *
+ * Каждая ячейка — замкнутая форма CapitalGrowthEngine (O(1)), ничего не сохраняется.
+ * Полная сетка считается за миллисекунды, поэтому проход последовательный,
+ * в потоке запроса: общий ForkJoinPool не занимаем.
+ * Номинал от инфляции не зависит, поэтому считается один раз на (срок, взнос, доходность),
+ * а реальные значения — умножением на заранее посчитанный дисконт (срок, инфляция).
+ */
+public final class CapitalInflationGrid {
+
+    public static final int MAX_AXIS_STEPS = 100;
+    public static final int MAX_CELLS = 250_000;
+
+    private static final int MAX_YEARS = 100;
+
+    /** Ячейка в копейках должна помещаться в long без насыщения Math.round. */
+    private static final double MAX_CELL_VALUE = 9.0e16;
+
+    private CapitalInflationGrid() {
+    }
+
+    public static CapitalInflationGridResponse evaluate(CapitalInflationGridRequest req) {
+        double initial = nvl(req.getInitialCapital(), BigDecimal.ZERO).doubleValue();
+
+        // значения по умолчанию — как в обычном расчёте
+        List<BigDecimal> returns = expand("averageReturn", req.getAverageReturn(), BigDecimal.ZERO);
+        List<BigDecimal> inflations = expand("inflationRate", req.getInflationRate(), new BigDecimal("9.0"));
+        List<BigDecimal> contributions = expand("monthlyContribution", req.getMonthlyContribution(), BigDecimal.ZERO);
+        List<Integer> years = expandYears(req.getYears());
+
+        int nr = returns.size();
+        int ni = inflations.size();
+        int nc = contributions.size();
+        int ny = years.size();
+
+        long cells = (long) ny * nc * ni * nr;
+        if (cells > MAX_CELLS) {
+            throw new IllegalArgumentException("grid is too large: " + cells + " cells, max " + MAX_CELLS);
+        }
+
+        double[] monthlyReturn = new double[nr];
+        for (int r = 0; r < nr; r++) {
+            monthlyReturn[r] = CapitalGrowthEngine.monthlyRate(returns.get(r));
+        }
+        double[] contribution = new double[nc];
+        for (int c = 0; c < nc; c++) {
+            contribution[c] = contributions.get(c).doubleValue();
+        }
+        // дисконт покупательной способности на конец срока: [y * I + i]
+        double[] discount = new double[ny * ni];
+        for (int y = 0; y < ny; y++) {
+            for (int i = 0; i < ni; i++) {
+                double monthlyInflation = CapitalGrowthEngine.monthlyRate(inflations.get(i));
+                discount[y * ni + i] = CapitalGrowthEngine.discountedAfterMonths(1.0, monthlyInflation, years.get(y) * 12);
+            }
+        }
+
+        double[] nominal = new double[ny * nc * nr];
+        double[] real = new double[(int) cells];
+
+        for (int idx = 0; idx < nominal.length; idx++) {
+            int r = idx % nr;
+            int c = (idx / nr) % nc;
+            int y = idx / (nr * nc);
+
+            double value = CapitalGrowthEngine.valueAfterMonths(
+                    initial, contribution[c], monthlyReturn[r], years.get(y) * 12);
+            nominal[idx] = cents(value);
+
+            int realBase = (y * nc + c) * ni;
+            for (int i = 0; i < ni; i++) {
+                real[(realBase + i) * nr + r] = cents(value * discount[y * ni + i]);
+            }
+        }
+
+        CapitalInflationGridResponse resp = new CapitalInflationGridResponse();
+        resp.setAverageReturn(returns);
+        resp.setInflationRate(inflations);
+        resp.setMonthlyContribution(contributions);
+        resp.setYears(years);
+        resp.setNominal(nominal);
+        resp.setReal(real);
+        return resp;
+    }
+
+    // --------- private helpers ---------
+
+    private static List<BigDecimal> expand(String name, CapitalInflationGridRequest.Axis axis, BigDecimal def) {
+        if (axis == null) {
+            return List.of(def);
+        }
+        if (axis.getFrom() == null) {
+            throw new IllegalArgumentException(name + ".from is required");
+        }
+        int steps = axis.getSteps() != null ? axis.getSteps() : 1;
+        if (steps < 1 || steps > MAX_AXIS_STEPS) {
+            throw new IllegalArgumentException(name + ".steps must be between 1 and " + MAX_AXIS_STEPS);
+        }
+        if (steps == 1) {
+            return List.of(axis.getFrom());
+        }
+        if (axis.getTo() == null) {
+            throw new IllegalArgumentException(name + ".to is required when steps > 1");
+        }
+
+        BigDecimal step = axis.getTo().subtract(axis.getFrom())
+                .divide(BigDecimal.valueOf(steps - 1), 4, RoundingMode.HALF_UP);
+        List<BigDecimal> values = new ArrayList<>(steps);
+        for (int k = 0; k < steps - 1; k++) {
+            values.add(axis.getFrom().add(step.multiply(BigDecimal.valueOf(k))).stripTrailingZeros());
+        }
+        values.add(axis.getTo()); // последняя точка — ровно to, без накопленного округления шага
+        return values;
+    }
+
+    private static List<Integer> expandYears(CapitalInflationGridRequest.Axis axis) {
+        List<Integer> years = new ArrayList<>();
+        for (BigDecimal value : expand("years", axis, BigDecimal.ONE)) {
+            BigDecimal rounded = value.setScale(0, RoundingMode.HALF_UP);
+            if (rounded.compareTo(BigDecimal.ONE) < 0 || rounded.compareTo(BigDecimal.valueOf(MAX_YEARS)) > 0) {
+                throw new IllegalArgumentException("years must be between 1 and " + MAX_YEARS);
+            }
+            int y = rounded.intValue();
+            if (!years.isEmpty() && years.get(years.size() - 1) == y) {
+                throw new IllegalArgumentException("years axis has duplicate values, reduce years.steps");
+            }
+            years.add(y);
+        }
+        return years;
+    }
+
+    /**
+     * Округление ячейки до копеек.
+     *
+     * @throws IllegalArgumentException значение не конечно или слишком велико для копеек
+     */
+    private static double cents(double value) {
+        if (!(Math.abs(value) < MAX_CELL_VALUE)) {
+            throw new IllegalArgumentException("Result is out of range, reduce the amounts, return or term");
+        }
+        return Math.round(value * 100) / 100.0;
+    }
+
+    private static BigDecimal nvl(BigDecimal value, BigDecimal def) {
+        return value != null ? value : def;
+    }
+}
@@ -0,0 +1,21 @@
+package com.themoneygame.investments.inflation;
+
+import com.themoneygame.investments.inflation.dto.CapitalInflationYearPoint;
+
+import java.util.List;
+
+/**
+ * Посчитанный сценарий до сохранения: то, что кэшируется по каноническому
+ * запросу. Точки графика разделяются между ответами — после расчёта их не меняем.
+ */
+record CapitalInflationOutcome(List<CapitalInflationYearPoint> points,
+                               String resultText,
+                               byte[] graphData) {
+
+    /** Грубая оценка размера в памяти: точка — объект и до 10 BigDecimal. */
+    private static final int POINT_BYTES = 400;
+
+    long weight() {
+        return 64L + (long) points.size() * POINT_BYTES + 2L * resultText.length() + graphData.length;
+    }
+}
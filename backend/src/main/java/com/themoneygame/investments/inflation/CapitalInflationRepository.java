@@ -1,10 +1,58 @@
 package com.themoneygame.investments.inflation;
 
+import com.themoneygame.calculations.CalculationHistoryItem;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface CapitalInflationRepository extends JpaRepository<CapitalInflationScenario, Long> {
 
-    List<CapitalInflationScenario> findByUserIdOrderByCreatedAtDesc(Long userId);
+    /**
+     * История для списка: только то, что показывается, graph_data не читается.
+     */
+    @Query("""
+            select new com.themoneygame.investments.inflation.CapitalInflationScenarioSummary(
+                s.id, s.createdAt, s.resultText)
+            from CapitalInflationScenario s
+            where s.user.id = :userId
+            order by s.createdAt desc
+            """)
+    List<CapitalInflationScenarioSummary> findSummariesByUserId(@Param("userId") Long userId);
+
+    Optional<CapitalInflationScenario> findByIdAndUserId(Long id, Long userId);
+
+    // общая история (см. CalculationHistoryService): первая страница, keyset по (createdAt, id)
+    @Query("""
+            select new com.themoneygame.calculations.CalculationHistoryItem(
+                com.themoneygame.calculations.CalculationKind.CAPITAL_INFLATION, s.id, s.createdAt, s.initialCapital, cast(null as BigDecimal), s.resultText)
+            from CapitalInflationScenario s
+            where s.user.id = :userId
+            order by s.createdAt desc, s.id desc
+            """)
+    List<CalculationHistoryItem> findHistoryFirst(@Param("userId") Long userId, Limit limit);
+
+    // общая история: строки строго "старше" (beforeTime, beforeId)
+    @Query("""
+            select new com.themoneygame.calculations.CalculationHistoryItem(
+                com.themoneygame.calculations.CalculationKind.CAPITAL_INFLATION, s.id, s.createdAt, s.initialCapital, cast(null as BigDecimal), s.resultText)
+            from CapitalInflationScenario s
+            where s.user.id = :userId
+              and (s.createdAt < :beforeTime or (s.createdAt = :beforeTime and s.id < :beforeId))
+            order by s.createdAt desc, s.id desc
+            """)
+    List<CalculationHistoryItem> findHistoryAfter(@Param("userId") Long userId,
+                                                  @Param("beforeTime") LocalDateTime beforeTime,
+                                                  @Param("beforeId") Long beforeId,
+                                                  Limit limit);
+
+    // удаление без предварительного чтения строки; 0 — чужой или несуществующий расчёт
+    @Modifying
+    @Query("delete from CapitalInflationScenario s where s.id = :id and s.user.id = :userId")
+    int deleteByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
 }
@@ -7,7 +7,10 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "capital_inflation_scenarios")
+@Table(
+        name = "capital_inflation_scenarios",
+        indexes = @Index(name = "idx_capital_inflation_user_created", columnList = "user_id, created_at")
+)
 public class CapitalInflationScenario {
 
     @Id
@@ -47,6 +50,14 @@ public class CapitalInflationScenario {
     @Column(nullable = false, length = 2000)
     private String resultText;
 
+    /**
+     * Точки графика по годам, упакованные CapitalInflationGraphCodec.
+     * null — сценарий сохранён до появления колонки, график досчитывается при открытии.
+     * В список истории не грузится (там проекция без этой колонки).
+     */
+    @Column(name = "graph_data", columnDefinition = "bytea")
+    private byte[] graphData;
+
     // --- геттеры / сеттеры ---
 
     public Long getId() {
@@ -140,4 +151,12 @@ public class CapitalInflationScenario {
     public void setResultText(String resultText) {
         this.resultText = resultText;
     }
+
+    public byte[] getGraphData() {
+        return graphData;
+    }
+
+    public void setGraphData(byte[] graphData) {
+        this.graphData = graphData;
+    }
 }
@@ -0,0 +1,13 @@
+package com.themoneygame.investments.inflation;
+
+import java.time.LocalDateTime;
+
+/**
+ * Строка истории сценариев — без входных параметров и без graph_data.
+ */
+public record CapitalInflationScenarioSummary(
+        Long id,
+        LocalDateTime createdAt,
+        String resultText
+) {
+}
@@ -1,15 +1,36 @@
 package com.themoneygame.investments.inflation;
 
+import com.themoneygame.investments.inflation.dto.CapitalInflationGridRequest;
+import com.themoneygame.investments.inflation.dto.CapitalInflationGridResponse;
+import com.themoneygame.investments.inflation.dto.CapitalInflationProgress;
 import com.themoneygame.investments.inflation.dto.CapitalInflationRequest;
 import com.themoneygame.investments.inflation.dto.CapitalInflationResponse;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface CapitalInflationService {
 
     CapitalInflationResponse calculateAndSave(Long userId, CapitalInflationRequest request);
 
+    /**
+     * То же, но в стохастическом режиме onProgress получает промежуточные перцентили.
+     */
+    CapitalInflationResponse calculateAndSave(Long userId,
+                                              CapitalInflationRequest request,
+                                              Consumer<CapitalInflationProgress> onProgress);
+
+    /**
+     * Сетка сценариев для анализа чувствительности; ничего не сохраняет.
+     */
+    CapitalInflationGridResponse calculateGrid(CapitalInflationGridRequest request);
+
     List<CapitalInflationResponse> getHistory(Long userId);
 
+    /**
+     * Точки графика сохранённого сценария + ETag для условных запросов.
+     */
+    CapitalInflationGraph getGraph(Long userId, Long scenarioId);
+
     void deleteScenario(Long userId, Long scenarioId);
 }
@@ -1,40 +1,78 @@
 package com.themoneygame.investments.inflation;
 
+import com.themoneygame.auth.application.UserReferenceProvider;
 import com.themoneygame.auth.domain.User;
-import com.themoneygame.auth.infrastructure.UserRepository;
+import com.themoneygame.core.cache.BoundedLruCache;
+import com.themoneygame.core.cache.CacheRegistry;
+import com.themoneygame.core.cache.CanonicalKey;
+import com.themoneygame.investments.inflation.dto.CapitalInflationGridRequest;
+import com.themoneygame.investments.inflation.dto.CapitalInflationGridResponse;
+import com.themoneygame.investments.inflation.dto.CapitalInflationProgress;
 import com.themoneygame.investments.inflation.dto.CapitalInflationRequest;
 import com.themoneygame.investments.inflation.dto.CapitalInflationResponse;
 import com.themoneygame.investments.inflation.dto.CapitalInflationYearPoint;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.unit.DataSize;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
 
 @Service
 @Transactional
 public class CapitalInflationServiceImpl implements CapitalInflationService {
 
     private final CapitalInflationRepository repo;
-    private final UserRepository userRepo;
-
-    public CapitalInflationServiceImpl(CapitalInflationRepository repo, UserRepository userRepo) {
+    private final UserReferenceProvider userReferences;
+    private final CapitalMonteCarloSimulator simulator;
+    private final BoundedLruCache<String, CapitalInflationOutcome> outcomes;
+
+    public CapitalInflationServiceImpl(CapitalInflationRepository repo,
+                                       UserReferenceProvider userReferences,
+                                       CapitalMonteCarloSimulator simulator,
+                                       CacheRegistry cacheRegistry,
+                                       @Value("${investments.inflation.cache.max-entries:20000}") int maxEntries,
+                                       @Value("${investments.inflation.cache.max-weight:64MB}") DataSize maxWeight,
+                                       @Value("${investments.inflation.cache.ttl:PT1H}") Duration ttl) {
         this.repo = repo;
-        this.userRepo = userRepo;
+        this.userReferences = userReferences;
+        this.simulator = simulator;
+        this.outcomes = cacheRegistry.create("capital-inflation-results", maxEntries, ttl,
+                maxWeight.toBytes(), CapitalInflationOutcome::weight);
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public CapitalInflationResponse calculateAndSave(Long userId, CapitalInflationRequest req) {
-        User user = userRepo.findById(userId)
-                .orElseThrow(() -> new IllegalStateException("User not found " + userId));
+        return calculateAndSave(userId, req, null);
+    }
 
+    /**
+     * Симуляция может занимать заметное время (и ждать медленного SSE-клиента),
+     * поэтому общей транзакции нет — соединение с БД на время расчёта не держим,
+     * пользователь читается и сценарий сохраняется в транзакциях репозиториев.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CapitalInflationResponse calculateAndSave(Long userId,
+                                                     CapitalInflationRequest req,
+                                                     Consumer<CapitalInflationProgress> onProgress) {
         // безопасные значения по умолчанию (как в ТЗ: 9% инфляция, 8% вклад)
         BigDecimal initialCapital = nvl(req.getInitialCapital(), BigDecimal.ZERO);
         BigDecimal monthlyContribution = nvl(req.getMonthlyContribution(), BigDecimal.ZERO);
         int years = req.getYears() != null ? req.getYears() : 1;
+        // график и кэш растут линейно по сроку — тот же предел, что у симуляции и сетки
+        if (years < 1 || years > CapitalMonteCarloSimulator.MAX_YEARS) {
+            throw new IllegalArgumentException("years must be between 1 and " + CapitalMonteCarloSimulator.MAX_YEARS);
+        }
 
         BigDecimal averageReturn = nvl(req.getAverageReturn(), BigDecimal.ZERO);        // %
         BigDecimal depositRate   = nvl(req.getDepositRate(), new BigDecimal("8.0"));   // %
@@ -43,50 +81,32 @@ public class CapitalInflationServiceImpl implements CapitalInflationService {
         boolean compareWithDeposit = req.isCompareWithDeposit();
         boolean useInflation       = req.isUseInflation();
 
-        // состояние капиталов
-        BigDecimal investValue        = initialCapital;
-        BigDecimal depositValue       = initialCapital;
-        BigDecimal inflationAdjusted  = initialCapital;
-
-        // месячные коэффициенты
-        BigDecimal monthlyReturnRate   = averageReturn.divide(BigDecimal.valueOf(12 * 100L), 8, RoundingMode.HALF_UP);
-        BigDecimal monthlyDepositRate  = depositRate.divide(BigDecimal.valueOf(12 * 100L), 8, RoundingMode.HALF_UP);
-        BigDecimal monthlyInflationRate= inflationRate.divide(BigDecimal.valueOf(12 * 100L), 8, RoundingMode.HALF_UP);
-
-        List<CapitalInflationYearPoint> points = new ArrayList<>();
-        int totalMonths = years * 12;
-
-        for (int month = 1; month <= totalMonths; month++) {
-
-            // 1) Инвестпортфель: добавляем взнос + применяем доходность
-            investValue = investValue.add(monthlyContribution);
-            investValue = investValue.multiply(BigDecimal.ONE.add(monthlyReturnRate));
-
-            // 2) Вклад: если включен режим сравнения, то считаем аналогично, только с депозитной ставкой
-            if (compareWithDeposit) {
-                depositValue = depositValue.add(monthlyContribution);
-                depositValue = depositValue.multiply(BigDecimal.ONE.add(monthlyDepositRate));
-            }
-
-            // 3) Корректировка капитала на инфляцию (условно "реальная покупательная способность")
-            if (useInflation) {
-                inflationAdjusted = inflationAdjusted.multiply(BigDecimal.ONE.add(monthlyInflationRate.negate()));
-            }
+        // одинаковые запросы (популярные пресеты) не пересчитываем. В ключ — только то,
+        // что влияет на результат; случайную симуляцию без seed не кэшируем вовсе
+        Integer simulationPaths = req.getSimulationPaths();
+        String key = null;
+        if (simulationPaths == null) {
+            key = CanonicalKey.of(initialCapital, monthlyContribution, years, averageReturn,
+                    compareWithDeposit ? depositRate : null, useInflation ? inflationRate : null);
+        } else if (req.getSeed() != null) {
+            key = CanonicalKey.of(initialCapital, monthlyContribution, years, averageReturn,
+                    compareWithDeposit ? depositRate : null, useInflation ? inflationRate : null,
+                    simulationPaths, nvl(req.getReturnVolatility(), BigDecimal.ZERO),
+                    useInflation ? nvl(req.getInflationVolatility(), BigDecimal.ZERO) : null, req.getSeed());
+        }
 
-            // 4) Раз в год записываем точку для графика
-            if (month % 12 == 0) {
-                CapitalInflationYearPoint p = new CapitalInflationYearPoint();
-                p.setYear(month / 12);
-                p.setInvestmentValue(investValue);
-                p.setDepositValue(compareWithDeposit ? depositValue : null);
-                p.setInflationAdjusted(useInflation ? inflationAdjusted : null);
-                points.add(p);
+        CapitalInflationOutcome outcome = key != null ? outcomes.get(key) : null;
+        if (outcome == null) {
+            outcome = compute(req, initialCapital, monthlyContribution, years, averageReturn,
+                    depositRate, inflationRate, compareWithDeposit, useInflation, onProgress);
+            if (key != null) {
+                outcomes.put(key, outcome);
             }
         }
+        List<CapitalInflationYearPoint> points = outcome.points();
+        String resultText = outcome.resultText();
 
-        // Текстовый итог (чтобы фронт показал готовую формулировку)
-        String resultText = buildResultText(years, investValue, compareWithDeposit ? depositValue : null,
-                useInflation ? inflationAdjusted : null);
+        User user = userReferences.reference(userId);
 
         // Сохраняем сценарий в БД
         CapitalInflationScenario entity = new CapitalInflationScenario();
@@ -100,6 +120,7 @@ public class CapitalInflationServiceImpl implements CapitalInflationService {
         entity.setUseInflation(useInflation);
         entity.setInflationRate(inflationRate);
         entity.setResultText(resultText);
+        entity.setGraphData(outcome.graphData());
 
         repo.save(entity);
 
@@ -113,41 +134,206 @@ public class CapitalInflationServiceImpl implements CapitalInflationService {
         return resp;
     }
 
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CapitalInflationGridResponse calculateGrid(CapitalInflationGridRequest req) {
+        return CapitalInflationGrid.evaluate(req);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<CapitalInflationResponse> getHistory(Long userId) {
-        List<CapitalInflationScenario> list = repo.findByUserIdOrderByCreatedAtDesc(userId);
+        List<CapitalInflationScenarioSummary> list = repo.findSummariesByUserId(userId);
 
-        List<CapitalInflationResponse> out = new ArrayList<>();
-        for (CapitalInflationScenario e : list) {
+        List<CapitalInflationResponse> out = new ArrayList<>(list.size());
+        for (CapitalInflationScenarioSummary e : list) {
             CapitalInflationResponse r = new CapitalInflationResponse();
-            r.setId(e.getId());
-            r.setCreatedAt(e.getCreatedAt());
-            r.setResultText(e.getResultText());
-            r.setGraph(Collections.emptyList()); // для списка график не тянем
+            r.setId(e.id());
+            r.setCreatedAt(e.createdAt());
+            r.setResultText(e.resultText());
+            r.setGraph(Collections.emptyList()); // для списка график не тянем — см. getGraph
             out.add(r);
         }
         return out;
     }
 
+    /**
+     * График сохранённого сценария — чтение одной строки по PK.
+     * Сценарии, сохранённые до появления graph_data, досчитываются по входным
+     * параметрам один раз и дописываются (перцентили для них не восстановить).
+     */
     @Override
-    public void deleteScenario(Long userId, Long scenarioId) {
-        CapitalInflationScenario e = repo.findById(scenarioId)
+    public CapitalInflationGraph getGraph(Long userId, Long scenarioId) {
+        CapitalInflationScenario e = repo.findByIdAndUserId(scenarioId, userId)
                 .orElseThrow(() -> new IllegalArgumentException("Scenario not found: " + scenarioId));
 
-        if (!e.getUser().getId().equals(userId)) {
-            throw new SecurityException("Cannot delete scenario of another user");
+        if (e.getGraphData() == null) {
+            List<CapitalInflationYearPoint> points = buildPoints(
+                    e.getInitialCapital().doubleValue(),
+                    e.getMonthlyContribution().doubleValue(),
+                    e.getYears(),
+                    CapitalGrowthEngine.monthlyRate(e.getAverageReturn()),
+                    e.isCompareWithDeposit() ? CapitalGrowthEngine.monthlyRate(e.getDepositRate()) : null,
+                    e.isUseInflation() ? CapitalGrowthEngine.monthlyRate(e.getInflationRate()) : null);
+            e.setGraphData(CapitalInflationGraphCodec.encode(points));
         }
 
-        repo.delete(e);
+        byte[] data = e.getGraphData();
+        return new CapitalInflationGraph(CapitalInflationGraphCodec.etag(data), CapitalInflationGraphCodec.decode(data));
+    }
+
+    @Override
+    public void deleteScenario(Long userId, Long scenarioId) {
+        // без чтения строки: graph_data не тянется ради удаления
+        if (repo.deleteByIdAndUserId(scenarioId, userId) == 0) {
+            throw new IllegalArgumentException("Scenario not found: " + scenarioId);
+        }
     }
 
     // --------- private helpers ---------
 
+    /**
+     * Сам расчёт: график по годам, перцентили (если просили симуляцию)
+     * и текстовый итог. БД не трогает.
+     */
+    private CapitalInflationOutcome compute(CapitalInflationRequest req,
+                                            BigDecimal initialCapital,
+                                            BigDecimal monthlyContribution,
+                                            int years,
+                                            BigDecimal averageReturn,
+                                            BigDecimal depositRate,
+                                            BigDecimal inflationRate,
+                                            boolean compareWithDeposit,
+                                            boolean useInflation,
+                                            Consumer<CapitalInflationProgress> onProgress) {
+        Integer simulationPaths = req.getSimulationPaths();
+
+        // месячные коэффициенты
+        double monthlyReturnRate    = CapitalGrowthEngine.monthlyRate(averageReturn);
+        double monthlyDepositRate   = CapitalGrowthEngine.monthlyRate(depositRate);
+        double monthlyInflationRate = CapitalGrowthEngine.monthlyRate(inflationRate);
+
+        double initial = initialCapital.doubleValue();
+        double contribution = monthlyContribution.doubleValue();
+
+        int months = years * 12;
+        List<CapitalInflationYearPoint> points = buildPoints(initial, contribution, years,
+                monthlyReturnRate, compareWithDeposit ? monthlyDepositRate : null,
+                useInflation ? monthlyInflationRate : null);
+
+        // стохастический режим: перцентили поверх детерминированного графика
+        CapitalMonteCarloSimulator.Bands bands = null;
+        if (simulationPaths != null) {
+            CapitalMonteCarloSimulator.Params params = new CapitalMonteCarloSimulator.Params(
+                    initial, contribution,
+                    percent(averageReturn), percent(nvl(req.getReturnVolatility(), BigDecimal.ZERO)),
+                    useInflation,
+                    percent(inflationRate), percent(nvl(req.getInflationVolatility(), BigDecimal.ZERO)),
+                    years, simulationPaths,
+                    req.getSeed() != null ? req.getSeed() : ThreadLocalRandom.current().nextLong());
+
+            Consumer<CapitalMonteCarloSimulator.Bands> listener = onProgress == null ? null
+                    : partial -> onProgress.accept(new CapitalInflationProgress(
+                            partial.completedPaths(), partial.totalPaths(), toBandPoints(partial)));
+            bands = simulator.simulate(params, listener);
+            applyBands(points, bands);
+        }
+
+        BigDecimal investValue = CapitalGrowthEngine.toMoney(
+                CapitalGrowthEngine.valueAfterMonths(initial, contribution, monthlyReturnRate, months));
+        BigDecimal depositValue = CapitalGrowthEngine.toMoney(
+                CapitalGrowthEngine.valueAfterMonths(initial, contribution, monthlyDepositRate, months));
+        BigDecimal inflationAdjusted = CapitalGrowthEngine.toMoney(
+                CapitalGrowthEngine.discountedAfterMonths(initial, monthlyInflationRate, months));
+
+        // Текстовый итог (чтобы фронт показал готовую формулировку)
+        String resultText = buildResultText(years, investValue, compareWithDeposit ? depositValue : null,
+                useInflation ? inflationAdjusted : null);
+        if (bands != null) {
+            resultText += buildBandText(bands);
+        }
+
+        return new CapitalInflationOutcome(points, resultText, CapitalInflationGraphCodec.encode(points));
+    }
+
     private BigDecimal nvl(BigDecimal value, BigDecimal def) {
         return value != null ? value : def;
     }
 
+    /**
+     * Точки графика на конец каждого года — в замкнутой форме, без помесячного цикла.
+     * monthlyDepositRate / monthlyInflationRate == null — соответствующая линия не нужна.
+     */
+    private List<CapitalInflationYearPoint> buildPoints(double initial,
+                                                        double contribution,
+                                                        int years,
+                                                        double monthlyReturnRate,
+                                                        Double monthlyDepositRate,
+                                                        Double monthlyInflationRate) {
+        double[] invest = CapitalGrowthEngine.yearlyValues(initial, contribution, monthlyReturnRate, years);
+        double[] deposit = monthlyDepositRate != null
+                ? CapitalGrowthEngine.yearlyValues(initial, contribution, monthlyDepositRate, years)
+                : null;
+        // корректировка на инфляцию (условно "реальная покупательная способность")
+        double[] inflation = monthlyInflationRate != null
+                ? CapitalGrowthEngine.yearlyDiscounted(initial, monthlyInflationRate, years)
+                : null;
+
+        List<CapitalInflationYearPoint> points = new ArrayList<>(years);
+        for (int year = 1; year <= years; year++) {
+            CapitalInflationYearPoint p = new CapitalInflationYearPoint();
+            p.setYear(year);
+            p.setInvestmentValue(CapitalGrowthEngine.toMoney(invest[year - 1]));
+            p.setDepositValue(deposit != null ? CapitalGrowthEngine.toMoney(deposit[year - 1]) : null);
+            p.setInflationAdjusted(inflation != null ? CapitalGrowthEngine.toMoney(inflation[year - 1]) : null);
+            points.add(p);
+        }
+        return points;
+    }
+
+    private double percent(BigDecimal value) {
+        return value.doubleValue() / 100;
+    }
+
+    private List<CapitalInflationYearPoint> toBandPoints(CapitalMonteCarloSimulator.Bands bands) {
+        List<CapitalInflationYearPoint> points = new ArrayList<>(bands.p50().length);
+        for (int year = 1; year <= bands.p50().length; year++) {
+            CapitalInflationYearPoint p = new CapitalInflationYearPoint();
+            p.setYear(year);
+            points.add(p);
+        }
+        applyBands(points, bands);
+        return points;
+    }
+
+    private void applyBands(List<CapitalInflationYearPoint> points, CapitalMonteCarloSimulator.Bands bands) {
+        for (int i = 0; i < points.size(); i++) {
+            CapitalInflationYearPoint p = points.get(i);
+            p.setInvestmentP5(CapitalGrowthEngine.toMoney(bands.p5()[i]));
+            p.setInvestmentP50(CapitalGrowthEngine.toMoney(bands.p50()[i]));
+            p.setInvestmentP95(CapitalGrowthEngine.toMoney(bands.p95()[i]));
+            if (bands.realP50() != null) {
+                p.setRealP5(CapitalGrowthEngine.toMoney(bands.realP5()[i]));
+                p.setRealP50(CapitalGrowthEngine.toMoney(bands.realP50()[i]));
+                p.setRealP95(CapitalGrowthEngine.toMoney(bands.realP95()[i]));
+            }
+        }
+    }
+
+    private String buildBandText(CapitalMonteCarloSimulator.Bands bands) {
+        int last = bands.p50().length - 1;
+        StringBuilder sb = new StringBuilder();
+        sb.append(" По ").append(bands.totalPaths()).append(" случайным сценариям: с вероятностью 90% от ")
+                .append(format(CapitalGrowthEngine.toMoney(bands.p5()[last]))).append(" до ")
+                .append(format(CapitalGrowthEngine.toMoney(bands.p95()[last]))).append(" ₽, медиана ")
+                .append(format(CapitalGrowthEngine.toMoney(bands.p50()[last]))).append(" ₽.");
+        if (bands.realP50() != null) {
+            sb.append(" В сегодняшних деньгах медиана ")
+                    .append(format(CapitalGrowthEngine.toMoney(bands.realP50()[last]))).append(" ₽.");
+        }
+        return sb.toString();
+    }
+
     private String buildResultText(int years,
                                    BigDecimal investValue,
                                    BigDecimal depositValue,
@@ -0,0 +1,271 @@
+package com.themoneygame.investments.inflation;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * Стохастический режим калькулятора: N случайных траекторий капитала
+ * и перцентили P5/P50/P95 по годам.
+ *
+ * Модель: в каждом году годовой лог-рост доходности ~ N(m, σ), где
+ * m = 12·ln(1 + μ/12) − σ²/2 — тогда средний рост совпадает с детерминированным
+ * расчётом (μ/12 в месяц). Внутри года ставка постоянна, поэтому 12 месяцев со
+ * взносами считаются той же замкнутой формой, что и в CapitalGrowthEngine.
+ * Инфляция — аналогично, лог-нормальный дефлятор; реальный капитал = номинал / дефлятор.
+ *
+ * Траектории режутся на блоки по CHUNK штук, у каждого блока свой SplittableRandom,
+ * полученный split() от корневого генератора заранее и по порядку — результат
+ * при одном seed не зависит от того, какой поток какой блок посчитал.
+ * Значения хранятся в float[год][путь]: строка года непрерывна, перцентили
+ * выбираются в ней на месте (quickselect) без копирования.
+ */
+@Component
+public class CapitalMonteCarloSimulator {
+
+    public static final int MIN_PATHS = 1_000;
+    public static final int MAX_PATHS = 1_000_000;
+    public static final int MAX_YEARS = 100;
+
+    private static final int CHUNK = 4096;
+    /** Сколько промежуточных срезов перцентилей отдаём слушателю. */
+    private static final int ROUNDS = 8;
+
+    private final ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    private final Semaphore permits;
+    private final long maxCells;
+
+    public CapitalMonteCarloSimulator(
+            @Value("${investments.monte-carlo.max-concurrent:2}") int maxConcurrent,
+            @Value("${investments.monte-carlo.max-cells:24000000}") long maxCells) {
+        this.permits = new Semaphore(maxConcurrent);
+        this.maxCells = maxCells;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Параметры симуляции. Ставки и волатильности — доли (0.08 = 8% годовых).
+     */
+    public record Params(double initial,
+                         double contribution,
+                         double meanReturn,
+                         double returnVolatility,
+                         boolean withInflation,
+                         double meanInflation,
+                         double inflationVolatility,
+                         int years,
+                         int paths,
+                         long seed) {
+    }
+
+    /**
+     * Перцентили по годам: [0] — конец первого года. real* == null без инфляции.
+     */
+    public record Bands(int completedPaths,
+                        int totalPaths,
+                        double[] p5,
+                        double[] p50,
+                        double[] p95,
+                        double[] realP5,
+                        double[] realP50,
+                        double[] realP95) {
+    }
+
+    /**
+     * Считает траектории; onProgress (может быть null) получает промежуточные
+     * перцентили по уже посчитанным путям. Исключение из onProgress прерывает расчёт.
+     *
+     * @throws IllegalArgumentException   параметры вне допустимых границ
+     * @throws RejectedExecutionException все слоты под симуляции заняты
+     */
+    public Bands simulate(Params p, Consumer<Bands> onProgress) {
+        validate(p);
+        if (!permits.tryAcquire()) {
+            throw new RejectedExecutionException("Too many simulations in progress, try again later");
+        }
+        try {
+            return run(p, onProgress);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void validate(Params p) {
+        if (p.paths() < MIN_PATHS || p.paths() > MAX_PATHS) {
+            throw new IllegalArgumentException(
+                    "simulationPaths must be between " + MIN_PATHS + " and " + MAX_PATHS);
+        }
+        if (p.years() < 1 || p.years() > MAX_YEARS) {
+            throw new IllegalArgumentException("years must be between 1 and " + MAX_YEARS);
+        }
+        if (p.returnVolatility() < 0 || p.inflationVolatility() < 0) {
+            throw new IllegalArgumentException("volatility must not be negative");
+        }
+        long cells = (long) p.paths() * p.years() * (p.withInflation() ? 2 : 1);
+        if (cells > maxCells) {
+            throw new IllegalArgumentException(
+                    "simulation is too large: paths × years must not exceed "
+                            + maxCells / (p.withInflation() ? 2 : 1));
+        }
+    }
+
+    private Bands run(Params p, Consumer<Bands> onProgress) {
+        int years = p.years();
+        int paths = p.paths();
+        int chunks = (paths + CHUNK - 1) / CHUNK;
+
+        SplittableRandom root = new SplittableRandom(p.seed());
+        SplittableRandom[] rngs = new SplittableRandom[chunks];
+        for (int c = 0; c < chunks; c++) {
+            rngs[c] = root.split();
+        }
+
+        float[][] nominal = new float[years][paths];
+        float[][] real = p.withInflation() ? new float[years][paths] : null;
+
+        int rounds = Math.min(chunks, ROUNDS);
+        int chunksPerRound = (chunks + rounds - 1) / rounds;
+
+        for (int firstChunk = 0; firstChunk < chunks; firstChunk += chunksPerRound) {
+            int lastChunk = Math.min(firstChunk + chunksPerRound, chunks);
+            int from = firstChunk;
+            inPool(() -> IntStream.range(from, lastChunk).parallel()
+                    .forEach(c -> simulateChunk(p, rngs[c], c, nominal, real)));
+
+            int done = Math.min(lastChunk * CHUNK, paths);
+            if (onProgress != null && done < paths) {
+                // перестановка префикса на месте безопасна: пути независимы,
+                // а следующие раунды пишут только в [done, paths)
+                onProgress.accept(percentiles(nominal, real, done, paths));
+            }
+        }
+        return percentiles(nominal, real, paths, paths);
+    }
+
+    private static void simulateChunk(Params p, SplittableRandom rng, int chunk,
+                                      float[][] nominal, float[][] real) {
+        int from = chunk * CHUNK;
+        int to = Math.min(from + CHUNK, p.paths());
+
+        double returnVol = p.returnVolatility();
+        double returnDrift = 12 * Math.log1p(p.meanReturn() / 12) - 0.5 * returnVol * returnVol;
+        double inflationVol = p.inflationVolatility();
+        double inflationDrift = 12 * Math.log1p(p.meanInflation() / 12) - 0.5 * inflationVol * inflationVol;
+        double contribution = p.contribution();
+
+        for (int i = from; i < to; i++) {
+            double value = p.initial();
+            double logDeflator = 0;
+            for (int y = 0; y < p.years(); y++) {
+                double logGrowth = returnDrift + returnVol * rng.nextGaussian();
+                double r = Math.expm1(logGrowth / 12);
+                double yearGain = Math.expm1(logGrowth);    // (1+r)^12 - 1
+                value = r == 0.0
+                        ? value + contribution * 12
+                        : value * (1 + yearGain) + contribution * (1 + r) * yearGain / r;
+                nominal[y][i] = (float) value;
+
+                if (real != null) {
+                    logDeflator += inflationDrift + inflationVol * rng.nextGaussian();
+                    real[y][i] = (float) (value * Math.exp(-logDeflator));
+                }
+            }
+        }
+    }
+
+    private Bands percentiles(float[][] nominal, float[][] real, int done, int total) {
+        int years = nominal.length;
+        double[] p5 = new double[years];
+        double[] p50 = new double[years];
+        double[] p95 = new double[years];
+        double[] realP5 = real != null ? new double[years] : null;
+        double[] realP50 = real != null ? new double[years] : null;
+        double[] realP95 = real != null ? new double[years] : null;
+
+        inPool(() -> IntStream.range(0, years).parallel().forEach(y -> {
+            selectBands(nominal[y], done, y, p5, p50, p95);
+            if (real != null) {
+                selectBands(real[y], done, y, realP5, realP50, realP95);
+            }
+        }));
+        return new Bands(done, total, p5, p50, p95, realP5, realP50, realP95);
+    }
+
+    /**
+     * P5/P50/P95 первых n значений строки без полной сортировки: сначала медиана
+     * по всей строке, затем P5 — только в левой половине, P95 — в правой.
+     */
+    static void selectBands(float[] row, int n, int y, double[] p5, double[] p50, double[] p95) {
+        int k50 = rank(0.50, n);
+        int k5 = rank(0.05, n);
+        int k95 = rank(0.95, n);
+        p50[y] = select(row, 0, n - 1, k50);
+        p5[y] = k5 < k50 ? select(row, 0, k50 - 1, k5) : p50[y];
+        p95[y] = k95 > k50 ? select(row, k50 + 1, n - 1, k95) : p50[y];
+    }
+
+    /** Перцентиль по ближайшему рангу. */
+    private static int rank(double q, int n) {
+        return Math.min(n - 1, Math.max(0, (int) Math.ceil(q * n) - 1));
+    }
+
+    /**
+     * Quickselect (Хоар, опорный — медиана трёх) на отрезке [lo, hi] включительно.
+     * После вызова row[k] стоит на своём месте: слева не больше, справа не меньше.
+     */
+    private static float select(float[] row, int lo, int hi, int k) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            float a = row[lo], b = row[mid], c = row[hi];
+            float pivot = Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (row[i] < pivot) i++;
+                while (row[j] > pivot) j--;
+                if (i <= j) {
+                    float t = row[i];
+                    row[i] = row[j];
+                    row[j] = t;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                hi = j;
+            } else if (k >= i) {
+                lo = i;
+            } else {
+                break;
+            }
+        }
+        return row[k];
+    }
+
+    /** Параллельные стримы внутри своего пула, а не в общем ForkJoinPool.commonPool(). */
+    private void inPool(Runnable task) {
+        try {
+            pool.submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Simulation interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IllegalStateException("Simulation failed", e.getCause());
+        }
+    }
+}
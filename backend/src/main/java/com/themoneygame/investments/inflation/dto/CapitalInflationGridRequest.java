@@ -0,0 +1,100 @@
+package com.themoneygame.investments.inflation.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Запрос сетки сценариев (анализ чувствительности).
+ * По каждой оси — диапазон from..to из steps точек; ось не задана → одна точка
+ * со значением по умолчанию (как в обычном расчёте).
+ */
+public class CapitalInflationGridRequest {
+
+    private BigDecimal initialCapital;  // начальный капитал (общий для всей сетки)
+
+    private Axis averageReturn;         // доходность, % годовых
+    private Axis inflationRate;         // инфляция, % годовых
+    private Axis monthlyContribution;   // пополнение в месяц
+    private Axis years;                 // срок в годах (значения округляются до целых)
+
+    public static class Axis {
+
+        private BigDecimal from;
+        private BigDecimal to;
+        private Integer steps;
+
+        public Axis() {
+        }
+
+        public Axis(BigDecimal from, BigDecimal to, Integer steps) {
+            this.from = from;
+            this.to = to;
+            this.steps = steps;
+        }
+
+        public BigDecimal getFrom() {
+            return from;
+        }
+
+        public void setFrom(BigDecimal from) {
+            this.from = from;
+        }
+
+        public BigDecimal getTo() {
+            return to;
+        }
+
+        public void setTo(BigDecimal to) {
+            this.to = to;
+        }
+
+        public Integer getSteps() {
+            return steps;
+        }
+
+        public void setSteps(Integer steps) {
+            this.steps = steps;
+        }
+    }
+
+    // --- геттеры / сеттеры ---
+
+    public BigDecimal getInitialCapital() {
+        return initialCapital;
+    }
+
+    public void setInitialCapital(BigDecimal initialCapital) {
+        this.initialCapital = initialCapital;
+    }
+
+    public Axis getAverageReturn() {
+        return averageReturn;
+    }
+
+    public void setAverageReturn(Axis averageReturn) {
+        this.averageReturn = averageReturn;
+    }
+
+    public Axis getInflationRate() {
+        return inflationRate;
+    }
+
+    public void setInflationRate(Axis inflationRate) {
+        this.inflationRate = inflationRate;
+    }
+
+    public Axis getMonthlyContribution() {
+        return monthlyContribution;
+    }
+
+    public void setMonthlyContribution(Axis monthlyContribution) {
+        this.monthlyContribution = monthlyContribution;
+    }
+
+    public Axis getYears() {
+        return years;
+    }
+
+    public void setYears(Axis years) {
+        this.years = years;
+    }
+}
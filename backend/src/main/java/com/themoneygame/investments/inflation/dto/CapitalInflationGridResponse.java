@@ -0,0 +1,74 @@
+package com.themoneygame.investments.inflation.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Результат сетки сценариев — плоские матрицы для heatmap.
+ *
+ * Значения оси averageReturn меняются быстрее всего:
+ *  - nominal[((y * C) + c) * R + r]            — капитал в инвестициях (от инфляции не зависит);
+ *  - real[(((y * C) + c) * I + i) * R + r]     — он же в сегодняшних деньгах,
+ * где y — индекс years, c — monthlyContribution, i — inflationRate, r — averageReturn,
+ * C, I, R — длины соответствующих осей. Суммы в рублях, округлены до копеек.
+ */
+public class CapitalInflationGridResponse {
+
+    private List<BigDecimal> averageReturn;
+    private List<BigDecimal> inflationRate;
+    private List<BigDecimal> monthlyContribution;
+    private List<Integer> years;
+
+    private double[] nominal;
+    private double[] real;
+
+    // --- геттеры / сеттеры ---
+
+    public List<BigDecimal> getAverageReturn() {
+        return averageReturn;
+    }
+
+    public void setAverageReturn(List<BigDecimal> averageReturn) {
+        this.averageReturn = averageReturn;
+    }
+
+    public List<BigDecimal> getInflationRate() {
+        return inflationRate;
+    }
+
+    public void setInflationRate(List<BigDecimal> inflationRate) {
+        this.inflationRate = inflationRate;
+    }
+
+    public List<BigDecimal> getMonthlyContribution() {
+        return monthlyContribution;
+    }
+
+    public void setMonthlyContribution(List<BigDecimal> monthlyContribution) {
+        this.monthlyContribution = monthlyContribution;
+    }
+
+    public List<Integer> getYears() {
+        return years;
+    }
+
+    public void setYears(List<Integer> years) {
+        this.years = years;
+    }
+
+    public double[] getNominal() {
+        return nominal;
+    }
+
+    public void setNominal(double[] nominal) {
+        this.nominal = nominal;
+    }
+
+    public double[] getReal() {
+        return real;
+    }
+
+    public void setReal(double[] real) {
+        this.real = real;
+    }
+}
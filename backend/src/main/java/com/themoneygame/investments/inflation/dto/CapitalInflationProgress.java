@@ -0,0 +1,50 @@
+package com.themoneygame.investments.inflation.dto;
+
+import java.util.List;
+
+/**
+ * Промежуточный срез стохастического расчёта для SSE:
+ * перцентили по уже посчитанным траекториям.
+ */
+public class CapitalInflationProgress {
+
+    private int completedPaths;
+    private int totalPaths;
+
+    private List<CapitalInflationYearPoint> graph;
+
+    public CapitalInflationProgress() {
+    }
+
+    public CapitalInflationProgress(int completedPaths, int totalPaths, List<CapitalInflationYearPoint> graph) {
+        this.completedPaths = completedPaths;
+        this.totalPaths = totalPaths;
+        this.graph = graph;
+    }
+
+    // --- геттеры / сеттеры ---
+
+    public int getCompletedPaths() {
+        return completedPaths;
+    }
+
+    public void setCompletedPaths(int completedPaths) {
+        this.completedPaths = completedPaths;
+    }
+
+    public int getTotalPaths() {
+        return totalPaths;
+    }
+
+    public void setTotalPaths(int totalPaths) {
+        this.totalPaths = totalPaths;
+    }
+
+    public List<CapitalInflationYearPoint> getGraph() {
+        return graph;
+    }
+
+    public void setGraph(List<CapitalInflationYearPoint> graph) {
+        this.graph = graph;
+    }
+}
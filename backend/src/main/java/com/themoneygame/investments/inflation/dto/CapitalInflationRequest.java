@@ -16,6 +16,12 @@ public class CapitalInflationRequest {
     private boolean useInflation;           // учитывать инфляцию
     private BigDecimal inflationRate;       // инфляция (% годовых)
 
+    // стохастический режим: если simulationPaths задан — считаем N случайных траекторий
+    private Integer simulationPaths;        // число траекторий (1 000 … 1 000 000)
+    private BigDecimal returnVolatility;    // волатильность доходности (% годовых)
+    private BigDecimal inflationVolatility; // волатильность инфляции (% годовых)
+    private Long seed;                      // для воспроизводимости; null — случайный
+
     // --- геттеры / сеттеры ---
 
     public BigDecimal getInitialCapital() {
@@ -81,4 +87,36 @@ public class CapitalInflationRequest {
     public void setInflationRate(BigDecimal inflationRate) {
         this.inflationRate = inflationRate;
     }
+
+    public Integer getSimulationPaths() {
+        return simulationPaths;
+    }
+
+    public void setSimulationPaths(Integer simulationPaths) {
+        this.simulationPaths = simulationPaths;
+    }
+
+    public BigDecimal getReturnVolatility() {
+        return returnVolatility;
+    }
+
+    public void setReturnVolatility(BigDecimal returnVolatility) {
+        this.returnVolatility = returnVolatility;
+    }
+
+    public BigDecimal getInflationVolatility() {
+        return inflationVolatility;
+    }
+
+    public void setInflationVolatility(BigDecimal inflationVolatility) {
+        this.inflationVolatility = inflationVolatility;
+    }
+
+    public Long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(Long seed) {
+        this.seed = seed;
+    }
 }
@@ -1,5 +1,7 @@
 package com.themoneygame.investments.inflation.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.math.BigDecimal;
 
 /**
@@ -13,6 +15,22 @@ public class CapitalInflationYearPoint {
     private BigDecimal depositValue;      // капитал на вкладе (если сравниваем)
     private BigDecimal inflationAdjusted; // капитал с учётом инфляции (если отмечено)
 
+    // перцентили стохастического режима (только если задан simulationPaths)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private BigDecimal investmentP5;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private BigDecimal investmentP50;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private BigDecimal investmentP95;
+
+    // те же перцентили в реальных деньгах (с учётом инфляции, если отмечено)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private BigDecimal realP5;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private BigDecimal realP50;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private BigDecimal realP95;
+
     // --- геттеры / сеттеры ---
 
     public int getYear() {
@@ -46,4 +64,52 @@ public class CapitalInflationYearPoint {
     public void setInflationAdjusted(BigDecimal inflationAdjusted) {
         this.inflationAdjusted = inflationAdjusted;
     }
+
+    public BigDecimal getInvestmentP5() {
+        return investmentP5;
+    }
+
+    public void setInvestmentP5(BigDecimal investmentP5) {
+        this.investmentP5 = investmentP5;
+    }
+
+    public BigDecimal getInvestmentP50() {
+        return investmentP50;
+    }
+
+    public void setInvestmentP50(BigDecimal investmentP50) {
+        this.investmentP50 = investmentP50;
+    }
+
+    public BigDecimal getInvestmentP95() {
+        return investmentP95;
+    }
+
+    public void setInvestmentP95(BigDecimal investmentP95) {
+        this.investmentP95 = investmentP95;
+    }
+
+    public BigDecimal getRealP5() {
+        return realP5;
+    }
+
+    public void setRealP5(BigDecimal realP5) {
+        this.realP5 = realP5;
+    }
+
+    public BigDecimal getRealP50() {
+        return realP50;
+    }
+
+    public void setRealP50(BigDecimal realP50) {
+        this.realP50 = realP50;
+    }
+
+    public BigDecimal getRealP95() {
+        return realP95;
+    }
+
+    public void setRealP95(BigDecimal realP95) {
+        this.realP95 = realP95;
+    }
 }
@@ -1,34 +1,64 @@
 package com.themoneygame.investments.monitoring.controller;
 
-import com.themoneygame.auth.domain.User;
-import com.themoneygame.auth.infrastructure.UserRepository;
+import com.themoneygame.auth.application.AuthenticatedUser;
 import com.themoneygame.investments.monitoring.domain.AssetType;
+import com.themoneygame.investments.monitoring.domain.CandleInterval;
+import com.themoneygame.investments.monitoring.dto.CandleResponse;
 import com.themoneygame.investments.monitoring.dto.MarketAssetResponse;
+import com.themoneygame.investments.monitoring.dto.TickResponse;
 import com.themoneygame.investments.monitoring.dto.WatchlistItemResponse;
 import com.themoneygame.investments.monitoring.dto.WatchlistModifyRequest;
+import com.themoneygame.investments.monitoring.domain.MarketQuote;
+import com.themoneygame.investments.monitoring.service.MarketHistoryService;
 import com.themoneygame.investments.monitoring.service.MarketMonitoringService;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
+import com.themoneygame.investments.monitoring.service.QuoteSubscription;
+import jakarta.annotation.PreDestroy;
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.Period;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/investments/monitoring")
 public class MarketMonitoringController {
 
+    private static final Logger log = LogManager.getLogger(MarketMonitoringController.class);
+
+    private static final long STREAM_TIMEOUT_MS = 30 * 60_000;
+    private static final long HEARTBEAT_MS = 15_000;
+
     private final MarketMonitoringService service;
-    private final UserRepository userRepo;
+    private final MarketHistoryService history;
+    private final AuthenticatedUser currentUser;
+
+    private final ExecutorService streamExecutor = Executors.newVirtualThreadPerTaskExecutor();
 
     public MarketMonitoringController(MarketMonitoringService service,
-                                      UserRepository userRepo) {
+                                      MarketHistoryService history,
+                                      AuthenticatedUser currentUser) {
         this.service = service;
-        this.userRepo = userRepo;
+        this.history = history;
+        this.currentUser = currentUser;
     }
 
-    private Long uid(UserDetails ud) {
-        User u = userRepo.findByUsername(ud.getUsername()).orElseThrow();
-        return u.getId();
+    @PreDestroy
+    void shutdown() {
+        streamExecutor.shutdownNow();
     }
 
     /**
@@ -48,12 +78,58 @@ public class MarketMonitoringController {
         return service.getDefaultAssets();
     }
 
+    /**
+     * GET /api/investments/monitoring/assets/{symbol}/candles?interval=1m|1h|1d&from=...&to=...
+     *  - from/to — ISO date-time; по умолчанию to = сейчас, from — сутки (1m),
+     *    месяц (1h) или год (1d) назад;
+     *  - 400 — неизвестный интервал или больше 10 000 свечей.
+     */
+    @GetMapping("/assets/{symbol}/candles")
+    public List<CandleResponse> getCandles(
+            @PathVariable String symbol,
+            @RequestParam(defaultValue = "1d") String interval,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
+    ) {
+        try {
+            CandleInterval resolution = CandleInterval.fromCode(interval);
+            LocalDateTime end = to != null ? to : LocalDateTime.now();
+            LocalDateTime start = from != null ? from : switch (resolution) {
+                case ONE_MINUTE -> end.minusDays(1);
+                case ONE_HOUR -> end.minusMonths(1);
+                case ONE_DAY -> end.minus(Period.ofYears(1));
+            };
+            return history.getCandles(symbol.toUpperCase(Locale.ROOT), resolution, start, end);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * GET /api/investments/monitoring/assets/{symbol}/ticks?from=...&to=...
+     *  - сырые тики, не больше чем за сутки; по умолчанию — последний час.
+     */
+    @GetMapping("/assets/{symbol}/ticks")
+    public List<TickResponse> getTicks(
+            @PathVariable String symbol,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
+    ) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minus(Duration.ofHours(1));
+        try {
+            return history.getTicks(symbol.toUpperCase(Locale.ROOT), start, end);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
     /**
      * GET /api/investments/monitoring/watchlist
      */
     @GetMapping("/watchlist")
-    public List<WatchlistItemResponse> getWatchlist(@AuthenticationPrincipal UserDetails ud) {
-        return service.getWatchlist(uid(ud));
+    public List<WatchlistItemResponse> getWatchlist() {
+        return service.getWatchlist(currentUser.getId());
     }
 
     /**
@@ -61,21 +137,74 @@ public class MarketMonitoringController {
      * body: { "symbol": "SBERP", "customName": "Сбер преф" }
      */
     @PostMapping("/watchlist")
-    public WatchlistItemResponse addWatchlist(
-            @AuthenticationPrincipal UserDetails ud,
-            @RequestBody WatchlistModifyRequest req
-    ) {
-        return service.addToWatchlist(uid(ud), req.getSymbol(), req.getCustomName());
+    public WatchlistItemResponse addWatchlist(@RequestBody WatchlistModifyRequest req) {
+        return service.addToWatchlist(currentUser.getId(), req.getSymbol(), req.getCustomName());
     }
 
     /**
      * DELETE /api/investments/monitoring/watchlist/{symbol}
      */
     @DeleteMapping("/watchlist/{symbol}")
-    public void deleteWatchlist(
-            @AuthenticationPrincipal UserDetails ud,
-            @PathVariable String symbol
-    ) {
-        service.removeFromWatchlist(uid(ud), symbol);
+    public void deleteWatchlist(@PathVariable String symbol) {
+        service.removeFromWatchlist(currentUser.getId(), symbol);
+    }
+
+    /**
+     * GET /api/investments/monitoring/watchlist/stream — SSE-поток котировок вотчлиста
+     * вместо периодического опроса /watchlist и /assets.
+     *
+     * События:
+     *  - snapshot: MarketAssetResponse[] — текущие котировки всех тикеров вотчлиста;
+     *  - quotes:   MarketAssetResponse[] — только изменившиеся с прошлого события;
+     *  - комментарий-пинг раз в 15 секунд, если изменений нет.
+     *
+     * Клиент, не успевающий читать, отключается — EventSource переподключится
+     * и получит свежий snapshot. 429 — превышен лимит потоков.
+     */
+    @GetMapping(value = "/watchlist/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamWatchlist() {
+        QuoteSubscription sub;
+        try {
+            sub = service.subscribeToWatchlist(currentUser.getId());
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, e.getMessage());
+        }
+
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MS);
+        emitter.onCompletion(sub::close);
+        emitter.onTimeout(sub::close);
+        emitter.onError(e -> sub.close());
+
+        streamExecutor.execute(() -> {
+            try {
+                send(emitter, "snapshot", service.getAssets(sub.getSymbols()));
+                while (!sub.isClosed()) {
+                    List<MarketQuote> changed = sub.poll(HEARTBEAT_MS, TimeUnit.MILLISECONDS);
+                    if (!changed.isEmpty()) {
+                        send(emitter, "quotes", changed.stream().map(MarketAssetResponse::of).toList());
+                    } else if (!sub.isClosed()) {
+                        emitter.send(SseEmitter.event().comment("ping"));
+                    }
+                }
+                if (sub.isDropped()) {
+                    log.debug("Quote stream dropped as slow consumer, user " + sub.getUserId());
+                }
+                emitter.complete();
+            } catch (IOException | IllegalStateException e) {
+                // клиент отключился или emitter уже завершён по таймауту
+                log.debug("Quote stream closed: " + e.getMessage());
+                emitter.completeWithError(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                emitter.complete();
+            } finally {
+                sub.close();
+            }
+        });
+        return emitter;
+    }
+
+    private void send(SseEmitter emitter, String name, Object data) throws IOException {
+        emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
     }
 }
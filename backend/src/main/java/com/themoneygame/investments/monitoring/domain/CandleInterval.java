@@ -0,0 +1,49 @@
+package com.themoneygame.investments.monitoring.domain;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Интервал свечи; code — как в API (interval=1m|1h|1d).
+ */
+public enum CandleInterval {
+
+    ONE_MINUTE("1m", ChronoUnit.MINUTES),
+    ONE_HOUR("1h", ChronoUnit.HOURS),
+    ONE_DAY("1d", ChronoUnit.DAYS);
+
+    private final String code;
+    private final ChronoUnit unit;
+
+    CandleInterval(String code, ChronoUnit unit) {
+        this.code = code;
+        this.unit = unit;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    /** Начало свечи, в которую попадает момент time. */
+    public LocalDateTime bucketStart(LocalDateTime time) {
+        return time.truncatedTo(unit);
+    }
+
+    public LocalDateTime previousBucket(LocalDateTime bucketStart) {
+        return bucketStart.minus(1, unit);
+    }
+
+    /** Сколько свечей в периоде [from, to]. */
+    public long count(LocalDateTime from, LocalDateTime to) {
+        return unit.between(bucketStart(from), bucketStart(to)) + 1;
+    }
+
+    public static CandleInterval fromCode(String code) {
+        for (CandleInterval i : values()) {
+            if (i.code.equalsIgnoreCase(code)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown candle interval: " + code + " (expected 1m, 1h or 1d)");
+    }
+}
@@ -0,0 +1,73 @@
+package com.themoneygame.investments.monitoring.domain;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Свеча OHLC по тикеру за минуту, час или день.
+ *
+ * Строки пишутся только upsert-ом из MarketHistoryServiceImpl.flush: приходит
+ * дельта с прошлого сброса, open остаётся первым, high/low — экстремумы,
+ * close — последний, счётчик тиков складывается. Сущность нужна для схемы и чтения.
+ */
+@Entity
+@Table(
+        name = "market_candles",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"symbol", "resolution", "bucket_start"})
+)
+public class MarketCandle {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 32)
+    private String symbol;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private CandleInterval resolution;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(name = "open_price", nullable = false, precision = 19, scale = 4)
+    private BigDecimal open;
+
+    @Column(name = "high_price", nullable = false, precision = 19, scale = 4)
+    private BigDecimal high;
+
+    @Column(name = "low_price", nullable = false, precision = 19, scale = 4)
+    private BigDecimal low;
+
+    @Column(name = "close_price", nullable = false, precision = 19, scale = 4)
+    private BigDecimal close;
+
+    @Column(name = "tick_count", nullable = false)
+    private long tickCount;
+
+    public MarketCandle() {
+    }
+
+    // --- getters ---
+
+    public Long getId() { return id; }
+
+    public String getSymbol() { return symbol; }
+
+    public CandleInterval getResolution() { return resolution; }
+
+    public LocalDateTime getBucketStart() { return bucketStart; }
+
+    public BigDecimal getOpen() { return open; }
+
+    public BigDecimal getHigh() { return high; }
+
+    public BigDecimal getLow() { return low; }
+
+    public BigDecimal getClose() { return close; }
+
+    public long getTickCount() { return tickCount; }
+}
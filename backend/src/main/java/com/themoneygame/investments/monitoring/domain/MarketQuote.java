@@ -0,0 +1,43 @@
+package com.themoneygame.investments.monitoring.domain;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Неизменяемая котировка актива — значение в MarketQuoteStore.
+ * id == null у актива, который ещё не сохранён в market_assets.
+ */
+public record MarketQuote(
+        Long id,
+        String symbol,
+        String name,
+        AssetType type,
+        BigDecimal lastPrice,
+        BigDecimal changeAbsolute,
+        BigDecimal changePercent,
+        String currency,
+        LocalDateTime updatedAt
+) {
+
+    public static MarketQuote of(MarketAsset a) {
+        return new MarketQuote(a.getId(), a.getSymbol(), a.getName(), a.getType(), a.getLastPrice(),
+                a.getChangeAbsolute(), a.getChangePercent(), a.getCurrency(), a.getUpdatedAt());
+    }
+
+    /**
+     * Совпадают ли рыночные данные (без id и updatedAt); цены сравниваются без учёта scale.
+     */
+    public boolean sameMarketData(MarketQuote o) {
+        return symbol.equals(o.symbol)
+                && name.equals(o.name)
+                && type == o.type
+                && currency.equals(o.currency)
+                && lastPrice.compareTo(o.lastPrice) == 0
+                && changeAbsolute.compareTo(o.changeAbsolute) == 0
+                && changePercent.compareTo(o.changePercent) == 0;
+    }
+
+    public MarketQuote withId(Long id) {
+        return new MarketQuote(id, symbol, name, type, lastPrice, changeAbsolute, changePercent, currency, updatedAt);
+    }
+}
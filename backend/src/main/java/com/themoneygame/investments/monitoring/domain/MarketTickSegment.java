@@ -0,0 +1,56 @@
+package com.themoneygame.investments.monitoring.domain;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Пачка подряд идущих тиков одного тикера в упакованном виде (append-only).
+ *
+ * data — столбцы "время, мс" и "цена × 10⁴" в PackedSeries: разности соседних
+ * тиков малы, и тик занимает несколько байт вместо строки таблицы на каждый.
+ * Сегменты пишутся пачкой из MarketHistoryServiceImpl.flush и не изменяются.
+ */
+@Entity
+@Table(
+        name = "market_tick_segments",
+        indexes = @Index(name = "idx_market_tick_segments_symbol_start", columnList = "symbol, start_time")
+)
+public class MarketTickSegment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 32)
+    private String symbol;
+
+    @Column(name = "start_time", nullable = false)
+    private LocalDateTime startTime;
+
+    @Column(name = "end_time", nullable = false)
+    private LocalDateTime endTime;
+
+    @Column(name = "tick_count", nullable = false)
+    private int tickCount;
+
+    @Column(nullable = false, columnDefinition = "bytea")
+    private byte[] data;
+
+    public MarketTickSegment() {
+    }
+
+    // --- getters ---
+
+    public Long getId() { return id; }
+
+    public String getSymbol() { return symbol; }
+
+    public LocalDateTime getStartTime() { return startTime; }
+
+    public LocalDateTime getEndTime() { return endTime; }
+
+    public int getTickCount() { return tickCount; }
+
+    public byte[] getData() { return data; }
+}
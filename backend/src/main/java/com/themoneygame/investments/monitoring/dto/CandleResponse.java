@@ -0,0 +1,17 @@
+package com.themoneygame.investments.monitoring.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Свеча для графика; time — начало интервала.
+ */
+public record CandleResponse(
+        LocalDateTime time,
+        BigDecimal open,
+        BigDecimal high,
+        BigDecimal low,
+        BigDecimal close,
+        long ticks
+) {
+}
@@ -1,6 +1,7 @@
 package com.themoneygame.investments.monitoring.dto;
 
 import com.themoneygame.investments.monitoring.domain.AssetType;
+import com.themoneygame.investments.monitoring.domain.MarketQuote;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -18,6 +19,20 @@ public class MarketAssetResponse {
     private String currency;
     private LocalDateTime updatedAt;
 
+    public static MarketAssetResponse of(MarketQuote q) {
+        MarketAssetResponse r = new MarketAssetResponse();
+        r.setId(q.id());
+        r.setSymbol(q.symbol());
+        r.setName(q.name());
+        r.setType(q.type());
+        r.setLastPrice(q.lastPrice());
+        r.setChangeAbsolute(q.changeAbsolute());
+        r.setChangePercent(q.changePercent());
+        r.setCurrency(q.currency());
+        r.setUpdatedAt(q.updatedAt());
+        return r;
+    }
+
     // --- getters / setters ---
 
     public Long getId() { return id; }
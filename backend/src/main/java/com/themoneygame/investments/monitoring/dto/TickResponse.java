@@ -0,0 +1,7 @@
+package com.themoneygame.investments.monitoring.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record TickResponse(LocalDateTime time, BigDecimal price) {
+}
@@ -0,0 +1,142 @@
+package com.themoneygame.investments.monitoring.ingest;
+
+import com.themoneygame.investments.monitoring.domain.AssetType;
+import com.themoneygame.investments.monitoring.domain.MarketQuote;
+import com.themoneygame.investments.monitoring.service.MarketHistoryService;
+import com.themoneygame.investments.monitoring.service.MarketQuoteStore;
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Опрашивает провайдеры котировок и применяет их к MarketQuoteStore.
+ *
+ * За такт по каждому тикеру остаётся одна котировка — самая поздняя по времени
+ * (при равном времени — пришедшая позже). Стор сразу отдаёт её читателям, а
+ * flush пишет весь такт в market_assets пачками batch-upsert — на 10k тикеров
+ * это несколько обращений к БД, а не 10k merge через JPA. Те же котировки
+ * уходят тиками в MarketHistoryService (история и свечи).
+ */
+@Component
+public class MarketDataIngestionJob {
+
+    private static final Logger log = LogManager.getLogger(MarketDataIngestionJob.class);
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private final ObjectProvider<MarketDataProvider> providers;
+    private final MarketQuoteStore quoteStore;
+    private final MarketHistoryService history;
+
+    public MarketDataIngestionJob(ObjectProvider<MarketDataProvider> providers,
+                                  MarketQuoteStore quoteStore,
+                                  MarketHistoryService history) {
+        this.providers = providers;
+        this.quoteStore = quoteStore;
+        this.history = history;
+    }
+
+    @Scheduled(fixedDelayString = "${investments.quotes.ingest-interval:PT5S}")
+    public void ingest() {
+        Map<String, ProviderQuote> latest = new HashMap<>();
+        providers.orderedStream().forEach(provider -> {
+            try {
+                for (ProviderQuote q : provider.fetchQuotes()) {
+                    coalesce(latest, q);
+                }
+            } catch (RuntimeException e) {
+                log.error("Market data provider " + provider.name() + " failed", e);
+            }
+        });
+        if (latest.isEmpty()) {
+            return;
+        }
+
+        List<MarketQuote> quotes = new ArrayList<>(latest.size());
+        int skipped = 0;
+        int stale = 0;
+        for (ProviderQuote q : latest.values()) {
+            MarketQuote current = quoteStore.get(q.symbol());
+            if (current != null && !q.time().isAfter(current.updatedAt())) {
+                // устаревшая или повторная котировка: в сторе уже эта или более свежая,
+                // а повтор записал бы в историю лишний тик
+                stale++;
+                continue;
+            }
+            MarketQuote quote = toQuote(q, current);
+            if (quote == null) {
+                skipped++;
+                continue;
+            }
+            String error = MarketQuoteStore.validationError(quote);
+            if (error != null) {
+                log.warn("Market data ingestion: quote " + quote.symbol() + " skipped: " + error);
+                continue;
+            }
+            quotes.add(quote);
+        }
+        if (skipped > 0) {
+            log.warn("Market data ingestion: " + skipped + " quotes skipped (unknown symbol without name/type/currency or bad price)");
+        }
+
+        quoteStore.update(quotes);
+        history.record(quotes);
+        quoteStore.flush();
+        log.debug("Market data ingestion: " + quotes.size() + " quotes applied, " + stale + " not newer than stored");
+    }
+
+    private static void coalesce(Map<String, ProviderQuote> latest, ProviderQuote q) {
+        if (q.symbol() == null || q.symbol().isBlank() || q.price() == null || q.time() == null) {
+            return;
+        }
+        String symbol = q.symbol().strip().toUpperCase(Locale.ROOT);
+        ProviderQuote normalized = symbol.equals(q.symbol()) ? q
+                : new ProviderQuote(symbol, q.price(), q.changeAbsolute(), q.changePercent(),
+                q.name(), q.type(), q.currency(), q.time());
+        latest.merge(symbol, normalized, (held, incoming) ->
+                incoming.time().isBefore(held.time()) ? held : incoming);
+    }
+
+    /**
+     * Котировка провайдера поверх текущей; null — если не хватает данных для новой записи.
+     */
+    private static MarketQuote toQuote(ProviderQuote q, MarketQuote current) {
+        String name = q.name() != null ? q.name() : current != null ? current.name() : null;
+        AssetType type = q.type() != null ? q.type() : current != null ? current.type() : null;
+        String currency = q.currency() != null ? q.currency() : current != null ? current.currency() : null;
+        if (name == null || type == null || currency == null || q.price().signum() <= 0) {
+            return null;
+        }
+
+        BigDecimal changeAbsolute = q.changeAbsolute();
+        BigDecimal changePercent = q.changePercent();
+        if (changeAbsolute == null || changePercent == null) {
+            // цена закрытия = текущая цена − изменение за день
+            BigDecimal previousClose = current != null
+                    ? current.lastPrice().subtract(current.changeAbsolute())
+                    : null;
+            if (changeAbsolute == null) {
+                changeAbsolute = previousClose != null ? q.price().subtract(previousClose) : BigDecimal.ZERO;
+            }
+            if (changePercent == null) {
+                changePercent = previousClose != null && previousClose.signum() > 0
+                        ? changeAbsolute.multiply(HUNDRED).divide(previousClose, 4, RoundingMode.HALF_UP)
+                        : BigDecimal.ZERO;
+            }
+        }
+
+        Long id = current != null ? current.id() : null;
+        return new MarketQuote(id, q.symbol(), name, type, q.price(), changeAbsolute, changePercent,
+                currency, q.time());
+    }
+}
@@ -0,0 +1,21 @@
+package com.themoneygame.investments.monitoring.ingest;
+
+import java.util.List;
+
+/**
+ * Источник котировок для MarketDataIngestionJob.
+ *
+ * Реализация — Spring-бин; job опрашивает все найденные провайдеры по расписанию.
+ * Ответ может содержать несколько котировок по одному тикеру и идти не по времени:
+ * дубли схлопываются на стороне job.
+ */
+public interface MarketDataProvider {
+
+    /** Имя для логов. */
+    String name();
+
+    /**
+     * Котировки, накопленные с прошлого вызова. Пустой список — обновлений нет.
+     */
+    List<ProviderQuote> fetchQuotes();
+}
@@ -0,0 +1,26 @@
+package com.themoneygame.investments.monitoring.ingest;
+
+import com.themoneygame.investments.monitoring.domain.AssetType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Котировка в том виде, в каком её отдаёт провайдер.
+ *
+ * Обязательны symbol, price и time. name / type / currency можно не заполнять
+ * для уже известного тикера — возьмутся из текущей котировки. Без
+ * changeAbsolute / changePercent изменение считается от цены закрытия,
+ * восстановленной по текущей котировке (lastPrice − changeAbsolute).
+ */
+public record ProviderQuote(
+        String symbol,
+        BigDecimal price,
+        BigDecimal changeAbsolute,
+        BigDecimal changePercent,
+        String name,
+        AssetType type,
+        String currency,
+        LocalDateTime time
+) {
+}
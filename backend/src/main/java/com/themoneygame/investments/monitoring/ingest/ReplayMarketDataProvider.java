@@ -0,0 +1,125 @@
+package com.themoneygame.investments.monitoring.ingest;
+
+import com.themoneygame.investments.monitoring.domain.AssetType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Провайдер-заглушка: проигрывает котировки из файла по кругу, кадр за вызов.
+ * Включается свойством investments.quotes.replay.file (classpath: или file:).
+ *
+ * Формат — строки "symbol;price[;changeAbsolute;changePercent[;name;type;currency]]",
+ * пустые поля допустимы; кадры разделяются пустой строкой, '#' — комментарий.
+ * Время котировки — момент вызова fetchQuotes.
+ */
+@Component
+@ConditionalOnProperty(name = "investments.quotes.replay.file")
+public class ReplayMarketDataProvider implements MarketDataProvider {
+
+    private final List<List<Row>> frames;
+    private int next;
+
+    public ReplayMarketDataProvider(@Value("${investments.quotes.replay.file}") Resource file) {
+        this.frames = parse(file);
+    }
+
+    @Override
+    public String name() {
+        return "replay";
+    }
+
+    @Override
+    public synchronized List<ProviderQuote> fetchQuotes() {
+        if (frames.isEmpty()) {
+            return List.of();
+        }
+        List<Row> frame = frames.get(next);
+        next = (next + 1) % frames.size();
+
+        LocalDateTime now = LocalDateTime.now();
+        return frame.stream()
+                .map(r -> new ProviderQuote(r.symbol(), r.price(), r.changeAbsolute(), r.changePercent(),
+                        r.name(), r.type(), r.currency(), now))
+                .toList();
+    }
+
+    private record Row(String symbol,
+                       BigDecimal price,
+                       BigDecimal changeAbsolute,
+                       BigDecimal changePercent,
+                       String name,
+                       AssetType type,
+                       String currency) {
+    }
+
+    private static List<List<Row>> parse(Resource file) {
+        List<List<Row>> frames = new ArrayList<>();
+        List<Row> frame = new ArrayList<>();
+        try (BufferedReader in = new BufferedReader(
+                new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            int lineNo = 0;
+            while ((line = in.readLine()) != null) {
+                lineNo++;
+                line = line.strip();
+                if (line.startsWith("#")) {
+                    continue;
+                }
+                if (line.isEmpty()) {
+                    if (!frame.isEmpty()) {
+                        frames.add(List.copyOf(frame));
+                        frame.clear();
+                    }
+                    continue;
+                }
+                frame.add(parseRow(line, lineNo));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read quote replay file " + file, e);
+        }
+        if (!frame.isEmpty()) {
+            frames.add(List.copyOf(frame));
+        }
+        return List.copyOf(frames);
+    }
+
+    private static Row parseRow(String line, int lineNo) {
+        String[] f = line.split(";", -1);
+        try {
+            if (f.length < 2 || f[0].isBlank()) {
+                throw new IllegalArgumentException("symbol and price are required");
+            }
+            return new Row(
+                    f[0].strip().toUpperCase(Locale.ROOT),
+                    new BigDecimal(f[1].strip()),
+                    decimal(f, 2),
+                    decimal(f, 3),
+                    text(f, 4),
+                    f.length > 5 && !f[5].isBlank() ? AssetType.valueOf(f[5].strip().toUpperCase(Locale.ROOT)) : null,
+                    text(f, 6));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Quote replay file, line " + lineNo + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static BigDecimal decimal(String[] f, int i) {
+        return f.length > i && !f[i].isBlank() ? new BigDecimal(f[i].strip()) : null;
+    }
+
+    private static String text(String[] f, int i) {
+        return f.length > i && !f[i].isBlank() ? f[i].strip() : null;
+    }
+}
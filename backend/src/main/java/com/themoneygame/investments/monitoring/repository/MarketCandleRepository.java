@@ -0,0 +1,31 @@
+package com.themoneygame.investments.monitoring.repository;
+
+import com.themoneygame.investments.monitoring.domain.CandleInterval;
+import com.themoneygame.investments.monitoring.domain.MarketCandle;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface MarketCandleRepository extends JpaRepository<MarketCandle, Long> {
+
+    // идёт по уникальному индексу (symbol, resolution, bucket_start)
+    @Query("""
+            select c from MarketCandle c
+            where c.symbol = :symbol
+              and c.resolution = :resolution
+              and c.bucketStart between :from and :to
+            order by c.bucketStart asc
+            """)
+    List<MarketCandle> findRange(@Param("symbol") String symbol,
+                                 @Param("resolution") CandleInterval resolution,
+                                 @Param("from") LocalDateTime from,
+                                 @Param("to") LocalDateTime to);
+
+    @Modifying
+    @Query("delete from MarketCandle c where c.resolution = :resolution and c.bucketStart < :before")
+    int deleteOlderThan(@Param("resolution") CandleInterval resolution, @Param("before") LocalDateTime before);
+}
@@ -0,0 +1,31 @@
+package com.themoneygame.investments.monitoring.repository;
+
+import com.themoneygame.investments.monitoring.domain.MarketTickSegment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface MarketTickSegmentRepository extends JpaRepository<MarketTickSegment, Long> {
+
+    // сегменты, пересекающие [from, to]; сегмент не длиннее segment-max-age,
+    // поэтому нижняя граница start_time держит запрос в пределах индекса
+    @Query("""
+            select s from MarketTickSegment s
+            where s.symbol = :symbol
+              and s.startTime between :earliestStart and :to
+              and s.endTime >= :from
+            order by s.startTime asc, s.id asc
+            """)
+    List<MarketTickSegment> findOverlapping(@Param("symbol") String symbol,
+                                            @Param("earliestStart") LocalDateTime earliestStart,
+                                            @Param("from") LocalDateTime from,
+                                            @Param("to") LocalDateTime to);
+
+    @Modifying
+    @Query("delete from MarketTickSegment s where s.endTime < :before")
+    int deleteEndedBefore(@Param("before") LocalDateTime before);
+}
@@ -1,14 +1,29 @@
 package com.themoneygame.investments.monitoring.repository;
 
 import com.themoneygame.investments.monitoring.domain.UserWatchlistEntry;
+import com.themoneygame.investments.monitoring.repository.projection.WatchlistItemView;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
 
 public interface UserWatchlistRepository extends JpaRepository<UserWatchlistEntry, Long> {
 
-    List<UserWatchlistEntry> findByUserIdOrderByCreatedAtAsc(Long userId);
+    // вотчлист с названиями активов за один запрос — без запроса актива на каждую строку
+    @Query("""
+            select new com.themoneygame.investments.monitoring.repository.projection.WatchlistItemView(
+                       w.id, w.symbol, w.customName, a.name, w.createdAt)
+            from UserWatchlistEntry w
+            left join MarketAsset a on a.symbol = w.symbol
+            where w.user.id = :userId
+            order by w.createdAt asc, w.id asc
+            """)
+    List<WatchlistItemView> findItemsByUserId(@Param("userId") Long userId);
+
+    @Query("select w.symbol from UserWatchlistEntry w where w.user.id = :userId")
+    List<String> findSymbolsByUserId(@Param("userId") Long userId);
 
     Optional<UserWatchlistEntry> findByUserIdAndSymbol(Long userId, String symbol);
 
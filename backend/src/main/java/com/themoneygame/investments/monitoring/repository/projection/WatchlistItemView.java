@@ -0,0 +1,16 @@
+package com.themoneygame.investments.monitoring.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Строка вотчлиста вместе с названием актива — одним запросом (left join по symbol).
+ * assetName == null, если тикера нет в market_assets.
+ */
+public record WatchlistItemView(
+        Long id,
+        String symbol,
+        String customName,
+        String assetName,
+        LocalDateTime createdAt
+) {
+}
@@ -0,0 +1,40 @@
+package com.themoneygame.investments.monitoring.service;
+
+import com.themoneygame.investments.monitoring.domain.CandleInterval;
+import com.themoneygame.investments.monitoring.domain.MarketQuote;
+import com.themoneygame.investments.monitoring.dto.CandleResponse;
+import com.themoneygame.investments.monitoring.dto.TickResponse;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface MarketHistoryService {
+
+    /** Больше свечей за запрос не отдаём (год часовых свечей помещается). */
+    int MAX_CANDLES = 10_000;
+
+    /** Сырые тики — не больше чем за сутки. */
+    Duration MAX_TICK_RANGE = Duration.ofDays(1);
+
+    /**
+     * Записать тики: в буфер сегментов и в текущие свечи 1m/1h/1d.
+     * В БД попадают при ближайшем сбросе.
+     */
+    void record(Collection<MarketQuote> quotes);
+
+    /**
+     * Свечи тикера за период [from, to] по возрастанию времени; пустые интервалы пропускаются.
+     *
+     * @throws IllegalArgumentException период пустой или больше MAX_CANDLES свечей
+     */
+    List<CandleResponse> getCandles(String symbol, CandleInterval interval, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Сырые тики тикера за период [from, to], включая ещё не сброшенные в БД.
+     *
+     * @throws IllegalArgumentException период пустой или длиннее MAX_TICK_RANGE
+     */
+    List<TickResponse> getTicks(String symbol, LocalDateTime from, LocalDateTime to);
+}
@@ -0,0 +1,428 @@
+package com.themoneygame.investments.monitoring.service;
+
+import com.themoneygame.investments.monitoring.domain.CandleInterval;
+import com.themoneygame.investments.monitoring.domain.MarketCandle;
+import com.themoneygame.investments.monitoring.domain.MarketQuote;
+import com.themoneygame.investments.monitoring.domain.MarketTickSegment;
+import com.themoneygame.investments.monitoring.dto.CandleResponse;
+import com.themoneygame.investments.monitoring.dto.TickResponse;
+import com.themoneygame.investments.monitoring.repository.MarketCandleRepository;
+import com.themoneygame.investments.monitoring.repository.MarketTickSegmentRepository;
+import jakarta.annotation.PreDestroy;
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * История котировок: сырые тики и свечи OHLC.
+ *
+ * Тики копятся в памяти по тикеру и запечатываются в сегмент (PackedSeries в bytea),
+ * когда набралось segment-size тиков или первому тику исполнилось segment-max-age.
+ * Свечи 1m/1h/1d ведутся инкрементально: на каждый тик обновляется дельта текущей
+ * свечи, а flush сливает дельты в market_candles upsert-ом (open сохраняется,
+ * high/low — экстремумы, close — последний). График за год читает готовые свечи,
+ * а не тики.
+ *
+ * Сегменты и дельты пишутся пачками JDBC batch в одной транзакции на flush: при ошибке
+ * откатывается весь сброс и всё возвращается в очередь, так что повтор не задваивает
+ * уже записанные пачки (tick_count, сегменты) и не сдвигает close.
+ */
+@Service
+public class MarketHistoryServiceImpl implements MarketHistoryService {
+
+    private static final Logger log = LogManager.getLogger(MarketHistoryServiceImpl.class);
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String INSERT_SEGMENT_SQL = """
+            insert into market_tick_segments (symbol, start_time, end_time, tick_count, data)
+            values (?, ?, ?, ?, ?)
+            """;
+
+    // дельта свечи сливается с уже сохранённой частью
+    private static final String UPSERT_CANDLE_SQL = """
+            insert into market_candles (symbol, resolution, bucket_start, open_price, high_price, low_price, close_price, tick_count)
+            values (?, ?, ?, ?, ?, ?, ?, ?)
+            on conflict (symbol, resolution, bucket_start) do update
+            set high_price = greatest(market_candles.high_price, excluded.high_price),
+                low_price = least(market_candles.low_price, excluded.low_price),
+                close_price = excluded.close_price,
+                tick_count = market_candles.tick_count + excluded.tick_count
+            """;
+
+    private final MarketCandleRepository candleRepo;
+    private final MarketTickSegmentRepository segmentRepo;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int segmentSize;
+    private final Duration segmentMaxAge;
+    private final Duration tickRetention;
+    private final Duration minuteCandleRetention;
+
+    // ниже — под монитором this
+    private final Map<String, TickBuffer> buffers = new HashMap<>();
+    private final List<Segment> sealed = new ArrayList<>();
+    private Map<CandleKey, CandleDelta> candles = new HashMap<>();
+
+    /** flush — по одному: дельты свечей должны уходить в порядке тиков. */
+    private final Object flushLock = new Object();
+
+    public MarketHistoryServiceImpl(MarketCandleRepository candleRepo,
+                                    MarketTickSegmentRepository segmentRepo,
+                                    JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${investments.history.segment-size:256}") int segmentSize,
+                                    @Value("${investments.history.segment-max-age:PT15M}") Duration segmentMaxAge,
+                                    @Value("${investments.history.tick-retention:P30D}") Duration tickRetention,
+                                    @Value("${investments.history.minute-candle-retention:P7D}") Duration minuteCandleRetention) {
+        this.candleRepo = candleRepo;
+        this.segmentRepo = segmentRepo;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.segmentSize = segmentSize;
+        this.segmentMaxAge = segmentMaxAge;
+        this.tickRetention = tickRetention;
+        this.minuteCandleRetention = minuteCandleRetention;
+    }
+
+    // ---------- запись ----------
+
+    @Override
+    public synchronized void record(Collection<MarketQuote> quotes) {
+        long maxAgeMs = segmentMaxAge.toMillis();
+        for (MarketQuote q : quotes) {
+            long time = TickSegmentCodec.toMillis(q.updatedAt());
+            long price = TickSegmentCodec.toUnits(q.lastPrice());
+
+            TickBuffer buffer = buffers.computeIfAbsent(q.symbol(), TickBuffer::new);
+            if (buffer.size > 0 && time - buffer.minTime >= maxAgeMs) {
+                sealed.add(buffer.seal());
+            }
+            buffer.add(time, price);
+            if (buffer.size >= segmentSize) {
+                sealed.add(buffer.seal());
+            }
+
+            for (CandleInterval interval : CandleInterval.values()) {
+                CandleKey key = new CandleKey(q.symbol(), interval, interval.bucketStart(q.updatedAt()));
+                CandleDelta delta = candles.get(key);
+                if (delta == null) {
+                    candles.put(key, new CandleDelta(price));
+                } else {
+                    delta.add(price);
+                }
+            }
+        }
+    }
+
+    /**
+     * Запечатать старые буферы и сбросить сегменты и дельты свечей в БД.
+     */
+    @Scheduled(fixedDelayString = "${investments.history.flush-interval:PT10S}")
+    public void flush() {
+        synchronized (flushLock) {
+            List<Segment> segments;
+            Map<CandleKey, CandleDelta> deltas;
+            synchronized (this) {
+                long sealBefore = TickSegmentCodec.toMillis(LocalDateTime.now()) - segmentMaxAge.toMillis();
+                for (TickBuffer buffer : buffers.values()) {
+                    if (buffer.size > 0 && buffer.minTime <= sealBefore) {
+                        sealed.add(buffer.seal());
+                    }
+                }
+                buffers.values().removeIf(b -> b.size == 0);
+
+                segments = new ArrayList<>(sealed);
+                sealed.clear();
+                deltas = candles;
+                candles = new HashMap<>();
+            }
+
+            if (segments.isEmpty() && deltas.isEmpty()) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    writeSegments(segments);
+                    writeCandles(deltas);
+                });
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    sealed.addAll(0, segments);
+                    // несохранённая дельта старше накопленной после неё
+                    deltas.forEach((key, failed) -> candles.merge(key, failed, (newer, older) -> older.then(newer)));
+                }
+                log.error("Market history flush failed, " + segments.size() + " segments and "
+                        + deltas.size() + " candles requeued", e);
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        synchronized (this) {
+            buffers.values().forEach(b -> {
+                if (b.size > 0) {
+                    sealed.add(b.seal());
+                }
+            });
+        }
+        flush();
+    }
+
+    /**
+     * Удалить сырые тики и минутные свечи старше срока хранения; часовые и дневные свечи хранятся всегда.
+     */
+    @Scheduled(cron = "${investments.history.cleanup-cron:0 15 4 * * *}")
+    @Transactional
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int segments = segmentRepo.deleteEndedBefore(now.minus(tickRetention));
+        int minuteCandles = candleRepo.deleteOlderThan(CandleInterval.ONE_MINUTE, now.minus(minuteCandleRetention));
+        log.info("Market history cleanup: " + segments + " tick segments, " + minuteCandles + " minute candles removed");
+    }
+
+    private void writeSegments(List<Segment> segments) {
+        List<Object[]> params = new ArrayList<>(segments.size());
+        for (Segment s : segments) {
+            params.add(new Object[]{
+                    s.symbol(),
+                    Timestamp.valueOf(TickSegmentCodec.fromMillis(s.minTime())),
+                    Timestamp.valueOf(TickSegmentCodec.fromMillis(s.maxTime())),
+                    s.times().length,
+                    TickSegmentCodec.encode(s.times(), s.prices(), s.times().length)
+            });
+        }
+        batchUpdate(INSERT_SEGMENT_SQL, params);
+    }
+
+    private void writeCandles(Map<CandleKey, CandleDelta> deltas) {
+        List<Object[]> params = new ArrayList<>(deltas.size());
+        deltas.forEach((key, d) -> params.add(new Object[]{
+                key.symbol(), key.interval().name(), Timestamp.valueOf(key.bucketStart()),
+                TickSegmentCodec.fromUnits(d.open), TickSegmentCodec.fromUnits(d.high),
+                TickSegmentCodec.fromUnits(d.low), TickSegmentCodec.fromUnits(d.close), d.count
+        }));
+        batchUpdate(UPSERT_CANDLE_SQL, params);
+    }
+
+    private void batchUpdate(String sql, List<Object[]> params) {
+        for (int from = 0; from < params.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(sql, params.subList(from, Math.min(from + BATCH_SIZE, params.size())));
+        }
+    }
+
+    // ---------- чтение ----------
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<CandleResponse> getCandles(String symbol, CandleInterval interval,
+                                           LocalDateTime from, LocalDateTime to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        if (interval.count(from, to) > MAX_CANDLES) {
+            throw new IllegalArgumentException("Too many candles, max " + MAX_CANDLES);
+        }
+        LocalDateTime first = interval.bucketStart(from);
+        LocalDateTime last = interval.bucketStart(to);
+
+        List<CandleResponse> result = new ArrayList<>();
+        for (MarketCandle c : candleRepo.findRange(symbol, interval, first, last)) {
+            result.add(new CandleResponse(c.getBucketStart(), c.getOpen(), c.getHigh(), c.getLow(),
+                    c.getClose(), c.getTickCount()));
+        }
+        overlayPending(result, symbol, interval, first, last);
+        return result;
+    }
+
+    /**
+     * Дельты, ещё не сброшенные в БД: с прошлого flush прошло меньше интервала
+     * свечи, поэтому они есть только у текущей и предыдущей свечи.
+     */
+    private void overlayPending(List<CandleResponse> result, String symbol, CandleInterval interval,
+                                LocalDateTime first, LocalDateTime last) {
+        LocalDateTime current = interval.bucketStart(LocalDateTime.now());
+        List<Map.Entry<LocalDateTime, CandleDelta>> pending = new ArrayList<>(2);
+        synchronized (this) {
+            for (LocalDateTime bucket : List.of(interval.previousBucket(current), current)) {
+                CandleDelta d = candles.get(new CandleKey(symbol, interval, bucket));
+                if (d != null && !bucket.isBefore(first) && !bucket.isAfter(last)) {
+                    pending.add(Map.entry(bucket, d.copy()));
+                }
+            }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<LocalDateTime, Integer> index = new HashMap<>();
+        for (int i = 0; i < result.size(); i++) {
+            index.put(result.get(i).time(), i);
+        }
+        for (Map.Entry<LocalDateTime, CandleDelta> e : pending) {
+            CandleDelta d = e.getValue();
+            Integer i = index.get(e.getKey());
+            if (i == null) {
+                result.add(new CandleResponse(e.getKey(), TickSegmentCodec.fromUnits(d.open),
+                        TickSegmentCodec.fromUnits(d.high), TickSegmentCodec.fromUnits(d.low),
+                        TickSegmentCodec.fromUnits(d.close), d.count));
+            } else {
+                CandleResponse c = result.get(i);
+                result.set(i, new CandleResponse(c.time(), c.open(),
+                        c.high().max(TickSegmentCodec.fromUnits(d.high)),
+                        c.low().min(TickSegmentCodec.fromUnits(d.low)),
+                        TickSegmentCodec.fromUnits(d.close), c.ticks() + d.count));
+            }
+        }
+        result.sort(Comparator.comparing(CandleResponse::time));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<TickResponse> getTicks(String symbol, LocalDateTime from, LocalDateTime to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        if (Duration.between(from, to).compareTo(MAX_TICK_RANGE) > 0) {
+            throw new IllegalArgumentException("Tick range must not exceed " + MAX_TICK_RANGE.toHours() + " hours");
+        }
+        long fromMs = TickSegmentCodec.toMillis(from);
+        long toMs = TickSegmentCodec.toMillis(to);
+
+        List<long[]> ticks = new ArrayList<>();
+        for (MarketTickSegment s : segmentRepo.findOverlapping(symbol, from.minus(segmentMaxAge), from, to)) {
+            long[][] cols = TickSegmentCodec.decode(s.getData());
+            collect(ticks, cols[0], cols[1], cols[0].length, fromMs, toMs);
+        }
+        synchronized (this) {
+            for (Segment s : sealed) {
+                if (s.symbol().equals(symbol)) {
+                    collect(ticks, s.times(), s.prices(), s.times().length, fromMs, toMs);
+                }
+            }
+            TickBuffer buffer = buffers.get(symbol);
+            if (buffer != null) {
+                collect(ticks, buffer.times, buffer.prices, buffer.size, fromMs, toMs);
+            }
+        }
+
+        ticks.sort(Comparator.comparingLong(t -> t[0]));
+        List<TickResponse> result = new ArrayList<>(ticks.size());
+        for (long[] t : ticks) {
+            result.add(new TickResponse(TickSegmentCodec.fromMillis(t[0]), TickSegmentCodec.fromUnits(t[1])));
+        }
+        return result;
+    }
+
+    private static void collect(List<long[]> out, long[] times, long[] prices, int size, long fromMs, long toMs) {
+        for (int i = 0; i < size; i++) {
+            if (times[i] >= fromMs && times[i] <= toMs) {
+                out.add(new long[]{times[i], prices[i]});
+            }
+        }
+    }
+
+    // ---------- буферы ----------
+
+    private record CandleKey(String symbol, CandleInterval interval, LocalDateTime bucketStart) {
+    }
+
+    /** Запечатанный сегмент, ещё не записанный в БД. */
+    private record Segment(String symbol, long[] times, long[] prices, long minTime, long maxTime) {
+    }
+
+    /** Несброшенные тики тикера; массивы растут удвоением до segment-size. */
+    private static final class TickBuffer {
+
+        private final String symbol;
+        private long[] times = new long[16];
+        private long[] prices = new long[16];
+        private int size;
+        private long minTime;
+        private long maxTime;
+
+        TickBuffer(String symbol) {
+            this.symbol = symbol;
+        }
+
+        void add(long time, long price) {
+            if (size == times.length) {
+                times = Arrays.copyOf(times, size * 2);
+                prices = Arrays.copyOf(prices, size * 2);
+            }
+            if (size == 0 || time < minTime) {
+                minTime = time;
+            }
+            if (size == 0 || time > maxTime) {
+                maxTime = time;
+            }
+            times[size] = time;
+            prices[size] = price;
+            size++;
+        }
+
+        Segment seal() {
+            Segment s = new Segment(symbol, Arrays.copyOf(times, size), Arrays.copyOf(prices, size), minTime, maxTime);
+            size = 0;
+            return s;
+        }
+    }
+
+    /** Изменение свечи с прошлого flush; цены — в единицах 10⁻⁴. */
+    private static final class CandleDelta {
+
+        private long open;
+        private long high;
+        private long low;
+        private long close;
+        private long count;
+
+        CandleDelta(long price) {
+            open = high = low = close = price;
+            count = 1;
+        }
+
+        void add(long price) {
+            high = Math.max(high, price);
+            low = Math.min(low, price);
+            close = price;
+            count++;
+        }
+
+        /** Эта дельта, за которой идёт later. */
+        CandleDelta then(CandleDelta later) {
+            CandleDelta d = copy();
+            d.high = Math.max(high, later.high);
+            d.low = Math.min(low, later.low);
+            d.close = later.close;
+            d.count = count + later.count;
+            return d;
+        }
+
+        CandleDelta copy() {
+            CandleDelta d = new CandleDelta(open);
+            d.high = high;
+            d.low = low;
+            d.close = close;
+            d.count = count;
+            return d;
+        }
+    }
+}
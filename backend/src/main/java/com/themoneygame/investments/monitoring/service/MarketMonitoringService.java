@@ -4,6 +4,7 @@ import com.themoneygame.investments.monitoring.domain.AssetType;
 import com.themoneygame.investments.monitoring.dto.MarketAssetResponse;
 import com.themoneygame.investments.monitoring.dto.WatchlistItemResponse;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface MarketMonitoringService {
@@ -19,6 +20,18 @@ public interface MarketMonitoringService {
      */
     List<MarketAssetResponse> getDefaultAssets();
 
+    /**
+     * Текущие котировки по списку тикеров (неизвестные пропускаются).
+     */
+    List<MarketAssetResponse> getAssets(Collection<String> symbols);
+
+    /**
+     * Подписка на изменения котировок тикеров из вотчлиста.
+     *
+     * @throws java.util.concurrent.RejectedExecutionException превышен лимит потоков
+     */
+    QuoteSubscription subscribeToWatchlist(Long userId);
+
     /**
      * Вотчлист текущего пользователя.
      */
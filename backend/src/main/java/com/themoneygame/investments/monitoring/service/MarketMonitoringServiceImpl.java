@@ -1,64 +1,86 @@
 package com.themoneygame.investments.monitoring.service;
 
+import com.themoneygame.auth.application.UserReferenceProvider;
 import com.themoneygame.auth.domain.User;
-import com.themoneygame.auth.infrastructure.UserRepository;
 import com.themoneygame.investments.monitoring.domain.*;
 import com.themoneygame.investments.monitoring.dto.MarketAssetResponse;
 import com.themoneygame.investments.monitoring.dto.WatchlistItemResponse;
-import com.themoneygame.investments.monitoring.repository.MarketAssetRepository;
 import com.themoneygame.investments.monitoring.repository.UserWatchlistRepository;
+import com.themoneygame.investments.monitoring.repository.projection.WatchlistItemView;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class MarketMonitoringServiceImpl implements MarketMonitoringService {
 
-    private final MarketAssetRepository assetRepo;
+    // базовый набор тикеров
+    private static final List<String> DEFAULT_SYMBOLS = List.of(
+            "SBERP", "TATNP", "LKOH", // акции
+            "GOLD", "SILVER",        // металлы
+            "BRENT", "GAZ"           // нефть/газ
+    );
+
+    private final MarketQuoteStore quoteStore;
     private final UserWatchlistRepository watchlistRepo;
-    private final UserRepository userRepo;
+    private final UserReferenceProvider userReferences;
+    private final QuotePublisher quotePublisher;
 
-    public MarketMonitoringServiceImpl(MarketAssetRepository assetRepo,
+    public MarketMonitoringServiceImpl(MarketQuoteStore quoteStore,
                                        UserWatchlistRepository watchlistRepo,
-                                       UserRepository userRepo) {
-        this.assetRepo = assetRepo;
+                                       UserReferenceProvider userReferences,
+                                       QuotePublisher quotePublisher) {
+        this.quoteStore = quoteStore;
         this.watchlistRepo = watchlistRepo;
-        this.userRepo = userRepo;
+        this.userReferences = userReferences;
+        this.quotePublisher = quotePublisher;
     }
 
+    // котировки читаются из MarketQuoteStore — транзакция и соединение с БД не нужны
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<MarketAssetResponse> getAssetsByType(AssetType type) {
-        return assetRepo.findByTypeOrderBySymbolAsc(type).stream()
-                .map(this::toAssetResponse)
+        return quoteStore.getByType(type).stream()
+                .map(MarketAssetResponse::of)
                 .collect(Collectors.toList());
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<MarketAssetResponse> getDefaultAssets() {
-        // базовый набор тикеров
-        List<String> symbols = Arrays.asList(
-                "SBERP", "TATNP", "LKOH", // акции
-                "GOLD", "SILVER",        // металлы
-                "BRENT", "GAZ"           // нефть/газ
-        );
+        return DEFAULT_SYMBOLS.stream()
+                .map(quoteStore::get)
+                .filter(Objects::nonNull)
+                .map(MarketAssetResponse::of)
+                .collect(Collectors.toList());
+    }
 
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<MarketAssetResponse> getAssets(Collection<String> symbols) {
         return symbols.stream()
-                .map(assetRepo::findBySymbol)
-                .filter(java.util.Optional::isPresent)
-                .map(opt -> toAssetResponse(opt.get()))
+                .map(quoteStore::get)
+                .filter(Objects::nonNull)
+                .map(MarketAssetResponse::of)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public QuoteSubscription subscribeToWatchlist(Long userId) {
+        return quotePublisher.subscribe(userId, watchlistRepo.findSymbolsByUserId(userId));
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<WatchlistItemResponse> getWatchlist(Long userId) {
-        return watchlistRepo.findByUserIdOrderByCreatedAtAsc(userId)
+        return watchlistRepo.findItemsByUserId(userId)
                 .stream()
                 .map(this::toWatchlistItem)
                 .collect(Collectors.toList());
@@ -67,8 +89,7 @@ public class MarketMonitoringServiceImpl implements MarketMonitoringService {
     @Override
     public WatchlistItemResponse addToWatchlist(Long userId, String symbol, String customName) {
 
-        User user = userRepo.findById(userId)
-                .orElseThrow(() -> new IllegalStateException("User not found: " + userId));
+        User user = userReferences.reference(userId);
 
         // если уже есть, просто возвращаем существующее
         UserWatchlistEntry existing = watchlistRepo.findByUserIdAndSymbol(userId, symbol)
@@ -87,6 +108,7 @@ public class MarketMonitoringServiceImpl implements MarketMonitoringService {
         entry.setCustomName(customName);
 
         watchlistRepo.save(entry);
+        quotePublisher.watch(userId, symbol);
 
         return toWatchlistItem(entry);
     }
@@ -94,35 +116,36 @@ public class MarketMonitoringServiceImpl implements MarketMonitoringService {
     @Override
     public void removeFromWatchlist(Long userId, String symbol) {
         watchlistRepo.deleteByUserIdAndSymbol(userId, symbol);
+        quotePublisher.unwatch(userId, symbol);
     }
 
     // ---------- mapping helpers ----------
 
-    private MarketAssetResponse toAssetResponse(MarketAsset a) {
-        MarketAssetResponse r = new MarketAssetResponse();
-        r.setId(a.getId());
-        r.setSymbol(a.getSymbol());
-        r.setName(a.getName());
-        r.setType(a.getType());
-        r.setLastPrice(a.getLastPrice());
-        r.setChangeAbsolute(a.getChangeAbsolute());
-        r.setChangePercent(a.getChangePercent());
-        r.setCurrency(a.getCurrency());
-        r.setUpdatedAt(a.getUpdatedAt());
+    private WatchlistItemResponse toWatchlistItem(WatchlistItemView v) {
+        WatchlistItemResponse r = new WatchlistItemResponse();
+        r.setId(v.id());
+        r.setSymbol(v.symbol());
+
+        String name = v.customName();
+        if (name == null || name.isBlank()) {
+            name = v.assetName() != null ? v.assetName() : v.symbol();
+        }
+        r.setName(name);
+        r.setCreatedAt(v.createdAt());
         return r;
     }
 
+    // для одной записи (добавление) — название из MarketQuoteStore
     private WatchlistItemResponse toWatchlistItem(UserWatchlistEntry e) {
         WatchlistItemResponse r = new WatchlistItemResponse();
         r.setId(e.getId());
         r.setSymbol(e.getSymbol());
 
-        // пробуем найти человеческое название в MarketAsset
+        // пробуем найти человеческое название в MarketQuoteStore
         String name = e.getCustomName();
         if (name == null || name.isBlank()) {
-            name = assetRepo.findBySymbol(e.getSymbol())
-                    .map(MarketAsset::getName)
-                    .orElse(e.getSymbol());
+            MarketQuote quote = quoteStore.get(e.getSymbol());
+            name = quote != null ? quote.name() : e.getSymbol();
         }
         r.setName(name);
         r.setCreatedAt(e.getCreatedAt());
@@ -0,0 +1,318 @@
+package com.themoneygame.investments.monitoring.service;
+
+import com.themoneygame.investments.monitoring.domain.AssetType;
+import com.themoneygame.investments.monitoring.domain.MarketQuote;
+import com.themoneygame.investments.monitoring.repository.MarketAssetRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Котировки market_assets в памяти процесса.
+ *
+ * Таблица маленькая и меняется только при обновлении котировок, поэтому
+ * чтение идёт из неизменяемого снимка (по тикеру и готовые списки по типу):
+ * без блокировок и без обращения к БД. Запись строит новый снимок и
+ * подменяет ссылку целиком — читатель видит либо старый снимок, либо новый.
+ *
+ * В БД изменения уходят асинхронно: последняя котировка по каждому тикеру
+ * копится в pending и сбрасывается пачкой (flush). Периодическая перечитка
+ * таблицы подхватывает правки в обход стора.
+ *
+ * Изменившиеся котировки (цена, изменение, название) уходят в QuotePublisher
+ * для потоковых подписок.
+ */
+@Component
+public class MarketQuoteStore {
+
+    private static final Logger log = LogManager.getLogger(MarketQuoteStore.class);
+
+    private static final String UPSERT_SQL = """
+            insert into market_assets (symbol, name, type, last_price, change_absolute, change_percent, currency, updated_at)
+            values (?, ?, ?, ?, ?, ?, ?, ?)
+            on conflict (symbol) do update
+            set name = excluded.name,
+                type = excluded.type,
+                last_price = excluded.last_price,
+                change_absolute = excluded.change_absolute,
+                change_percent = excluded.change_percent,
+                currency = excluded.currency,
+                updated_at = excluded.updated_at
+            where market_assets.updated_at <= excluded.updated_at
+            """;
+
+    // длины колонок market_assets (см. MarketAsset)
+    private static final int SYMBOL_MAX_LENGTH = 32;
+    private static final int NAME_MAX_LENGTH = 128;
+    private static final int CURRENCY_MAX_LENGTH = 8;
+
+    private final MarketAssetRepository assetRepo;
+    private final JdbcTemplate jdbcTemplate;
+    private final int flushBatchSize;
+    private final QuotePublisher publisher;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    /** Ещё не записанные в БД котировки: по тикеру хранится только последняя. */
+    private final ConcurrentHashMap<String, MarketQuote> pending = new ConcurrentHashMap<>();
+
+    /** Писатели снимка (update / reload) — по одному. */
+    private final Object writeLock = new Object();
+
+    /** flush — по одному, иначе более старая пачка могла бы закоммититься позже новой. */
+    private final Object flushLock = new Object();
+
+    public MarketQuoteStore(MarketAssetRepository assetRepo,
+                            JdbcTemplate jdbcTemplate,
+                            QuotePublisher publisher,
+                            @Value("${investments.quotes.flush-batch-size:1000}") int flushBatchSize) {
+        this.assetRepo = assetRepo;
+        this.jdbcTemplate = jdbcTemplate;
+        this.publisher = publisher;
+        this.flushBatchSize = flushBatchSize;
+    }
+
+    // ---------- чтение ----------
+
+    public MarketQuote get(String symbol) {
+        return snapshot.bySymbol().get(symbol);
+    }
+
+    /**
+     * Активы типа, отсортированные по тикеру. Список неизменяемый и общий для всех читателей.
+     */
+    public List<MarketQuote> getByType(AssetType type) {
+        return snapshot.byType().getOrDefault(type, List.of());
+    }
+
+    public int size() {
+        return snapshot.bySymbol().size();
+    }
+
+    // ---------- запись ----------
+
+    /**
+     * Применить котировки: новый снимок виден сразу, запись в БД — при ближайшем flush.
+     */
+    public void update(Collection<MarketQuote> quotes) {
+        if (quotes.isEmpty()) {
+            return;
+        }
+        for (MarketQuote q : quotes) {
+            validate(q);
+        }
+        synchronized (writeLock) {
+            Map<String, MarketQuote> next = new HashMap<>(snapshot.bySymbol());
+            List<MarketQuote> applied = new ArrayList<>(quotes.size());
+            for (MarketQuote q : quotes) {
+                MarketQuote previous = next.get(q.symbol());
+                // id знает только БД — не теряем его при обновлении цены
+                MarketQuote merged = q.id() == null && previous != null ? q.withId(previous.id()) : q;
+                next.put(q.symbol(), merged);
+                pending.put(q.symbol(), merged);
+                applied.add(merged);
+            }
+            Snapshot previous = snapshot;
+            snapshot = Snapshot.of(next);
+            publishChanges(previous, applied);
+        }
+    }
+
+    /**
+     * Сбросить накопленные котировки в market_assets batch-upsert'ом по flushBatchSize строк.
+     * Строку с более поздним updated_at в БД upsert не перетирает.
+     * Упавшая пачка повторяется построчно: строку, которую отвергла сама БД, выбрасываем
+     * с записью в лог (иначе она срывала бы каждый следующий flush), а при любой другой
+     * ошибке остаток возвращается в очередь, если его не вытеснили более свежие котировки.
+     */
+    @Scheduled(fixedDelayString = "${investments.quotes.flush-interval:PT1S}")
+    public void flush() {
+        synchronized (flushLock) {
+            flushPending();
+        }
+    }
+
+    private void flushPending() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<MarketQuote> batch = new ArrayList<>(pending.size());
+        for (String symbol : pending.keySet()) {
+            MarketQuote q = pending.remove(symbol);
+            if (q != null) {
+                batch.add(q);
+            }
+        }
+
+        for (int from = 0; from < batch.size(); from += flushBatchSize) {
+            List<MarketQuote> chunk = batch.subList(from, Math.min(from + flushBatchSize, batch.size()));
+            try {
+                jdbcTemplate.batchUpdate(UPSERT_SQL, chunk.stream().map(MarketQuoteStore::toParams).toList());
+            } catch (RuntimeException e) {
+                log.warn("Quote batch flush failed, retrying " + chunk.size() + " rows one by one", e);
+                int failedAt = flushOneByOne(chunk);
+                if (failedAt >= 0) {
+                    List<MarketQuote> rest = batch.subList(from + failedAt, batch.size());
+                    rest.forEach(q -> pending.putIfAbsent(q.symbol(), q));
+                    log.error("Quote flush failed, " + rest.size() + " quotes requeued");
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return индекс котировки, на которой запись прервалась не по вине данных, или -1
+     */
+    private int flushOneByOne(List<MarketQuote> chunk) {
+        for (int i = 0; i < chunk.size(); i++) {
+            MarketQuote q = chunk.get(i);
+            try {
+                jdbcTemplate.update(UPSERT_SQL, toParams(q));
+            } catch (DataIntegrityViolationException e) {
+                log.error("Quote dropped, rejected by market_assets: " + q, e);
+            } catch (RuntimeException e) {
+                log.error("Quote flush failed on " + q.symbol(), e);
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static Object[] toParams(MarketQuote q) {
+        return new Object[]{
+                q.symbol(), q.name(), q.type().name(), q.lastPrice(), q.changeAbsolute(),
+                q.changePercent(), q.currency(), Timestamp.valueOf(q.updatedAt())
+        };
+    }
+
+    /**
+     * Перечитать таблицу целиком (старт приложения и периодически).
+     * Не сброшенные ещё котировки накладываются поверх прочитанного, а котировка
+     * из снимка, которая свежее строки в БД (сброшена уже после чтения), сохраняется.
+     */
+    @PostConstruct
+    @Scheduled(initialDelayString = "${investments.quotes.refresh-interval:PT5M}",
+            fixedDelayString = "${investments.quotes.refresh-interval:PT5M}")
+    public void reload() {
+        List<MarketQuote> loaded = assetRepo.findAll().stream()
+                .map(MarketQuote::of)
+                .toList();
+        synchronized (writeLock) {
+            Map<String, MarketQuote> current = snapshot.bySymbol();
+            Map<String, MarketQuote> next = new HashMap<>(loaded.size() * 2);
+            for (MarketQuote q : loaded) {
+                MarketQuote held = current.get(q.symbol());
+                next.put(q.symbol(), held != null && held.updatedAt().isAfter(q.updatedAt())
+                        ? held.withId(q.id())
+                        : q);
+            }
+            pending.forEach((symbol, q) -> {
+                MarketQuote stored = next.get(symbol);
+                next.put(symbol, q.id() == null && stored != null ? q.withId(stored.id()) : q);
+            });
+            Snapshot previous = snapshot;
+            snapshot = Snapshot.of(next);
+            publishChanges(previous, next.values());
+        }
+    }
+
+    // под writeLock: подписчики получают изменения в порядке записи снимков
+    private void publishChanges(Snapshot previous, Collection<MarketQuote> candidates) {
+        List<MarketQuote> changed = new ArrayList<>();
+        for (MarketQuote q : candidates) {
+            MarketQuote old = previous.bySymbol().get(q.symbol());
+            if (old == null || !old.sameMarketData(q)) {
+                changed.add(q);
+            }
+        }
+        if (!changed.isEmpty()) {
+            publisher.publish(changed);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    /**
+     * Почему котировку нельзя записать в market_assets, или null, если можно.
+     * Проверяются NOT NULL, длины строк и precision/scale чисел — битая котировка
+     * иначе срывала бы batch-upsert.
+     */
+    public static String validationError(MarketQuote q) {
+        if (q.symbol() == null || q.symbol().isBlank() || q.name() == null || q.type() == null
+                || q.lastPrice() == null || q.changeAbsolute() == null || q.changePercent() == null
+                || q.currency() == null || q.updatedAt() == null) {
+            return "incomplete quote";
+        }
+        if (q.symbol().length() > SYMBOL_MAX_LENGTH) {
+            return "symbol longer than " + SYMBOL_MAX_LENGTH;
+        }
+        if (q.name().length() > NAME_MAX_LENGTH) {
+            return "name longer than " + NAME_MAX_LENGTH;
+        }
+        if (q.currency().length() > CURRENCY_MAX_LENGTH) {
+            return "currency longer than " + CURRENCY_MAX_LENGTH;
+        }
+        if (!fits(q.lastPrice(), 19, 4) || !fits(q.changeAbsolute(), 19, 4)) {
+            return "price out of numeric(19,4)";
+        }
+        if (!fits(q.changePercent(), 10, 4)) {
+            return "change percent out of numeric(10,4)";
+        }
+        return null;
+    }
+
+    private static void validate(MarketQuote q) {
+        String error = validationError(q);
+        if (error != null) {
+            throw new IllegalArgumentException("Invalid quote (" + error + "): " + q);
+        }
+    }
+
+    // numeric(precision, scale): после округления до scale — не больше precision цифр
+    private static boolean fits(BigDecimal value, int precision, int scale) {
+        return value.setScale(scale, RoundingMode.HALF_UP).precision() <= precision;
+    }
+
+    // ---------- снимок ----------
+
+    private record Snapshot(Map<String, MarketQuote> bySymbol,
+                            Map<AssetType, List<MarketQuote>> byType) {
+
+        static final Snapshot EMPTY = new Snapshot(Map.of(), Map.of());
+
+        static Snapshot of(Map<String, MarketQuote> bySymbol) {
+            Map<AssetType, List<MarketQuote>> grouped = new EnumMap<>(AssetType.class);
+            for (MarketQuote q : bySymbol.values()) {
+                grouped.computeIfAbsent(q.type(), t -> new ArrayList<>()).add(q);
+            }
+            Map<AssetType, List<MarketQuote>> byType = new EnumMap<>(AssetType.class);
+            grouped.forEach((type, list) -> {
+                list.sort(Comparator.comparing(MarketQuote::symbol));
+                byType.put(type, List.copyOf(list));
+            });
+            return new Snapshot(Map.copyOf(bySymbol), byType);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.themoneygame.investments.monitoring.service;
+
+import com.themoneygame.investments.monitoring.domain.MarketQuote;
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Общий на процесс издатель изменений котировок для потоковых подписок.
+ *
+ * MarketQuoteStore вызывает publish только с реально изменившимися котировками;
+ * издатель раскладывает их по очередям подписок через индекс тикер → подписки,
+ * так что стоимость публикации зависит от числа заинтересованных, а не всех клиентов.
+ * publish не блокируется: отставшая больше чем на max-lag подписка сбрасывается
+ * (см. QuoteSubscription).
+ */
+@Component
+public class QuotePublisher {
+
+    private static final Logger log = LogManager.getLogger(QuotePublisher.class);
+
+    private final long maxLagNanos;
+    private final int maxSubscriptions;
+    private final int maxSubscriptionsPerUser;
+
+    private final ConcurrentHashMap<String, Set<QuoteSubscription>> bySymbol = new ConcurrentHashMap<>();
+    private final Set<QuoteSubscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+    public QuotePublisher(@Value("${investments.quotes.stream.max-lag:PT30S}") Duration maxLag,
+                          @Value("${investments.quotes.stream.max-subscriptions:2000}") int maxSubscriptions,
+                          @Value("${investments.quotes.stream.max-per-user:4}") int maxSubscriptionsPerUser) {
+        this.maxLagNanos = maxLag.toNanos();
+        this.maxSubscriptions = maxSubscriptions;
+        this.maxSubscriptionsPerUser = maxSubscriptionsPerUser;
+    }
+
+    /**
+     * @throws RejectedExecutionException превышен общий лимит подписок или лимит на пользователя
+     */
+    public synchronized QuoteSubscription subscribe(Long userId, Collection<String> symbols) {
+        if (subscriptions.size() >= maxSubscriptions) {
+            throw new RejectedExecutionException("Too many quote streams, try again later");
+        }
+        long own = subscriptions.stream().filter(s -> s.getUserId().equals(userId)).count();
+        if (own >= maxSubscriptionsPerUser) {
+            throw new RejectedExecutionException("Too many quote streams for this user");
+        }
+        QuoteSubscription sub = new QuoteSubscription(userId, symbols, maxLagNanos, this);
+        subscriptions.add(sub);
+        for (String symbol : symbols) {
+            index(symbol, sub);
+        }
+        return sub;
+    }
+
+    /**
+     * Разослать изменения. Вызывается писателем MarketQuoteStore под его блокировкой,
+     * поэтому порядок изменений в каждой очереди совпадает с порядком записи.
+     */
+    public void publish(Collection<MarketQuote> changed) {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        Set<QuoteSubscription> slow = null;
+        for (MarketQuote q : changed) {
+            Set<QuoteSubscription> subs = bySymbol.get(q.symbol());
+            if (subs == null) {
+                continue;
+            }
+            for (QuoteSubscription sub : subs) {
+                if (!sub.offer(q) && !sub.isClosed()) {
+                    if (slow == null) {
+                        slow = new HashSet<>();
+                    }
+                    slow.add(sub);
+                }
+            }
+        }
+        if (slow != null) {
+            slow.forEach(QuoteSubscription::drop);
+            log.info("Quote stream: " + slow.size() + " slow subscriptions dropped");
+        }
+    }
+
+    /** Тикер добавлен в вотчлист — открытые подписки пользователя начинают его получать. */
+    public void watch(Long userId, String symbol) {
+        for (QuoteSubscription sub : subscriptions) {
+            if (sub.getUserId().equals(userId) && sub.symbols().add(symbol)) {
+                index(symbol, sub);
+            }
+        }
+    }
+
+    /** Тикер убран из вотчлиста. */
+    public void unwatch(Long userId, String symbol) {
+        for (QuoteSubscription sub : subscriptions) {
+            if (sub.getUserId().equals(userId) && sub.symbols().remove(symbol)) {
+                unindex(symbol, sub);
+            }
+        }
+    }
+
+    public int subscriptionCount() {
+        return subscriptions.size();
+    }
+
+    void remove(QuoteSubscription sub) {
+        if (subscriptions.remove(sub)) {
+            for (String symbol : sub.symbols()) {
+                unindex(symbol, sub);
+            }
+        }
+    }
+
+    // добавление и удаление — внутри compute, чтобы не потерять подписку в наборе, который как раз удаляется
+    private void index(String symbol, QuoteSubscription sub) {
+        bySymbol.compute(symbol, (s, subs) -> {
+            Set<QuoteSubscription> set = subs != null ? subs : ConcurrentHashMap.newKeySet();
+            set.add(sub);
+            return set;
+        });
+    }
+
+    private void unindex(String symbol, QuoteSubscription sub) {
+        bySymbol.computeIfPresent(symbol, (s, subs) -> {
+            subs.remove(sub);
+            return subs.isEmpty() ? null : subs;
+        });
+    }
+}
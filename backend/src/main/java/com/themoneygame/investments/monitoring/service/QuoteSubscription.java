@@ -0,0 +1,135 @@
+package com.themoneygame.investments.monitoring.service;
+
+import com.themoneygame.investments.monitoring.domain.MarketQuote;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Подписка одного клиента на котировки своих тикеров (см. QuotePublisher).
+ *
+ * Изменения сливаются прямо в подписке: по тикеру хранится только последняя
+ * котировка, так что память ограничена вотчлистом, а не числом тиков, и такт,
+ * в котором изменились все тикеры, ничего не переполняет. Издатель никогда не ждёт:
+ * он кладёт котировку и будит поток отправки. Если же самое старое неотданное
+ * изменение лежит дольше maxLag, клиент не успевает читать — подписка закрывается,
+ * и клиент переподключается, получая свежий снимок. Читает подписку один поток отправки.
+ */
+public final class QuoteSubscription {
+
+    private final Long userId;
+    private final Set<String> symbols = ConcurrentHashMap.newKeySet();
+    private final long maxLagNanos;
+    private final QuotePublisher publisher;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+
+    // ниже — под lock
+    private Map<String, MarketQuote> latest = new LinkedHashMap<>();
+    /** System.nanoTime() самого старого неотданного изменения; 0 — отдавать нечего. */
+    private long pendingSince;
+
+    private volatile boolean closed;
+    private volatile boolean dropped;
+
+    QuoteSubscription(Long userId, Collection<String> symbols, long maxLagNanos, QuotePublisher publisher) {
+        this.userId = userId;
+        this.symbols.addAll(symbols);
+        this.maxLagNanos = maxLagNanos;
+        this.publisher = publisher;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Set<String> getSymbols() {
+        return Set.copyOf(symbols);
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /** Закрыта издателем: клиент отстал больше чем на maxLag. */
+    public boolean isDropped() {
+        return dropped;
+    }
+
+    /**
+     * Ждёт изменений до timeout и забирает всё накопленное, по тикеру — последнее.
+     * Пустой список — за timeout ничего не пришло или подписка закрыта.
+     */
+    public List<MarketQuote> poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            while (latest.isEmpty() && !closed && nanos > 0) {
+                nanos = changed.awaitNanos(nanos);
+            }
+            if (latest.isEmpty() || closed) {
+                return List.of();
+            }
+            List<MarketQuote> batch = List.copyOf(latest.values());
+            latest = new LinkedHashMap<>();
+            pendingSince = 0;
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Отписаться; повторный вызов ничего не делает. */
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            latest = new LinkedHashMap<>();
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        publisher.remove(this);
+    }
+
+    // ---------- для QuotePublisher ----------
+
+    Set<String> symbols() {
+        return symbols;
+    }
+
+    /** false — клиент отстал больше чем на maxLag. */
+    boolean offer(MarketQuote q) {
+        lock.lock();
+        try {
+            if (closed) {
+                return true;
+            }
+            long now = System.nanoTime();
+            if (latest.isEmpty()) {
+                pendingSince = now;
+            }
+            latest.put(q.symbol(), q);
+            changed.signal();
+            return now - pendingSince <= maxLagNanos;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void drop() {
+        dropped = true;
+        close();
+    }
+}
@@ -0,0 +1,53 @@
+package com.themoneygame.investments.monitoring.service;
+
+import com.themoneygame.core.util.PackedSeries;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Тики сегмента ↔ PackedSeries: столбец 0 — время в мс, столбец 1 — цена × 10⁴
+ * (scale цены в market_assets). Порядок столбцов менять нельзя: он зашит в уже сохранённые данные.
+ */
+final class TickSegmentCodec {
+
+    private static final int PRICE_SCALE = 4;
+
+    private TickSegmentCodec() {
+    }
+
+    static byte[] encode(long[] times, long[] prices, int size) {
+        return PackedSeries.encode(new long[][]{
+                Arrays.copyOf(times, size),
+                Arrays.copyOf(prices, size)
+        });
+    }
+
+    /**
+     * @return [0] — времена, [1] — цены в единицах 10⁻⁴
+     */
+    static long[][] decode(byte[] data) {
+        return PackedSeries.decode(data);
+    }
+
+    // время хранится без зоны, как LocalDateTime в остальных таблицах
+    static long toMillis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    static LocalDateTime fromMillis(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC);
+    }
+
+    static long toUnits(BigDecimal price) {
+        return price.setScale(PRICE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    static BigDecimal fromUnits(long units) {
+        return BigDecimal.valueOf(units, PRICE_SCALE);
+    }
+}
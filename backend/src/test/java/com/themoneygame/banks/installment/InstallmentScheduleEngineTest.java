@@ -0,0 +1,140 @@
+package com.themoneygame.banks.installment;
+
+import com.themoneygame.banks.installment.dto.InstallmentScheduleRow;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Замкнутая форма против исходного BigDecimal-цикла calcDepositProfit — до копейки,
+ * в том числе на границе полкопейки; строки графика из расчёта и из schedule_data совпадают.
+ */
+class InstallmentScheduleEngineTest {
+
+    private static final String[] RATES = {"0", "0.01", "4.32", "6", "8.0", "12.5", "35"};
+
+    @Test
+    void benefitMatchesLoopToTheCent() {
+        // 1000591287.50 * 0.0036 = 3602128.635 — ровно полкопейки
+        InstallmentScheduleEngine.Params p = InstallmentScheduleEngine.params(
+                new BigDecimal("1000591287.50"), 1, new BigDecimal("4.32"));
+        assertEquals(new BigDecimal("3602128.64"), InstallmentScheduleEngine.benefit(p, p.equalPayment()));
+
+        Random random = new Random(15);
+        for (int i = 0; i < 300; i++) {
+            BigDecimal amount = BigDecimal.valueOf(random.nextLong(1, 100_000_000_000L), 2 + random.nextInt(2));
+            int months = 1 + random.nextInt(60);
+            BigDecimal rate = new BigDecimal(RATES[random.nextInt(RATES.length)]);
+            InstallmentScheduleEngine.Params params = InstallmentScheduleEngine.params(amount, months, rate);
+
+            for (BigDecimal payment : List.of(params.equalPayment(), params.minPayment())) {
+                String at = amount + " / " + months + " / " + rate + " / " + payment;
+                assertEquals(loopBenefit(amount, payment, months, params.monthlyRate()),
+                        InstallmentScheduleEngine.benefit(params, payment), at);
+
+                // и каждый месяц графика
+                BigDecimal deposit = amount;
+                for (int k = 1; k <= months; k++) {
+                    deposit = deposit.multiply(BigDecimal.ONE.add(params.monthlyRate())).subtract(payment);
+                    assertEquals(deposit.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact(),
+                            InstallmentScheduleEngine.depositCents(amount, payment, params.monthlyRate(), k),
+                            at + " / month " + k);
+                }
+            }
+        }
+    }
+
+    @Test
+    void halfCentTiesRoundUp() {
+        // r = 0.005: D(1) = A * 1.005 - P
+        for (String amount : new String[]{"1.00", "3.00", "999999999.00", "-1.00"}) {
+            BigDecimal a = new BigDecimal(amount);
+            BigDecimal exact = a.multiply(new BigDecimal("1.005")).subtract(BigDecimal.ONE);
+            assertEquals(exact.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact(),
+                    InstallmentScheduleEngine.depositCents(a, BigDecimal.ONE, new BigDecimal("0.00500000"), 1), amount);
+        }
+    }
+
+    @Test
+    void storedScheduleGivesSameRows() {
+        // минимальные платежи исчерпывают вклад задолго до конца срока
+        InstallmentScheduleEngine.Params p = InstallmentScheduleEngine.params(
+                new BigDecimal("150000.00"), 36, new BigDecimal("12.5"));
+
+        List<InstallmentScheduleRow> rows = InstallmentScheduleEngine.rows(p).toList();
+        List<InstallmentScheduleRow> stored = InstallmentScheduleEngine.unpack(InstallmentScheduleEngine.pack(p), p).toList();
+
+        assertEquals(36, rows.size());
+        assertEquals(rows.stream().map(InstallmentScheduleEngineTest::values).toList(),
+                stored.stream().map(InstallmentScheduleEngineTest::values).toList());
+
+        assertStrategy(rows, p.amount(), p.minPayment(), true);
+        assertStrategy(rows, p.amount(), p.equalPayment(), false);
+        assertEquals(InstallmentScheduleEngine.benefit(p, p.minPayment()), rows.get(35).getMinDepositBalance());
+        assertEquals(InstallmentScheduleEngine.benefit(p, p.equalPayment()), rows.get(35).getEqualDepositBalance());
+    }
+
+    @Test
+    void badParamsAreRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> InstallmentScheduleEngine.params(new BigDecimal("1000"), 0, new BigDecimal("8")));
+        assertThrows(IllegalArgumentException.class,
+                () -> InstallmentScheduleEngine.params(new BigDecimal("1e15"), 600, new BigDecimal("30")));
+        assertThrows(IllegalArgumentException.class,
+                () -> InstallmentScheduleEngine.params(new BigDecimal("1e17"), 1, new BigDecimal("8")));
+    }
+
+    private static void assertStrategy(List<InstallmentScheduleRow> rows, BigDecimal amount, BigDecimal payment,
+                                       boolean min) {
+        BigDecimal previous = amount;
+        BigDecimal cumulative = BigDecimal.ZERO;
+        boolean exhausted = false;
+        for (InstallmentScheduleRow row : rows) {
+            BigDecimal interest = min ? row.getMinInterest() : row.getEqualInterest();
+            BigDecimal balance = min ? row.getMinDepositBalance() : row.getEqualDepositBalance();
+            BigDecimal total = min ? row.getMinCumulativeBenefit() : row.getEqualCumulativeBenefit();
+            String at = (min ? "min" : "equal") + " / month " + row.getMonth();
+
+            assertTrue(interest.signum() >= 0, at);
+            assertTrue(balance.signum() >= 0, at);
+            if (exhausted) {
+                assertEquals(0, interest.signum(), at);
+                assertEquals(0, balance.signum(), at);
+            } else if (balance.signum() > 0) {
+                assertEquals(balance, previous.add(interest).subtract(payment), at);
+            }
+            cumulative = cumulative.add(interest);
+            assertEquals(cumulative, total, at);
+
+            exhausted = balance.signum() == 0;
+            previous = balance;
+        }
+        assertEquals(min, exhausted);
+    }
+
+    private static List<BigDecimal> values(InstallmentScheduleRow r) {
+        return List.of(BigDecimal.valueOf(r.getMonth()),
+                r.getEqualPayment(), r.getEqualInterest(), r.getEqualDepositBalance(), r.getEqualCumulativeBenefit(),
+                r.getMinPayment(), r.getMinInterest(), r.getMinDepositBalance(), r.getMinCumulativeBenefit());
+    }
+
+    // исходный расчёт: точный BigDecimal-цикл по месяцам, отрицательный остаток — ноль
+    private static BigDecimal loopBenefit(BigDecimal amount, BigDecimal payment, int months, BigDecimal monthlyRate) {
+        BigDecimal deposit = amount;
+        for (int i = 0; i < months; i++) {
+            deposit = deposit.multiply(BigDecimal.ONE.add(monthlyRate));
+            deposit = deposit.subtract(payment);
+        }
+        if (deposit.compareTo(BigDecimal.ZERO) < 0) {
+            deposit = BigDecimal.ZERO;
+        }
+        return deposit.setScale(2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,389 @@
+package com.themoneygame.budget.application;
+
+import com.themoneygame.auth.domain.User;
+import com.themoneygame.budget.domain.Account;
+import com.themoneygame.budget.domain.AccountBalanceCheckpoint;
+import com.themoneygame.budget.domain.Transaction;
+import com.themoneygame.budget.domain.enums.AccountType;
+import com.themoneygame.budget.domain.enums.CategoryType;
+import com.themoneygame.budget.domain.enums.CheckpointKind;
+import com.themoneygame.budget.domain.enums.FlowGranularity;
+import com.themoneygame.budget.domain.enums.TransactionType;
+import com.themoneygame.budget.domain.event.BudgetDataChangedEvent;
+import com.themoneygame.budget.infrastructure.AccountBalanceCheckpointRepository;
+import com.themoneygame.budget.infrastructure.AccountRepository;
+import com.themoneygame.budget.infrastructure.NetWorthFlowRepository;
+import com.themoneygame.budget.infrastructure.TransactionRepository;
+import com.themoneygame.budget.infrastructure.projection.NetWorthPointView;
+import com.themoneygame.budget.web.dto.NetWorthPointDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Журнал баланса и история капитала на заглушках репозиториев: отметки, транзакции
+ * и корзины net_worth_flows лежат в памяти, запросы повторяют SQL репозиториев.
+ * История капитала на любой день должна совпадать с суммой balanceAsOf по счетам.
+ */
+class AccountLedgerServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    private final User user = new User("ledger", "x", "L");
+
+    private final Map<Long, Account> accounts = new HashMap<>();
+    private final List<AccountBalanceCheckpoint> checkpoints = new ArrayList<>();
+    private final List<Transaction> transactions = new ArrayList<>();
+    private final Map<FlowGranularity, TreeMap<LocalDate, BigDecimal[]>> flows = new HashMap<>();
+    private final List<Object> events = new ArrayList<>();
+
+    private AccountLedgerService ledger;
+    private NetWorthService netWorth;
+
+    @BeforeEach
+    void setUp() {
+        user.setId(1L);
+        for (FlowGranularity g : FlowGranularity.values()) {
+            flows.put(g, new TreeMap<>());
+        }
+
+        AccountBalanceCheckpointRepository checkpointRepository = mock(AccountBalanceCheckpointRepository.class);
+        when(checkpointRepository.findFirstByAccountIdAndAsOfLessThanEqualOrderByAsOfDesc(anyLong(), any()))
+                .thenAnswer(inv -> checkpointsOf(inv.getArgument(0)).stream()
+                        .filter(c -> !c.getAsOf().isAfter(inv.getArgument(1)))
+                        .max(Comparator.comparing(AccountBalanceCheckpoint::getAsOf)));
+        when(checkpointRepository.findFirstByAccountIdOrderByAsOfAsc(anyLong()))
+                .thenAnswer(inv -> checkpointsOf(inv.getArgument(0)).stream()
+                        .min(Comparator.comparing(AccountBalanceCheckpoint::getAsOf)));
+        when(checkpointRepository.findByAccountIdAndAsOf(anyLong(), any()))
+                .thenAnswer(inv -> checkpointsOf(inv.getArgument(0)).stream()
+                        .filter(c -> c.getAsOf().equals(inv.getArgument(1)))
+                        .findFirst());
+        when(checkpointRepository.existsByAccountId(anyLong()))
+                .thenAnswer(inv -> !checkpointsOf(inv.getArgument(0)).isEmpty());
+        when(checkpointRepository.save(any())).thenAnswer(inv -> {
+            AccountBalanceCheckpoint cp = inv.getArgument(0);
+            if (checkpoints.stream().noneMatch(c -> c == cp)) {
+                checkpoints.add(cp);
+            }
+            return cp;
+        });
+        when(checkpointRepository.shiftFrom(anyLong(), any(), any())).thenAnswer(inv -> {
+            List<AccountBalanceCheckpoint> shifted = checkpointsOf(inv.getArgument(0)).stream()
+                    .filter(c -> !c.getAsOf().isBefore(inv.getArgument(1)))
+                    .toList();
+            shifted.forEach(c -> c.setBalance(c.getBalance().add(inv.getArgument(2))));
+            return shifted.size();
+        });
+
+        TransactionRepository transactionRepository = mock(TransactionRepository.class);
+        when(transactionRepository.sumSignedAmount(anyLong(), any(), any())).thenAnswer(inv -> {
+            LocalDate after = inv.getArgument(1);
+            LocalDate upTo = inv.getArgument(2);
+            return transactions.stream()
+                    .filter(t -> t.getAccount().getId().equals(inv.getArgument(0)))
+                    .filter(t -> t.getDate().isAfter(after) && !t.getDate().isAfter(upTo))
+                    .map(AccountLedgerService::signedAmount)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+        });
+        when(transactionRepository.findFirstDate(anyLong())).thenAnswer(inv -> transactions.stream()
+                .filter(t -> t.getAccount().getId().equals(inv.getArgument(0)))
+                .map(Transaction::getDate)
+                .min(Comparator.naturalOrder())
+                .orElse(null));
+        when(transactionRepository.findAccountIdsByDateBetween(any(), any())).thenAnswer(inv -> {
+            LocalDate from = inv.getArgument(0);
+            LocalDate to = inv.getArgument(1);
+            return transactions.stream()
+                    .filter(t -> !t.getDate().isBefore(from) && !t.getDate().isAfter(to))
+                    .map(t -> t.getAccount().getId())
+                    .distinct()
+                    .toList();
+        });
+
+        AccountRepository accountRepository = mock(AccountRepository.class);
+        when(accountRepository.getReferenceById(anyLong())).thenAnswer(inv -> accounts.get(inv.<Long>getArgument(0)));
+        when(accountRepository.findAllById(any())).thenAnswer(inv -> {
+            List<Account> found = new ArrayList<>();
+            inv.<Iterable<Long>>getArgument(0).forEach(id -> found.add(accounts.get(id)));
+            return found;
+        });
+        when(accountRepository.addToBalance(anyLong(), any())).thenAnswer(inv -> {
+            Account account = accounts.get(inv.<Long>getArgument(0));
+            account.setBalance(account.getBalance().add(inv.getArgument(1)));
+            return 1;
+        });
+
+        // batch-upsert корзин: дельты складываются с уже накопленными
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(inv -> {
+            List<Object[]> rows = inv.getArgument(1);
+            for (Object[] row : rows) {
+                BigDecimal[] sums = flows.get(FlowGranularity.valueOf((String) row[1]))
+                        .computeIfAbsent(((Date) row[2]).toLocalDate(),
+                                d -> new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO});
+                for (int i = 0; i < 3; i++) {
+                    sums[i] = sums[i].add((BigDecimal) row[3 + i]);
+                }
+            }
+            return new int[rows.size()];
+        });
+
+        NetWorthFlowRepository flowRepository = mock(NetWorthFlowRepository.class);
+        when(flowRepository.findCumulative(anyLong(), anyString(), any(), any()))
+                .thenAnswer(inv -> cumulative(FlowGranularity.valueOf(inv.getArgument(1)),
+                        inv.getArgument(2), inv.getArgument(3)));
+
+        netWorth = new NetWorthService(flowRepository, jdbcTemplate);
+        ledger = new AccountLedgerService(checkpointRepository, transactionRepository, accountRepository, netWorth, events::add);
+    }
+
+    @Test
+    void netWorthHistoryMatchesSumOfBalances() {
+        Account debit = account(1L, AccountType.DEBIT, "1000");
+        Account asset = account(2L, AccountType.ASSET, "500");
+        Account credit = account(3L, AccountType.CREDIT_CASH, "-200");
+        ledger.anchor(debit, TODAY.minusDays(60));
+        ledger.anchor(asset, TODAY);
+        ledger.anchor(credit, TODAY.minusDays(10));
+
+        // до ручной отметки, в её день, после неё, раньше начала истории и в будущем
+        add(debit, TransactionType.EXPENSE, "40", TODAY.minusDays(45));
+        add(debit, TransactionType.INCOME, "250", TODAY.minusDays(60));
+        add(debit, TransactionType.EXPENSE, "75.50", TODAY.minusDays(5));
+        add(debit, TransactionType.INCOME, "12", TODAY);
+        add(debit, TransactionType.EXPENSE, "30", TODAY.minusDays(95));
+        add(debit, TransactionType.EXPENSE, "60", TODAY.plusDays(3));
+        add(asset, TransactionType.INCOME, "20", TODAY.minusDays(20));
+        add(asset, TransactionType.TRANSFER, "15", TODAY.minusDays(200));
+        Transaction removed = add(credit, TransactionType.EXPENSE, "99", TODAY.minusDays(11));
+        add(credit, TransactionType.INCOME, "50", TODAY.minusDays(2));
+
+        transactions.remove(removed);
+        ledger.onTransactionRemoved(removed);
+
+        // выписка: задним числом, в том числе в день текущего начала истории
+        LocalDate start = TODAY.minusDays(200);
+        importRows(asset, List.of(
+                tx(asset, TransactionType.INCOME, "300", start.minusDays(31)),
+                tx(asset, TransactionType.EXPENSE, "7", start),
+                tx(asset, TransactionType.INCOME, "8", TODAY.minusDays(1))));
+
+        // пользователь поправил баланс вручную
+        debit.setBalance(new BigDecimal("1234.56"));
+        ledger.anchor(debit, TODAY);
+
+        for (FlowGranularity granularity : FlowGranularity.values()) {
+            List<NetWorthPointDto> history = netWorth.getHistory(
+                    user.getId(), granularity, TODAY.minusDays(300), TODAY.plusDays(10));
+            for (NetWorthPointDto point : history) {
+                LocalDate end = granularity == FlowGranularity.MONTH
+                        ? point.getDate().plusMonths(1).minusDays(1)
+                        : point.getDate();
+                String at = granularity + " " + point.getDate();
+                assertEquals(0, point.getDebit().compareTo(ledger.balanceAsOf(debit, end)), at);
+                assertEquals(0, point.getAsset().compareTo(ledger.balanceAsOf(asset, end)), at);
+                assertEquals(0, point.getCredit().compareTo(ledger.balanceAsOf(credit, end)), at);
+            }
+        }
+
+        // дэшборд читает Account.balance — это баланс на сегодня
+        for (Account account : accounts.values()) {
+            assertEquals(0, account.getBalance().compareTo(ledger.balanceAsOf(account, TODAY)), account.getName());
+        }
+
+        // каждое движение Account.balance сбрасывает дэшборд
+        assertTrue(events.contains(BudgetDataChangedEvent.allMonths(user.getId())));
+
+        // будущая транзакция попадает в текущий баланс в свой день
+        events.clear();
+        assertEquals(1, ledger.syncBalances(TODAY, TODAY.plusDays(3)));
+        assertEquals(List.of(BudgetDataChangedEvent.allMonths(user.getId())), events);
+        assertEquals(0, debit.getBalance().compareTo(ledger.balanceAsOf(debit, TODAY.plusDays(3))));
+    }
+
+    @Test
+    void balanceAsOfStartsFromNearestCheckpoint() {
+        Account debit = account(1L, AccountType.DEBIT, "1000");
+        Account fresh = account(2L, AccountType.DEBIT, "77");
+        LocalDate anchored = TODAY.minusDays(30);
+        ledger.anchor(debit, anchored);
+
+        add(debit, TransactionType.EXPENSE, "100", anchored.plusDays(5));
+        add(debit, TransactionType.INCOME, "40", anchored.plusDays(10));
+
+        assertEquals(0, new BigDecimal("1000").compareTo(ledger.balanceAsOf(debit, anchored)));
+        assertEquals(0, new BigDecimal("1000").compareTo(ledger.balanceAsOf(debit, anchored.plusDays(4))));
+        assertEquals(0, new BigDecimal("900").compareTo(ledger.balanceAsOf(debit, anchored.plusDays(5))));
+        assertEquals(0, new BigDecimal("940").compareTo(ledger.balanceAsOf(debit, TODAY)));
+        // до начала истории счёта денег на нём не было
+        assertEquals(0, BigDecimal.ZERO.compareTo(ledger.balanceAsOf(debit, anchored.minusDays(1))));
+        // отметок нет совсем — текущий баланс
+        assertEquals(0, new BigDecimal("77").compareTo(ledger.balanceAsOf(fresh, anchored)));
+    }
+
+    @Test
+    void rollupPutsCheckpointsAtMonthEnds() {
+        Account debit = account(1L, AccountType.DEBIT, "1000");
+        YearMonth first = YearMonth.from(TODAY).minusMonths(3);
+        ledger.anchor(debit, first.atDay(10));
+        add(debit, TransactionType.EXPENSE, "100", first.atDay(20));
+        add(debit, TransactionType.INCOME, "30", first.plusMonths(1).atEndOfMonth());
+        add(debit, TransactionType.EXPENSE, "5", first.plusMonths(2).atDay(1));
+
+        assertEquals(3, ledger.rollup(debit.getId(), first.plusMonths(2)));
+        assertEquals(0, ledger.rollup(debit.getId(), first.plusMonths(2)));
+
+        assertRollup(debit, first.atEndOfMonth(), "900");
+        assertRollup(debit, first.plusMonths(1).atEndOfMonth(), "930");
+        assertRollup(debit, first.plusMonths(2).atEndOfMonth(), "925");
+
+        // транзакция задним числом сдвигает и свёрнутые отметки
+        add(debit, TransactionType.EXPENSE, "25", first.atDay(15));
+        assertRollup(debit, first.plusMonths(2).atEndOfMonth(), "900");
+        assertEquals(0, new BigDecimal("875").compareTo(ledger.balanceAsOf(debit, first.atEndOfMonth())));
+
+        assertEquals(0, ledger.rollup(account(2L, AccountType.DEBIT, "1").getId(), first));
+    }
+
+    @Test
+    void extendHistorySeedsCheckpointsBackwards() {
+        // счёт отмечен сегодня (LedgerAnchorBackfill), а транзакции лежат в прошлом
+        Account debit = account(1L, AccountType.DEBIT, "1000");
+        ledger.anchor(debit, TODAY);
+        LocalDate firstTx = TODAY.minusMonths(4).withDayOfMonth(12);
+        transactions.add(tx(debit, TransactionType.INCOME, "700", firstTx));
+        transactions.add(tx(debit, TransactionType.EXPENSE, "50", TODAY.minusMonths(2)));
+        transactions.add(tx(debit, TransactionType.INCOME, "80", TODAY.minusDays(1)));
+        transactions.add(tx(debit, TransactionType.EXPENSE, "20", TODAY));
+
+        int created = ledger.extendHistory(debit.getId());
+        assertEquals(5, created);
+        assertEquals(0, ledger.extendHistory(debit.getId()));
+
+        // баланс на любой день = отметка на сегодня минус транзакции после этого дня
+        for (LocalDate d = firstTx; !d.isAfter(TODAY); d = d.plusDays(1)) {
+            LocalDate day = d;
+            BigDecimal later = transactions.stream()
+                    .filter(t -> t.getDate().isAfter(day))
+                    .map(AccountLedgerService::signedAmount)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            assertEquals(0, new BigDecimal("1000").subtract(later).compareTo(ledger.balanceAsOf(debit, day)), day::toString);
+        }
+        assertEquals(0, BigDecimal.ZERO.compareTo(ledger.balanceAsOf(debit, firstTx.minusDays(1))));
+    }
+
+    // ---- helpers ----
+
+    private void assertRollup(Account account, LocalDate monthEnd, String expected) {
+        AccountBalanceCheckpoint cp = checkpointsOf(account.getId()).stream()
+                .filter(c -> c.getAsOf().equals(monthEnd))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(CheckpointKind.ROLLUP, cp.getKind());
+        assertEquals(0, new BigDecimal(expected).compareTo(cp.getBalance()), monthEnd::toString);
+        assertEquals(0, cp.getBalance().compareTo(ledger.balanceAsOf(account, monthEnd)));
+    }
+
+    private Account account(Long id, AccountType type, String balance) {
+        Account account = new Account();
+        ReflectionTestUtils.setField(account, "id", id);
+        account.setUser(user);
+        account.setName(type.name());
+        account.setType(type);
+        account.setBalance(new BigDecimal(balance));
+        accounts.put(id, account);
+        return account;
+    }
+
+    private Transaction tx(Account account, TransactionType type, String amount, LocalDate date) {
+        return new Transaction(user, type, CategoryType.OTHER, new BigDecimal(amount), account, date, null);
+    }
+
+    // как TransactionService.save: сначала строка в журнале, затем ledger
+    private Transaction add(Account account, TransactionType type, String amount, LocalDate date) {
+        Transaction tx = tx(account, type, amount, date);
+        transactions.add(tx);
+        ledger.onTransactionAdded(tx);
+        return tx;
+    }
+
+    // как TransactionImportService: вставка пачкой, затем суммы по дням
+    private void importRows(Account account, List<Transaction> rows) {
+        transactions.addAll(rows);
+        SortedMap<LocalDate, BigDecimal> deltas = new TreeMap<>();
+        List<BalanceChange> changes = new ArrayList<>();
+        for (Transaction tx : rows) {
+            BigDecimal signed = AccountLedgerService.signedAmount(tx);
+            deltas.merge(tx.getDate(), signed, BigDecimal::add);
+            changes.add(new BalanceChange(account.getType(), tx.getDate(), signed));
+        }
+        ledger.onTransactionsImported(user.getId(), Map.of(account.getId(), deltas), changes);
+    }
+
+    private List<AccountBalanceCheckpoint> checkpointsOf(Long accountId) {
+        return checkpoints.stream().filter(c -> c.getAccount().getId().equals(accountId)).toList();
+    }
+
+    // накопленные уровни корзин; плюс последняя корзина до from — как в findCumulative
+    private List<NetWorthPointView> cumulative(FlowGranularity granularity, LocalDate from, LocalDate to) {
+        List<NetWorthPointView> levels = new ArrayList<>();
+        BigDecimal[] level = {BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO};
+        for (Map.Entry<LocalDate, BigDecimal[]> e : flows.get(granularity).headMap(to, true).entrySet()) {
+            for (int i = 0; i < 3; i++) {
+                level[i] = level[i].add(e.getValue()[i]);
+            }
+            LocalDate next = flows.get(granularity).higherKey(e.getKey());
+            if (!e.getKey().isBefore(from) || next == null || next.isAfter(from)) {
+                levels.add(point(e.getKey(), level.clone()));
+            }
+        }
+        return levels;
+    }
+
+    private static NetWorthPointView point(LocalDate bucket, BigDecimal[] level) {
+        return new NetWorthPointView() {
+            @Override
+            public LocalDate getBucketStart() {
+                return bucket;
+            }
+
+            @Override
+            public BigDecimal getDebit() {
+                return level[0];
+            }
+
+            @Override
+            public BigDecimal getAsset() {
+                return level[1];
+            }
+
+            @Override
+            public BigDecimal getCredit() {
+                return level[2];
+            }
+        };
+    }
+}
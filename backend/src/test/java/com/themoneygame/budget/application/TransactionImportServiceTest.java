@@ -0,0 +1,149 @@
+package com.themoneygame.budget.application;
+
+import com.themoneygame.auth.domain.User;
+import com.themoneygame.budget.domain.Account;
+import com.themoneygame.budget.domain.enums.AccountType;
+import com.themoneygame.budget.infrastructure.AccountRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Разбор CSV-выписки: заголовок в любом порядке, оба разделителя, кавычки,
+ * суммы вида "1 234,56" и ошибки по номерам строк.
+ */
+class TransactionImportServiceTest {
+
+    private static final Long ACCOUNT_ID = 7L;
+
+    private final User user = new User("import", "x", "I");
+    private final AccountRepository accountRepository = mock(AccountRepository.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final AccountLedgerService ledgerService = mock(AccountLedgerService.class);
+
+    /** Параметры вставленных строк: user, account, amount, type, category, date, description. */
+    private final List<Object[]> inserted = new ArrayList<>();
+
+    private TransactionImportService service;
+
+    @BeforeEach
+    void setUp() {
+        user.setId(1L);
+        Account account = new Account();
+        ReflectionTestUtils.setField(account, "id", ACCOUNT_ID);
+        account.setUser(user);
+        account.setType(AccountType.DEBIT);
+        when(accountRepository.findAllByUser(user)).thenReturn(List.of(account));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(inv -> {
+            List<Object[]> rows = inv.getArgument(1);
+            inserted.addAll(rows);
+            return new int[rows.size()];
+        });
+
+        service = new TransactionImportService(accountRepository, jdbcTemplate, ledgerService);
+    }
+
+    @Test
+    void semicolonCsvWithQuotesAndLocalAmounts() {
+        String csv = """
+                description;amount;Type;account_id;date
+                "Кофе; с собой";"1 234,56";expense;7;2026-03-01
+                "Зарплата ""март""\";1000;INCOME;7;2026-03-05
+
+                Без категории;0.5;transfer;7;2026-03-05
+                """;
+
+        TransactionImportResult result = service.importCsv(user, csv);
+
+        assertEquals(new TransactionImportResult(3, 3, List.of()), result);
+        assertEquals(3, inserted.size());
+        assertRow(inserted.get(0), "1234.56", "EXPENSE", "OTHER", "2026-03-01", "Кофе; с собой");
+        assertRow(inserted.get(1), "1000", "INCOME", "OTHER", "2026-03-05", "Зарплата \"март\"");
+        assertRow(inserted.get(2), "0.5", "TRANSFER", "OTHER", "2026-03-05", "Без категории");
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void commaCsvFeedsLedgerWithDailySums() {
+        String csv = """
+                date,accountId,type,category,amount
+                2026-03-01,7,INCOME,SALARY,100
+                2026-03-01,7,EXPENSE,,30.25
+                2026-03-02,7,EXPENSE,OTHER,"1,5"
+                """;
+
+        assertEquals(3, service.importCsv(user, csv).imported());
+        assertEquals("SALARY", inserted.get(0)[4]);
+
+        ArgumentCaptor<Map> captor = ArgumentCaptor.forClass(Map.class);
+        verify(ledgerService).onTransactionsImported(eq(1L), captor.capture(), anyList());
+        SortedMap<LocalDate, BigDecimal> deltas = ((Map<Long, SortedMap<LocalDate, BigDecimal>>) captor.getValue()).get(ACCOUNT_ID);
+        assertEquals(0, new BigDecimal("69.75").compareTo(deltas.get(LocalDate.of(2026, 3, 1))));
+        assertEquals(0, new BigDecimal("-1.5").compareTo(deltas.get(LocalDate.of(2026, 3, 2))));
+    }
+
+    @Test
+    void errorsAreReportedByRowAndNothingIsWritten() {
+        String csv = """
+                date;accountId;type;amount;description
+                2026-03-01;7;EXPENSE;10;ok
+                01.03.2026;7;EXPENSE;10;bad date
+                2026-03-01;8;EXPENSE;10;foreign account
+                2026-03-01;7;GIFT;10;bad type
+                2026-03-01;7;EXPENSE;ten;bad amount
+                2026-03-01;7;EXPENSE;-1;negative
+                2026-03-01;7;EXPENSE;0.001;too precise
+                """;
+
+        TransactionImportResult result = service.importCsv(user, csv);
+
+        assertEquals(7, result.received());
+        assertEquals(0, result.imported());
+        assertEquals(List.of(2, 3, 4, 5, 6, 7),
+                result.errors().stream().map(TransactionImportResult.RowError::row).toList());
+        assertTrue(result.errors().get(0).message().startsWith("Invalid date"));
+        assertTrue(result.errors().get(1).message().startsWith("Account not found"));
+        assertTrue(inserted.isEmpty());
+        verify(ledgerService, never()).onTransactionsImported(anyLong(), any(), any());
+    }
+
+    @Test
+    void headerWithoutRequiredColumnIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> service.importCsv(user, "date;type;amount\n2026-03-01;INCOME;1\n"));
+        assertThrows(IllegalArgumentException.class, () -> service.importCsv(user, "\n  \n"));
+    }
+
+    private static void assertRow(Object[] row, String amount, String type, String category,
+                                  String date, String description) {
+        assertEquals(1L, row[0]);
+        assertEquals(ACCOUNT_ID, row[1]);
+        assertEquals(0, new BigDecimal(amount).compareTo((BigDecimal) row[2]));
+        assertEquals(type, row[3]);
+        assertEquals(category, row[4]);
+        assertEquals(Date.valueOf(date), row[5]);
+        assertEquals(description, row[6]);
+    }
+}
@@ -0,0 +1,81 @@
+package com.themoneygame.budget.dashboard;
+
+import com.themoneygame.budget.domain.event.BudgetDataChangedEvent;
+import com.themoneygame.core.cache.CacheRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Кэш снимков дэшборда: инвалидация по событию, в том числе пришедшая,
+ * пока снимок ещё считается.
+ */
+class CachedBudgetDashboardServiceTest {
+
+    private static final Long USER = 1L;
+    private static final YearMonth MONTH = YearMonth.of(2026, 3);
+
+    private final BudgetDashboardServiceImpl delegate = mock(BudgetDashboardServiceImpl.class);
+    private final CachedBudgetDashboardService service =
+            new CachedBudgetDashboardService(delegate, new CacheRegistry(), 100, Duration.ofMinutes(5));
+
+    @Test
+    void snapshotIsServedUntilInvalidated() {
+        when(delegate.getDashboard(anyLong(), any())).thenAnswer(inv -> new BudgetDashboardDto());
+
+        BudgetDashboardDto first = service.getDashboard(USER, MONTH);
+        assertSame(first, service.getDashboard(USER, MONTH));
+
+        // другой месяц и другой пользователь снимок не трогают
+        service.onBudgetDataChanged(BudgetDataChangedEvent.forMonth(USER, MONTH.plusMonths(1)));
+        service.onBudgetDataChanged(BudgetDataChangedEvent.allMonths(2L));
+        assertSame(first, service.getDashboard(USER, MONTH));
+
+        service.onBudgetDataChanged(BudgetDataChangedEvent.forMonth(USER, MONTH));
+        BudgetDashboardDto second = service.getDashboard(USER, MONTH);
+        assertNotSame(first, second);
+
+        service.onBudgetDataChanged(BudgetDataChangedEvent.allMonths(USER));
+        assertNotSame(second, service.getDashboard(USER, MONTH));
+        verify(delegate, times(3)).getDashboard(USER, MONTH);
+    }
+
+    @Test
+    void invalidationDuringComputeIsNotLost() {
+        // данные меняются, пока снимок считается: посчитанный снимок уже устарел
+        when(delegate.getDashboard(anyLong(), any())).thenAnswer(inv -> {
+            service.onBudgetDataChanged(BudgetDataChangedEvent.allMonths(USER));
+            return new BudgetDashboardDto();
+        }).thenAnswer(inv -> new BudgetDashboardDto());
+
+        BudgetDashboardDto stale = service.getDashboard(USER, MONTH);
+        BudgetDashboardDto fresh = service.getDashboard(USER, MONTH);
+        assertNotSame(stale, fresh);
+        assertSame(fresh, service.getDashboard(USER, MONTH));
+        verify(delegate, times(2)).getDashboard(USER, MONTH);
+    }
+
+    @Test
+    void degradedSnapshotIsNotCached() {
+        when(delegate.getDashboard(anyLong(), any())).thenAnswer(inv -> {
+            BudgetDashboardDto dto = new BudgetDashboardDto();
+            dto.setDegradedWidgets(List.of("income"));
+            return dto;
+        });
+
+        service.getDashboard(USER, MONTH);
+        service.getDashboard(USER, MONTH);
+        verify(delegate, times(2)).getDashboard(USER, MONTH);
+    }
+}
@@ -0,0 +1,166 @@
+package com.themoneygame.calculations;
+
+import com.themoneygame.banks.installment.InstallmentCalculationRepository;
+import com.themoneygame.core.web.CursorPage;
+import com.themoneygame.investments.averageprice.AveragePriceCalculationRepository;
+import com.themoneygame.investments.inflation.CapitalInflationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Общая лента расчётов: курсор и keyset-границы по каждой таблице.
+ * Таблицы — в памяти, выборки повторяют findHistoryFirst / findHistoryAfter.
+ * Проход по страницам должен отдать каждую запись ровно один раз и в порядке ленты.
+ */
+class CalculationHistoryServiceImplTest {
+
+    private static final Long USER = 1L;
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 3, 1, 12, 0);
+
+    private final Map<CalculationKind, List<CalculationHistoryItem>> tables = new EnumMap<>(CalculationKind.class);
+
+    private CalculationHistoryServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        for (CalculationKind kind : CalculationKind.values()) {
+            tables.put(kind, new ArrayList<>());
+        }
+
+        AveragePriceCalculationRepository averagePrice = mock(AveragePriceCalculationRepository.class);
+        when(averagePrice.findHistoryFirst(anyLong(), any()))
+                .thenAnswer(inv -> first(CalculationKind.AVERAGE_PRICE, inv.getArgument(1)));
+        when(averagePrice.findHistoryAfter(anyLong(), any(), anyLong(), any()))
+                .thenAnswer(inv -> after(CalculationKind.AVERAGE_PRICE, inv.getArgument(1), inv.getArgument(2), inv.getArgument(3)));
+
+        InstallmentCalculationRepository installment = mock(InstallmentCalculationRepository.class);
+        when(installment.findHistoryFirst(anyLong(), any()))
+                .thenAnswer(inv -> first(CalculationKind.INSTALLMENT, inv.getArgument(1)));
+        when(installment.findHistoryAfter(anyLong(), any(), anyLong(), any()))
+                .thenAnswer(inv -> after(CalculationKind.INSTALLMENT, inv.getArgument(1), inv.getArgument(2), inv.getArgument(3)));
+
+        CapitalInflationRepository capitalInflation = mock(CapitalInflationRepository.class);
+        when(capitalInflation.findHistoryFirst(anyLong(), any()))
+                .thenAnswer(inv -> first(CalculationKind.CAPITAL_INFLATION, inv.getArgument(1)));
+        when(capitalInflation.findHistoryAfter(anyLong(), any(), anyLong(), any()))
+                .thenAnswer(inv -> after(CalculationKind.CAPITAL_INFLATION, inv.getArgument(1), inv.getArgument(2), inv.getArgument(3)));
+
+        service = new CalculationHistoryServiceImpl(averagePrice, installment, capitalInflation);
+    }
+
+    @Test
+    void pagesCoverFeedExactlyOnce() {
+        // много записей с одинаковым createdAt во всех трёх таблицах
+        Random random = new Random(7);
+        long[] ids = new long[CalculationKind.values().length];
+        for (int i = 0; i < 120; i++) {
+            CalculationKind kind = CalculationKind.values()[random.nextInt(ids.length)];
+            LocalDateTime createdAt = T0.minusMinutes(random.nextInt(6));
+            tables.get(kind).add(item(kind, ++ids[kind.ordinal()], createdAt));
+        }
+        List<CalculationHistoryItem> expected = tables.values().stream()
+                .flatMap(List::stream)
+                .sorted(CalculationHistoryServiceImpl.ORDER)
+                .toList();
+
+        for (int limit : new int[]{1, 2, 5, 7, 50, 200}) {
+            assertEquals(expected, walk(null, limit), "limit " + limit);
+        }
+        for (CalculationKind kind : CalculationKind.values()) {
+            assertEquals(expected.stream().filter(i -> i.kind() == kind).toList(), walk(kind, 3), kind.name());
+        }
+    }
+
+    @Test
+    void cursorAtKindBoundary() {
+        tables.get(CalculationKind.AVERAGE_PRICE).add(item(CalculationKind.AVERAGE_PRICE, 5, T0));
+        tables.get(CalculationKind.INSTALLMENT).add(item(CalculationKind.INSTALLMENT, 9, T0));
+        tables.get(CalculationKind.INSTALLMENT).add(item(CalculationKind.INSTALLMENT, 3, T0));
+        tables.get(CalculationKind.CAPITAL_INFLATION).add(item(CalculationKind.CAPITAL_INFLATION, 1, T0));
+        tables.get(CalculationKind.CAPITAL_INFLATION).add(item(CalculationKind.CAPITAL_INFLATION, 8, T0.minusSeconds(1)));
+
+        // после INSTALLMENT/9: AVERAGE_PRICE того же времени уже отдан, INSTALLMENT — только id < 9
+        List<CalculationHistoryItem> page = service.getPage(USER, null,
+                new CalculationCursor(T0, CalculationKind.INSTALLMENT, 9), 10);
+        assertEquals(List.of(
+                item(CalculationKind.INSTALLMENT, 3, T0),
+                item(CalculationKind.CAPITAL_INFLATION, 1, T0),
+                item(CalculationKind.CAPITAL_INFLATION, 8, T0.minusSeconds(1))), page);
+    }
+
+    @Test
+    void cursorRoundTrip() {
+        CalculationCursor cursor = new CalculationCursor(T0.plusNanos(123_000), CalculationKind.CAPITAL_INFLATION, 42);
+        assertEquals(cursor, CalculationCursor.decode(cursor.encode()));
+        assertEquals(cursor, CalculationCursor.of(item(CalculationKind.CAPITAL_INFLATION, 42, T0.plusNanos(123_000))));
+
+        for (String broken : new String[]{"", "!!", encode("2026-03-01T12:00|NOPE|1"),
+                encode("2026-03-01T12:00|INSTALLMENT"), encode("yesterday|INSTALLMENT|1"),
+                encode("2026-03-01T12:00|INSTALLMENT|x")}) {
+            assertThrows(IllegalArgumentException.class, () -> CalculationCursor.decode(broken), broken);
+        }
+    }
+
+    // как CalculationHistoryController: страница за страницей по курсору
+    private List<CalculationHistoryItem> walk(CalculationKind kind, int limit) {
+        List<CalculationHistoryItem> all = new ArrayList<>();
+        CalculationCursor after = null;
+        while (true) {
+            CursorPage<CalculationHistoryItem> page = CursorPage.of(service.getPage(USER, kind, after, limit), limit,
+                    item -> CalculationCursor.of(item).encode(), Function.identity());
+            all.addAll(page.items());
+            if (page.nextCursor() == null) {
+                return all;
+            }
+            after = CalculationCursor.decode(page.nextCursor());
+        }
+    }
+
+    private List<CalculationHistoryItem> first(CalculationKind kind, Limit limit) {
+        return table(kind).limit(limit.max()).toList();
+    }
+
+    private List<CalculationHistoryItem> after(CalculationKind kind, LocalDateTime beforeTime, long beforeId, Limit limit) {
+        return table(kind)
+                .filter(i -> i.createdAt().isBefore(beforeTime)
+                        || (i.createdAt().equals(beforeTime) && i.id() < beforeId))
+                .limit(limit.max())
+                .toList();
+    }
+
+    // order by createdAt desc, id desc
+    private Stream<CalculationHistoryItem> table(CalculationKind kind) {
+        return tables.get(kind).stream()
+                .sorted(Comparator.comparing(CalculationHistoryItem::createdAt)
+                        .thenComparing(CalculationHistoryItem::id)
+                        .reversed());
+    }
+
+    private static CalculationHistoryItem item(CalculationKind kind, long id, LocalDateTime createdAt) {
+        return new CalculationHistoryItem(kind, id, createdAt, null, null, null);
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
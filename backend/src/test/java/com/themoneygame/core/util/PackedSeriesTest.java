@@ -0,0 +1,75 @@
+package com.themoneygame.core.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Упаковка рядов должна возвращать ровно те же значения, включая пустые и крайние.
+ */
+class PackedSeriesTest {
+
+    @Test
+    void roundTripsAllColumnModes() {
+        long n = PackedSeries.NULL;
+        long[][] columns = {
+                {100_00, 100_50, 99_99, 1_000_000_00, -5},       // без пустых
+                {n, 7, n, n, -7},                                 // с пустыми
+                {n, n, n, n, n},                                  // все пустые
+                {Long.MAX_VALUE, Long.MIN_VALUE + 1, 0, Long.MAX_VALUE, -1},  // разности переполняют long
+        };
+
+        assertArrayEquals(columns, PackedSeries.decode(PackedSeries.encode(columns)));
+    }
+
+    @Test
+    void roundTripsRandomWalk() {
+        Random random = new Random(42);
+        long[][] columns = new long[3][600];
+        for (long[] column : columns) {
+            long value = random.nextInt(1_000_000_000);
+            for (int r = 0; r < column.length; r++) {
+                value += random.nextInt(20_001) - 10_000;
+                column[r] = random.nextInt(10) == 0 ? PackedSeries.NULL : value;
+            }
+        }
+
+        byte[] data = PackedSeries.encode(columns);
+        assertArrayEquals(columns, PackedSeries.decode(data));
+    }
+
+    @Test
+    void emptySeries() {
+        assertEquals(0, PackedSeries.decode(PackedSeries.encode(new long[0][])).length);
+        long[][] noRows = PackedSeries.decode(PackedSeries.encode(new long[][]{{}, {}}));
+        assertEquals(2, noRows.length);
+        assertEquals(0, noRows[0].length);
+    }
+
+    @Test
+    void centsConversion() {
+        assertEquals(12346, PackedSeries.toCents(new BigDecimal("123.455")));
+        assertEquals(-12346, PackedSeries.toCents(new BigDecimal("-123.455")));
+        assertEquals(PackedSeries.NULL, PackedSeries.toCents(null));
+        assertNull(PackedSeries.fromCents(PackedSeries.NULL));
+        assertEquals(new BigDecimal("92233720368547758.07"), PackedSeries.fromCents(Long.MAX_VALUE));
+        assertEquals(Long.MAX_VALUE, PackedSeries.toCents(new BigDecimal("92233720368547758.07")));
+    }
+
+    @Test
+    void centsOutOfRangeAreRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> PackedSeries.toCents(new BigDecimal("92233720368547758.08")));
+        assertThrows(IllegalArgumentException.class,
+                () -> PackedSeries.toCents(new BigDecimal("1E+30")));
+        // Long.MIN_VALUE занят под пустое значение
+        assertThrows(IllegalArgumentException.class,
+                () -> PackedSeries.toCents(new BigDecimal("-92233720368547758.08")));
+    }
+}
@@ -0,0 +1,50 @@
+package com.themoneygame.core.web;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Курсор (дата, id) и страница из limit + 1 строк.
+ */
+class DateIdCursorTest {
+
+    @Test
+    void roundTrip() {
+        DateIdCursor cursor = new DateIdCursor(LocalDate.of(2026, 3, 1), 9_007_199_254_740_993L);
+        assertEquals(cursor, DateIdCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void brokenCursorIsRejected() {
+        for (String broken : new String[]{"", "%%", encode("2026-03-01"), encode("2026-03-01:"),
+                encode("01.03.2026:5"), encode("2026-03-01:five")}) {
+            assertThrows(IllegalArgumentException.class, () -> DateIdCursor.decode(broken), broken);
+        }
+    }
+
+    @Test
+    void extraRowOnlySignalsNextPage() {
+        List<Integer> fetched = List.of(1, 2, 3);
+
+        CursorPage<Integer> page = CursorPage.of(fetched, 2, String::valueOf, Function.identity());
+        assertEquals(List.of(1, 2), page.items());
+        assertEquals("2", page.nextCursor());
+
+        CursorPage<Integer> last = CursorPage.of(fetched, 3, String::valueOf, Function.identity());
+        assertEquals(fetched, last.items());
+        assertNull(last.nextCursor());
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,72 @@
+package com.themoneygame.investments.averageprice;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Лестница каждой формы приводит среднюю ровно к цели с нужными пропорциями ступеней;
+ * цель вне диапазона между текущей средней и средней лестницы отклоняется.
+ */
+class AveragePriceLadderSolverTest {
+
+    private static final double EPS = 1e-9;
+    private static final double[] PRICES = {80, 70, 60};
+
+    @Test
+    void equalQuantity() {
+        AveragePriceLadderSolver.Solution s = solve(LadderMode.EQUAL_QUANTITY, null);
+        for (int i = 0; i < PRICES.length; i++) {
+            assertEquals(s.quantities()[0], s.quantities()[i], EPS);
+        }
+        // 10 * 100 + 3q * 70 = 85 * (10 + 3q) → q = 10/3
+        assertEquals(10.0 / 3, s.quantities()[0], EPS);
+    }
+
+    @Test
+    void equalAmount() {
+        AveragePriceLadderSolver.Solution s = solve(LadderMode.EQUAL_AMOUNT, null);
+        for (int i = 0; i < PRICES.length; i++) {
+            assertEquals(s.amounts()[0], s.amounts()[i], EPS);
+        }
+    }
+
+    @Test
+    void customWeights() {
+        double[] weights = {1, 2, 5};
+        AveragePriceLadderSolver.Solution s = solve(LadderMode.CUSTOM, weights);
+        for (int i = 0; i < PRICES.length; i++) {
+            assertEquals(weights[i] / weights[0], s.amounts()[i] / s.amounts()[0], EPS);
+        }
+    }
+
+    @Test
+    void unreachableTargetIsRejected() {
+        // средняя лестницы 70: цель ниже неё, выше текущей и ровно на ней недостижима
+        for (double target : new double[]{65, 105, 70}) {
+            assertThrows(IllegalArgumentException.class, () -> AveragePriceLadderSolver.solve(
+                    100, 10, target, PRICES, LadderMode.EQUAL_QUANTITY, null), "target " + target);
+        }
+    }
+
+    private static AveragePriceLadderSolver.Solution solve(LadderMode mode, double[] weights) {
+        AveragePriceLadderSolver.Solution s = AveragePriceLadderSolver.solve(100, 10, 85, PRICES, mode, weights);
+
+        double cost = 100 * 10;
+        double quantity = 10;
+        double previous = 100;
+        for (int i = 0; i < PRICES.length; i++) {
+            assertTrue(s.quantities()[i] > 0, mode + " / step " + i);
+            assertEquals(s.quantities()[i] * PRICES[i], s.amounts()[i], EPS);
+            cost += s.amounts()[i];
+            quantity += s.quantities()[i];
+            assertEquals(cost / quantity, s.averageAfter()[i], EPS);
+            assertTrue(s.averageAfter()[i] < previous, mode + " / step " + i);
+            previous = s.averageAfter()[i];
+        }
+        assertEquals(85, s.averageAfter()[PRICES.length - 1], EPS);
+        return s;
+    }
+}
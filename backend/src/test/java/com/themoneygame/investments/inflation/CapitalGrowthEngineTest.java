@@ -0,0 +1,91 @@
+package com.themoneygame.investments.inflation;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Замкнутая форма должна совпадать с прежним помесячным BigDecimal-циклом до копейки.
+ */
+class CapitalGrowthEngineTest {
+
+    private static final double CENT = 0.01;
+
+    @Test
+    void growthMatchesMonthlyLoop() {
+        String[][] cases = {
+                // initial, contribution, % годовых, лет
+                {"0", "10000", "12", "30"},
+                {"1500000", "25000", "8.5", "50"},
+                {"100000", "0", "0", "10"},
+                {"0", "5000", "0.01", "40"},
+                {"250000", "15000", "-3", "20"},
+                {"999999.99", "123.45", "17.3", "1"},
+        };
+
+        for (String[] c : cases) {
+            BigDecimal initial = new BigDecimal(c[0]);
+            BigDecimal contribution = new BigDecimal(c[1]);
+            BigDecimal annual = new BigDecimal(c[2]);
+            int years = Integer.parseInt(c[3]);
+
+            double[] yearly = CapitalGrowthEngine.yearlyValues(
+                    initial.doubleValue(), contribution.doubleValue(),
+                    CapitalGrowthEngine.monthlyRate(annual), years);
+
+            for (int year = 1; year <= years; year++) {
+                BigDecimal expected = legacyGrowth(initial, contribution, annual, year * 12);
+                assertEquals(expected.doubleValue(),
+                        CapitalGrowthEngine.toMoney(yearly[year - 1]).doubleValue(),
+                        CENT, () -> "case " + String.join("/", c));
+            }
+        }
+    }
+
+    @Test
+    void inflationMatchesMonthlyLoop() {
+        BigDecimal initial = new BigDecimal("3000000");
+        BigDecimal inflation = new BigDecimal("9.0");
+
+        double[] yearly = CapitalGrowthEngine.yearlyDiscounted(
+                initial.doubleValue(), CapitalGrowthEngine.monthlyRate(inflation), 50);
+
+        for (int year = 1; year <= 50; year++) {
+            BigDecimal expected = legacyInflation(initial, inflation, year * 12);
+            assertEquals(expected.doubleValue(),
+                    CapitalGrowthEngine.toMoney(yearly[year - 1]).doubleValue(), CENT);
+        }
+    }
+
+    @Test
+    void overflowIsRejected() {
+        double value = CapitalGrowthEngine.valueAfterMonths(1e300, 1e300, 1.0, 1200);
+        assertThrows(IllegalArgumentException.class, () -> CapitalGrowthEngine.toMoney(value));
+        assertThrows(IllegalArgumentException.class, () -> CapitalGrowthEngine.toMoney(Double.NaN));
+    }
+
+    // ---- прежний расчёт из CapitalInflationServiceImpl ----
+
+    private static BigDecimal legacyGrowth(BigDecimal initial, BigDecimal contribution,
+                                           BigDecimal annual, int months) {
+        BigDecimal rate = annual.divide(BigDecimal.valueOf(12 * 100L), 8, RoundingMode.HALF_UP);
+        BigDecimal value = initial;
+        for (int m = 1; m <= months; m++) {
+            value = value.add(contribution).multiply(BigDecimal.ONE.add(rate));
+        }
+        return value.setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static BigDecimal legacyInflation(BigDecimal initial, BigDecimal annual, int months) {
+        BigDecimal rate = annual.divide(BigDecimal.valueOf(12 * 100L), 8, RoundingMode.HALF_UP);
+        BigDecimal value = initial;
+        for (int m = 1; m <= months; m++) {
+            value = value.multiply(BigDecimal.ONE.add(rate.negate()));
+        }
+        return value.setScale(2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,79 @@
+package com.themoneygame.investments.inflation;
+
+import com.themoneygame.investments.inflation.dto.CapitalInflationGridRequest;
+import com.themoneygame.investments.inflation.dto.CapitalInflationGridResponse;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Ячейки сетки совпадают с обычным расчётом CapitalGrowthEngine до копейки;
+ * переполнение отклоняется, а не насыщается.
+ */
+class CapitalInflationGridTest {
+
+    @Test
+    void cellsMatchEngine() {
+        CapitalInflationGridRequest req = new CapitalInflationGridRequest();
+        req.setInitialCapital(new BigDecimal("150000"));
+        req.setAverageReturn(axis("-3", "17", 5));
+        req.setInflationRate(axis("0", "12", 4));
+        req.setMonthlyContribution(axis("0", "25000", 3));
+        req.setYears(axis("1", "40", 3));
+
+        CapitalInflationGridResponse resp = CapitalInflationGrid.evaluate(req);
+
+        List<BigDecimal> returns = resp.getAverageReturn();
+        List<BigDecimal> inflations = resp.getInflationRate();
+        List<BigDecimal> contributions = resp.getMonthlyContribution();
+        List<Integer> years = resp.getYears();
+        int nr = returns.size();
+        int ni = inflations.size();
+        int nc = contributions.size();
+        assertEquals(years.size() * nc * nr, resp.getNominal().length);
+        assertEquals(years.size() * nc * ni * nr, resp.getReal().length);
+
+        for (int y = 0; y < years.size(); y++) {
+            int months = years.get(y) * 12;
+            for (int c = 0; c < nc; c++) {
+                for (int r = 0; r < nr; r++) {
+                    double value = CapitalGrowthEngine.valueAfterMonths(150000, contributions.get(c).doubleValue(),
+                            CapitalGrowthEngine.monthlyRate(returns.get(r)), months);
+                    String at = years.get(y) + " / " + contributions.get(c) + " / " + returns.get(r);
+                    assertEquals(CapitalGrowthEngine.toMoney(value).doubleValue(),
+                            resp.getNominal()[(y * nc + c) * nr + r], at);
+
+                    for (int i = 0; i < ni; i++) {
+                        double real = value * CapitalGrowthEngine.discountedAfterMonths(1.0,
+                                CapitalGrowthEngine.monthlyRate(inflations.get(i)), months);
+                        assertEquals(CapitalGrowthEngine.toMoney(real).doubleValue(),
+                                resp.getReal()[((y * nc + c) * ni + i) * nr + r], at + " / " + inflations.get(i));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void overflowIsRejected() {
+        CapitalInflationGridRequest req = new CapitalInflationGridRequest();
+        req.setInitialCapital(new BigDecimal("1e300"));
+        req.setAverageReturn(axis("50", "50", 1));
+        req.setYears(axis("100", "100", 1));
+        assertThrows(IllegalArgumentException.class, () -> CapitalInflationGrid.evaluate(req));
+
+        // double не переполнился, но в копейках long насытился бы
+        req.setInitialCapital(new BigDecimal("1e17"));
+        req.setAverageReturn(axis("0", "0", 1));
+        req.setYears(axis("1", "1", 1));
+        assertThrows(IllegalArgumentException.class, () -> CapitalInflationGrid.evaluate(req));
+    }
+
+    private static CapitalInflationGridRequest.Axis axis(String from, String to, int steps) {
+        return new CapitalInflationGridRequest.Axis(new BigDecimal(from), new BigDecimal(to), steps);
+    }
+}
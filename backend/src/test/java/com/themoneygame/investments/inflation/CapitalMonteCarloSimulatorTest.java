@@ -0,0 +1,141 @@
+package com.themoneygame.investments.inflation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Перцентили через quickselect должны совпадать с перцентилями по полной сортировке,
+ * а симуляция при одном seed — давать один и тот же результат.
+ */
+class CapitalMonteCarloSimulatorTest {
+
+    @Test
+    void quickselectMatchesSortedPercentiles() {
+        Random random = new Random(11);
+        List<float[]> rows = new ArrayList<>();
+        for (int n : new int[]{1, 2, 3, 19, 20, 21, 100, 1001, 4096}) {
+            rows.add(randomRow(random, n, 1_000_000));   // почти без повторов
+            rows.add(randomRow(random, n, 5));           // много повторов
+        }
+        float[] ascending = new float[500];
+        for (int i = 0; i < ascending.length; i++) {
+            ascending[i] = i;
+        }
+        float[] descending = new float[500];
+        for (int i = 0; i < descending.length; i++) {
+            descending[i] = -i;
+        }
+        rows.add(ascending);
+        rows.add(descending);
+        rows.add(new float[777]);
+
+        for (float[] row : rows) {
+            float[] sorted = row.clone();
+            Arrays.sort(sorted);
+            int n = row.length;
+
+            double[] p5 = new double[1];
+            double[] p50 = new double[1];
+            double[] p95 = new double[1];
+            CapitalMonteCarloSimulator.selectBands(row, n, 0, p5, p50, p95);
+
+            String at = "n=" + n;
+            assertEquals(sorted[nearestRank(0.05, n)], p5[0], at);
+            assertEquals(sorted[nearestRank(0.50, n)], p50[0], at);
+            assertEquals(sorted[nearestRank(0.95, n)], p95[0], at);
+        }
+    }
+
+    @Test
+    void onlyPrefixIsSelected() {
+        // промежуточный срез: хвост строки ещё не посчитан и в выборку не попадает
+        float[] row = new float[200];
+        for (int i = 0; i < 100; i++) {
+            row[i] = 100 - i;
+        }
+        Arrays.fill(row, 100, 200, Float.MAX_VALUE);
+
+        double[] p5 = new double[1];
+        double[] p50 = new double[1];
+        double[] p95 = new double[1];
+        CapitalMonteCarloSimulator.selectBands(row, 100, 0, p5, p50, p95);
+
+        assertEquals(5, p5[0]);
+        assertEquals(50, p50[0]);
+        assertEquals(95, p95[0]);
+        for (int i = 100; i < 200; i++) {
+            assertEquals(Float.MAX_VALUE, row[i]);
+        }
+    }
+
+    @Test
+    void sameSeedGivesSameBands() {
+        CapitalMonteCarloSimulator simulator = new CapitalMonteCarloSimulator(2, 24_000_000);
+        CapitalMonteCarloSimulator.Params params = new CapitalMonteCarloSimulator.Params(
+                100_000, 10_000, 0.08, 0.15, true, 0.06, 0.02, 15, 20_000, 42);
+
+        List<CapitalMonteCarloSimulator.Bands> progress = new ArrayList<>();
+        CapitalMonteCarloSimulator.Bands first = simulator.simulate(params, progress::add);
+        CapitalMonteCarloSimulator.Bands second = simulator.simulate(params, null);
+
+        assertArrayEquals(first.p50(), second.p50());
+        assertArrayEquals(first.realP95(), second.realP95());
+        assertEquals(20_000, first.completedPaths());
+        assertTrue(!progress.isEmpty() && progress.stream().allMatch(b -> b.completedPaths() < 20_000));
+        for (int y = 0; y < 15; y++) {
+            assertTrue(first.p5()[y] <= first.p50()[y] && first.p50()[y] <= first.p95()[y]);
+        }
+
+        CapitalMonteCarloSimulator.Bands noInflation = simulator.simulate(
+                new CapitalMonteCarloSimulator.Params(100_000, 10_000, 0.08, 0.15, false, 0, 0, 15, 20_000, 42), null);
+        assertNull(noInflation.realP50());
+        simulator.shutdown();
+    }
+
+    @Test
+    void zeroVolatilityMatchesClosedForm() {
+        CapitalMonteCarloSimulator simulator = new CapitalMonteCarloSimulator(2, 24_000_000);
+        CapitalMonteCarloSimulator.Bands bands = simulator.simulate(new CapitalMonteCarloSimulator.Params(
+                100_000, 10_000, 0.08, 0, false, 0, 0, 10, 1_000, 1), null);
+
+        double[] expected = CapitalGrowthEngine.yearlyValues(100_000, 10_000, 0.08 / 12, 10);
+        for (int y = 0; y < 10; y++) {
+            assertEquals(expected[y], bands.p5()[y], expected[y] * 1e-6);
+            assertEquals(bands.p5()[y], bands.p95()[y]);
+        }
+        simulator.shutdown();
+    }
+
+    @Test
+    void limitsAreChecked() {
+        CapitalMonteCarloSimulator simulator = new CapitalMonteCarloSimulator(2, 1_000_000);
+        assertThrows(IllegalArgumentException.class, () -> simulator.simulate(
+                new CapitalMonteCarloSimulator.Params(0, 0, 0.08, 0.1, false, 0, 0, 10, 999, 1), null));
+        assertThrows(IllegalArgumentException.class, () -> simulator.simulate(
+                new CapitalMonteCarloSimulator.Params(0, 0, 0.08, 0.1, true, 0, 0, 100, 10_000, 1), null));
+        assertThrows(IllegalArgumentException.class, () -> simulator.simulate(
+                new CapitalMonteCarloSimulator.Params(0, 0, 0.08, -0.1, false, 0, 0, 10, 1_000, 1), null));
+    }
+
+    private static int nearestRank(double q, int n) {
+        return Math.min(n - 1, Math.max(0, (int) Math.ceil(q * n) - 1));
+    }
+
+    private static float[] randomRow(Random random, int n, int distinct) {
+        float[] row = new float[n];
+        for (int i = 0; i < n; i++) {
+            row[i] = random.nextInt(distinct) * 1.5f;
+        }
+        return row;
+    }
+}
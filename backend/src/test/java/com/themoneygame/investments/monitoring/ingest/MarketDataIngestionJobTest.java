@@ -0,0 +1,214 @@
+package com.themoneygame.investments.monitoring.ingest;
+
+import com.themoneygame.investments.monitoring.domain.AssetType;
+import com.themoneygame.investments.monitoring.domain.MarketQuote;
+import com.themoneygame.investments.monitoring.repository.MarketAssetRepository;
+import com.themoneygame.investments.monitoring.service.MarketHistoryService;
+import com.themoneygame.investments.monitoring.service.MarketQuoteStore;
+import com.themoneygame.investments.monitoring.service.QuotePublisher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Такт ингеста: слияние котировок по тикеру, пропуск устаревших и повторных,
+ * досчёт изменения за день и повтор записи в market_assets при сбое.
+ */
+class MarketDataIngestionJobTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 3, 2, 10, 0);
+
+    private final MarketAssetRepository assetRepo = mock(MarketAssetRepository.class);
+    private final JdbcTemplate jdbc = mock(JdbcTemplate.class);
+    private final MarketHistoryService history = mock(MarketHistoryService.class);
+
+    private final List<ProviderQuote> first = new ArrayList<>();
+    private final List<ProviderQuote> second = new ArrayList<>();
+
+    /** Строки, которые «записались» в market_assets, — по symbol в порядке записи. */
+    private final List<String> written = new ArrayList<>();
+    private final List<MarketQuote> recorded = new ArrayList<>();
+
+    private MarketQuoteStore store;
+    private MarketDataIngestionJob job;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(assetRepo.findAll()).thenReturn(List.of());
+        when(jdbc.batchUpdate(anyString(), anyList())).thenAnswer(inv -> {
+            List<Object[]> rows = inv.getArgument(1);
+            rows.forEach(r -> written.add((String) r[0]));
+            return new int[rows.size()];
+        });
+        doAnswer(inv -> {
+            recorded.addAll(inv.<Collection<MarketQuote>>getArgument(0));
+            return null;
+        }).when(history).record(any());
+
+        store = new MarketQuoteStore(assetRepo, jdbc, new QuotePublisher(Duration.ofSeconds(30), 10, 4), 10);
+        store.reload();
+
+        ObjectProvider<MarketDataProvider> providers = mock(ObjectProvider.class);
+        when(providers.orderedStream()).thenAnswer(inv -> Stream.of(provider("a", first), provider("b", second)));
+        job = new MarketDataIngestionJob(providers, store, history);
+    }
+
+    @Test
+    void quotesAreCoalescedPerSymbol() {
+        first.add(quote(" sber ", "300", T0.plusSeconds(2)));
+        first.add(quote("SBER", "290", T0));
+        second.add(quote("Sber", "310", T0.plusSeconds(1)));
+        // одинаковое время — побеждает пришедшая позже
+        first.add(quote("GAZP", "150", T0));
+        second.add(quote("GAZP", "151", T0));
+
+        job.ingest();
+
+        assertEquals(new BigDecimal("300"), store.get("SBER").lastPrice());
+        assertEquals(T0.plusSeconds(2), store.get("SBER").updatedAt());
+        assertEquals(new BigDecimal("151"), store.get("GAZP").lastPrice());
+        assertEquals(2, recorded.size());
+        assertEquals(2, written.size());
+    }
+
+    @Test
+    void staleAndRepeatedQuotesAreSkipped() {
+        first.add(quote("SBER", "300", T0));
+        job.ingest();
+        first.clear();
+        recorded.clear();
+        written.clear();
+
+        first.add(quote("SBER", "299", T0.minusSeconds(1)));   // старее сохранённой
+        second.add(quote("SBER", "300", T0));                   // повтор того же тика
+        job.ingest();
+
+        assertEquals(new BigDecimal("300"), store.get("SBER").lastPrice());
+        assertTrue(recorded.isEmpty());
+        assertTrue(written.isEmpty());
+
+        first.clear();
+        second.clear();
+        first.add(quote("SBER", "300", T0.plusSeconds(1)));    // та же цена, но новый тик
+        job.ingest();
+
+        assertEquals(T0.plusSeconds(1), store.get("SBER").updatedAt());
+        assertEquals(1, recorded.size());
+    }
+
+    @Test
+    void missingChangeIsDerivedFromPreviousClose() {
+        first.add(new ProviderQuote("SBER", new BigDecimal("110"), new BigDecimal("10"), new BigDecimal("10"),
+                "Сбербанк", AssetType.STOCK, "RUB", T0));
+        job.ingest();
+
+        // закрытие = 110 − 10 = 100
+        first.clear();
+        first.add(new ProviderQuote("SBER", new BigDecimal("120"), null, null, null, null, null, T0.plusSeconds(1)));
+        job.ingest();
+
+        MarketQuote sber = store.get("SBER");
+        assertEquals(0, new BigDecimal("20").compareTo(sber.changeAbsolute()));
+        assertEquals(new BigDecimal("20.0000"), sber.changePercent());
+        assertEquals("Сбербанк", sber.name());
+
+        // задано только абсолютное изменение — процент от того же закрытия
+        first.clear();
+        first.add(new ProviderQuote("SBER", new BigDecimal("95"), new BigDecimal("-5"), null, null, null, null, T0.plusSeconds(2)));
+        job.ingest();
+        assertEquals(new BigDecimal("-5.0000"), store.get("SBER").changePercent());
+
+        // новый тикер без изменения — ноль
+        first.clear();
+        first.add(new ProviderQuote("GAZP", new BigDecimal("150"), null, null, "Газпром", AssetType.STOCK, "RUB", T0));
+        // новый тикер без названия записать нельзя
+        first.add(new ProviderQuote("LKOH", new BigDecimal("7000"), null, null, null, null, null, T0));
+        job.ingest();
+
+        assertEquals(0, BigDecimal.ZERO.compareTo(store.get("GAZP").changeAbsolute()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(store.get("GAZP").changePercent()));
+        assertNull(store.get("LKOH"));
+    }
+
+    @Test
+    void failedFlushIsRequeuedAndBadRowsDropped() {
+        // пачка падает, построчно: A — отвергнута БД, B — записана, C — БД недоступна
+        when(jdbc.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataIntegrityViolationException("batch"))
+                .thenAnswer(inv -> {
+                    List<Object[]> rows = inv.getArgument(1);
+                    rows.forEach(r -> written.add((String) r[0]));
+                    return new int[rows.size()];
+                });
+        when(jdbc.update(anyString(), any(Object[].class))).thenAnswer(inv -> {
+            String symbol = inv.getArgument(1);
+            if (symbol.equals("AAA")) {
+                throw new DataIntegrityViolationException("rejected");
+            }
+            if (symbol.equals("CCC")) {
+                throw new QueryTimeoutException("timeout");
+            }
+            written.add(symbol);
+            return 1;
+        });
+
+        first.add(quote("AAA", "1", T0));
+        first.add(quote("BBB", "2", T0));
+        first.add(quote("CCC", "3", T0));
+        first.add(quote("DDD", "4", T0));
+        job.ingest();
+
+        // снимок обновлён сразу, независимо от записи
+        assertEquals(4, Stream.of("AAA", "BBB", "CCC", "DDD").filter(s -> store.get(s) != null).count());
+        List<String> afterFailure = List.copyOf(written);
+
+        first.clear();
+        store.flush();
+
+        // A выброшена, C и всё после него вернулись в очередь и записались следующим flush
+        assertFalse(afterFailure.contains("CCC"));
+        assertEquals(List.of("BBB", "CCC", "DDD"), written.stream().sorted().toList());
+    }
+
+    private static MarketDataProvider provider(String name, List<ProviderQuote> quotes) {
+        return new MarketDataProvider() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public List<ProviderQuote> fetchQuotes() {
+                return List.copyOf(quotes);
+            }
+        };
+    }
+
+    private static ProviderQuote quote(String symbol, String price, LocalDateTime time) {
+        return new ProviderQuote(symbol, new BigDecimal(price), BigDecimal.ZERO, BigDecimal.ZERO,
+                symbol.strip(), AssetType.STOCK, "RUB", time);
+    }
+}
@@ -0,0 +1,74 @@
+package com.themoneygame.investments.monitoring.ingest;
+
+import com.themoneygame.investments.monitoring.domain.AssetType;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Разбор файла проигрывания: кадры, необязательные поля и ошибки со строкой файла.
+ */
+class ReplayMarketDataProviderTest {
+
+    @Test
+    void framesArePlayedInCircle() {
+        ReplayMarketDataProvider provider = provider("""
+                # тикер;цена;изменение;%;название;тип;валюта
+                sber;300;1.5;0.5;Сбербанк;stock;RUB
+                GAZP;150
+
+                SBER;301;;;;;
+                """);
+
+        List<ProviderQuote> first = provider.fetchQuotes();
+        assertEquals(2, first.size());
+        ProviderQuote sber = first.get(0);
+        assertEquals("SBER", sber.symbol());
+        assertEquals(new BigDecimal("300"), sber.price());
+        assertEquals(new BigDecimal("1.5"), sber.changeAbsolute());
+        assertEquals("Сбербанк", sber.name());
+        assertEquals(AssetType.STOCK, sber.type());
+        assertEquals("RUB", sber.currency());
+
+        ProviderQuote gazp = first.get(1);
+        assertNull(gazp.changeAbsolute());
+        assertNull(gazp.changePercent());
+        assertNull(gazp.name());
+        assertNull(gazp.type());
+        assertTrue(first.stream().allMatch(q -> q.time().equals(sber.time())), "one time per frame");
+
+        List<ProviderQuote> second = provider.fetchQuotes();
+        assertEquals(1, second.size());
+        assertEquals(new BigDecimal("301"), second.get(0).price());
+        assertNull(second.get(0).changeAbsolute());
+
+        assertEquals(2, provider.fetchQuotes().size());
+    }
+
+    @Test
+    void emptyFileGivesNoQuotes() {
+        assertEquals(List.of(), provider("# пусто\n\n").fetchQuotes());
+    }
+
+    @Test
+    void badLineIsReportedWithNumber() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> provider("SBER;300\nGAZP;abc\n"));
+        assertTrue(e.getMessage().contains("line 2"), e.getMessage());
+
+        assertThrows(IllegalArgumentException.class, () -> provider("SBER\n"));
+        assertThrows(IllegalArgumentException.class, () -> provider("SBER;1;;;x;bond\n"));
+    }
+
+    private static ReplayMarketDataProvider provider(String content) {
+        return new ReplayMarketDataProvider(new ByteArrayResource(content.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,143 @@
+package com.themoneygame.investments.monitoring.service;
+
+import com.themoneygame.investments.monitoring.domain.AssetType;
+import com.themoneygame.investments.monitoring.domain.CandleInterval;
+import com.themoneygame.investments.monitoring.domain.MarketCandle;
+import com.themoneygame.investments.monitoring.domain.MarketQuote;
+import com.themoneygame.investments.monitoring.dto.CandleResponse;
+import com.themoneygame.investments.monitoring.repository.MarketCandleRepository;
+import com.themoneygame.investments.monitoring.repository.MarketTickSegmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Дельты свечей: накопление тиков, слияние дельты, не сохранённой из-за сбоя, с более поздней
+ * и наложение ещё не сброшенных дельт на свечи из БД.
+ */
+class MarketHistoryServiceImplTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 3, 2, 10, 0);
+
+    private final MarketCandleRepository candleRepo = mock(MarketCandleRepository.class);
+    private final JdbcTemplate jdbc = mock(JdbcTemplate.class);
+
+    /** Строки upsert'а market_candles, дошедшие до БД. */
+    private final List<Object[]> candleRows = new ArrayList<>();
+    private int candleFailures;
+
+    private MarketHistoryServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        when(jdbc.batchUpdate(anyString(), anyList())).thenAnswer(inv -> {
+            List<Object[]> rows = inv.getArgument(1);
+            if (inv.<String>getArgument(0).contains("market_candles")) {
+                if (candleFailures > 0) {
+                    candleFailures--;
+                    throw new QueryTimeoutException("timeout");
+                }
+                candleRows.addAll(rows);
+            }
+            return new int[rows.size()];
+        });
+        service = new MarketHistoryServiceImpl(candleRepo, mock(MarketTickSegmentRepository.class), jdbc,
+                mock(PlatformTransactionManager.class), 256, Duration.ofMinutes(15),
+                Duration.ofDays(30), Duration.ofDays(7));
+    }
+
+    @Test
+    void failedDeltaIsMergedBeforeLaterOne() {
+        service.record(List.of(tick("SBER", "100", T0), tick("SBER", "120", T0.plusSeconds(1)),
+                tick("SBER", "95", T0.plusSeconds(2))));
+        candleFailures = 1;
+        service.flush();
+        assertTrue(candleRows.isEmpty());
+
+        service.record(List.of(tick("SBER", "110", T0.plusSeconds(10)), tick("SBER", "90", T0.plusSeconds(11)),
+                tick("SBER", "105", T0.plusSeconds(12))));
+        service.flush();
+
+        List<Object[]> minute = candleRows.stream().filter(r -> CandleInterval.ONE_MINUTE.name().equals(r[1])).toList();
+        assertEquals(1, minute.size());
+        assertCandleRow(minute.get(0), "100", "120", "90", "105", 6);
+        assertEquals(CandleInterval.values().length, candleRows.size());
+
+        candleRows.clear();
+        service.flush();
+        assertTrue(candleRows.isEmpty(), "delta is written once");
+    }
+
+    @Test
+    void pendingDeltaIsOverlaidOnStoredCandle() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime bucket = CandleInterval.ONE_HOUR.bucketStart(now);
+        when(candleRepo.findRange(eq("SBER"), eq(CandleInterval.ONE_HOUR), any(), any()))
+                .thenReturn(List.of(candle(bucket.minusHours(1), "90", "95", "85", "92", 4),
+                        candle(bucket, "100", "110", "95", "105", 10)));
+
+        service.record(List.of(tick("SBER", "120", now), tick("SBER", "91", now), tick("SBER", "101", now),
+                tick("GAZP", "150", now)));
+
+        List<CandleResponse> sber = service.getCandles("SBER", CandleInterval.ONE_HOUR, now.minusHours(2), now);
+        assertEquals(2, sber.size());
+        assertEquals(new CandleResponse(bucket.minusHours(1), new BigDecimal("90"), new BigDecimal("95"),
+                new BigDecimal("85"), new BigDecimal("92"), 4), sber.get(0));
+        CandleResponse merged = sber.get(1);
+        assertEquals(bucket, merged.time());
+        assertEquals(0, new BigDecimal("100").compareTo(merged.open()), "open stays from the stored part");
+        assertEquals(0, new BigDecimal("120").compareTo(merged.high()));
+        assertEquals(0, new BigDecimal("91").compareTo(merged.low()));
+        assertEquals(0, new BigDecimal("101").compareTo(merged.close()));
+        assertEquals(13, merged.ticks());
+
+        // в БД свечи ещё нет — берётся одна дельта
+        List<CandleResponse> gazp = service.getCandles("GAZP", CandleInterval.ONE_HOUR, now.minusHours(2), now);
+        assertEquals(1, gazp.size());
+        assertEquals(0, new BigDecimal("150").compareTo(gazp.get(0).open()));
+        assertEquals(1, gazp.get(0).ticks());
+    }
+
+    private static void assertCandleRow(Object[] row, String open, String high, String low, String close, long count) {
+        assertEquals(0, new BigDecimal(open).compareTo((BigDecimal) row[3]), "open");
+        assertEquals(0, new BigDecimal(high).compareTo((BigDecimal) row[4]), "high");
+        assertEquals(0, new BigDecimal(low).compareTo((BigDecimal) row[5]), "low");
+        assertEquals(0, new BigDecimal(close).compareTo((BigDecimal) row[6]), "close");
+        assertEquals(count, row[7]);
+    }
+
+    private static MarketQuote tick(String symbol, String price, LocalDateTime at) {
+        return new MarketQuote(null, symbol, symbol, AssetType.STOCK, new BigDecimal(price), BigDecimal.ZERO,
+                BigDecimal.ZERO, "RUB", at);
+    }
+
+    private static MarketCandle candle(LocalDateTime bucket, String open, String high, String low, String close,
+                                       long ticks) {
+        MarketCandle c = new MarketCandle();
+        ReflectionTestUtils.setField(c, "bucketStart", bucket);
+        ReflectionTestUtils.setField(c, "open", new BigDecimal(open));
+        ReflectionTestUtils.setField(c, "high", new BigDecimal(high));
+        ReflectionTestUtils.setField(c, "low", new BigDecimal(low));
+        ReflectionTestUtils.setField(c, "close", new BigDecimal(close));
+        ReflectionTestUtils.setField(c, "tickCount", ticks);
+        return c;
+    }
+}
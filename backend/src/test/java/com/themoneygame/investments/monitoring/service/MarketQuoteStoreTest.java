@@ -0,0 +1,132 @@
+package com.themoneygame.investments.monitoring.service;
+
+import com.themoneygame.investments.monitoring.domain.AssetType;
+import com.themoneygame.investments.monitoring.domain.MarketAsset;
+import com.themoneygame.investments.monitoring.domain.MarketQuote;
+import com.themoneygame.investments.monitoring.repository.MarketAssetRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Снимок котировок: чтение по тикеру и по типу, сохранение id из БД
+ * и слияние перечитанной таблицы с котировками, которые в неё ещё не попали.
+ */
+class MarketQuoteStoreTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 3, 2, 10, 0);
+
+    private final MarketAssetRepository assetRepo = mock(MarketAssetRepository.class);
+    private final JdbcTemplate jdbc = mock(JdbcTemplate.class);
+
+    /** Что вернёт findAll при следующем reload. */
+    private final List<MarketAsset> table = new ArrayList<>();
+
+    private MarketQuoteStore store;
+
+    @BeforeEach
+    void setUp() {
+        when(assetRepo.findAll()).thenAnswer(inv -> List.copyOf(table));
+        when(jdbc.batchUpdate(anyString(), anyList()))
+                .thenAnswer(inv -> new int[inv.<List<?>>getArgument(1).size()]);
+        store = new MarketQuoteStore(assetRepo, jdbc, new QuotePublisher(Duration.ofSeconds(30), 10, 4), 100);
+    }
+
+    @Test
+    void snapshotIsGroupedBySymbolAndType() {
+        table.add(asset(1L, "SBER", AssetType.STOCK, "300", T0));
+        table.add(asset(2L, "GOLD", AssetType.METAL, "7000", T0));
+        store.reload();
+
+        store.update(List.of(
+                quote("AFLT", AssetType.STOCK, "60", T0.plusMinutes(1)),
+                quote("SBER", AssetType.STOCK, "301", T0.plusMinutes(1))));
+
+        assertEquals(3, store.size());
+        assertEquals(List.of("AFLT", "SBER"), store.getByType(AssetType.STOCK).stream().map(MarketQuote::symbol).toList());
+        assertEquals(1L, store.get("SBER").id(), "id from the table survives a price update");
+        assertNull(store.get("AFLT").id());
+        assertEquals(List.of(), store.getByType(AssetType.COMMODITY));
+
+        List<MarketQuote> stocks = store.getByType(AssetType.STOCK);
+        assertSame(stocks, store.getByType(AssetType.STOCK), "readers share one list");
+        assertThrows(UnsupportedOperationException.class, () -> stocks.add(store.get("SBER")));
+        assertThrows(IllegalArgumentException.class,
+                () -> store.update(List.of(quote("X".repeat(33), AssetType.STOCK, "1", T0))));
+    }
+
+    @Test
+    void reloadKeepsNewerQuotesAndPending() {
+        table.add(asset(1L, "SBER", AssetType.STOCK, "300", T0));
+        table.add(asset(2L, "GAZP", AssetType.STOCK, "150", T0));
+        table.add(asset(3L, "LKOH", AssetType.STOCK, "7000", T0));
+        store.reload();
+
+        // SBER уже сброшен, но таблица прочитана раньше flush'а
+        store.update(List.of(quote("SBER", AssetType.STOCK, "301", T0.plusMinutes(1))));
+        store.flush();
+        // GAZP и новый тикер ещё в pending
+        store.update(List.of(
+                quote("GAZP", AssetType.STOCK, "151", T0.plusMinutes(2)),
+                quote("AFLT", AssetType.STOCK, "60", T0.plusMinutes(2))));
+        // LKOH поправили в обход стора
+        table.set(2, asset(3L, "LKOH", AssetType.STOCK, "6900", T0.plusMinutes(3)));
+
+        store.reload();
+
+        MarketQuote sber = store.get("SBER");
+        assertEquals(new BigDecimal("301"), sber.lastPrice());
+        assertEquals(1L, sber.id());
+        MarketQuote gazp = store.get("GAZP");
+        assertEquals(new BigDecimal("151"), gazp.lastPrice());
+        assertEquals(2L, gazp.id());
+        assertEquals(new BigDecimal("60"), store.get("AFLT").lastPrice());
+        assertEquals(new BigDecimal("6900"), store.get("LKOH").lastPrice());
+        assertEquals(List.of("AFLT", "GAZP", "LKOH", "SBER"),
+                store.getByType(AssetType.STOCK).stream().map(MarketQuote::symbol).toList());
+
+        // после flush и новой перечитки в БД есть всё, снимок берёт строки таблицы
+        store.flush();
+        table.set(0, asset(1L, "SBER", AssetType.STOCK, "301", T0.plusMinutes(1)));
+        table.set(1, asset(2L, "GAZP", AssetType.STOCK, "151", T0.plusMinutes(2)));
+        table.add(asset(4L, "AFLT", AssetType.STOCK, "60", T0.plusMinutes(2)));
+        store.reload();
+        assertEquals(4L, store.get("AFLT").id(), "id assigned by the table is picked up");
+        assertEquals(4, store.size());
+    }
+
+    private static MarketQuote quote(String symbol, AssetType type, String price, LocalDateTime at) {
+        return new MarketQuote(null, symbol, symbol, type, new BigDecimal(price), BigDecimal.ZERO,
+                BigDecimal.ZERO, "RUB", at);
+    }
+
+    private static MarketAsset asset(Long id, String symbol, AssetType type, String price, LocalDateTime at) {
+        MarketAsset a = new MarketAsset();
+        ReflectionTestUtils.setField(a, "id", id);
+        a.setSymbol(symbol);
+        a.setName(symbol);
+        a.setType(type);
+        a.setLastPrice(new BigDecimal(price));
+        a.setChangeAbsolute(BigDecimal.ZERO);
+        a.setChangePercent(BigDecimal.ZERO);
+        a.setCurrency("RUB");
+        a.setUpdatedAt(at);
+        return a;
+    }
+}
@@ -0,0 +1,102 @@
+package com.themoneygame.investments.monitoring.service;
+
+import com.themoneygame.investments.monitoring.domain.AssetType;
+import com.themoneygame.investments.monitoring.domain.MarketQuote;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Подписка сливает изменения по тикеру и сбрасывается только по отставанию,
+ * а не по числу изменений за такт.
+ */
+class QuotePublisherTest {
+
+    private static final int SYMBOLS = 1000;
+
+    @Test
+    void wholeWatchlistChangingEveryTickIsCoalesced() throws InterruptedException {
+        QuotePublisher publisher = new QuotePublisher(Duration.ofSeconds(30), 10, 4);
+        List<String> symbols = symbols();
+        QuoteSubscription sub = publisher.subscribe(1L, symbols);
+
+        for (int tick = 1; tick <= 5; tick++) {
+            publisher.publish(quotes(symbols, tick));
+        }
+
+        List<MarketQuote> batch = sub.poll(1, TimeUnit.SECONDS);
+        assertFalse(sub.isClosed());
+        assertEquals(SYMBOLS, batch.size());
+        assertTrue(batch.stream().allMatch(q -> q.lastPrice().intValue() == 5), "last tick wins");
+        assertEquals(List.of(), sub.poll(10, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void slowConsumerIsDroppedByLag() throws InterruptedException {
+        QuotePublisher publisher = new QuotePublisher(Duration.ofMillis(20), 10, 4);
+        List<String> symbols = symbols();
+        QuoteSubscription slow = publisher.subscribe(1L, symbols);
+        QuoteSubscription fast = publisher.subscribe(2L, symbols);
+
+        publisher.publish(quotes(symbols, 1));
+        assertEquals(SYMBOLS, fast.poll(1, TimeUnit.SECONDS).size());
+
+        Thread.sleep(50);
+        assertEquals(List.of(), fast.poll(0, TimeUnit.MILLISECONDS));
+        publisher.publish(quotes(symbols, 2));
+
+        assertTrue(slow.isClosed());
+        assertTrue(slow.isDropped());
+        assertEquals(List.of(), slow.poll(0, TimeUnit.MILLISECONDS));
+        assertFalse(fast.isClosed());
+        assertEquals(SYMBOLS, fast.poll(1, TimeUnit.SECONDS).size());
+        assertEquals(1, publisher.subscriptionCount());
+    }
+
+    @Test
+    void closeWakesWaitingReader() throws InterruptedException {
+        QuotePublisher publisher = new QuotePublisher(Duration.ofSeconds(30), 10, 4);
+        QuoteSubscription sub = publisher.subscribe(1L, List.of("SBER"));
+
+        Thread closer = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            sub.close();
+        });
+        closer.start();
+
+        long started = System.nanoTime();
+        assertEquals(List.of(), sub.poll(10, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(5));
+        closer.join();
+        assertEquals(0, publisher.subscriptionCount());
+    }
+
+    private static List<String> symbols() {
+        List<String> symbols = new ArrayList<>(SYMBOLS);
+        for (int i = 0; i < SYMBOLS; i++) {
+            symbols.add("S" + i);
+        }
+        return symbols;
+    }
+
+    private static List<MarketQuote> quotes(List<String> symbols, int price) {
+        LocalDateTime now = LocalDateTime.now();
+        return symbols.stream()
+                .map(s -> new MarketQuote(null, s, s, AssetType.STOCK, BigDecimal.valueOf(price),
+                        BigDecimal.ZERO, BigDecimal.ZERO, "RUB", now))
+                .toList();
+    }
+}